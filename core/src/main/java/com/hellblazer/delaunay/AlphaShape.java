@@ -0,0 +1,503 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Geometry.centerSphere;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The alpha shapes of the vertices of a tetrahedralization, for all values of
+ * alpha. The alpha complex of the vertices at alpha is the subcomplex of the
+ * Delaunay tetrahedralization whose simplices have a critical alpha no greater
+ * than alpha. The critical alpha of a tetrahedron is its circumradius. The
+ * critical alpha of a triangle or an edge is the radius of its smallest
+ * circumscribing sphere, if that sphere is empty of the other vertices, and
+ * otherwise the least critical alpha of the triangles or tetrahedra it bounds.
+ * <p>
+ * The critical alphas of all the tetrahedra, triangles and edges are computed
+ * once, in parallel, and held sorted in primitive arrays, so that the alpha
+ * complex and the surface of the alpha shape at any alpha are answered by
+ * binary search without recomputation. Simplices are answered as packed index
+ * buffers of {@link Vertex#getId() vertex ids}. Simplices incident to the
+ * corners of the universe are never part of an alpha complex.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class AlphaShape {
+    /**
+     * The edges critical alphas computed from a block of vertices
+     */
+    private static class Edges {
+        private double[] alphas = new double[64];
+        private int      count;
+        private int[]    ids    = new int[128];
+
+        private void add(int a, int b, double alpha) {
+            if (count == alphas.length) {
+                alphas = Arrays.copyOf(alphas, count * 2);
+                ids = Arrays.copyOf(ids, count * 4);
+            }
+            alphas[count] = alpha;
+            ids[2 * count] = a;
+            ids[2 * count + 1] = b;
+            count++;
+        }
+    }
+
+    /**
+     * The number of tetrahedra or vertices processed in a parallel block
+     */
+    private static final int BLOCK = 1024;
+
+    /**
+     * Compute the critical alphas of the simplices of the tetrahedralization
+     *
+     * @param tetrahedralization - the tetrahedralization
+     * @return the alpha shapes of the vertices
+     */
+    public static AlphaShape compute(Tetrahedralization tetrahedralization) {
+        Tetrahedron[] tetrahedra = tetrahedralization.getTetrahedrons().toArray(new Tetrahedron[0]);
+        int slots = tetrahedralization.tetrahedronSlotCount();
+        int blocks = (tetrahedra.length + BLOCK - 1) / BLOCK;
+
+        // The critical alphas of the tetrahedra, indexed by slot
+        double[] tetrahedronAlphas = new double[slots];
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            double[] center = new double[3];
+            for (int i = block * BLOCK, end = Math.min(i + BLOCK, tetrahedra.length); i < end; i++) {
+                Tetrahedron t = tetrahedra[i];
+                Vertex a = t.getA(), b = t.getB(), c = t.getC(), d = t.getD();
+                if (a.getId() < 0 || b.getId() < 0 || c.getId() < 0 || d.getId() < 0) {
+                    tetrahedronAlphas[t.getSlot()] = Double.POSITIVE_INFINITY;
+                    continue;
+                }
+                centerSphere(a.x, a.y, a.z, b.x, b.y, b.z, c.x, c.y, c.z, d.x, d.y, d.z, center);
+                tetrahedronAlphas[t.getSlot()] = distance(a, center[0], center[1], center[2]);
+            }
+        });
+
+        // The critical alphas of the triangles, indexed by 4 * slot + the ordinal of
+        // the vertex opposite the face in the tetrahedron, recorded from both sides
+        double[] faceAlphas = new double[4 * slots];
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            double[] center = new double[3];
+            for (int i = block * BLOCK, end = Math.min(i + BLOCK, tetrahedra.length); i < end; i++) {
+                Tetrahedron t = tetrahedra[i];
+                for (V o : Tetrahedralization.VERTICES) {
+                    Tetrahedron n = t.getNeighbor(o);
+                    if (n != null && n.getSlot() < t.getSlot()) {
+                        // The face is computed from the neighbor
+                        continue;
+                    }
+                    double alpha = triangleAlpha(t, o, n, tetrahedronAlphas, center);
+                    faceAlphas[4 * t.getSlot() + o.ordinal()] = alpha;
+                    if (n != null) {
+                        faceAlphas[4 * n.getSlot() + n.ordinalOf(t).ordinal()] = alpha;
+                    }
+                }
+            }
+        });
+
+        AlphaShape shape = new AlphaShape();
+        shape.tetrahedra(tetrahedra, tetrahedronAlphas);
+        shape.triangles(tetrahedra, tetrahedronAlphas, faceAlphas);
+        shape.edges(tetrahedralization, faceAlphas);
+        return shape;
+    }
+
+    private static double distance(Vertex v, double x, double y, double z) {
+        double dx = v.x - x, dy = v.y - y, dz = v.z - z;
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Answer the critical alpha of the edge (v, w), with the tetrahedron t
+     * incident to the edge
+     */
+    private static double edgeAlpha(Tetrahedron t, Vertex v, Vertex w, double[] faceAlphas) {
+        double cx = (v.x + w.x) / 2, cy = (v.y + w.y) / 2, cz = (v.z + w.z) / 2;
+        double radius = distance(v, cx, cy, cz);
+        boolean attached = false;
+        double least = Double.POSITIVE_INFINITY;
+        Tetrahedron previous = null;
+        Tetrahedron current = t;
+        // Walk the ring of tetrahedra around the edge
+        do {
+            Tetrahedron next = null;
+            for (V o : Tetrahedralization.VERTICES) {
+                Vertex y = current.getVertex(o);
+                if (y != v && y != w) {
+                    // The face opposite y contains the edge
+                    least = Math.min(least, faceAlphas[4 * current.getSlot() + o.ordinal()]);
+                    if (distance(y, cx, cy, cz) < radius) {
+                        attached = true;
+                    }
+                    Tetrahedron n = current.getNeighbor(o);
+                    if (next == null && n != previous) {
+                        next = n;
+                    }
+                }
+            }
+            previous = current;
+            current = next;
+        } while (current != t);
+        return attached ? least : radius;
+    }
+
+    /**
+     * Answer the order of the indices of the alphas, sorted by increasing alpha.
+     * The bits of non negative doubles order as the doubles do, so the indices
+     * are sorted by a least significant digit radix sort of the bits, a byte per
+     * pass, which is linear however many of the alphas are nearly equal.
+     */
+    private static int[] order(double[] alphas, int count) {
+        long[] keys = new long[count];
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            // Adding zero normalizes -0.0, whose sign bit would order it last
+            keys[i] = Double.doubleToLongBits(alphas[i] + 0.0);
+            order[i] = i;
+        }
+        long[] nextKeys = new long[count];
+        int[] nextOrder = new int[count];
+        int[] counts = new int[256];
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < count; i++) {
+                counts[(int) (keys[i] >>> shift) & 0xFF]++;
+            }
+            if (count == 0 || counts[(int) (keys[0] >>> shift) & 0xFF] == count) {
+                // All the keys share this byte
+                continue;
+            }
+            int total = 0;
+            for (int digit = 0; digit < 256; digit++) {
+                int c = counts[digit];
+                counts[digit] = total;
+                total += c;
+            }
+            for (int i = 0; i < count; i++) {
+                int position = counts[(int) (keys[i] >>> shift) & 0xFF]++;
+                nextKeys[position] = keys[i];
+                nextOrder[position] = order[i];
+            }
+            long[] k = keys;
+            keys = nextKeys;
+            nextKeys = k;
+            int[] o = order;
+            order = nextOrder;
+            nextOrder = o;
+        }
+        return order;
+    }
+
+    /**
+     * Answer the number of the sorted alphas no greater than alpha
+     */
+    private static int rank(double[] sorted, double alpha) {
+        int low = 0, high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] <= alpha) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Answer the critical alpha of the face of t opposite the vertex o, shared
+     * with the neighbor n
+     */
+    private static double triangleAlpha(Tetrahedron t, V o, Tetrahedron n, double[] tetrahedronAlphas,
+                                        double[] center) {
+        Vertex a = null, b = null, c = null;
+        for (V f : Tetrahedralization.VERTICES) {
+            if (f != o) {
+                Vertex x = t.getVertex(f);
+                if (x.getId() < 0) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                if (a == null) {
+                    a = x;
+                } else if (b == null) {
+                    b = x;
+                } else {
+                    c = x;
+                }
+            }
+        }
+        // The center of the circumcircle of the triangle
+        double ux = b.x - a.x, uy = b.y - a.y, uz = b.z - a.z;
+        double wx = c.x - a.x, wy = c.y - a.y, wz = c.z - a.z;
+        double nx = uy * wz - uz * wy, ny = uz * wx - ux * wz, nz = ux * wy - uy * wx;
+        double u2 = ux * ux + uy * uy + uz * uz, w2 = wx * wx + wy * wy + wz * wz;
+        double n2 = 2 * (nx * nx + ny * ny + nz * nz);
+        center[0] = a.x + (u2 * (wy * nz - wz * ny) + w2 * (ny * uz - nz * uy)) / n2;
+        center[1] = a.y + (u2 * (wz * nx - wx * nz) + w2 * (nz * ux - nx * uz)) / n2;
+        center[2] = a.z + (u2 * (wx * ny - wy * nx) + w2 * (nx * uy - ny * ux)) / n2;
+        double radius = distance(a, center[0], center[1], center[2]);
+
+        double least = tetrahedronAlphas[t.getSlot()];
+        boolean attached = distance(t.getVertex(o), center[0], center[1], center[2]) < radius;
+        if (n != null) {
+            least = Math.min(least, tetrahedronAlphas[n.getSlot()]);
+            attached |= distance(n.getVertex(n.ordinalOf(t)), center[0], center[1], center[2]) < radius;
+        }
+        return attached ? least : radius;
+    }
+
+    private double[] edgeAlphas;
+    private int[]    edges;
+    private double[] surfaceLimits;
+    private double[] tetrahedronAlphas;
+    private int[]    tetrahedra;
+    private double[] triangleAlphas;
+    private int[]    triangles;
+
+    private AlphaShape() {
+    }
+
+    /**
+     * Answer the sorted critical alphas of the edges
+     */
+    public double[] getEdgeAlphas() {
+        return edgeAlphas;
+    }
+
+    /**
+     * Answer the edges of the alpha complex
+     *
+     * @param alpha - the alpha
+     * @return the edges, packed as consecutive pairs of vertex ids
+     */
+    public int[] getEdges(double alpha) {
+        return Arrays.copyOf(edges, 2 * rank(edgeAlphas, alpha));
+    }
+
+    /**
+     * Answer the triangles of the surface of the alpha shape: the triangles of
+     * the alpha complex which bound fewer than two tetrahedra of the complex.
+     * The triangles are not consistently oriented.
+     *
+     * @param alpha - the alpha
+     * @return the triangles, packed as consecutive triples of vertex ids
+     */
+    public int[] getSurface(double alpha) {
+        int count = rank(triangleAlphas, alpha);
+        int[] surface = new int[3 * count];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            // Triangles of the convex hull never leave the surface
+            if (alpha < surfaceLimits[i] || surfaceLimits[i] == Double.POSITIVE_INFINITY) {
+                System.arraycopy(triangles, 3 * i, surface, size, 3);
+                size += 3;
+            }
+        }
+        return Arrays.copyOf(surface, size);
+    }
+
+    /**
+     * Answer the tetrahedra of the alpha complex
+     *
+     * @param alpha - the alpha
+     * @return the tetrahedra, packed as consecutive quadruples of vertex ids
+     */
+    public int[] getTetrahedra(double alpha) {
+        return Arrays.copyOf(tetrahedra, 4 * rank(tetrahedronAlphas, alpha));
+    }
+
+    /**
+     * Answer the sorted critical alphas of the tetrahedra
+     */
+    public double[] getTetrahedronAlphas() {
+        return tetrahedronAlphas;
+    }
+
+    /**
+     * Answer the sorted critical alphas of the triangles
+     */
+    public double[] getTriangleAlphas() {
+        return triangleAlphas;
+    }
+
+    /**
+     * Answer the triangles of the alpha complex
+     *
+     * @param alpha - the alpha
+     * @return the triangles, packed as consecutive triples of vertex ids
+     */
+    public int[] getTriangles(double alpha) {
+        return Arrays.copyOf(triangles, 3 * rank(triangleAlphas, alpha));
+    }
+
+    /**
+     * Collect the edges in parallel from the stars of the vertices, each edge from
+     * its vertex of lesser id
+     */
+    private void edges(Tetrahedralization tetrahedralization, double[] faceAlphas) {
+        int count = tetrahedralization.vertexCount();
+        List<Edges> blocks = IntStream.range(0, (count + BLOCK - 1) / BLOCK).parallel().mapToObj(block -> {
+            Edges edges = new Edges();
+            for (int id = block * BLOCK, end = Math.min(id + BLOCK, count); id < end; id++) {
+                Vertex v = tetrahedralization.vertex(id);
+                if (v == null) {
+                    continue;
+                }
+                v.getAdjacent().visitStar(v, (vertex, t, x, y, z) -> {
+                    for (Vertex w : new Vertex[] { x, y, z }) {
+                        // Each edge is visited from every tetrahedron of its ring, and
+                        // recorded from the first in the order of the star
+                        if (w.getId() > v.getId() && firstOfRing(t, v, w)) {
+                            double alpha = edgeAlpha(t, v, w, faceAlphas);
+                            if (alpha < Double.POSITIVE_INFINITY) {
+                                edges.add(v.getId(), w.getId(), alpha);
+                            }
+                        }
+                    }
+                });
+            }
+            return edges;
+        }).collect(Collectors.toList());
+        int total = 0;
+        for (Edges edges : blocks) {
+            total += edges.count;
+        }
+        double[] alphas = new double[total];
+        int[] ids = new int[2 * total];
+        int offset = 0;
+        for (Edges edges : blocks) {
+            System.arraycopy(edges.alphas, 0, alphas, offset, edges.count);
+            System.arraycopy(edges.ids, 0, ids, 2 * offset, 2 * edges.count);
+            offset += edges.count;
+        }
+        int[] order = order(alphas, total);
+        edgeAlphas = new double[total];
+        edges = new int[2 * total];
+        for (int i = 0; i < total; i++) {
+            edgeAlphas[i] = alphas[order[i]];
+            edges[2 * i] = ids[2 * order[i]];
+            edges[2 * i + 1] = ids[2 * order[i] + 1];
+        }
+    }
+
+    /**
+     * Answer true if t has the least slot of the ring of tetrahedra around the
+     * edge (v, w)
+     */
+    private boolean firstOfRing(Tetrahedron t, Vertex v, Vertex w) {
+        Tetrahedron previous = null;
+        Tetrahedron current = t;
+        do {
+            if (current.getSlot() < t.getSlot()) {
+                return false;
+            }
+            Tetrahedron next = null;
+            for (V o : Tetrahedralization.VERTICES) {
+                Vertex y = current.getVertex(o);
+                if (y != v && y != w) {
+                    Tetrahedron n = current.getNeighbor(o);
+                    if (n != previous) {
+                        next = n;
+                        break;
+                    }
+                }
+            }
+            previous = current;
+            current = next;
+        } while (current != t);
+        return true;
+    }
+
+    private void tetrahedra(Tetrahedron[] all, double[] alphas) {
+        double[] finite = new double[all.length];
+        Tetrahedron[] candidates = new Tetrahedron[all.length];
+        int count = 0;
+        for (Tetrahedron t : all) {
+            double alpha = alphas[t.getSlot()];
+            if (alpha < Double.POSITIVE_INFINITY) {
+                finite[count] = alpha;
+                candidates[count++] = t;
+            }
+        }
+        int[] order = order(finite, count);
+        tetrahedronAlphas = new double[count];
+        tetrahedra = new int[4 * count];
+        for (int i = 0; i < count; i++) {
+            Tetrahedron t = candidates[order[i]];
+            tetrahedronAlphas[i] = finite[order[i]];
+            tetrahedra[4 * i] = t.getA().getId();
+            tetrahedra[4 * i + 1] = t.getB().getId();
+            tetrahedra[4 * i + 2] = t.getC().getId();
+            tetrahedra[4 * i + 3] = t.getD().getId();
+        }
+    }
+
+    private void triangles(Tetrahedron[] all, double[] tetrahedronAlphas, double[] faceAlphas) {
+        double[] alphas = new double[2 * all.length + 2];
+        double[] limits = new double[alphas.length];
+        int[] ids = new int[3 * alphas.length];
+        int count = 0;
+        for (Tetrahedron t : all) {
+            for (V o : Tetrahedralization.VERTICES) {
+                Tetrahedron n = t.getNeighbor(o);
+                double alpha = faceAlphas[4 * t.getSlot() + o.ordinal()];
+                if ((n != null && n.getSlot() < t.getSlot()) || alpha == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                if (count == alphas.length) {
+                    alphas = Arrays.copyOf(alphas, count * 2);
+                    limits = Arrays.copyOf(limits, count * 2);
+                    ids = Arrays.copyOf(ids, count * 6);
+                }
+                alphas[count] = alpha;
+                // The triangle leaves the surface once both its tetrahedra are in the
+                // complex
+                limits[count] = Math.max(tetrahedronAlphas[t.getSlot()],
+                                         n == null ? Double.POSITIVE_INFINITY : tetrahedronAlphas[n.getSlot()]);
+                int k = 0;
+                for (V f : Tetrahedralization.VERTICES) {
+                    if (f != o) {
+                        ids[3 * count + k++] = t.getVertex(f).getId();
+                    }
+                }
+                count++;
+            }
+        }
+        int[] order = order(alphas, count);
+        triangleAlphas = new double[count];
+        surfaceLimits = new double[count];
+        triangles = new int[3 * count];
+        for (int i = 0; i < count; i++) {
+            int j = order[i];
+            triangleAlphas[i] = alphas[j];
+            surfaceLimits[i] = limits[j];
+            System.arraycopy(ids, 3 * j, triangles, 3 * i, 3);
+        }
+    }
+}
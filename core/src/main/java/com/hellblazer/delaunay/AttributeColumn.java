@@ -0,0 +1,60 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+/**
+ * A column of attribute values stored in a primitive array, indexed either by
+ * the {@link Vertex#getId() id} of a vertex or the {@link Tetrahedron#getSlot()
+ * slot} of a tetrahedron. Columns are registered with a
+ * {@link Tetrahedralization}, which resets the value of an index to the default
+ * value of the column when the vertex or tetrahedron holding the index is
+ * deleted, so that recycled indices never expose stale values. The backing
+ * array grows on demand.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public abstract class AttributeColumn {
+    /**
+     * The initial capacity of a column
+     */
+    static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Answer the capacity required to hold the index
+     */
+    static int grow(int capacity, int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Negative index: " + index);
+        }
+        return Math.max(index + 1, capacity * 2);
+    }
+
+    /**
+     * Answer the number of values the column can hold without growing
+     */
+    public abstract int capacity();
+
+    /**
+     * Reset the value at the index to the default value of the column
+     */
+    abstract void reset(int index);
+}
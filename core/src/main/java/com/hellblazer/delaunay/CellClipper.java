@@ -0,0 +1,429 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.vecmath.Point3d;
+import javax.vecmath.Tuple3d;
+
+/**
+ * A convex polyhedron clipped by half spaces. The polyhedron is held as its
+ * face polygons, packed into primitive arrays, with the plane of each face.
+ * Clipping by a half space clips each face polygon and closes the polyhedron
+ * with the polygon of the points where the faces cross the clipping plane, so
+ * the polyhedron always remains closed. Instances are scratch state, reused
+ * across clippings without allocation.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+class CellClipper {
+    private double[] angles        = new double[32];
+    private double[] cap           = new double[96];
+    private int      capCount;
+    private int      faceCount;
+    private int[]    facePlane     = new int[32];
+    private int[]    faceSize      = new int[32];
+    private int[]    faceStart     = new int[32];
+    private int      nextFaceCount;
+    private int[]    nextFacePlane = new int[32];
+    private int[]    nextFaceSize  = new int[32];
+    private int[]    nextFaceStart = new int[32];
+    private int      nextPointCount;
+    private double[] nextPoints    = new double[384];
+    private int[]    order         = new int[32];
+    private int      planeCount;
+    private double[] planes        = new double[128];
+    private int      pointCount;
+    private double[] points        = new double[384];
+
+    /**
+     * Clip the polyhedron by the half space a x + b y + c z <= d
+     *
+     * @return false if the clipped polyhedron is empty
+     */
+    boolean clip(double a, double b, double c, double d) {
+        double length = Math.sqrt(a * a + b * b + c * c);
+        a /= length;
+        b /= length;
+        c /= length;
+        d /= length;
+        boolean inside = false;
+        boolean outside = false;
+        for (int i = 0; i < pointCount; i++) {
+            if (a * points[3 * i] + b * points[3 * i + 1] + c * points[3 * i + 2] > d) {
+                outside = true;
+            } else {
+                inside = true;
+            }
+        }
+        if (!outside) {
+            return faceCount > 0;
+        }
+        if (!inside) {
+            faceCount = 0;
+            pointCount = 0;
+            return false;
+        }
+
+        int plane = addPlane(a, b, c, d);
+        nextFaceCount = 0;
+        nextPointCount = 0;
+        capCount = 0;
+        for (int f = 0; f < faceCount; f++) {
+            int begin = faceStart[f];
+            int size = faceSize[f];
+            int start = nextPointCount;
+            for (int k = 0; k < size; k++) {
+                int p = 3 * (begin + k);
+                int q = 3 * (begin + (k + 1) % size);
+                double sp = a * points[p] + b * points[p + 1] + c * points[p + 2] - d;
+                double sq = a * points[q] + b * points[q + 1] + c * points[q + 2] - d;
+                if (sp <= 0) {
+                    emit(start, points[p], points[p + 1], points[p + 2]);
+                }
+                if ((sp <= 0) != (sq <= 0)) {
+                    double t = sp / (sp - sq);
+                    double x = points[p] + (points[q] - points[p]) * t;
+                    double y = points[p + 1] + (points[q + 1] - points[p + 1]) * t;
+                    double z = points[p + 2] + (points[q + 2] - points[p + 2]) * t;
+                    emit(start, x, y, z);
+                    addCap(x, y, z);
+                }
+            }
+            closeFace(start, facePlane[f]);
+        }
+        if (capCount >= 3) {
+            addCapFace(plane);
+        }
+
+        int[] swap = faceStart;
+        faceStart = nextFaceStart;
+        nextFaceStart = swap;
+        swap = faceSize;
+        faceSize = nextFaceSize;
+        nextFaceSize = swap;
+        swap = facePlane;
+        facePlane = nextFacePlane;
+        nextFacePlane = swap;
+        double[] swapPoints = points;
+        points = nextPoints;
+        nextPoints = swapPoints;
+        faceCount = nextFaceCount;
+        pointCount = nextPointCount;
+        return faceCount > 0;
+    }
+
+    /**
+     * Answer the faces of the polyhedron
+     */
+    List<Tuple3d[]> faces() {
+        List<Tuple3d[]> faces = new ArrayList<>(faceCount);
+        for (int f = 0; f < faceCount; f++) {
+            Tuple3d[] face = new Tuple3d[faceSize[f]];
+            for (int k = 0; k < face.length; k++) {
+                int p = 3 * (faceStart[f] + k);
+                face[k] = new Point3d(points[p], points[p + 1], points[p + 2]);
+            }
+            faces.add(face);
+        }
+        return faces;
+    }
+
+    /**
+     * Answer the bounds of the points of the polyhedron
+     *
+     * @param bounds - receives the minimum x, y, z and maximum x, y, z
+     */
+    void getBounds(double[] bounds) {
+        Arrays.fill(bounds, 0, 3, Double.POSITIVE_INFINITY);
+        Arrays.fill(bounds, 3, 6, Double.NEGATIVE_INFINITY);
+        for (int i = 0; i < pointCount; i++) {
+            for (int j = 0; j < 3; j++) {
+                bounds[j] = Math.min(bounds[j], points[3 * i + j]);
+                bounds[j + 3] = Math.max(bounds[j + 3], points[3 * i + j]);
+            }
+        }
+    }
+
+    /**
+     * Answer the lowest index of the planes of the faces of the polyhedron
+     */
+    int getLowestPlane() {
+        int lowest = Integer.MAX_VALUE;
+        for (int f = 0; f < faceCount; f++) {
+            lowest = Math.min(lowest, facePlane[f]);
+        }
+        return lowest;
+    }
+
+    boolean isEmpty() {
+        return faceCount == 0;
+    }
+
+    /**
+     * Measure the polyhedron as the pyramids over its faces with their apex at
+     * the point. The heights of the pyramids are signed, so the apex need not lie
+     * within the polyhedron.
+     *
+     * @param apex   - the apex of the pyramids
+     * @param result - receives the volume, surface area and the x, y, z of the
+     *               centroid
+     */
+    void measure(Tuple3d apex, double[] result) {
+        double volume = 0, area = 0, cx = 0, cy = 0, cz = 0;
+        for (int f = 0; f < faceCount; f++) {
+            int plane = 4 * facePlane[f];
+            double nx = planes[plane], ny = planes[plane + 1], nz = planes[plane + 2];
+            int p0 = 3 * faceStart[f];
+            double x0 = points[p0], y0 = points[p0 + 1], z0 = points[p0 + 2];
+            double twiceArea = 0, fx = 0, fy = 0, fz = 0;
+            for (int k = 1; k < faceSize[f] - 1; k++) {
+                int p1 = p0 + 3 * k;
+                double x1 = points[p1], y1 = points[p1 + 1], z1 = points[p1 + 2];
+                double x2 = points[p1 + 3], y2 = points[p1 + 4], z2 = points[p1 + 5];
+                double ux = x1 - x0, uy = y1 - y0, uz = z1 - z0;
+                double wx = x2 - x0, wy = y2 - y0, wz = z2 - z0;
+                double w = (uy * wz - uz * wy) * nx + (uz * wx - ux * wz) * ny + (ux * wy - uy * wx) * nz;
+                twiceArea += w;
+                fx += w * (x0 + x1 + x2);
+                fy += w * (y0 + y1 + y2);
+                fz += w * (z0 + z1 + z2);
+            }
+            if (twiceArea == 0) {
+                continue;
+            }
+            double faceArea = Math.abs(twiceArea) / 2;
+            double height = planes[plane + 3] - (nx * apex.x + ny * apex.y + nz * apex.z);
+            double pyramid = faceArea * height / 3;
+            area += faceArea;
+            volume += pyramid;
+            cx += pyramid * (apex.x + 3 * fx / (3 * twiceArea)) / 4;
+            cy += pyramid * (apex.y + 3 * fy / (3 * twiceArea)) / 4;
+            cz += pyramid * (apex.z + 3 * fz / (3 * twiceArea)) / 4;
+        }
+        result[0] = volume;
+        result[1] = area;
+        result[2] = cx / volume;
+        result[3] = cy / volume;
+        result[4] = cz / volume;
+    }
+
+    /**
+     * Reset the polyhedron to the axis aligned box
+     */
+    void reset(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        planeCount = 0;
+        faceCount = 0;
+        pointCount = 0;
+        // Each face is wound counterclockwise seen from outside of the box
+        addBoxFace(addPlane(-1, 0, 0, -minX), minX, minY, minZ, minX, minY, maxZ, minX, maxY, maxZ, minX, maxY,
+                   minZ);
+        addBoxFace(addPlane(1, 0, 0, maxX), maxX, minY, minZ, maxX, maxY, minZ, maxX, maxY, maxZ, maxX, minY, maxZ);
+        addBoxFace(addPlane(0, -1, 0, -minY), minX, minY, minZ, maxX, minY, minZ, maxX, minY, maxZ, minX, minY,
+                   maxZ);
+        addBoxFace(addPlane(0, 1, 0, maxY), minX, maxY, minZ, minX, maxY, maxZ, maxX, maxY, maxZ, maxX, maxY, minZ);
+        addBoxFace(addPlane(0, 0, -1, -minZ), minX, minY, minZ, minX, maxY, minZ, maxX, maxY, minZ, maxX, minY,
+                   minZ);
+        addBoxFace(addPlane(0, 0, 1, maxZ), minX, minY, maxZ, maxX, minY, maxZ, maxX, maxY, maxZ, minX, maxY, maxZ);
+    }
+
+    /**
+     * Reset the polyhedron to the shape of the other
+     */
+    void set(CellClipper other) {
+        faceCount = other.faceCount;
+        pointCount = other.pointCount;
+        planeCount = other.planeCount;
+        if (facePlane.length < faceCount) {
+            facePlane = new int[other.facePlane.length];
+            faceSize = new int[other.facePlane.length];
+            faceStart = new int[other.facePlane.length];
+        }
+        System.arraycopy(other.facePlane, 0, facePlane, 0, faceCount);
+        System.arraycopy(other.faceSize, 0, faceSize, 0, faceCount);
+        System.arraycopy(other.faceStart, 0, faceStart, 0, faceCount);
+        if (points.length < 3 * pointCount) {
+            points = new double[other.points.length];
+        }
+        System.arraycopy(other.points, 0, points, 0, 3 * pointCount);
+        if (planes.length < 4 * planeCount) {
+            planes = new double[other.planes.length];
+        }
+        System.arraycopy(other.planes, 0, planes, 0, 4 * planeCount);
+    }
+
+    private void addBoxFace(int plane, double... xyz) {
+        int start = pointCount;
+        for (int i = 0; i < xyz.length; i += 3) {
+            points[3 * pointCount] = xyz[i];
+            points[3 * pointCount + 1] = xyz[i + 1];
+            points[3 * pointCount + 2] = xyz[i + 2];
+            pointCount++;
+        }
+        faceStart[faceCount] = start;
+        faceSize[faceCount] = pointCount - start;
+        facePlane[faceCount++] = plane;
+    }
+
+    /**
+     * Add the point to the cap, unless it coincides with a point of the cap. Each
+     * point of the cap is crossed by the two faces sharing its edge.
+     */
+    private void addCap(double x, double y, double z) {
+        double tolerance = 1e-12 * (Math.abs(x) + Math.abs(y) + Math.abs(z) + 1);
+        for (int i = 0; i < capCount; i++) {
+            if (Math.abs(cap[3 * i] - x) + Math.abs(cap[3 * i + 1] - y) + Math.abs(cap[3 * i + 2] - z) <= tolerance) {
+                return;
+            }
+        }
+        if (3 * capCount + 3 > cap.length) {
+            cap = Arrays.copyOf(cap, cap.length * 2);
+        }
+        cap[3 * capCount] = x;
+        cap[3 * capCount + 1] = y;
+        cap[3 * capCount + 2] = z;
+        capCount++;
+    }
+
+    /**
+     * Close the polyhedron with the face of the cap points, ordered
+     * counterclockwise about the normal of the plane
+     */
+    private void addCapFace(int plane) {
+        double nx = planes[4 * plane], ny = planes[4 * plane + 1], nz = planes[4 * plane + 2];
+        double cx = 0, cy = 0, cz = 0;
+        for (int i = 0; i < capCount; i++) {
+            cx += cap[3 * i];
+            cy += cap[3 * i + 1];
+            cz += cap[3 * i + 2];
+        }
+        cx /= capCount;
+        cy /= capCount;
+        cz /= capCount;
+        // An orthonormal basis of the plane
+        double ux, uy, uz;
+        if (Math.abs(nx) < 0.9) {
+            ux = 0;
+            uy = nz;
+            uz = -ny;
+        } else {
+            ux = -nz;
+            uy = 0;
+            uz = nx;
+        }
+        double length = Math.sqrt(ux * ux + uy * uy + uz * uz);
+        ux /= length;
+        uy /= length;
+        uz /= length;
+        double wx = ny * uz - nz * uy, wy = nz * ux - nx * uz, wz = nx * uy - ny * ux;
+
+        if (angles.length < capCount) {
+            angles = new double[capCount * 2];
+            order = new int[capCount * 2];
+        }
+        for (int i = 0; i < capCount; i++) {
+            double dx = cap[3 * i] - cx, dy = cap[3 * i + 1] - cy, dz = cap[3 * i + 2] - cz;
+            angles[i] = Math.atan2(dx * wx + dy * wy + dz * wz, dx * ux + dy * uy + dz * uz);
+            order[i] = i;
+        }
+        // Insertion sort, the caps are small
+        for (int i = 1; i < capCount; i++) {
+            int index = order[i];
+            double angle = angles[index];
+            int j = i - 1;
+            while (j >= 0 && angles[order[j]] > angle) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = index;
+        }
+        int start = nextPointCount;
+        for (int i = 0; i < capCount; i++) {
+            int p = 3 * order[i];
+            emit(start, cap[p], cap[p + 1], cap[p + 2]);
+        }
+        closeFace(start, plane);
+    }
+
+    private int addPlane(double a, double b, double c, double d) {
+        if (4 * planeCount + 4 > planes.length) {
+            planes = Arrays.copyOf(planes, planes.length * 2);
+        }
+        planes[4 * planeCount] = a;
+        planes[4 * planeCount + 1] = b;
+        planes[4 * planeCount + 2] = c;
+        planes[4 * planeCount + 3] = d;
+        return planeCount++;
+    }
+
+    /**
+     * Record the points emitted since the start as a face of the next polyhedron,
+     * if they form a polygon
+     */
+    private void closeFace(int start, int plane) {
+        int size = nextPointCount - start;
+        if (size > 1 && samePoint(3 * start, 3 * (nextPointCount - 1))) {
+            size--;
+            nextPointCount--;
+        }
+        if (size < 3) {
+            nextPointCount = start;
+            return;
+        }
+        if (nextFaceCount == nextFaceStart.length) {
+            nextFaceStart = Arrays.copyOf(nextFaceStart, nextFaceCount * 2);
+            nextFaceSize = Arrays.copyOf(nextFaceSize, nextFaceCount * 2);
+            nextFacePlane = Arrays.copyOf(nextFacePlane, nextFaceCount * 2);
+        }
+        nextFaceStart[nextFaceCount] = start;
+        nextFaceSize[nextFaceCount] = size;
+        nextFacePlane[nextFaceCount++] = plane;
+    }
+
+    /**
+     * Emit the point to the face of the next polyhedron begun at the start,
+     * unless it repeats the previous point of the face
+     */
+    private void emit(int start, double x, double y, double z) {
+        if (nextPointCount > start) {
+            int last = 3 * (nextPointCount - 1);
+            if (nextPoints[last] == x && nextPoints[last + 1] == y && nextPoints[last + 2] == z) {
+                return;
+            }
+        }
+        if (3 * nextPointCount + 3 > nextPoints.length) {
+            nextPoints = Arrays.copyOf(nextPoints, nextPoints.length * 2);
+        }
+        nextPoints[3 * nextPointCount] = x;
+        nextPoints[3 * nextPointCount + 1] = y;
+        nextPoints[3 * nextPointCount + 2] = z;
+        nextPointCount++;
+    }
+
+    private boolean samePoint(int p, int q) {
+        return nextPoints[p] == nextPoints[q] && nextPoints[p + 1] == nextPoints[q + 1] &&
+               nextPoints[p + 2] == nextPoints[q + 2];
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import java.util.List;
+
+import javax.vecmath.Tuple3d;
+
+/**
+ * A bounded convex domain, the intersection of half spaces, to which Voronoi
+ * cells are clipped. Clipped cells are closed and bounded: the cells of the
+ * vertices of the convex hull, which otherwise run out to the circumcenters of
+ * the tetrahedra incident to the corners of the universe, are capped by the
+ * faces of the domain. A cell is clipped by cutting the domain with the
+ * bisecting half space of each Delaunay neighbor of its vertex.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class ConvexDomain {
+    /**
+     * The extent of the box first clipped by the half spaces of a domain
+     */
+    private static final double EXTENT = Math.pow(2D, 40D);
+
+    /**
+     * Answer the domain of the axis aligned box
+     *
+     * @param min - the minimum corner of the box
+     * @param max - the maximum corner of the box
+     * @return the domain
+     */
+    public static ConvexDomain box(Tuple3d min, Tuple3d max) {
+        if (!(min.x < max.x && min.y < max.y && min.z < max.z)) {
+            throw new IllegalArgumentException("Empty box: " + min + ", " + max);
+        }
+        CellClipper shape = new CellClipper();
+        shape.reset(min.x, min.y, min.z, max.x, max.y, max.z);
+        return new ConvexDomain(new double[] { -1, 0, 0, -min.x, 1, 0, 0, max.x, 0, -1, 0, -min.y, 0, 1, 0, max.y, 0,
+                                               0, -1, -min.z, 0, 0, 1, max.z },
+                                shape);
+    }
+
+    /**
+     * Answer the convex polyhedron bounded by the half spaces a x + b y + c z <=
+     * d
+     *
+     * @param halfSpaces - the half spaces, packed as consecutive {a, b, c, d}
+     * @return the domain
+     * @throws IllegalArgumentException if the half spaces do not bound a non
+     *                                  empty domain
+     */
+    public static ConvexDomain of(double... halfSpaces) {
+        if (halfSpaces.length == 0 || halfSpaces.length % 4 != 0) {
+            throw new IllegalArgumentException("Half spaces must be packed as {a, b, c, d}");
+        }
+        CellClipper shape = new CellClipper();
+        shape.reset(-EXTENT, -EXTENT, -EXTENT, EXTENT, EXTENT, EXTENT);
+        clip(shape, halfSpaces);
+        if (shape.getLowestPlane() < 6) {
+            throw new IllegalArgumentException("Unbounded domain");
+        }
+        // Clip again from a box close to the domain, for accuracy
+        double[] bounds = new double[6];
+        shape.getBounds(bounds);
+        double margin = Math.max(Math.max(bounds[3] - bounds[0], bounds[4] - bounds[1]), bounds[5] - bounds[2]);
+        shape.reset(bounds[0] - margin, bounds[1] - margin, bounds[2] - margin, bounds[3] + margin, bounds[4] + margin,
+                    bounds[5] + margin);
+        clip(shape, halfSpaces);
+        return new ConvexDomain(halfSpaces.clone(), shape);
+    }
+
+    /**
+     * Clip the region to the half space of the points closer to v than to x
+     *
+     * @return false if the region is empty
+     */
+    static boolean clipBisector(Vertex v, Vertex x, CellClipper clipper) {
+        double a = x.x - v.x, b = x.y - v.y, c = x.z - v.z;
+        return clipper.clip(a, b, c, (a * (x.x + v.x) + b * (x.y + v.y) + c * (x.z + v.z)) / 2);
+    }
+
+    private static void clip(CellClipper shape, double[] halfSpaces) {
+        for (int i = 0; i < halfSpaces.length; i += 4) {
+            if (!shape.clip(halfSpaces[i], halfSpaces[i + 1], halfSpaces[i + 2], halfSpaces[i + 3])) {
+                throw new IllegalArgumentException("Empty domain");
+            }
+        }
+    }
+
+    private final double[]    halfSpaces;
+    private final CellClipper shape;
+
+    private ConvexDomain(double[] halfSpaces, CellClipper shape) {
+        this.halfSpaces = halfSpaces;
+        this.shape = shape;
+    }
+
+    /**
+     * Answer true if the point lies within the domain
+     */
+    public boolean contains(Tuple3d p) {
+        for (int i = 0; i < halfSpaces.length; i += 4) {
+            if (halfSpaces[i] * p.x + halfSpaces[i + 1] * p.y + halfSpaces[i + 2] * p.z > halfSpaces[i + 3]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Answer the faces of the domain
+     */
+    public List<Tuple3d[]> getFaces() {
+        return shape.faces();
+    }
+
+    /**
+     * Answer the faces of the Voronoi region of the vertex clipped to the domain
+     *
+     * @param v - the vertex
+     * @return the faces of the closed, clipped region, empty if the region does
+     *         not intersect the domain
+     */
+    public List<Tuple3d[]> getRegion(Vertex v) {
+        CellClipper clipper = new CellClipper();
+        clipper.set(shape);
+        for (Vertex x : v.getNeighbors()) {
+            if (!clipBisector(v, x, clipper)) {
+                break;
+            }
+        }
+        return clipper.faces();
+    }
+
+    /**
+     * Answer the polyhedron of the domain
+     */
+    CellClipper getShape() {
+        return shape;
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+/**
+ * The convex hull of the vertices of a tetrahedralization, as index buffers of
+ * {@link Vertex#getId() vertex ids}.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class ConvexHull {
+    private final int[] triangles;
+    private final int[] vertices;
+
+    ConvexHull(int[] triangles, int[] vertices) {
+        this.triangles = triangles;
+        this.vertices = vertices;
+    }
+
+    /**
+     * Answer the number of triangles of the hull
+     */
+    public int getTriangleCount() {
+        return triangles.length / 3;
+    }
+
+    /**
+     * Answer the triangles of the hull, packed as consecutive triples of vertex
+     * ids. The triangles are wound counterclockwise when seen from outside of the
+     * hull.
+     */
+    public int[] getTriangles() {
+        return triangles;
+    }
+
+    /**
+     * Answer the ids of the vertices of the hull, in increasing order
+     */
+    public int[] getVertices() {
+        return vertices;
+    }
+}
@@ -17,65 +17,49 @@
 
 package com.hellblazer.delaunay;
 
-import java.util.LinkedList;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
+ * Collects the interior faces of the star of a vertex, i.e. the faces of the
+ * tetrahedra of the star that contain the vertex, each once. Each such face is
+ * shared by two tetrahedra of the star; it is collected only when visiting the
+ * tetrahedron with the lesser slot, so the star is collected in a single pass
+ * without tracking the visited faces. The tetrahedra must have been assigned
+ * their slots by a tetrahedralization.
+ *
  * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
  *
  */
 public class EarSet implements StarVisitor {
-    private static class Ear {
-        final OrientedFace face;
-        final int          hashcode;
-
-        Ear(OrientedFace face) {
-            this.face = face;
-            int hash = 0;
-            for (Vertex v : face) {
-                hash ^= v.hashCode();
-            }
-            hashcode = hash;
-        }
+    private final List<OrientedFace> ears = new ArrayList<>();
 
-        @Override
-        public boolean equals(Object obj) {
-            if (obj instanceof Ear) {
-                Ear ear = (Ear) obj;
-                if ((face.getIncident() == ear.face.getIncident() && face.getAdjacent() == ear.face.getAdjacent()) ||
-                    (face.getAdjacent() == ear.face.getIncident() && face.getIncident() == ear.face.getAdjacent())) {
-                    return true;
-                }
-            }
-            return false;
-        }
-
-        @Override
-        public int hashCode() {
-            return hashcode;
-        }
-    }
-
-    private LinkedList<OrientedFace> ears    = new LinkedList<>();
-    private Set<Ear>                 visited = new OaHashSet<>();
-
-    public LinkedList<OrientedFace> getEars() {
+    public List<OrientedFace> getEars() {
         return ears;
     }
 
     @Override
     public void visit(V vertex, Tetrahedron t, Vertex x, Vertex y, Vertex z) {
-        OrientedFace face = t.getFace(z);
-        if (visited.add(new Ear(face))) {
-            ears.add(face);
+        collect(t, z);
+        collect(t, x);
+        collect(t, y);
+    }
+
+    /**
+     * Collect the face of the tetrahedron opposite the vertex if the tetrahedron
+     * has the lesser slot of the two sharing the face
+     */
+    private void collect(Tetrahedron t, Vertex opposite) {
+        if (t.getSlot() < 0) {
+            throw new IllegalStateException("Tetrahedron without a slot: " + t);
         }
-        face = t.getFace(x);
-        if (visited.add(new Ear(face))) {
-            ears.add(face);
+        V ordinal = t.ordinalOf(opposite);
+        Tetrahedron neighbor = t.getNeighbor(ordinal);
+        if (neighbor != null && neighbor.getSlot() < 0) {
+            throw new IllegalStateException("Tetrahedron without a slot: " + neighbor);
         }
-        face = t.getFace(y);
-        if (visited.add(new Ear(face))) {
-            ears.add(face);
+        if (neighbor == null || t.getSlot() < neighbor.getSlot()) {
+            ears.add(t.getFace(ordinal));
         }
     }
 }
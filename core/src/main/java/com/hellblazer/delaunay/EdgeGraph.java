@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * The Delaunay edge graph of the vertices of a tetrahedralization, in
+ * compressed sparse row form. The neighbors of the vertex with id i are the
+ * ids neighbors[offsets[i]] through neighbors[offsets[i + 1] - 1], in
+ * increasing order. Ids not in use have no neighbors. The corners of the
+ * universe are not part of the graph.
+ * <p>
+ * The graph is computed in two parallel passes over the vertex ids, the first
+ * counting the degree of each vertex and the second filling its row, with the
+ * stars of the vertices collected into per thread scratch rather than
+ * collections per vertex.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public final class EdgeGraph {
+    /**
+     * The scratch state of the neighbor collection of a thread
+     */
+    private static class Neighborhood {
+        private int[]         neighbors = new int[32];
+        private int           size;
+        private Tetrahedron[] star      = new Tetrahedron[64];
+
+        /**
+         * Collect the ids of the neighbors of the vertex, other than the corners of
+         * the universe
+         */
+        private void collect(Vertex v) {
+            size = 0;
+            int starSize = 0;
+            star[starSize++] = v.getAdjacent();
+            for (int i = 0; i < starSize; i++) {
+                Tetrahedron t = star[i];
+                for (V o : Tetrahedralization.VERTICES) {
+                    Vertex x = t.getVertex(o);
+                    if (x == v) {
+                        continue;
+                    }
+                    add(x.getId());
+                    Tetrahedron n = t.getNeighbor(o);
+                    if (n != null && !contains(n, starSize)) {
+                        if (starSize == star.length) {
+                            star = Arrays.copyOf(star, starSize * 2);
+                        }
+                        star[starSize++] = n;
+                    }
+                }
+            }
+        }
+
+        private void add(int id) {
+            if (id < 0) {
+                return;
+            }
+            for (int i = 0; i < size; i++) {
+                if (neighbors[i] == id) {
+                    return;
+                }
+            }
+            if (size == neighbors.length) {
+                neighbors = Arrays.copyOf(neighbors, size * 2);
+            }
+            neighbors[size++] = id;
+        }
+
+        private boolean contains(Tetrahedron t, int starSize) {
+            for (int i = 0; i < starSize; i++) {
+                if (star[i] == t) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The number of vertices computed in a parallel block
+     */
+    private static final int BLOCK = 1024;
+
+    /**
+     * Compute the Delaunay edge graph of the vertices of the tetrahedralization
+     *
+     * @param tetrahedralization - the tetrahedralization
+     * @return the edge graph, indexed by vertex id
+     */
+    public static EdgeGraph compute(Tetrahedralization tetrahedralization) {
+        int count = tetrahedralization.vertexCount();
+        int blocks = (count + BLOCK - 1) / BLOCK;
+        ThreadLocal<Neighborhood> scratch = ThreadLocal.withInitial(Neighborhood::new);
+
+        int[] offsets = new int[count + 1];
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            Neighborhood neighborhood = scratch.get();
+            for (int id = block * BLOCK, end = Math.min(id + BLOCK, count); id < end; id++) {
+                Vertex v = tetrahedralization.vertex(id);
+                if (v != null) {
+                    neighborhood.collect(v);
+                    offsets[id + 1] = neighborhood.size;
+                }
+            }
+        });
+        for (int id = 0; id < count; id++) {
+            offsets[id + 1] += offsets[id];
+        }
+
+        int[] neighbors = new int[offsets[count]];
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            Neighborhood neighborhood = scratch.get();
+            for (int id = block * BLOCK, end = Math.min(id + BLOCK, count); id < end; id++) {
+                Vertex v = tetrahedralization.vertex(id);
+                if (v != null) {
+                    neighborhood.collect(v);
+                    System.arraycopy(neighborhood.neighbors, 0, neighbors, offsets[id], neighborhood.size);
+                    Arrays.sort(neighbors, offsets[id], offsets[id + 1]);
+                }
+            }
+        });
+        return new EdgeGraph(offsets, neighbors);
+    }
+
+    private final int[] neighbors;
+    private final int[] offsets;
+
+    private EdgeGraph(int[] offsets, int[] neighbors) {
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+    }
+
+    /**
+     * Answer the number of neighbors of the vertex id
+     */
+    public int getDegree(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * Answer the number of edges of the graph
+     */
+    public int getEdgeCount() {
+        return neighbors.length / 2;
+    }
+
+    /**
+     * Answer the neighbor ids of all the vertices, row by row
+     */
+    public int[] getNeighbors() {
+        return neighbors;
+    }
+
+    /**
+     * Answer the offsets of the rows of the vertices in the neighbors, of length
+     * one more than the extent of the vertex ids
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Answer the extent of the vertex ids of the graph
+     */
+    public int getVertexCount() {
+        return offsets.length - 1;
+    }
+}
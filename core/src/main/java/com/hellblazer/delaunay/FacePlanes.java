@@ -0,0 +1,212 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import java.io.Closeable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.vecmath.Tuple3d;
+
+/**
+ * A cache of the plane equations of the faces of the tetrahedra, indexed by
+ * {@link Tetrahedron#getSlot() tetrahedron slot}. The orientation of a query
+ * with respect to a face is the determinant of the face vertices and the query,
+ * which is an affine function of the query: n . (p - q), where p is a vertex of
+ * the face and n the normal of the face. Once the normal is cached, evaluating
+ * the orientation costs a subtraction and a dot product rather than the
+ * determinant. The error of the cached evaluation is bounded by the permanent
+ * of the normal, and only the evaluations within the bound fall back to the
+ * exact {@link Geometry#leftOfPlane} predicate, so the results are identical to
+ * {@link Tetrahedron#orientationWrt(V, Tuple3d)}.
+ * <p>
+ * The planes of a tetrahedron are computed lazily on first use. The cache
+ * listens to the flips of the tetrahedralization, invalidating the slots of the
+ * created tetrahedra, and to its moves, invalidating the star of a vertex moved
+ * in place. Each tetrahedron costs 30 doubles of cache, which is worthwhile for
+ * query heavy phases on a mesh that changes rarely. The planes may be computed
+ * by concurrent readers, but not concurrently with updates of the
+ * tetrahedralization. The cache must be {@link #close() closed} to detach it
+ * from the tetrahedralization.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public final class FacePlanes implements FlipListener, TetrahedralizationListener, Closeable {
+    /**
+     * The relative error bound of the cached evaluation: 4 epsilon for the
+     * normal, 1 for the difference from the query and 3 for the dot product,
+     * with the remainder covering the higher order terms and the rounding of the
+     * bound itself
+     */
+    private static final double    ERRBOUND = 10.0 * Geometry.EPSILON;
+    /**
+     * The number of doubles cached for each tetrahedron: the coordinates of D,
+     * the anchor of faces A, B and C, and of A, the anchor of face D, followed by
+     * the normal and its permanent for each face
+     */
+    private static final int       STRIDE   = 30;
+    private static final VarHandle VALID    = MethodHandles.arrayElementVarHandle(boolean[].class);
+
+    private double[]                 planes;
+    private final Tetrahedralization tetrahedralization;
+    private boolean[]                valid;
+
+    /**
+     * Construct the cache of the planes of the faces of the tetrahedralization.
+     * All planes are initially invalid.
+     *
+     * @param tetrahedralization - the tetrahedralization
+     */
+    public FacePlanes(Tetrahedralization tetrahedralization) {
+        this.tetrahedralization = tetrahedralization;
+        int capacity = Math.max(16, tetrahedralization.tetrahedronSlotCount());
+        planes = new double[capacity * STRIDE];
+        valid = new boolean[capacity];
+        tetrahedralization.addFlipListener(this);
+        tetrahedralization.addListener(this);
+    }
+
+    /**
+     * Detach the cache from the tetrahedralization
+     */
+    @Override
+    public void close() {
+        tetrahedralization.removeFlipListener(this);
+        tetrahedralization.removeListener(this);
+    }
+
+    @Override
+    public void deleted(Vertex vertex, List<Tetrahedron> created, List<Tetrahedron> deleted) {
+        // the created tetrahedra have been invalidated by their flips
+    }
+
+    @Override
+    public void flipped(Tetrahedron[] deleted, Tetrahedron[] created) {
+        for (Tetrahedron t : created) {
+            int slot = t.getSlot();
+            if (slot >= valid.length) {
+                int capacity = Math.max(slot + 1, valid.length * 2);
+                planes = Arrays.copyOf(planes, capacity * STRIDE);
+                valid = Arrays.copyOf(valid, capacity);
+            }
+            valid[slot] = false;
+        }
+    }
+
+    @Override
+    public void inserted(Vertex vertex, List<Tetrahedron> created, List<Tetrahedron> deleted) {
+        // the created tetrahedra have been invalidated by their flips
+    }
+
+    /**
+     * Answer true if the planes of the tetrahedron are cached
+     *
+     * @param t - the tetrahedron
+     */
+    public boolean isCached(Tetrahedron t) {
+        int slot = t.getSlot();
+        return slot < valid.length && (boolean) VALID.getAcquire(valid, slot);
+    }
+
+    @Override
+    public void moved(Vertex vertex, List<Tetrahedron> created, List<Tetrahedron> deleted) {
+        // A vertex moved in place reshapes rather than replaces its star
+        vertex.getAdjacent().visitStar(vertex, (v, t, x, y, z) -> valid[t.getSlot()] = false);
+    }
+
+    /**
+     * Answer > 0 if the query point is positively oriented with respect to the face
+     * of the tetrahedron opposite the vertex, < 0 if negatively oriented, 0 if the
+     * query point is coplanar to the face, as defined by
+     * {@link Tetrahedron#orientationWrt(V, Tuple3d)}
+     *
+     * @param t     - the tetrahedron
+     * @param face  - the vertex opposite the face
+     * @param query - the query point
+     * @return the orientation of the query
+     */
+    public int orientationWrt(Tetrahedron t, V face, Tuple3d query) {
+        int slot = t.getSlot();
+        final double[] planes = this.planes;
+        if (!(boolean) VALID.getAcquire(valid, slot)) {
+            compute(t, planes, slot * STRIDE);
+            VALID.setRelease(valid, slot, true);
+        }
+        int i = slot * STRIDE;
+        int anchor = face == V.D ? i + 3 : i;
+        int f = i + 6 + 6 * face.ordinal();
+        double dx = planes[anchor] - query.x;
+        double dy = planes[anchor + 1] - query.y;
+        double dz = planes[anchor + 2] - query.z;
+        double det = planes[f] * dx + planes[f + 1] * dy + planes[f + 2] * dz;
+        double errbound = ERRBOUND *
+                          (planes[f + 3] * Math.abs(dx) + planes[f + 4] * Math.abs(dy) + planes[f + 5] * Math.abs(dz));
+        if (det > errbound) {
+            return 1;
+        } else if (-det > errbound) {
+            return -1;
+        }
+        return t.orientationWrt(face, query);
+    }
+
+    /**
+     * Compute the planes of the faces of the tetrahedron. The determinant of the
+     * face (p1, p2, p3) and the query q is n . (p1 - q), where n = (p2 - p1) x (p3 -
+     * p1); the vertices of each face are rotated so that p1 is the anchor.
+     */
+    private static void compute(Tetrahedron t, double[] planes, int i) {
+        Vertex a = t.getA(), b = t.getB(), c = t.getC(), d = t.getD();
+        planes[i] = d.x;
+        planes[i + 1] = d.y;
+        planes[i + 2] = d.z;
+        planes[i + 3] = a.x;
+        planes[i + 4] = a.y;
+        planes[i + 5] = a.z;
+        // face A: CBD = DCB
+        normal(d, c, b, planes, i + 6);
+        // face B: DAC
+        normal(d, a, c, planes, i + 12);
+        // face C: ADB = DBA
+        normal(d, b, a, planes, i + 18);
+        // face D: BCA = ABC
+        normal(a, b, c, planes, i + 24);
+    }
+
+    /**
+     * Store the normal (p2 - p1) x (p3 - p1) and its permanent
+     */
+    private static void normal(Vertex p1, Vertex p2, Vertex p3, double[] planes, int i) {
+        double ux = p2.x - p1.x, uy = p2.y - p1.y, uz = p2.z - p1.z;
+        double vx = p3.x - p1.x, vy = p3.y - p1.y, vz = p3.z - p1.z;
+        double uyvz = uy * vz, uzvy = uz * vy;
+        double uzvx = uz * vx, uxvz = ux * vz;
+        double uxvy = ux * vy, uyvx = uy * vx;
+        planes[i] = uyvz - uzvy;
+        planes[i + 1] = uzvx - uxvz;
+        planes[i + 2] = uxvy - uyvx;
+        planes[i + 3] = Math.abs(uyvz) + Math.abs(uzvy);
+        planes[i + 4] = Math.abs(uzvx) + Math.abs(uxvz);
+        planes[i + 5] = Math.abs(uxvy) + Math.abs(uyvx);
+    }
+}
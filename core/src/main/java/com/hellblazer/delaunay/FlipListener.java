@@ -0,0 +1,40 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+/**
+ * Receives the tetrahedra replaced by each flip of a tetrahedralization, so
+ * that attributes of the tetrahedra may be propagated from the deleted to the
+ * created tetrahedra. The created tetrahedra have been assigned their slots
+ * and the deleted tetrahedra still retain their slots and vertices; the slots
+ * of the deleted tetrahedra are released once the listener returns.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+@FunctionalInterface
+public interface FlipListener {
+    /**
+     * @param deleted - the tetrahedra removed by the flip
+     * @param created - the tetrahedra created by the flip, which may be empty
+     */
+    void flipped(Tetrahedron[] deleted, Tetrahedron[] created);
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import java.util.Arrays;
+
+/**
+ * An {@link AttributeColumn} of float values
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public final class FloatColumn extends AttributeColumn {
+    private final float defaultValue;
+    private float[]     values;
+
+    /**
+     * Construct a column with the default value of zero
+     */
+    public FloatColumn() {
+        this(0);
+    }
+
+    /**
+     * Construct a column with the default value
+     *
+     * @param defaultValue - the value of indices which have not been set
+     */
+    public FloatColumn(float defaultValue) {
+        this.defaultValue = defaultValue;
+        values = new float[INITIAL_CAPACITY];
+        if (defaultValue != 0) {
+            Arrays.fill(values, defaultValue);
+        }
+    }
+
+    @Override
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * Answer the value at the index, or the default value if the index has not
+     * been set
+     */
+    public float get(int index) {
+        return index < values.length ? values[index] : defaultValue;
+    }
+
+    /**
+     * Answer the default value of the column
+     */
+    public float getDefaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * Set the value at the index
+     */
+    public void set(int index, float value) {
+        if (index >= values.length) {
+            ensureCapacity(index + 1);
+        }
+        values[index] = value;
+    }
+
+    /**
+     * Answer the backing array of the column, grown to hold at least the extent
+     * of indices, for bulk computation. The array is replaced if the column grows
+     * later.
+     *
+     * @param extent - the number of indices the array must hold
+     * @return the backing array
+     */
+    public float[] values(int extent) {
+        if (extent > values.length) {
+            ensureCapacity(extent);
+        }
+        return values;
+    }
+
+    @Override
+    void reset(int index) {
+        if (index < values.length) {
+            values[index] = defaultValue;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        int length = values.length;
+        values = Arrays.copyOf(values, grow(length, capacity - 1));
+        if (defaultValue != 0) {
+            Arrays.fill(values, length, values.length, defaultValue);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import javax.vecmath.Tuple3d;
+
+/**
+ * Fused evaluation of the predicates of a query point against a tetrahedron:
+ * the orientation of the query with respect to all four faces, and optionally
+ * whether the query lies inside the circumsphere. The predicates share the
+ * differences of the vertices from the query and the 2x2 minors of those
+ * differences, so evaluating them together costs little more than a single
+ * in-sphere test. The fast floating point estimates are filtered by the error
+ * bounds of {@link Geometry}, and only the uncertain predicates fall back to
+ * the exact scalar predicates, so the results are identical to the scalar path.
+ * <p>
+ * The kernel serves the two hottest predicate sites, the stochastic walk of
+ * {@link Tetrahedralization#locate(Tuple3d)} and the ear checks of the flips
+ * restoring the Delaunay condition after an insertion. It is opt in, see
+ * {@link #setEnabled(boolean)}.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public final class FusedPredicates {
+    /**
+     * The bit of the result of {@link #evaluate(Tetrahedron, Tuple3d, boolean)}
+     * set if the query lies inside the circumsphere of the tetrahedron
+     */
+    static final int IN_SPHERE = 1 << 4;
+
+    private static volatile boolean enabled;
+
+    /**
+     * Answer true if the fused kernel is used by location and flips
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enable or disable the use of the fused kernel by location and flips
+     *
+     * @param enabled - true to use the fused kernel
+     */
+    public static void setEnabled(boolean enabled) {
+        FusedPredicates.enabled = enabled;
+    }
+
+    /**
+     * Evaluate the predicates of the query with respect to the tetrahedron. The
+     * result has the bit 1 &lt;&lt; v.ordinal() set for each face v of the
+     * tetrahedron with respect to which the query is negatively oriented, as
+     * defined by {@link Tetrahedron#orientationWrt(V, Tuple3d)}, and the
+     * {@link #IN_SPHERE} bit set if the query lies inside the circumsphere of the
+     * tetrahedron, as defined by {@link Geometry#inSphere}.
+     *
+     * @param t        - the tetrahedron
+     * @param query    - the query point
+     * @param inSphere - true to evaluate the in-sphere predicate
+     * @return the predicates of the query
+     */
+    static int evaluate(Tetrahedron t, Tuple3d query, boolean inSphere) {
+        Vertex a = t.getA(), b = t.getB(), c = t.getC(), d = t.getD();
+        double qx = query.x, qy = query.y, qz = query.z;
+        double aex = a.x - qx, aey = a.y - qy, aez = a.z - qz;
+        double bex = b.x - qx, bey = b.y - qy, bez = b.z - qz;
+        double cex = c.x - qx, cey = c.y - qy, cez = c.z - qz;
+        double dex = d.x - qx, dey = d.y - qy, dez = d.z - qz;
+
+        double aexbey = aex * bey, bexaey = bex * aey;
+        double bexcey = bex * cey, cexbey = cex * bey;
+        double cexdey = cex * dey, dexcey = dex * cey;
+        double dexaey = dex * aey, aexdey = aex * dey;
+        double aexcey = aex * cey, cexaey = cex * aey;
+        double bexdey = bex * dey, dexbey = dex * bey;
+        double ab = aexbey - bexaey;
+        double bc = bexcey - cexbey;
+        double cd = cexdey - dexcey;
+        double da = dexaey - aexdey;
+        double ac = aexcey - cexaey;
+        double bd = bexdey - dexbey;
+
+        // The permanents of the minors
+        double pab = Math.abs(aexbey) + Math.abs(bexaey);
+        double pbc = Math.abs(bexcey) + Math.abs(cexbey);
+        double pcd = Math.abs(cexdey) + Math.abs(dexcey);
+        double pda = Math.abs(dexaey) + Math.abs(aexdey);
+        double pac = Math.abs(aexcey) + Math.abs(cexaey);
+        double pbd = Math.abs(bexdey) + Math.abs(dexbey);
+        double aez1 = Math.abs(aez), bez1 = Math.abs(bez), cez1 = Math.abs(cez), dez1 = Math.abs(dez);
+
+        int result = 0;
+        // Face A is CBD, B is DAC, C is ADB and D is BCA
+        double det = cez * bd - bez * cd - dez * bc;
+        double errbound = Geometry.O3DERRBOUND * (cez1 * pbd + bez1 * pcd + dez1 * pbc);
+        if (det < -errbound || (det <= errbound && Tetrahedron.orientation(query, c, b, d) < 0)) {
+            result |= 1 << V.A.ordinal();
+        }
+        det = dez * ac + aez * cd + cez * da;
+        errbound = Geometry.O3DERRBOUND * (dez1 * pac + aez1 * pcd + cez1 * pda);
+        if (det < -errbound || (det <= errbound && Tetrahedron.orientation(query, d, a, c) < 0)) {
+            result |= 1 << V.B.ordinal();
+        }
+        det = -aez * bd - dez * ab - bez * da;
+        errbound = Geometry.O3DERRBOUND * (aez1 * pbd + dez1 * pab + bez1 * pda);
+        if (det < -errbound || (det <= errbound && Tetrahedron.orientation(query, a, d, b) < 0)) {
+            result |= 1 << V.C.ordinal();
+        }
+        det = -bez * ac + cez * ab + aez * bc;
+        errbound = Geometry.O3DERRBOUND * (bez1 * pac + cez1 * pab + aez1 * pbc);
+        if (det < -errbound || (det <= errbound && Tetrahedron.orientation(query, b, c, a) < 0)) {
+            result |= 1 << V.D.ordinal();
+        }
+        if (!inSphere) {
+            return result;
+        }
+
+        double abc = aez * bc - bez * ac + cez * ab;
+        double bcd = bez * cd - cez * bd + dez * bc;
+        double cda = cez * da + dez * ac + aez * cd;
+        double dab = dez * ab + aez * bd + bez * da;
+        double alift = aex * aex + aey * aey + aez * aez;
+        double blift = bex * bex + bey * bey + bez * bez;
+        double clift = cex * cex + cey * cey + cez * cez;
+        double dlift = dex * dex + dey * dey + dez * dez;
+        det = dlift * abc - clift * dab + (blift * cda - alift * bcd);
+        double permanent = (pcd * bez1 + pbd * cez1 + pbc * dez1) * alift
+        + (pda * cez1 + pac * dez1 + pcd * aez1) * blift + (pab * dez1 + pbd * aez1 + pda * bez1) * clift
+        + (pbc * aez1 + pac * bez1 + pab * cez1) * dlift;
+        errbound = Geometry.INSERRBOUND * permanent;
+        if (det > errbound || (det >= -errbound && Geometry.inSphere(a.x, a.y, a.z, b.x, b.y, b.z, c.x, c.y, c.z, d.x,
+                                                                     d.y, d.z, qx, qy, qz) > 0)) {
+            result |= IN_SPHERE;
+        }
+        return result;
+    }
+
+    private FusedPredicates() {
+    }
+}
@@ -6,6 +6,8 @@ available at http://www.eclipse.org/legal/cpl-v10.html
  ****************************************************************************/
 package com.hellblazer.delaunay;
 
+import java.util.concurrent.atomic.LongAdder;
+
 import javax.vecmath.Point3d;
 import javax.vecmath.Tuple3d;
 
@@ -27,15 +29,58 @@ import javax.vecmath.Tuple3d;
  * <p>
  * These predicates are adapted from those developed by Jonathan Shewchuk, 1997,
  * Delaunay Refinement Mesh Generation: Ph.D. dissertation, Carnegie Mellon
- * University. (Currently, the methods here do not use Shewchuk's adaptive
- * four-stage pipeline. Instead, only two - the fastest and the exact stages -
- * are used.)
+ * University. The in-sphere, in-ortho-sphere and 3D orientation predicates use
+ * Shewchuk's adaptive pipeline: the fast stage A, then stage B, which evaluates
+ * the determinant exactly from the rounded coordinate differences with small
+ * fixed size expansions, then stage C, which adds the first order corrections
+ * for the roundoff of the differences, and finally the exact stage. The other
+ * predicates use only the fast and the exact stages. The {@link Stage stage}
+ * which resolved each call of the adaptive predicates may be counted, see
+ * {@link #setInstrumented(boolean)}.
  * 
  * @author Dave Hale, Colorado School of Mines
  * @version 2001.04.03, 2006.08.02
  */
 public final class Geometry {
 
+    /**
+     * The adaptive predicates
+     */
+    public enum Predicate {
+        IN_ORTHO_SPHERE, IN_SPHERE, LEFT_OF_PLANE;
+    }
+
+    /**
+     * The reusable state of the exact predicates of a thread, so that the exact
+     * stages allocate no garbage once the expansions have grown to size. The
+     * exact predicates do not call one another, and the adaptive stages hand off
+     * to the exact stage only once done with their own expansions, so each
+     * numbers its expansions from zero.
+     */
+    private static class Scratch {
+        final double[][] expansions = new double[64][];
+        final Two        two        = new Two();
+
+        /**
+         * Answer the expansion of the index, of at least the length
+         */
+        double[] expansion(int index, int length) {
+            double[] expansion = expansions[index];
+            if (expansion == null || expansion.length < length) {
+                expansion = new double[length];
+                expansions[index] = expansion;
+            }
+            return expansion;
+        }
+    }
+
+    /**
+     * The stages of the adaptive predicates
+     */
+    public enum Stage {
+        A, B, C, EXACT;
+    }
+
     /**
      * Two doubles.
      */
@@ -46,17 +91,33 @@ public final class Geometry {
     /**
      * Constants.
      */
-    private static final double EPSILON;
+    static final double EPSILON;
 
     private static final double INCERRBOUND;
 
-    private static final double INSERRBOUND;
+    static final double INSERRBOUND;
+
+    private static volatile boolean instrumented;
 
     private static final double IOSERRBOUND;
 
+    private static final double ISPERRBOUNDB;
+
+    private static final double ISPERRBOUNDC;
+
     private static final double O2DERRBOUND;
 
-    private static final double O3DERRBOUND;
+    static final double O3DERRBOUND;
+
+    private static final double O3DERRBOUNDB;
+
+    private static final double O3DERRBOUNDC;
+
+    private static final LongAdder[] RESOLVED = new LongAdder[Predicate.values().length * Stage.values().length];
+
+    private static final double RESULTERRBOUND;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
 
     private static final double SPLITTER;
 
@@ -278,6 +339,18 @@ public final class Geometry {
         return new Point3d[] { solution2, solution1 };
     }
 
+    /**
+     * Answer the number of calls of the adaptive predicate resolved by the stage
+     * while instrumented
+     *
+     * @param predicate - the adaptive predicate
+     * @param stage     - the stage
+     * @return the number of calls resolved
+     */
+    public static long getResolved(Predicate predicate, Stage stage) {
+        return RESOLVED[predicate.ordinal() * Stage.values().length + stage.ordinal()].sum();
+    }
+
     /**
      * Determines if a point d is inside the circle defined by the points a, b, and
      * c. The latter are assumed to be in CCW order, such that the method
@@ -549,10 +622,11 @@ public final class Geometry {
         + ((bexcey + cexbey) * aez + (cexaey + aexcey) * bez + (aexbey + bexaey) * cez) * (dlift + dew);
         double errbound = IOSERRBOUND * permanent;
         if (det > errbound || -det > errbound) {
-            return det;
+            return resolved(Predicate.IN_ORTHO_SPHERE, Stage.A, det);
         }
 
-        return inOrthoSphereExact(xa, ya, za, wa, xb, yb, zb, wb, xc, yc, zc, wc, xd, yd, zd, wd, xe, ye, ze, we);
+        return inOrthoSphereAdapt(xa, ya, za, wa, xb, yb, zb, wb, xc, yc, zc, wc, xd, yd, zd, wd, xe, ye, ze, we,
+                                  permanent, Predicate.IN_ORTHO_SPHERE);
     }
 
     /**
@@ -762,10 +836,11 @@ public final class Geometry {
         + ((bexcey + cexbey) * aez + (cexaey + aexcey) * bez + (aexbey + bexaey) * cez) * dlift;
         double errbound = INSERRBOUND * permanent;
         if (det > errbound || -det > errbound) {
-            return det;
+            return resolved(Predicate.IN_SPHERE, Stage.A, det);
         }
 
-        return inSphereExact(xa, ya, za, xb, yb, zb, xc, yc, zc, xd, yd, zd, xe, ye, ze);
+        return inOrthoSphereAdapt(xa, ya, za, 0.0, xb, yb, zb, 0.0, xc, yc, zc, 0.0, xd, yd, zd, 0.0, xe, ye, ze, 0.0,
+                                  permanent, Predicate.IN_SPHERE);
     }
 
     /**
@@ -1051,10 +1126,10 @@ public final class Geometry {
         double permanent = (bdxcdy + cdxbdy) * adz + (cdxady + adxcdy) * bdz + (adxbdy + bdxady) * cdz;
         double errbound = O3DERRBOUND * permanent;
         if (det > errbound || -det > errbound) {
-            return det;
+            return resolved(Predicate.LEFT_OF_PLANE, Stage.A, det);
         }
 
-        return leftOfPlaneExact(xa, ya, za, xb, yb, zb, xc, yc, zc, xd, yd, zd);
+        return leftOfPlaneAdapt(xa, ya, za, xb, yb, zb, xc, yc, zc, xd, yd, zd, permanent);
     }
 
     /**
@@ -1134,6 +1209,37 @@ public final class Geometry {
         return leftOfPlaneFast(pa[0], pa[1], pa[2], pb[0], pb[1], pb[2], pc[0], pc[1], pc[2], pd[0], pd[1], pd[2]);
     }
 
+    /**
+     * Reset the counts of the calls resolved by the stages of the adaptive
+     * predicates
+     */
+    public static void resetResolved() {
+        for (LongAdder resolved : RESOLVED) {
+            resolved.reset();
+        }
+    }
+
+    /**
+     * Enable or disable counting the calls of the adaptive predicates resolved by
+     * each stage. Counting is disabled by default, as it costs the fast stage.
+     *
+     * @param instrumented - true to count the resolving stages
+     */
+    public static void setInstrumented(boolean instrumented) {
+        Geometry.instrumented = instrumented;
+    }
+
+    /**
+     * Answer the approximation of the expansion, the sum of its components
+     */
+    private static double estimate(int elen, double[] e) {
+        double q = e[0];
+        for (int i = 1; i < elen; i++) {
+            q += e[i];
+        }
+        return q;
+    }
+
     /**
      * Computes the sum of two expansions h = e+f, eliminating zero components from
      * output expansion. If round-to-even is used (as with IEEE 754), maintains the
@@ -1141,9 +1247,8 @@ public final class Geometry {
      * h will be also.) Does NOT maintain the nonoverlapping or nonadjacent
      * properties. The expansion h cannot be aliased with e or f.
      */
-    private static int expansionSumZeroElimFast(int elen, double[] e, int flen, double[] f, double[] h) {
+    private static int expansionSumZeroElimFast(int elen, double[] e, int flen, double[] f, double[] h, Two t) {
         double q, qnew, hh;
-        Two t = new Two();
         double enow = e[0];
         double fnow = f[0];
         int eindex = 0;
@@ -1249,7 +1354,8 @@ public final class Geometry {
      */
     private static double inCircleExact(double xa, double ya, double xb, double yb, double xc, double yc, double xd,
                                         double yd) {
-        Two t = new Two();
+        Scratch scratch = SCRATCH.get();
+        Two t = scratch.two;
         twoDiff(xa, xd, t);
         double adx = t.x;
         double adxtail = t.y;
@@ -1269,126 +1375,273 @@ public final class Geometry {
         double cdy = t.x;
         double cdytail = t.y;
 
-        double[] axby = new double[8];
-        double[] bxay = new double[8];
-        twoTwoProduct(adx, adxtail, bdy, bdytail, axby);
+        double[] axby = scratch.expansion(0, 8);
+        double[] bxay = scratch.expansion(1, 8);
+        twoTwoProduct(adx, adxtail, bdy, bdytail, axby, t);
         double negate = -ady;
         double negatetail = -adytail;
-        twoTwoProduct(bdx, bdxtail, negate, negatetail, bxay);
+        twoTwoProduct(bdx, bdxtail, negate, negatetail, bxay, t);
 
-        double[] bxcy = new double[8];
-        double[] cxby = new double[8];
-        twoTwoProduct(bdx, bdxtail, cdy, cdytail, bxcy);
+        double[] bxcy = scratch.expansion(2, 8);
+        double[] cxby = scratch.expansion(3, 8);
+        twoTwoProduct(bdx, bdxtail, cdy, cdytail, bxcy, t);
         negate = -bdy;
         negatetail = -bdytail;
-        twoTwoProduct(cdx, cdxtail, negate, negatetail, cxby);
+        twoTwoProduct(cdx, cdxtail, negate, negatetail, cxby, t);
 
-        double[] cxay = new double[8];
-        double[] axcy = new double[8];
-        twoTwoProduct(cdx, cdxtail, ady, adytail, cxay);
+        double[] cxay = scratch.expansion(4, 8);
+        double[] axcy = scratch.expansion(5, 8);
+        twoTwoProduct(cdx, cdxtail, ady, adytail, cxay, t);
         negate = -cdy;
         negatetail = -cdytail;
-        twoTwoProduct(adx, adxtail, negate, negatetail, axcy);
-
-        double[] t16 = new double[16];
-        int t16len = expansionSumZeroElimFast(8, bxcy, 8, cxby, t16);
-
-        double[] detx = new double[32];
-        double[] detxx = new double[64];
-        double[] detxt = new double[32];
-        double[] detxxt = new double[64];
-        double[] detxtxt = new double[64];
-        double[] x1 = new double[128];
-        double[] x2 = new double[192];
-        int xlen = scaleExpansionZeroElim(t16len, t16, adx, detx);
-        int xxlen = scaleExpansionZeroElim(xlen, detx, adx, detxx);
-        int xtlen = scaleExpansionZeroElim(t16len, t16, adxtail, detxt);
-        int xxtlen = scaleExpansionZeroElim(xtlen, detxt, adx, detxxt);
+        twoTwoProduct(adx, adxtail, negate, negatetail, axcy, t);
+
+        double[] t16 = scratch.expansion(6, 16);
+        int t16len = expansionSumZeroElimFast(8, bxcy, 8, cxby, t16, t);
+
+        double[] detx = scratch.expansion(7, 32);
+        double[] detxx = scratch.expansion(8, 64);
+        double[] detxt = scratch.expansion(9, 32);
+        double[] detxxt = scratch.expansion(10, 64);
+        double[] detxtxt = scratch.expansion(11, 64);
+        double[] x1 = scratch.expansion(12, 128);
+        double[] x2 = scratch.expansion(13, 192);
+        int xlen = scaleExpansionZeroElim(t16len, t16, adx, detx, t);
+        int xxlen = scaleExpansionZeroElim(xlen, detx, adx, detxx, t);
+        int xtlen = scaleExpansionZeroElim(t16len, t16, adxtail, detxt, t);
+        int xxtlen = scaleExpansionZeroElim(xtlen, detxt, adx, detxxt, t);
         for (int i = 0; i < xxtlen; ++i) {
             detxxt[i] *= 2.0;
         }
-        int xtxtlen = scaleExpansionZeroElim(xtlen, detxt, adxtail, detxtxt);
-        int x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1);
-        int x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2);
-
-        double[] dety = new double[32];
-        double[] detyy = new double[64];
-        double[] detyt = new double[32];
-        double[] detyyt = new double[64];
-        double[] detytyt = new double[64];
-        double[] y1 = new double[128];
-        double[] y2 = new double[192];
-        int ylen = scaleExpansionZeroElim(t16len, t16, ady, dety);
-        int yylen = scaleExpansionZeroElim(ylen, dety, ady, detyy);
-        int ytlen = scaleExpansionZeroElim(t16len, t16, adytail, detyt);
-        int yytlen = scaleExpansionZeroElim(ytlen, detyt, ady, detyyt);
+        int xtxtlen = scaleExpansionZeroElim(xtlen, detxt, adxtail, detxtxt, t);
+        int x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1, t);
+        int x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2, t);
+
+        double[] dety = scratch.expansion(14, 32);
+        double[] detyy = scratch.expansion(15, 64);
+        double[] detyt = scratch.expansion(16, 32);
+        double[] detyyt = scratch.expansion(17, 64);
+        double[] detytyt = scratch.expansion(18, 64);
+        double[] y1 = scratch.expansion(19, 128);
+        double[] y2 = scratch.expansion(20, 192);
+        int ylen = scaleExpansionZeroElim(t16len, t16, ady, dety, t);
+        int yylen = scaleExpansionZeroElim(ylen, dety, ady, detyy, t);
+        int ytlen = scaleExpansionZeroElim(t16len, t16, adytail, detyt, t);
+        int yytlen = scaleExpansionZeroElim(ytlen, detyt, ady, detyyt, t);
         for (int i = 0; i < yytlen; ++i) {
             detyyt[i] *= 2.0;
         }
-        int ytytlen = scaleExpansionZeroElim(ytlen, detyt, adytail, detytyt);
-        int y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1);
-        int y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2);
+        int ytytlen = scaleExpansionZeroElim(ytlen, detyt, adytail, detytyt, t);
+        int y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1, t);
+        int y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2, t);
 
-        double[] adet = new double[384];
-        double[] bdet = new double[384];
-        double[] cdet = new double[384];
-        int alen = expansionSumZeroElimFast(x2len, x2, y2len, y2, adet);
+        double[] adet = scratch.expansion(21, 384);
+        double[] bdet = scratch.expansion(22, 384);
+        double[] cdet = scratch.expansion(23, 384);
+        int alen = expansionSumZeroElimFast(x2len, x2, y2len, y2, adet, t);
 
-        t16len = expansionSumZeroElimFast(8, cxay, 8, axcy, t16);
-        xlen = scaleExpansionZeroElim(t16len, t16, bdx, detx);
-        xxlen = scaleExpansionZeroElim(xlen, detx, bdx, detxx);
-        xtlen = scaleExpansionZeroElim(t16len, t16, bdxtail, detxt);
-        xxtlen = scaleExpansionZeroElim(xtlen, detxt, bdx, detxxt);
+        t16len = expansionSumZeroElimFast(8, cxay, 8, axcy, t16, t);
+        xlen = scaleExpansionZeroElim(t16len, t16, bdx, detx, t);
+        xxlen = scaleExpansionZeroElim(xlen, detx, bdx, detxx, t);
+        xtlen = scaleExpansionZeroElim(t16len, t16, bdxtail, detxt, t);
+        xxtlen = scaleExpansionZeroElim(xtlen, detxt, bdx, detxxt, t);
         for (int i = 0; i < xxtlen; ++i) {
             detxxt[i] *= 2.0;
         }
-        xtxtlen = scaleExpansionZeroElim(xtlen, detxt, bdxtail, detxtxt);
-        x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1);
-        x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2);
+        xtxtlen = scaleExpansionZeroElim(xtlen, detxt, bdxtail, detxtxt, t);
+        x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1, t);
+        x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2, t);
 
-        ylen = scaleExpansionZeroElim(t16len, t16, bdy, dety);
-        yylen = scaleExpansionZeroElim(ylen, dety, bdy, detyy);
-        ytlen = scaleExpansionZeroElim(t16len, t16, bdytail, detyt);
-        yytlen = scaleExpansionZeroElim(ytlen, detyt, bdy, detyyt);
+        ylen = scaleExpansionZeroElim(t16len, t16, bdy, dety, t);
+        yylen = scaleExpansionZeroElim(ylen, dety, bdy, detyy, t);
+        ytlen = scaleExpansionZeroElim(t16len, t16, bdytail, detyt, t);
+        yytlen = scaleExpansionZeroElim(ytlen, detyt, bdy, detyyt, t);
         for (int i = 0; i < yytlen; ++i) {
             detyyt[i] *= 2.0;
         }
-        ytytlen = scaleExpansionZeroElim(ytlen, detyt, bdytail, detytyt);
-        y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1);
-        y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2);
-        int blen = expansionSumZeroElimFast(x2len, x2, y2len, y2, bdet);
+        ytytlen = scaleExpansionZeroElim(ytlen, detyt, bdytail, detytyt, t);
+        y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1, t);
+        y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2, t);
+        int blen = expansionSumZeroElimFast(x2len, x2, y2len, y2, bdet, t);
 
-        t16len = expansionSumZeroElimFast(8, axby, 8, bxay, t16);
-        xlen = scaleExpansionZeroElim(t16len, t16, cdx, detx);
-        xxlen = scaleExpansionZeroElim(xlen, detx, cdx, detxx);
-        xtlen = scaleExpansionZeroElim(t16len, t16, cdxtail, detxt);
-        xxtlen = scaleExpansionZeroElim(xtlen, detxt, cdx, detxxt);
+        t16len = expansionSumZeroElimFast(8, axby, 8, bxay, t16, t);
+        xlen = scaleExpansionZeroElim(t16len, t16, cdx, detx, t);
+        xxlen = scaleExpansionZeroElim(xlen, detx, cdx, detxx, t);
+        xtlen = scaleExpansionZeroElim(t16len, t16, cdxtail, detxt, t);
+        xxtlen = scaleExpansionZeroElim(xtlen, detxt, cdx, detxxt, t);
         for (int i = 0; i < xxtlen; ++i) {
             detxxt[i] *= 2.0;
         }
-        xtxtlen = scaleExpansionZeroElim(xtlen, detxt, cdxtail, detxtxt);
-        x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1);
-        x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2);
-        ylen = scaleExpansionZeroElim(t16len, t16, cdy, dety);
-        yylen = scaleExpansionZeroElim(ylen, dety, cdy, detyy);
-        ytlen = scaleExpansionZeroElim(t16len, t16, cdytail, detyt);
-        yytlen = scaleExpansionZeroElim(ytlen, detyt, cdy, detyyt);
+        xtxtlen = scaleExpansionZeroElim(xtlen, detxt, cdxtail, detxtxt, t);
+        x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1, t);
+        x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2, t);
+        ylen = scaleExpansionZeroElim(t16len, t16, cdy, dety, t);
+        yylen = scaleExpansionZeroElim(ylen, dety, cdy, detyy, t);
+        ytlen = scaleExpansionZeroElim(t16len, t16, cdytail, detyt, t);
+        yytlen = scaleExpansionZeroElim(ytlen, detyt, cdy, detyyt, t);
         for (int i = 0; i < yytlen; ++i) {
             detyyt[i] *= 2.0;
         }
-        ytytlen = scaleExpansionZeroElim(ytlen, detyt, cdytail, detytyt);
-        y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1);
-        y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2);
-        int clen = expansionSumZeroElimFast(x2len, x2, y2len, y2, cdet);
+        ytytlen = scaleExpansionZeroElim(ytlen, detyt, cdytail, detytyt, t);
+        y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1, t);
+        y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2, t);
+        int clen = expansionSumZeroElimFast(x2len, x2, y2len, y2, cdet, t);
 
-        double[] abdet = new double[768];
-        double[] det = new double[1152];
-        int ablen = expansionSumZeroElimFast(alen, adet, blen, bdet, abdet);
-        int detlen = expansionSumZeroElimFast(ablen, abdet, clen, cdet, det);
+        double[] abdet = scratch.expansion(24, 768);
+        double[] det = scratch.expansion(25, 1152);
+        int ablen = expansionSumZeroElimFast(alen, adet, blen, bdet, abdet, t);
+        int detlen = expansionSumZeroElimFast(ablen, abdet, clen, cdet, det, t);
 
         return det[detlen - 1];
     }
 
+    /**
+     * Adaptive stages B and C of the 3D in-ortho-sphere test, which is also the
+     * in-sphere test when all the weights are zero. Stage B evaluates the
+     * determinant exactly from the rounded differences of the coordinates, stage
+     * C corrects the result to first order in the roundoff of the differences. If
+     * neither resolves the sign, the exact test of the predicate is used.
+     */
+    private static double inOrthoSphereAdapt(double xa, double ya, double za, double wa, double xb, double yb,
+                                             double zb, double wb, double xc, double yc, double zc, double wc,
+                                             double xd, double yd, double zd, double wd, double xe, double ye,
+                                             double ze, double we, double permanent, Predicate predicate) {
+        Scratch scratch = SCRATCH.get();
+        Two t = scratch.two;
+        double aex = xa - xe;
+        double bex = xb - xe;
+        double cex = xc - xe;
+        double dex = xd - xe;
+        double aey = ya - ye;
+        double bey = yb - ye;
+        double cey = yc - ye;
+        double dey = yd - ye;
+        double aez = za - ze;
+        double bez = zb - ze;
+        double cez = zc - ze;
+        double dez = zd - ze;
+        double aew = wa - we;
+        double bew = wb - we;
+        double cew = wc - we;
+        double dew = wd - we;
+
+        double[] ab = scratch.expansion(0, 4);
+        double[] bc = scratch.expansion(1, 4);
+        double[] cd = scratch.expansion(2, 4);
+        double[] da = scratch.expansion(3, 4);
+        double[] ac = scratch.expansion(4, 4);
+        double[] bd = scratch.expansion(5, 4);
+        twoProductDiff(aex, bey, bex, aey, ab, t);
+        twoProductDiff(bex, cey, cex, bey, bc, t);
+        twoProductDiff(cex, dey, dex, cey, cd, t);
+        twoProductDiff(dex, aey, aex, dey, da, t);
+        twoProductDiff(aex, cey, cex, aey, ac, t);
+        twoProductDiff(bex, dey, dex, bey, bd, t);
+
+        double[] adet = scratch.expansion(18, 336);
+        double[] bdet = scratch.expansion(19, 336);
+        double[] cdet = scratch.expansion(20, 336);
+        double[] ddet = scratch.expansion(21, 336);
+        int alen = liftedTerm(cd, bez, bd, -cez, bc, dez, aex, aey, aez, aew, -1.0, adet, scratch);
+        int blen = liftedTerm(da, cez, ac, dez, cd, aez, bex, bey, bez, bew, 1.0, bdet, scratch);
+        int clen = liftedTerm(ab, dez, bd, aez, da, bez, cex, cey, cez, cew, -1.0, cdet, scratch);
+        int dlen = liftedTerm(bc, aez, ac, -bez, ab, cez, dex, dey, dez, dew, 1.0, ddet, scratch);
+
+        double[] abdet = scratch.expansion(22, 672);
+        double[] cddet = scratch.expansion(23, 672);
+        double[] fin = scratch.expansion(24, 1344);
+        int ablen = expansionSumZeroElimFast(alen, adet, blen, bdet, abdet, t);
+        int cdlen = expansionSumZeroElimFast(clen, cdet, dlen, ddet, cddet, t);
+        int finlen = expansionSumZeroElimFast(ablen, abdet, cdlen, cddet, fin, t);
+
+        double det = estimate(finlen, fin);
+        double errbound = ISPERRBOUNDB * permanent;
+        if (det >= errbound || -det >= errbound) {
+            return resolved(predicate, Stage.B, det);
+        }
+
+        twoDiff(xa, xe, t);
+        double aextail = t.y;
+        twoDiff(ya, ye, t);
+        double aeytail = t.y;
+        twoDiff(za, ze, t);
+        double aeztail = t.y;
+        twoDiff(wa, we, t);
+        double aewtail = t.y;
+        twoDiff(xb, xe, t);
+        double bextail = t.y;
+        twoDiff(yb, ye, t);
+        double beytail = t.y;
+        twoDiff(zb, ze, t);
+        double beztail = t.y;
+        twoDiff(wb, we, t);
+        double bewtail = t.y;
+        twoDiff(xc, xe, t);
+        double cextail = t.y;
+        twoDiff(yc, ye, t);
+        double ceytail = t.y;
+        twoDiff(zc, ze, t);
+        double ceztail = t.y;
+        twoDiff(wc, we, t);
+        double cewtail = t.y;
+        twoDiff(xd, xe, t);
+        double dextail = t.y;
+        twoDiff(yd, ye, t);
+        double deytail = t.y;
+        twoDiff(zd, ze, t);
+        double deztail = t.y;
+        twoDiff(wd, we, t);
+        double dewtail = t.y;
+        if (aextail == 0.0 && aeytail == 0.0 && aeztail == 0.0 && aewtail == 0.0 && bextail == 0.0 &&
+            beytail == 0.0 && beztail == 0.0 && bewtail == 0.0 && cextail == 0.0 && ceytail == 0.0 &&
+            ceztail == 0.0 && cewtail == 0.0 && dextail == 0.0 && deytail == 0.0 && deztail == 0.0 &&
+            dewtail == 0.0) {
+            // The differences are exact, and so is stage B
+            return resolved(predicate, Stage.B, det);
+        }
+
+        errbound = ISPERRBOUNDC * permanent + RESULTERRBOUND * Math.abs(det);
+        double ab3 = ab[3], bc3 = bc[3], cd3 = cd[3], da3 = da[3], ac3 = ac[3], bd3 = bd[3];
+        double abeps = (aex * beytail + bey * aextail) - (aey * bextail + bex * aeytail);
+        double bceps = (bex * ceytail + cey * bextail) - (bey * cextail + cex * beytail);
+        double cdeps = (cex * deytail + dey * cextail) - (cey * dextail + dex * ceytail);
+        double daeps = (dex * aeytail + aey * dextail) - (dey * aextail + aex * deytail);
+        double aceps = (aex * ceytail + cey * aextail) - (aey * cextail + cex * aeytail);
+        double bdeps = (bex * deytail + dey * bextail) - (bey * dextail + dex * beytail);
+
+        // The minors and their first order corrections
+        double abc = aez * bc3 - bez * ac3 + cez * ab3;
+        double bcd = bez * cd3 - cez * bd3 + dez * bc3;
+        double cda = cez * da3 + dez * ac3 + aez * cd3;
+        double dab = dez * ab3 + aez * bd3 + bez * da3;
+        double abceps = (aez * bceps - bez * aceps + cez * abeps) + (aeztail * bc3 - beztail * ac3 + ceztail * ab3);
+        double bcdeps = (bez * cdeps - cez * bdeps + dez * bceps) + (beztail * cd3 - ceztail * bd3 + deztail * bc3);
+        double cdaeps = (cez * daeps + dez * aceps + aez * cdeps) + (ceztail * da3 + deztail * ac3 + aeztail * cd3);
+        double dabeps = (dez * abeps + aez * bdeps + bez * daeps) + (deztail * ab3 + aeztail * bd3 + beztail * da3);
+
+        // The lifts and their first order corrections
+        double alift = aex * aex + aey * aey + aez * aez - aew;
+        double blift = bex * bex + bey * bey + bez * bez - bew;
+        double clift = cex * cex + cey * cey + cez * cez - cew;
+        double dlift = dex * dex + dey * dey + dez * dez - dew;
+        double alifteps = 2.0 * (aex * aextail + aey * aeytail + aez * aeztail) - aewtail;
+        double blifteps = 2.0 * (bex * bextail + bey * beytail + bez * beztail) - bewtail;
+        double clifteps = 2.0 * (cex * cextail + cey * ceytail + cez * ceztail) - cewtail;
+        double dlifteps = 2.0 * (dex * dextail + dey * deytail + dez * deztail) - dewtail;
+
+        det += ((blift * cdaeps + dlift * abceps) - (alift * bcdeps + clift * dabeps))
+        + ((blifteps * cda + dlifteps * abc) - (alifteps * bcd + clifteps * dab));
+        if (det >= errbound || -det >= errbound) {
+            return resolved(predicate, Stage.C, det);
+        }
+
+        return resolved(predicate, Stage.EXACT,
+                        predicate == Predicate.IN_SPHERE ? inSphereExact(xa, ya, za, xb, yb, zb, xc, yc, zc, xd, yd,
+                                                                         zd, xe, ye, ze)
+                                                         : inOrthoSphereExact(xa, ya, za, wa, xb, yb, zb, wb, xc, yc,
+                                                                              zc, wc, xd, yd, zd, wd, xe, ye, ze, we));
+    }
+
     /**
      * Slow exact 3D in-ortho-sphere test. Returns a positive value if the weighted
      * point pe lies inside the ortho-sphere defined by the weighted points pa, pb,
@@ -1401,7 +1654,8 @@ public final class Geometry {
                                              double zb, double wb, double xc, double yc, double zc, double wc,
                                              double xd, double yd, double zd, double wd, double xe, double ye,
                                              double ze, double we) {
-        Two t = new Two();
+        Scratch scratch = SCRATCH.get();
+        Two t = scratch.two;
         twoDiff(xa, xe, t);
         double aex = t.x;
         double aextail = t.y;
@@ -1412,8 +1666,8 @@ public final class Geometry {
         double aez = t.x;
         double aeztail = t.y;
         twoDiff(wa, we, t);
-        // double aew = t.x;
-        // double aewtail = t.y;
+        double aew = t.x;
+        double aewtail = t.y;
         twoDiff(xb, xe, t);
         double bex = t.x;
         double bextail = t.y;
@@ -1451,301 +1705,301 @@ public final class Geometry {
         double dew = t.x;
         double dewtail = t.y;
 
-        double[] axby = new double[8];
-        double[] bxay = new double[8];
-        double[] ab = new double[16];
-        twoTwoProduct(aex, aextail, bey, beytail, axby);
+        double[] axby = scratch.expansion(0, 8);
+        double[] bxay = scratch.expansion(1, 8);
+        double[] ab = scratch.expansion(2, 16);
+        twoTwoProduct(aex, aextail, bey, beytail, axby, t);
         double negate = -aey;
         double negatetail = -aeytail;
-        twoTwoProduct(bex, bextail, negate, negatetail, bxay);
-        int ablen = expansionSumZeroElimFast(8, axby, 8, bxay, ab);
+        twoTwoProduct(bex, bextail, negate, negatetail, bxay, t);
+        int ablen = expansionSumZeroElimFast(8, axby, 8, bxay, ab, t);
 
-        double[] bxcy = new double[8];
-        double[] cxby = new double[8];
-        double[] bc = new double[16];
-        twoTwoProduct(bex, bextail, cey, ceytail, bxcy);
+        double[] bxcy = scratch.expansion(3, 8);
+        double[] cxby = scratch.expansion(4, 8);
+        double[] bc = scratch.expansion(5, 16);
+        twoTwoProduct(bex, bextail, cey, ceytail, bxcy, t);
         negate = -bey;
         negatetail = -beytail;
-        twoTwoProduct(cex, cextail, negate, negatetail, cxby);
-        int bclen = expansionSumZeroElimFast(8, bxcy, 8, cxby, bc);
+        twoTwoProduct(cex, cextail, negate, negatetail, cxby, t);
+        int bclen = expansionSumZeroElimFast(8, bxcy, 8, cxby, bc, t);
 
-        double[] cxdy = new double[8];
-        double[] dxcy = new double[8];
-        double[] cd = new double[16];
-        twoTwoProduct(cex, cextail, dey, deytail, cxdy);
+        double[] cxdy = scratch.expansion(6, 8);
+        double[] dxcy = scratch.expansion(7, 8);
+        double[] cd = scratch.expansion(8, 16);
+        twoTwoProduct(cex, cextail, dey, deytail, cxdy, t);
         negate = -cey;
         negatetail = -ceytail;
-        twoTwoProduct(dex, dextail, negate, negatetail, dxcy);
-        int cdlen = expansionSumZeroElimFast(8, cxdy, 8, dxcy, cd);
+        twoTwoProduct(dex, dextail, negate, negatetail, dxcy, t);
+        int cdlen = expansionSumZeroElimFast(8, cxdy, 8, dxcy, cd, t);
 
-        double[] dxay = new double[8];
-        double[] axdy = new double[8];
-        double[] da = new double[16];
-        twoTwoProduct(dex, dextail, aey, aeytail, dxay);
+        double[] dxay = scratch.expansion(9, 8);
+        double[] axdy = scratch.expansion(10, 8);
+        double[] da = scratch.expansion(11, 16);
+        twoTwoProduct(dex, dextail, aey, aeytail, dxay, t);
         negate = -dey;
         negatetail = -deytail;
-        twoTwoProduct(aex, aextail, negate, negatetail, axdy);
-        int dalen = expansionSumZeroElimFast(8, dxay, 8, axdy, da);
+        twoTwoProduct(aex, aextail, negate, negatetail, axdy, t);
+        int dalen = expansionSumZeroElimFast(8, dxay, 8, axdy, da, t);
 
-        double[] axcy = new double[8];
-        double[] cxay = new double[8];
-        double[] ac = new double[16];
-        twoTwoProduct(aex, aextail, cey, ceytail, axcy);
+        double[] axcy = scratch.expansion(12, 8);
+        double[] cxay = scratch.expansion(13, 8);
+        double[] ac = scratch.expansion(14, 16);
+        twoTwoProduct(aex, aextail, cey, ceytail, axcy, t);
         negate = -aey;
         negatetail = -aeytail;
-        twoTwoProduct(cex, cextail, negate, negatetail, cxay);
-        int aclen = expansionSumZeroElimFast(8, axcy, 8, cxay, ac);
+        twoTwoProduct(cex, cextail, negate, negatetail, cxay, t);
+        int aclen = expansionSumZeroElimFast(8, axcy, 8, cxay, ac, t);
 
-        double[] bxdy = new double[8];
-        double[] dxby = new double[8];
-        double[] bd = new double[16];
-        twoTwoProduct(bex, bextail, dey, deytail, bxdy);
+        double[] bxdy = scratch.expansion(15, 8);
+        double[] dxby = scratch.expansion(16, 8);
+        double[] bd = scratch.expansion(17, 16);
+        twoTwoProduct(bex, bextail, dey, deytail, bxdy, t);
         negate = -bey;
         negatetail = -beytail;
-        twoTwoProduct(dex, dextail, negate, negatetail, dxby);
-        int bdlen = expansionSumZeroElimFast(8, bxdy, 8, dxby, bd);
-
-        double[] t32a = new double[32];
-        double[] t32b = new double[32];
-        double[] t64a = new double[64];
-        double[] t64b = new double[64];
-        double[] t64c = new double[64];
-        double[] t128 = new double[128];
-        double[] t192 = new double[192];
+        twoTwoProduct(dex, dextail, negate, negatetail, dxby, t);
+        int bdlen = expansionSumZeroElimFast(8, bxdy, 8, dxby, bd, t);
+
+        double[] t32a = scratch.expansion(18, 32);
+        double[] t32b = scratch.expansion(19, 32);
+        double[] t64a = scratch.expansion(20, 64);
+        double[] t64b = scratch.expansion(21, 64);
+        double[] t64c = scratch.expansion(22, 64);
+        double[] t128 = scratch.expansion(23, 128);
+        double[] t192 = scratch.expansion(24, 192);
         int t32alen, t32blen, t64alen, t64blen, t64clen, t128len, t192len;
-        t32alen = scaleExpansionZeroElim(cdlen, cd, -bez, t32a);
-        t32blen = scaleExpansionZeroElim(cdlen, cd, -beztail, t32b);
-        t64alen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64a);
-        t32alen = scaleExpansionZeroElim(bdlen, bd, cez, t32a);
-        t32blen = scaleExpansionZeroElim(bdlen, bd, ceztail, t32b);
-        t64blen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64b);
-        t32alen = scaleExpansionZeroElim(bclen, bc, -dez, t32a);
-        t32blen = scaleExpansionZeroElim(bclen, bc, -deztail, t32b);
-        t64clen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64c);
-        t128len = expansionSumZeroElimFast(t64alen, t64a, t64blen, t64b, t128);
-        t192len = expansionSumZeroElimFast(t64clen, t64c, t128len, t128, t192);
-
-        double[] detx = new double[384];
-        double[] detxx = new double[768];
-        double[] detxt = new double[384];
-        double[] detxxt = new double[768];
-        double[] detxtxt = new double[768];
-        double[] x1 = new double[1536];
-        double[] x2 = new double[2304];
-        int xlen = scaleExpansionZeroElim(t192len, t192, aex, detx);
-        int xxlen = scaleExpansionZeroElim(xlen, detx, aex, detxx);
-        int xtlen = scaleExpansionZeroElim(t192len, t192, aextail, detxt);
-        int xxtlen = scaleExpansionZeroElim(xtlen, detxt, aex, detxxt);
+        t32alen = scaleExpansionZeroElim(cdlen, cd, -bez, t32a, t);
+        t32blen = scaleExpansionZeroElim(cdlen, cd, -beztail, t32b, t);
+        t64alen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64a, t);
+        t32alen = scaleExpansionZeroElim(bdlen, bd, cez, t32a, t);
+        t32blen = scaleExpansionZeroElim(bdlen, bd, ceztail, t32b, t);
+        t64blen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64b, t);
+        t32alen = scaleExpansionZeroElim(bclen, bc, -dez, t32a, t);
+        t32blen = scaleExpansionZeroElim(bclen, bc, -deztail, t32b, t);
+        t64clen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64c, t);
+        t128len = expansionSumZeroElimFast(t64alen, t64a, t64blen, t64b, t128, t);
+        t192len = expansionSumZeroElimFast(t64clen, t64c, t128len, t128, t192, t);
+
+        double[] detx = scratch.expansion(25, 384);
+        double[] detxx = scratch.expansion(26, 768);
+        double[] detxt = scratch.expansion(27, 384);
+        double[] detxxt = scratch.expansion(28, 768);
+        double[] detxtxt = scratch.expansion(29, 768);
+        double[] x1 = scratch.expansion(30, 1536);
+        double[] x2 = scratch.expansion(31, 2304);
+        int xlen = scaleExpansionZeroElim(t192len, t192, aex, detx, t);
+        int xxlen = scaleExpansionZeroElim(xlen, detx, aex, detxx, t);
+        int xtlen = scaleExpansionZeroElim(t192len, t192, aextail, detxt, t);
+        int xxtlen = scaleExpansionZeroElim(xtlen, detxt, aex, detxxt, t);
         for (int i = 0; i < xxtlen; ++i) {
             detxxt[i] *= 2.0;
         }
-        int xtxtlen = scaleExpansionZeroElim(xtlen, detxt, aextail, detxtxt);
-        int x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1);
-        int x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2);
-
-        double[] dety = new double[384];
-        double[] detyy = new double[768];
-        double[] detyt = new double[384];
-        double[] detyyt = new double[768];
-        double[] detytyt = new double[768];
-        double[] y1 = new double[1536];
-        double[] y2 = new double[2304];
-        int ylen = scaleExpansionZeroElim(t192len, t192, aey, dety);
-        int yylen = scaleExpansionZeroElim(ylen, dety, aey, detyy);
-        int ytlen = scaleExpansionZeroElim(t192len, t192, aeytail, detyt);
-        int yytlen = scaleExpansionZeroElim(ytlen, detyt, aey, detyyt);
+        int xtxtlen = scaleExpansionZeroElim(xtlen, detxt, aextail, detxtxt, t);
+        int x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1, t);
+        int x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2, t);
+
+        double[] dety = scratch.expansion(32, 384);
+        double[] detyy = scratch.expansion(33, 768);
+        double[] detyt = scratch.expansion(34, 384);
+        double[] detyyt = scratch.expansion(35, 768);
+        double[] detytyt = scratch.expansion(36, 768);
+        double[] y1 = scratch.expansion(37, 1536);
+        double[] y2 = scratch.expansion(38, 2304);
+        int ylen = scaleExpansionZeroElim(t192len, t192, aey, dety, t);
+        int yylen = scaleExpansionZeroElim(ylen, dety, aey, detyy, t);
+        int ytlen = scaleExpansionZeroElim(t192len, t192, aeytail, detyt, t);
+        int yytlen = scaleExpansionZeroElim(ytlen, detyt, aey, detyyt, t);
         for (int i = 0; i < yytlen; ++i) {
             detyyt[i] *= 2.0;
         }
-        int ytytlen = scaleExpansionZeroElim(ytlen, detyt, aeytail, detytyt);
-        int y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1);
-        int y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2);
-
-        double[] detz = new double[384];
-        double[] detzz = new double[768];
-        double[] detzt = new double[384];
-        double[] detzzt = new double[768];
-        double[] detztzt = new double[768];
-        double[] z1 = new double[1536];
-        double[] z2 = new double[2304];
-        int zlen = scaleExpansionZeroElim(t192len, t192, aez, detz);
-        int zzlen = scaleExpansionZeroElim(zlen, detz, aez, detzz);
-        int ztlen = scaleExpansionZeroElim(t192len, t192, aeztail, detzt);
-        int zztlen = scaleExpansionZeroElim(ztlen, detzt, aez, detzzt);
+        int ytytlen = scaleExpansionZeroElim(ytlen, detyt, aeytail, detytyt, t);
+        int y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1, t);
+        int y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2, t);
+
+        double[] detz = scratch.expansion(39, 384);
+        double[] detzz = scratch.expansion(40, 768);
+        double[] detzt = scratch.expansion(41, 384);
+        double[] detzzt = scratch.expansion(42, 768);
+        double[] detztzt = scratch.expansion(43, 768);
+        double[] z1 = scratch.expansion(44, 1536);
+        double[] z2 = scratch.expansion(45, 2304);
+        int zlen = scaleExpansionZeroElim(t192len, t192, aez, detz, t);
+        int zzlen = scaleExpansionZeroElim(zlen, detz, aez, detzz, t);
+        int ztlen = scaleExpansionZeroElim(t192len, t192, aeztail, detzt, t);
+        int zztlen = scaleExpansionZeroElim(ztlen, detzt, aez, detzzt, t);
         for (int i = 0; i < zztlen; ++i) {
             detzzt[i] *= 2.0;
         }
-        int ztztlen = scaleExpansionZeroElim(ztlen, detzt, aeztail, detztzt);
-        int z1len = expansionSumZeroElimFast(zzlen, detzz, zztlen, detzzt, z1);
-        int z2len = expansionSumZeroElimFast(z1len, z1, ztztlen, detztzt, z2);
-
-        double[] detw = new double[384];
-        double[] detwt = new double[384];
-        double[] w2 = new double[768];
-        int wlen = scaleExpansionZeroElim(t192len, t192, -bew, detw);
-        int wtlen = scaleExpansionZeroElim(t192len, t192, -bewtail, detwt);
-        int w2len = expansionSumZeroElimFast(wlen, detw, wtlen, detwt, w2);
-
-        double[] detxy = new double[4608];
-        double[] detxyz = new double[6912];
-        double[] adet = new double[7680];
-        int xylen = expansionSumZeroElimFast(x2len, x2, y2len, y2, detxy);
-        int xyzlen = expansionSumZeroElimFast(z2len, z2, xylen, detxy, detxyz);
-        int alen = expansionSumZeroElimFast(w2len, w2, xyzlen, detxyz, adet);
-
-        t32alen = scaleExpansionZeroElim(dalen, da, cez, t32a);
-        t32blen = scaleExpansionZeroElim(dalen, da, ceztail, t32b);
-        t64alen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64a);
-        t32alen = scaleExpansionZeroElim(aclen, ac, dez, t32a);
-        t32blen = scaleExpansionZeroElim(aclen, ac, deztail, t32b);
-        t64blen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64b);
-        t32alen = scaleExpansionZeroElim(cdlen, cd, aez, t32a);
-        t32blen = scaleExpansionZeroElim(cdlen, cd, aeztail, t32b);
-        t64clen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64c);
-        t128len = expansionSumZeroElimFast(t64alen, t64a, t64blen, t64b, t128);
-        t192len = expansionSumZeroElimFast(t64clen, t64c, t128len, t128, t192);
-        xlen = scaleExpansionZeroElim(t192len, t192, bex, detx);
-        xxlen = scaleExpansionZeroElim(xlen, detx, bex, detxx);
-        xtlen = scaleExpansionZeroElim(t192len, t192, bextail, detxt);
-        xxtlen = scaleExpansionZeroElim(xtlen, detxt, bex, detxxt);
+        int ztztlen = scaleExpansionZeroElim(ztlen, detzt, aeztail, detztzt, t);
+        int z1len = expansionSumZeroElimFast(zzlen, detzz, zztlen, detzzt, z1, t);
+        int z2len = expansionSumZeroElimFast(z1len, z1, ztztlen, detztzt, z2, t);
+
+        double[] detw = scratch.expansion(46, 384);
+        double[] detwt = scratch.expansion(47, 384);
+        double[] w2 = scratch.expansion(48, 768);
+        int wlen = scaleExpansionZeroElim(t192len, t192, -aew, detw, t);
+        int wtlen = scaleExpansionZeroElim(t192len, t192, -aewtail, detwt, t);
+        int w2len = expansionSumZeroElimFast(wlen, detw, wtlen, detwt, w2, t);
+
+        double[] detxy = scratch.expansion(49, 4608);
+        double[] detxyz = scratch.expansion(50, 6912);
+        double[] adet = scratch.expansion(51, 7680);
+        int xylen = expansionSumZeroElimFast(x2len, x2, y2len, y2, detxy, t);
+        int xyzlen = expansionSumZeroElimFast(z2len, z2, xylen, detxy, detxyz, t);
+        int alen = expansionSumZeroElimFast(w2len, w2, xyzlen, detxyz, adet, t);
+
+        t32alen = scaleExpansionZeroElim(dalen, da, cez, t32a, t);
+        t32blen = scaleExpansionZeroElim(dalen, da, ceztail, t32b, t);
+        t64alen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64a, t);
+        t32alen = scaleExpansionZeroElim(aclen, ac, dez, t32a, t);
+        t32blen = scaleExpansionZeroElim(aclen, ac, deztail, t32b, t);
+        t64blen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64b, t);
+        t32alen = scaleExpansionZeroElim(cdlen, cd, aez, t32a, t);
+        t32blen = scaleExpansionZeroElim(cdlen, cd, aeztail, t32b, t);
+        t64clen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64c, t);
+        t128len = expansionSumZeroElimFast(t64alen, t64a, t64blen, t64b, t128, t);
+        t192len = expansionSumZeroElimFast(t64clen, t64c, t128len, t128, t192, t);
+        xlen = scaleExpansionZeroElim(t192len, t192, bex, detx, t);
+        xxlen = scaleExpansionZeroElim(xlen, detx, bex, detxx, t);
+        xtlen = scaleExpansionZeroElim(t192len, t192, bextail, detxt, t);
+        xxtlen = scaleExpansionZeroElim(xtlen, detxt, bex, detxxt, t);
         for (int i = 0; i < xxtlen; ++i) {
             detxxt[i] *= 2.0;
         }
-        xtxtlen = scaleExpansionZeroElim(xtlen, detxt, bextail, detxtxt);
-        x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1);
-        x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2);
-        ylen = scaleExpansionZeroElim(t192len, t192, bey, dety);
-        yylen = scaleExpansionZeroElim(ylen, dety, bey, detyy);
-        ytlen = scaleExpansionZeroElim(t192len, t192, beytail, detyt);
-        yytlen = scaleExpansionZeroElim(ytlen, detyt, bey, detyyt);
+        xtxtlen = scaleExpansionZeroElim(xtlen, detxt, bextail, detxtxt, t);
+        x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1, t);
+        x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2, t);
+        ylen = scaleExpansionZeroElim(t192len, t192, bey, dety, t);
+        yylen = scaleExpansionZeroElim(ylen, dety, bey, detyy, t);
+        ytlen = scaleExpansionZeroElim(t192len, t192, beytail, detyt, t);
+        yytlen = scaleExpansionZeroElim(ytlen, detyt, bey, detyyt, t);
         for (int i = 0; i < yytlen; ++i) {
             detyyt[i] *= 2.0;
         }
-        ytytlen = scaleExpansionZeroElim(ytlen, detyt, beytail, detytyt);
-        y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1);
-        y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2);
-        zlen = scaleExpansionZeroElim(t192len, t192, bez, detz);
-        zzlen = scaleExpansionZeroElim(zlen, detz, bez, detzz);
-        ztlen = scaleExpansionZeroElim(t192len, t192, beztail, detzt);
-        zztlen = scaleExpansionZeroElim(ztlen, detzt, bez, detzzt);
+        ytytlen = scaleExpansionZeroElim(ytlen, detyt, beytail, detytyt, t);
+        y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1, t);
+        y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2, t);
+        zlen = scaleExpansionZeroElim(t192len, t192, bez, detz, t);
+        zzlen = scaleExpansionZeroElim(zlen, detz, bez, detzz, t);
+        ztlen = scaleExpansionZeroElim(t192len, t192, beztail, detzt, t);
+        zztlen = scaleExpansionZeroElim(ztlen, detzt, bez, detzzt, t);
         for (int i = 0; i < zztlen; ++i) {
             detzzt[i] *= 2.0;
         }
-        ztztlen = scaleExpansionZeroElim(ztlen, detzt, beztail, detztzt);
-        z1len = expansionSumZeroElimFast(zzlen, detzz, zztlen, detzzt, z1);
-        z2len = expansionSumZeroElimFast(z1len, z1, ztztlen, detztzt, z2);
-        wlen = scaleExpansionZeroElim(t192len, t192, -bew, detw);
-        wtlen = scaleExpansionZeroElim(t192len, t192, -bewtail, detwt);
-        w2len = expansionSumZeroElimFast(wlen, detw, wtlen, detwt, w2);
-        xylen = expansionSumZeroElimFast(x2len, x2, y2len, y2, detxy);
-        xyzlen = expansionSumZeroElimFast(z2len, z2, xylen, detxy, detxyz);
-        double[] bdet = new double[7680];
-        int blen = expansionSumZeroElimFast(w2len, w2, xyzlen, detxyz, bdet);
-
-        t32alen = scaleExpansionZeroElim(ablen, ab, -dez, t32a);
-        t32blen = scaleExpansionZeroElim(ablen, ab, -deztail, t32b);
-        t64alen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64a);
-        t32alen = scaleExpansionZeroElim(bdlen, bd, -aez, t32a);
-        t32blen = scaleExpansionZeroElim(bdlen, bd, -aeztail, t32b);
-        t64blen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64b);
-        t32alen = scaleExpansionZeroElim(dalen, da, -bez, t32a);
-        t32blen = scaleExpansionZeroElim(dalen, da, -beztail, t32b);
-        t64clen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64c);
-        t128len = expansionSumZeroElimFast(t64alen, t64a, t64blen, t64b, t128);
-        t192len = expansionSumZeroElimFast(t64clen, t64c, t128len, t128, t192);
-        xlen = scaleExpansionZeroElim(t192len, t192, cex, detx);
-        xxlen = scaleExpansionZeroElim(xlen, detx, cex, detxx);
-        xtlen = scaleExpansionZeroElim(t192len, t192, cextail, detxt);
-        xxtlen = scaleExpansionZeroElim(xtlen, detxt, cex, detxxt);
+        ztztlen = scaleExpansionZeroElim(ztlen, detzt, beztail, detztzt, t);
+        z1len = expansionSumZeroElimFast(zzlen, detzz, zztlen, detzzt, z1, t);
+        z2len = expansionSumZeroElimFast(z1len, z1, ztztlen, detztzt, z2, t);
+        wlen = scaleExpansionZeroElim(t192len, t192, -bew, detw, t);
+        wtlen = scaleExpansionZeroElim(t192len, t192, -bewtail, detwt, t);
+        w2len = expansionSumZeroElimFast(wlen, detw, wtlen, detwt, w2, t);
+        xylen = expansionSumZeroElimFast(x2len, x2, y2len, y2, detxy, t);
+        xyzlen = expansionSumZeroElimFast(z2len, z2, xylen, detxy, detxyz, t);
+        double[] bdet = scratch.expansion(52, 7680);
+        int blen = expansionSumZeroElimFast(w2len, w2, xyzlen, detxyz, bdet, t);
+
+        t32alen = scaleExpansionZeroElim(ablen, ab, -dez, t32a, t);
+        t32blen = scaleExpansionZeroElim(ablen, ab, -deztail, t32b, t);
+        t64alen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64a, t);
+        t32alen = scaleExpansionZeroElim(bdlen, bd, -aez, t32a, t);
+        t32blen = scaleExpansionZeroElim(bdlen, bd, -aeztail, t32b, t);
+        t64blen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64b, t);
+        t32alen = scaleExpansionZeroElim(dalen, da, -bez, t32a, t);
+        t32blen = scaleExpansionZeroElim(dalen, da, -beztail, t32b, t);
+        t64clen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64c, t);
+        t128len = expansionSumZeroElimFast(t64alen, t64a, t64blen, t64b, t128, t);
+        t192len = expansionSumZeroElimFast(t64clen, t64c, t128len, t128, t192, t);
+        xlen = scaleExpansionZeroElim(t192len, t192, cex, detx, t);
+        xxlen = scaleExpansionZeroElim(xlen, detx, cex, detxx, t);
+        xtlen = scaleExpansionZeroElim(t192len, t192, cextail, detxt, t);
+        xxtlen = scaleExpansionZeroElim(xtlen, detxt, cex, detxxt, t);
         for (int i = 0; i < xxtlen; ++i) {
             detxxt[i] *= 2.0;
         }
-        xtxtlen = scaleExpansionZeroElim(xtlen, detxt, cextail, detxtxt);
-        x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1);
-        x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2);
-        ylen = scaleExpansionZeroElim(t192len, t192, cey, dety);
-        yylen = scaleExpansionZeroElim(ylen, dety, cey, detyy);
-        ytlen = scaleExpansionZeroElim(t192len, t192, ceytail, detyt);
-        yytlen = scaleExpansionZeroElim(ytlen, detyt, cey, detyyt);
+        xtxtlen = scaleExpansionZeroElim(xtlen, detxt, cextail, detxtxt, t);
+        x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1, t);
+        x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2, t);
+        ylen = scaleExpansionZeroElim(t192len, t192, cey, dety, t);
+        yylen = scaleExpansionZeroElim(ylen, dety, cey, detyy, t);
+        ytlen = scaleExpansionZeroElim(t192len, t192, ceytail, detyt, t);
+        yytlen = scaleExpansionZeroElim(ytlen, detyt, cey, detyyt, t);
         for (int i = 0; i < yytlen; ++i) {
             detyyt[i] *= 2.0;
         }
-        ytytlen = scaleExpansionZeroElim(ytlen, detyt, ceytail, detytyt);
-        y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1);
-        y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2);
-        zlen = scaleExpansionZeroElim(t192len, t192, cez, detz);
-        zzlen = scaleExpansionZeroElim(zlen, detz, cez, detzz);
-        ztlen = scaleExpansionZeroElim(t192len, t192, ceztail, detzt);
-        zztlen = scaleExpansionZeroElim(ztlen, detzt, cez, detzzt);
+        ytytlen = scaleExpansionZeroElim(ytlen, detyt, ceytail, detytyt, t);
+        y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1, t);
+        y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2, t);
+        zlen = scaleExpansionZeroElim(t192len, t192, cez, detz, t);
+        zzlen = scaleExpansionZeroElim(zlen, detz, cez, detzz, t);
+        ztlen = scaleExpansionZeroElim(t192len, t192, ceztail, detzt, t);
+        zztlen = scaleExpansionZeroElim(ztlen, detzt, cez, detzzt, t);
         for (int i = 0; i < zztlen; ++i) {
             detzzt[i] *= 2.0;
         }
-        ztztlen = scaleExpansionZeroElim(ztlen, detzt, ceztail, detztzt);
-        z1len = expansionSumZeroElimFast(zzlen, detzz, zztlen, detzzt, z1);
-        z2len = expansionSumZeroElimFast(z1len, z1, ztztlen, detztzt, z2);
-        wlen = scaleExpansionZeroElim(t192len, t192, -cew, detw);
-        wtlen = scaleExpansionZeroElim(t192len, t192, -cewtail, detwt);
-        w2len = expansionSumZeroElimFast(wlen, detw, wtlen, detwt, w2);
-        xylen = expansionSumZeroElimFast(x2len, x2, y2len, y2, detxy);
-        xyzlen = expansionSumZeroElimFast(z2len, z2, xylen, detxy, detxyz);
-        double[] cdet = new double[7680];
-        int clen = expansionSumZeroElimFast(w2len, w2, xyzlen, detxyz, cdet);
-
-        t32alen = scaleExpansionZeroElim(bclen, bc, aez, t32a);
-        t32blen = scaleExpansionZeroElim(bclen, bc, aeztail, t32b);
-        t64alen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64a);
-        t32alen = scaleExpansionZeroElim(aclen, ac, -bez, t32a);
-        t32blen = scaleExpansionZeroElim(aclen, ac, -beztail, t32b);
-        t64blen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64b);
-        t32alen = scaleExpansionZeroElim(ablen, ab, cez, t32a);
-        t32blen = scaleExpansionZeroElim(ablen, ab, ceztail, t32b);
-        t64clen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64c);
-        t128len = expansionSumZeroElimFast(t64alen, t64a, t64blen, t64b, t128);
-        t192len = expansionSumZeroElimFast(t64clen, t64c, t128len, t128, t192);
-        xlen = scaleExpansionZeroElim(t192len, t192, dex, detx);
-        xxlen = scaleExpansionZeroElim(xlen, detx, dex, detxx);
-        xtlen = scaleExpansionZeroElim(t192len, t192, dextail, detxt);
-        xxtlen = scaleExpansionZeroElim(xtlen, detxt, dex, detxxt);
+        ztztlen = scaleExpansionZeroElim(ztlen, detzt, ceztail, detztzt, t);
+        z1len = expansionSumZeroElimFast(zzlen, detzz, zztlen, detzzt, z1, t);
+        z2len = expansionSumZeroElimFast(z1len, z1, ztztlen, detztzt, z2, t);
+        wlen = scaleExpansionZeroElim(t192len, t192, -cew, detw, t);
+        wtlen = scaleExpansionZeroElim(t192len, t192, -cewtail, detwt, t);
+        w2len = expansionSumZeroElimFast(wlen, detw, wtlen, detwt, w2, t);
+        xylen = expansionSumZeroElimFast(x2len, x2, y2len, y2, detxy, t);
+        xyzlen = expansionSumZeroElimFast(z2len, z2, xylen, detxy, detxyz, t);
+        double[] cdet = scratch.expansion(53, 7680);
+        int clen = expansionSumZeroElimFast(w2len, w2, xyzlen, detxyz, cdet, t);
+
+        t32alen = scaleExpansionZeroElim(bclen, bc, aez, t32a, t);
+        t32blen = scaleExpansionZeroElim(bclen, bc, aeztail, t32b, t);
+        t64alen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64a, t);
+        t32alen = scaleExpansionZeroElim(aclen, ac, -bez, t32a, t);
+        t32blen = scaleExpansionZeroElim(aclen, ac, -beztail, t32b, t);
+        t64blen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64b, t);
+        t32alen = scaleExpansionZeroElim(ablen, ab, cez, t32a, t);
+        t32blen = scaleExpansionZeroElim(ablen, ab, ceztail, t32b, t);
+        t64clen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64c, t);
+        t128len = expansionSumZeroElimFast(t64alen, t64a, t64blen, t64b, t128, t);
+        t192len = expansionSumZeroElimFast(t64clen, t64c, t128len, t128, t192, t);
+        xlen = scaleExpansionZeroElim(t192len, t192, dex, detx, t);
+        xxlen = scaleExpansionZeroElim(xlen, detx, dex, detxx, t);
+        xtlen = scaleExpansionZeroElim(t192len, t192, dextail, detxt, t);
+        xxtlen = scaleExpansionZeroElim(xtlen, detxt, dex, detxxt, t);
         for (int i = 0; i < xxtlen; ++i) {
             detxxt[i] *= 2.0;
         }
-        xtxtlen = scaleExpansionZeroElim(xtlen, detxt, dextail, detxtxt);
-        x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1);
-        x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2);
-        ylen = scaleExpansionZeroElim(t192len, t192, dey, dety);
-        yylen = scaleExpansionZeroElim(ylen, dety, dey, detyy);
-        ytlen = scaleExpansionZeroElim(t192len, t192, deytail, detyt);
-        yytlen = scaleExpansionZeroElim(ytlen, detyt, dey, detyyt);
+        xtxtlen = scaleExpansionZeroElim(xtlen, detxt, dextail, detxtxt, t);
+        x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1, t);
+        x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2, t);
+        ylen = scaleExpansionZeroElim(t192len, t192, dey, dety, t);
+        yylen = scaleExpansionZeroElim(ylen, dety, dey, detyy, t);
+        ytlen = scaleExpansionZeroElim(t192len, t192, deytail, detyt, t);
+        yytlen = scaleExpansionZeroElim(ytlen, detyt, dey, detyyt, t);
         for (int i = 0; i < yytlen; ++i) {
             detyyt[i] *= 2.0;
         }
-        ytytlen = scaleExpansionZeroElim(ytlen, detyt, deytail, detytyt);
-        y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1);
-        y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2);
-        zlen = scaleExpansionZeroElim(t192len, t192, dez, detz);
-        zzlen = scaleExpansionZeroElim(zlen, detz, dez, detzz);
-        ztlen = scaleExpansionZeroElim(t192len, t192, deztail, detzt);
-        zztlen = scaleExpansionZeroElim(ztlen, detzt, dez, detzzt);
+        ytytlen = scaleExpansionZeroElim(ytlen, detyt, deytail, detytyt, t);
+        y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1, t);
+        y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2, t);
+        zlen = scaleExpansionZeroElim(t192len, t192, dez, detz, t);
+        zzlen = scaleExpansionZeroElim(zlen, detz, dez, detzz, t);
+        ztlen = scaleExpansionZeroElim(t192len, t192, deztail, detzt, t);
+        zztlen = scaleExpansionZeroElim(ztlen, detzt, dez, detzzt, t);
         for (int i = 0; i < zztlen; ++i) {
             detzzt[i] *= 2.0;
         }
-        ztztlen = scaleExpansionZeroElim(ztlen, detzt, deztail, detztzt);
-        z1len = expansionSumZeroElimFast(zzlen, detzz, zztlen, detzzt, z1);
-        z2len = expansionSumZeroElimFast(z1len, z1, ztztlen, detztzt, z2);
-        wlen = scaleExpansionZeroElim(t192len, t192, -dew, detw);
-        wtlen = scaleExpansionZeroElim(t192len, t192, -dewtail, detwt);
-        w2len = expansionSumZeroElimFast(wlen, detw, wtlen, detwt, w2);
-        xylen = expansionSumZeroElimFast(x2len, x2, y2len, y2, detxy);
-        xyzlen = expansionSumZeroElimFast(z2len, z2, xylen, detxy, detxyz);
-        double[] ddet = new double[7680];
-        int dlen = expansionSumZeroElimFast(w2len, w2, xyzlen, detxyz, ddet);
-
-        double[] abdet = new double[15360];
-        double[] cddet = new double[15360];
-        double[] det = new double[30720];
-        ablen = expansionSumZeroElimFast(alen, adet, blen, bdet, abdet);
-        cdlen = expansionSumZeroElimFast(clen, cdet, dlen, ddet, cddet);
-        int detlen = expansionSumZeroElimFast(ablen, abdet, cdlen, cddet, det);
+        ztztlen = scaleExpansionZeroElim(ztlen, detzt, deztail, detztzt, t);
+        z1len = expansionSumZeroElimFast(zzlen, detzz, zztlen, detzzt, z1, t);
+        z2len = expansionSumZeroElimFast(z1len, z1, ztztlen, detztzt, z2, t);
+        wlen = scaleExpansionZeroElim(t192len, t192, -dew, detw, t);
+        wtlen = scaleExpansionZeroElim(t192len, t192, -dewtail, detwt, t);
+        w2len = expansionSumZeroElimFast(wlen, detw, wtlen, detwt, w2, t);
+        xylen = expansionSumZeroElimFast(x2len, x2, y2len, y2, detxy, t);
+        xyzlen = expansionSumZeroElimFast(z2len, z2, xylen, detxy, detxyz, t);
+        double[] ddet = scratch.expansion(54, 7680);
+        int dlen = expansionSumZeroElimFast(w2len, w2, xyzlen, detxyz, ddet, t);
+
+        double[] abdet = scratch.expansion(55, 15360);
+        double[] cddet = scratch.expansion(56, 15360);
+        double[] det = scratch.expansion(57, 30720);
+        ablen = expansionSumZeroElimFast(alen, adet, blen, bdet, abdet, t);
+        cdlen = expansionSumZeroElimFast(clen, cdet, dlen, ddet, cddet, t);
+        int detlen = expansionSumZeroElimFast(ablen, abdet, cdlen, cddet, det, t);
 
         return det[detlen - 1];
     }
@@ -1760,7 +2014,8 @@ public final class Geometry {
     private static double inSphereExact(double xa, double ya, double za, double xb, double yb, double zb, double xc,
                                         double yc, double zc, double xd, double yd, double zd, double xe, double ye,
                                         double ze) {
-        Two t = new Two();
+        Scratch scratch = SCRATCH.get();
+        Two t = scratch.two;
         twoDiff(xa, xe, t);
         double aex = t.x;
         double aextail = t.y;
@@ -1798,280 +2053,280 @@ public final class Geometry {
         double dez = t.x;
         double deztail = t.y;
 
-        double[] axby = new double[8];
-        double[] bxay = new double[8];
-        double[] ab = new double[16];
-        twoTwoProduct(aex, aextail, bey, beytail, axby);
+        double[] axby = scratch.expansion(0, 8);
+        double[] bxay = scratch.expansion(1, 8);
+        double[] ab = scratch.expansion(2, 16);
+        twoTwoProduct(aex, aextail, bey, beytail, axby, t);
         double negate = -aey;
         double negatetail = -aeytail;
-        twoTwoProduct(bex, bextail, negate, negatetail, bxay);
-        int ablen = expansionSumZeroElimFast(8, axby, 8, bxay, ab);
+        twoTwoProduct(bex, bextail, negate, negatetail, bxay, t);
+        int ablen = expansionSumZeroElimFast(8, axby, 8, bxay, ab, t);
 
-        double[] bxcy = new double[8];
-        double[] cxby = new double[8];
-        double[] bc = new double[16];
-        twoTwoProduct(bex, bextail, cey, ceytail, bxcy);
+        double[] bxcy = scratch.expansion(3, 8);
+        double[] cxby = scratch.expansion(4, 8);
+        double[] bc = scratch.expansion(5, 16);
+        twoTwoProduct(bex, bextail, cey, ceytail, bxcy, t);
         negate = -bey;
         negatetail = -beytail;
-        twoTwoProduct(cex, cextail, negate, negatetail, cxby);
-        int bclen = expansionSumZeroElimFast(8, bxcy, 8, cxby, bc);
+        twoTwoProduct(cex, cextail, negate, negatetail, cxby, t);
+        int bclen = expansionSumZeroElimFast(8, bxcy, 8, cxby, bc, t);
 
-        double[] cxdy = new double[8];
-        double[] dxcy = new double[8];
-        double[] cd = new double[16];
-        twoTwoProduct(cex, cextail, dey, deytail, cxdy);
+        double[] cxdy = scratch.expansion(6, 8);
+        double[] dxcy = scratch.expansion(7, 8);
+        double[] cd = scratch.expansion(8, 16);
+        twoTwoProduct(cex, cextail, dey, deytail, cxdy, t);
         negate = -cey;
         negatetail = -ceytail;
-        twoTwoProduct(dex, dextail, negate, negatetail, dxcy);
-        int cdlen = expansionSumZeroElimFast(8, cxdy, 8, dxcy, cd);
+        twoTwoProduct(dex, dextail, negate, negatetail, dxcy, t);
+        int cdlen = expansionSumZeroElimFast(8, cxdy, 8, dxcy, cd, t);
 
-        double[] dxay = new double[8];
-        double[] axdy = new double[8];
-        double[] da = new double[16];
-        twoTwoProduct(dex, dextail, aey, aeytail, dxay);
+        double[] dxay = scratch.expansion(9, 8);
+        double[] axdy = scratch.expansion(10, 8);
+        double[] da = scratch.expansion(11, 16);
+        twoTwoProduct(dex, dextail, aey, aeytail, dxay, t);
         negate = -dey;
         negatetail = -deytail;
-        twoTwoProduct(aex, aextail, negate, negatetail, axdy);
-        int dalen = expansionSumZeroElimFast(8, dxay, 8, axdy, da);
+        twoTwoProduct(aex, aextail, negate, negatetail, axdy, t);
+        int dalen = expansionSumZeroElimFast(8, dxay, 8, axdy, da, t);
 
-        double[] axcy = new double[8];
-        double[] cxay = new double[8];
-        double[] ac = new double[16];
-        twoTwoProduct(aex, aextail, cey, ceytail, axcy);
+        double[] axcy = scratch.expansion(12, 8);
+        double[] cxay = scratch.expansion(13, 8);
+        double[] ac = scratch.expansion(14, 16);
+        twoTwoProduct(aex, aextail, cey, ceytail, axcy, t);
         negate = -aey;
         negatetail = -aeytail;
-        twoTwoProduct(cex, cextail, negate, negatetail, cxay);
-        int aclen = expansionSumZeroElimFast(8, axcy, 8, cxay, ac);
+        twoTwoProduct(cex, cextail, negate, negatetail, cxay, t);
+        int aclen = expansionSumZeroElimFast(8, axcy, 8, cxay, ac, t);
 
-        double[] bxdy = new double[8];
-        double[] dxby = new double[8];
-        double[] bd = new double[16];
-        twoTwoProduct(bex, bextail, dey, deytail, bxdy);
+        double[] bxdy = scratch.expansion(15, 8);
+        double[] dxby = scratch.expansion(16, 8);
+        double[] bd = scratch.expansion(17, 16);
+        twoTwoProduct(bex, bextail, dey, deytail, bxdy, t);
         negate = -bey;
         negatetail = -beytail;
-        twoTwoProduct(dex, dextail, negate, negatetail, dxby);
-        int bdlen = expansionSumZeroElimFast(8, bxdy, 8, dxby, bd);
-
-        double[] t32a = new double[32];
-        double[] t32b = new double[32];
-        double[] t64a = new double[64];
-        double[] t64b = new double[64];
-        double[] t64c = new double[64];
-        double[] t128 = new double[128];
-        double[] t192 = new double[192];
+        twoTwoProduct(dex, dextail, negate, negatetail, dxby, t);
+        int bdlen = expansionSumZeroElimFast(8, bxdy, 8, dxby, bd, t);
+
+        double[] t32a = scratch.expansion(18, 32);
+        double[] t32b = scratch.expansion(19, 32);
+        double[] t64a = scratch.expansion(20, 64);
+        double[] t64b = scratch.expansion(21, 64);
+        double[] t64c = scratch.expansion(22, 64);
+        double[] t128 = scratch.expansion(23, 128);
+        double[] t192 = scratch.expansion(24, 192);
         int t32alen, t32blen, t64alen, t64blen, t64clen, t128len, t192len;
-        t32alen = scaleExpansionZeroElim(cdlen, cd, -bez, t32a);
-        t32blen = scaleExpansionZeroElim(cdlen, cd, -beztail, t32b);
-        t64alen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64a);
-        t32alen = scaleExpansionZeroElim(bdlen, bd, cez, t32a);
-        t32blen = scaleExpansionZeroElim(bdlen, bd, ceztail, t32b);
-        t64blen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64b);
-        t32alen = scaleExpansionZeroElim(bclen, bc, -dez, t32a);
-        t32blen = scaleExpansionZeroElim(bclen, bc, -deztail, t32b);
-        t64clen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64c);
-        t128len = expansionSumZeroElimFast(t64alen, t64a, t64blen, t64b, t128);
-        t192len = expansionSumZeroElimFast(t64clen, t64c, t128len, t128, t192);
-
-        double[] detx = new double[384];
-        double[] detxx = new double[768];
-        double[] detxt = new double[384];
-        double[] detxxt = new double[768];
-        double[] detxtxt = new double[768];
-        double[] x1 = new double[1536];
-        double[] x2 = new double[2304];
-        int xlen = scaleExpansionZeroElim(t192len, t192, aex, detx);
-        int xxlen = scaleExpansionZeroElim(xlen, detx, aex, detxx);
-        int xtlen = scaleExpansionZeroElim(t192len, t192, aextail, detxt);
-        int xxtlen = scaleExpansionZeroElim(xtlen, detxt, aex, detxxt);
+        t32alen = scaleExpansionZeroElim(cdlen, cd, -bez, t32a, t);
+        t32blen = scaleExpansionZeroElim(cdlen, cd, -beztail, t32b, t);
+        t64alen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64a, t);
+        t32alen = scaleExpansionZeroElim(bdlen, bd, cez, t32a, t);
+        t32blen = scaleExpansionZeroElim(bdlen, bd, ceztail, t32b, t);
+        t64blen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64b, t);
+        t32alen = scaleExpansionZeroElim(bclen, bc, -dez, t32a, t);
+        t32blen = scaleExpansionZeroElim(bclen, bc, -deztail, t32b, t);
+        t64clen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64c, t);
+        t128len = expansionSumZeroElimFast(t64alen, t64a, t64blen, t64b, t128, t);
+        t192len = expansionSumZeroElimFast(t64clen, t64c, t128len, t128, t192, t);
+
+        double[] detx = scratch.expansion(25, 384);
+        double[] detxx = scratch.expansion(26, 768);
+        double[] detxt = scratch.expansion(27, 384);
+        double[] detxxt = scratch.expansion(28, 768);
+        double[] detxtxt = scratch.expansion(29, 768);
+        double[] x1 = scratch.expansion(30, 1536);
+        double[] x2 = scratch.expansion(31, 2304);
+        int xlen = scaleExpansionZeroElim(t192len, t192, aex, detx, t);
+        int xxlen = scaleExpansionZeroElim(xlen, detx, aex, detxx, t);
+        int xtlen = scaleExpansionZeroElim(t192len, t192, aextail, detxt, t);
+        int xxtlen = scaleExpansionZeroElim(xtlen, detxt, aex, detxxt, t);
         for (int i = 0; i < xxtlen; ++i) {
             detxxt[i] *= 2.0;
         }
-        int xtxtlen = scaleExpansionZeroElim(xtlen, detxt, aextail, detxtxt);
-        int x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1);
-        int x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2);
-
-        double[] dety = new double[384];
-        double[] detyy = new double[768];
-        double[] detyt = new double[384];
-        double[] detyyt = new double[768];
-        double[] detytyt = new double[768];
-        double[] y1 = new double[1536];
-        double[] y2 = new double[2304];
-        int ylen = scaleExpansionZeroElim(t192len, t192, aey, dety);
-        int yylen = scaleExpansionZeroElim(ylen, dety, aey, detyy);
-        int ytlen = scaleExpansionZeroElim(t192len, t192, aeytail, detyt);
-        int yytlen = scaleExpansionZeroElim(ytlen, detyt, aey, detyyt);
+        int xtxtlen = scaleExpansionZeroElim(xtlen, detxt, aextail, detxtxt, t);
+        int x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1, t);
+        int x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2, t);
+
+        double[] dety = scratch.expansion(32, 384);
+        double[] detyy = scratch.expansion(33, 768);
+        double[] detyt = scratch.expansion(34, 384);
+        double[] detyyt = scratch.expansion(35, 768);
+        double[] detytyt = scratch.expansion(36, 768);
+        double[] y1 = scratch.expansion(37, 1536);
+        double[] y2 = scratch.expansion(38, 2304);
+        int ylen = scaleExpansionZeroElim(t192len, t192, aey, dety, t);
+        int yylen = scaleExpansionZeroElim(ylen, dety, aey, detyy, t);
+        int ytlen = scaleExpansionZeroElim(t192len, t192, aeytail, detyt, t);
+        int yytlen = scaleExpansionZeroElim(ytlen, detyt, aey, detyyt, t);
         for (int i = 0; i < yytlen; ++i) {
             detyyt[i] *= 2.0;
         }
-        int ytytlen = scaleExpansionZeroElim(ytlen, detyt, aeytail, detytyt);
-        int y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1);
-        int y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2);
-
-        double[] detz = new double[384];
-        double[] detzz = new double[768];
-        double[] detzt = new double[384];
-        double[] detzzt = new double[768];
-        double[] detztzt = new double[768];
-        double[] z1 = new double[1536];
-        double[] z2 = new double[2304];
-        int zlen = scaleExpansionZeroElim(t192len, t192, aez, detz);
-        int zzlen = scaleExpansionZeroElim(zlen, detz, aez, detzz);
-        int ztlen = scaleExpansionZeroElim(t192len, t192, aeztail, detzt);
-        int zztlen = scaleExpansionZeroElim(ztlen, detzt, aez, detzzt);
+        int ytytlen = scaleExpansionZeroElim(ytlen, detyt, aeytail, detytyt, t);
+        int y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1, t);
+        int y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2, t);
+
+        double[] detz = scratch.expansion(39, 384);
+        double[] detzz = scratch.expansion(40, 768);
+        double[] detzt = scratch.expansion(41, 384);
+        double[] detzzt = scratch.expansion(42, 768);
+        double[] detztzt = scratch.expansion(43, 768);
+        double[] z1 = scratch.expansion(44, 1536);
+        double[] z2 = scratch.expansion(45, 2304);
+        int zlen = scaleExpansionZeroElim(t192len, t192, aez, detz, t);
+        int zzlen = scaleExpansionZeroElim(zlen, detz, aez, detzz, t);
+        int ztlen = scaleExpansionZeroElim(t192len, t192, aeztail, detzt, t);
+        int zztlen = scaleExpansionZeroElim(ztlen, detzt, aez, detzzt, t);
         for (int i = 0; i < zztlen; ++i) {
             detzzt[i] *= 2.0;
         }
-        int ztztlen = scaleExpansionZeroElim(ztlen, detzt, aeztail, detztzt);
-        int z1len = expansionSumZeroElimFast(zzlen, detzz, zztlen, detzzt, z1);
-        int z2len = expansionSumZeroElimFast(z1len, z1, ztztlen, detztzt, z2);
-
-        double[] detxy = new double[4608];
-        double[] adet = new double[6912];
-        double[] bdet = new double[6912];
-        double[] cdet = new double[6912];
-        double[] ddet = new double[6912];
-        int xylen = expansionSumZeroElimFast(x2len, x2, y2len, y2, detxy);
-        int alen = expansionSumZeroElimFast(z2len, z2, xylen, detxy, adet);
-
-        t32alen = scaleExpansionZeroElim(dalen, da, cez, t32a);
-        t32blen = scaleExpansionZeroElim(dalen, da, ceztail, t32b);
-        t64alen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64a);
-        t32alen = scaleExpansionZeroElim(aclen, ac, dez, t32a);
-        t32blen = scaleExpansionZeroElim(aclen, ac, deztail, t32b);
-        t64blen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64b);
-        t32alen = scaleExpansionZeroElim(cdlen, cd, aez, t32a);
-        t32blen = scaleExpansionZeroElim(cdlen, cd, aeztail, t32b);
-        t64clen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64c);
-        t128len = expansionSumZeroElimFast(t64alen, t64a, t64blen, t64b, t128);
-        t192len = expansionSumZeroElimFast(t64clen, t64c, t128len, t128, t192);
-        xlen = scaleExpansionZeroElim(t192len, t192, bex, detx);
-        xxlen = scaleExpansionZeroElim(xlen, detx, bex, detxx);
-        xtlen = scaleExpansionZeroElim(t192len, t192, bextail, detxt);
-        xxtlen = scaleExpansionZeroElim(xtlen, detxt, bex, detxxt);
+        int ztztlen = scaleExpansionZeroElim(ztlen, detzt, aeztail, detztzt, t);
+        int z1len = expansionSumZeroElimFast(zzlen, detzz, zztlen, detzzt, z1, t);
+        int z2len = expansionSumZeroElimFast(z1len, z1, ztztlen, detztzt, z2, t);
+
+        double[] detxy = scratch.expansion(46, 4608);
+        double[] adet = scratch.expansion(47, 6912);
+        double[] bdet = scratch.expansion(48, 6912);
+        double[] cdet = scratch.expansion(49, 6912);
+        double[] ddet = scratch.expansion(50, 6912);
+        int xylen = expansionSumZeroElimFast(x2len, x2, y2len, y2, detxy, t);
+        int alen = expansionSumZeroElimFast(z2len, z2, xylen, detxy, adet, t);
+
+        t32alen = scaleExpansionZeroElim(dalen, da, cez, t32a, t);
+        t32blen = scaleExpansionZeroElim(dalen, da, ceztail, t32b, t);
+        t64alen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64a, t);
+        t32alen = scaleExpansionZeroElim(aclen, ac, dez, t32a, t);
+        t32blen = scaleExpansionZeroElim(aclen, ac, deztail, t32b, t);
+        t64blen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64b, t);
+        t32alen = scaleExpansionZeroElim(cdlen, cd, aez, t32a, t);
+        t32blen = scaleExpansionZeroElim(cdlen, cd, aeztail, t32b, t);
+        t64clen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64c, t);
+        t128len = expansionSumZeroElimFast(t64alen, t64a, t64blen, t64b, t128, t);
+        t192len = expansionSumZeroElimFast(t64clen, t64c, t128len, t128, t192, t);
+        xlen = scaleExpansionZeroElim(t192len, t192, bex, detx, t);
+        xxlen = scaleExpansionZeroElim(xlen, detx, bex, detxx, t);
+        xtlen = scaleExpansionZeroElim(t192len, t192, bextail, detxt, t);
+        xxtlen = scaleExpansionZeroElim(xtlen, detxt, bex, detxxt, t);
         for (int i = 0; i < xxtlen; ++i) {
             detxxt[i] *= 2.0;
         }
-        xtxtlen = scaleExpansionZeroElim(xtlen, detxt, bextail, detxtxt);
-        x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1);
-        x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2);
-        ylen = scaleExpansionZeroElim(t192len, t192, bey, dety);
-        yylen = scaleExpansionZeroElim(ylen, dety, bey, detyy);
-        ytlen = scaleExpansionZeroElim(t192len, t192, beytail, detyt);
-        yytlen = scaleExpansionZeroElim(ytlen, detyt, bey, detyyt);
+        xtxtlen = scaleExpansionZeroElim(xtlen, detxt, bextail, detxtxt, t);
+        x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1, t);
+        x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2, t);
+        ylen = scaleExpansionZeroElim(t192len, t192, bey, dety, t);
+        yylen = scaleExpansionZeroElim(ylen, dety, bey, detyy, t);
+        ytlen = scaleExpansionZeroElim(t192len, t192, beytail, detyt, t);
+        yytlen = scaleExpansionZeroElim(ytlen, detyt, bey, detyyt, t);
         for (int i = 0; i < yytlen; ++i) {
             detyyt[i] *= 2.0;
         }
-        ytytlen = scaleExpansionZeroElim(ytlen, detyt, beytail, detytyt);
-        y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1);
-        y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2);
-        zlen = scaleExpansionZeroElim(t192len, t192, bez, detz);
-        zzlen = scaleExpansionZeroElim(zlen, detz, bez, detzz);
-        ztlen = scaleExpansionZeroElim(t192len, t192, beztail, detzt);
-        zztlen = scaleExpansionZeroElim(ztlen, detzt, bez, detzzt);
+        ytytlen = scaleExpansionZeroElim(ytlen, detyt, beytail, detytyt, t);
+        y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1, t);
+        y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2, t);
+        zlen = scaleExpansionZeroElim(t192len, t192, bez, detz, t);
+        zzlen = scaleExpansionZeroElim(zlen, detz, bez, detzz, t);
+        ztlen = scaleExpansionZeroElim(t192len, t192, beztail, detzt, t);
+        zztlen = scaleExpansionZeroElim(ztlen, detzt, bez, detzzt, t);
         for (int i = 0; i < zztlen; ++i) {
             detzzt[i] *= 2.0;
         }
-        ztztlen = scaleExpansionZeroElim(ztlen, detzt, beztail, detztzt);
-        z1len = expansionSumZeroElimFast(zzlen, detzz, zztlen, detzzt, z1);
-        z2len = expansionSumZeroElimFast(z1len, z1, ztztlen, detztzt, z2);
-        xylen = expansionSumZeroElimFast(x2len, x2, y2len, y2, detxy);
-        int blen = expansionSumZeroElimFast(z2len, z2, xylen, detxy, bdet);
-
-        t32alen = scaleExpansionZeroElim(ablen, ab, -dez, t32a);
-        t32blen = scaleExpansionZeroElim(ablen, ab, -deztail, t32b);
-        t64alen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64a);
-        t32alen = scaleExpansionZeroElim(bdlen, bd, -aez, t32a);
-        t32blen = scaleExpansionZeroElim(bdlen, bd, -aeztail, t32b);
-        t64blen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64b);
-        t32alen = scaleExpansionZeroElim(dalen, da, -bez, t32a);
-        t32blen = scaleExpansionZeroElim(dalen, da, -beztail, t32b);
-        t64clen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64c);
-        t128len = expansionSumZeroElimFast(t64alen, t64a, t64blen, t64b, t128);
-        t192len = expansionSumZeroElimFast(t64clen, t64c, t128len, t128, t192);
-        xlen = scaleExpansionZeroElim(t192len, t192, cex, detx);
-        xxlen = scaleExpansionZeroElim(xlen, detx, cex, detxx);
-        xtlen = scaleExpansionZeroElim(t192len, t192, cextail, detxt);
-        xxtlen = scaleExpansionZeroElim(xtlen, detxt, cex, detxxt);
+        ztztlen = scaleExpansionZeroElim(ztlen, detzt, beztail, detztzt, t);
+        z1len = expansionSumZeroElimFast(zzlen, detzz, zztlen, detzzt, z1, t);
+        z2len = expansionSumZeroElimFast(z1len, z1, ztztlen, detztzt, z2, t);
+        xylen = expansionSumZeroElimFast(x2len, x2, y2len, y2, detxy, t);
+        int blen = expansionSumZeroElimFast(z2len, z2, xylen, detxy, bdet, t);
+
+        t32alen = scaleExpansionZeroElim(ablen, ab, -dez, t32a, t);
+        t32blen = scaleExpansionZeroElim(ablen, ab, -deztail, t32b, t);
+        t64alen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64a, t);
+        t32alen = scaleExpansionZeroElim(bdlen, bd, -aez, t32a, t);
+        t32blen = scaleExpansionZeroElim(bdlen, bd, -aeztail, t32b, t);
+        t64blen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64b, t);
+        t32alen = scaleExpansionZeroElim(dalen, da, -bez, t32a, t);
+        t32blen = scaleExpansionZeroElim(dalen, da, -beztail, t32b, t);
+        t64clen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64c, t);
+        t128len = expansionSumZeroElimFast(t64alen, t64a, t64blen, t64b, t128, t);
+        t192len = expansionSumZeroElimFast(t64clen, t64c, t128len, t128, t192, t);
+        xlen = scaleExpansionZeroElim(t192len, t192, cex, detx, t);
+        xxlen = scaleExpansionZeroElim(xlen, detx, cex, detxx, t);
+        xtlen = scaleExpansionZeroElim(t192len, t192, cextail, detxt, t);
+        xxtlen = scaleExpansionZeroElim(xtlen, detxt, cex, detxxt, t);
         for (int i = 0; i < xxtlen; ++i) {
             detxxt[i] *= 2.0;
         }
-        xtxtlen = scaleExpansionZeroElim(xtlen, detxt, cextail, detxtxt);
-        x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1);
-        x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2);
-        ylen = scaleExpansionZeroElim(t192len, t192, cey, dety);
-        yylen = scaleExpansionZeroElim(ylen, dety, cey, detyy);
-        ytlen = scaleExpansionZeroElim(t192len, t192, ceytail, detyt);
-        yytlen = scaleExpansionZeroElim(ytlen, detyt, cey, detyyt);
+        xtxtlen = scaleExpansionZeroElim(xtlen, detxt, cextail, detxtxt, t);
+        x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1, t);
+        x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2, t);
+        ylen = scaleExpansionZeroElim(t192len, t192, cey, dety, t);
+        yylen = scaleExpansionZeroElim(ylen, dety, cey, detyy, t);
+        ytlen = scaleExpansionZeroElim(t192len, t192, ceytail, detyt, t);
+        yytlen = scaleExpansionZeroElim(ytlen, detyt, cey, detyyt, t);
         for (int i = 0; i < yytlen; ++i) {
             detyyt[i] *= 2.0;
         }
-        ytytlen = scaleExpansionZeroElim(ytlen, detyt, ceytail, detytyt);
-        y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1);
-        y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2);
-        zlen = scaleExpansionZeroElim(t192len, t192, cez, detz);
-        zzlen = scaleExpansionZeroElim(zlen, detz, cez, detzz);
-        ztlen = scaleExpansionZeroElim(t192len, t192, ceztail, detzt);
-        zztlen = scaleExpansionZeroElim(ztlen, detzt, cez, detzzt);
+        ytytlen = scaleExpansionZeroElim(ytlen, detyt, ceytail, detytyt, t);
+        y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1, t);
+        y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2, t);
+        zlen = scaleExpansionZeroElim(t192len, t192, cez, detz, t);
+        zzlen = scaleExpansionZeroElim(zlen, detz, cez, detzz, t);
+        ztlen = scaleExpansionZeroElim(t192len, t192, ceztail, detzt, t);
+        zztlen = scaleExpansionZeroElim(ztlen, detzt, cez, detzzt, t);
         for (int i = 0; i < zztlen; ++i) {
             detzzt[i] *= 2.0;
         }
-        ztztlen = scaleExpansionZeroElim(ztlen, detzt, ceztail, detztzt);
-        z1len = expansionSumZeroElimFast(zzlen, detzz, zztlen, detzzt, z1);
-        z2len = expansionSumZeroElimFast(z1len, z1, ztztlen, detztzt, z2);
-        xylen = expansionSumZeroElimFast(x2len, x2, y2len, y2, detxy);
-        int clen = expansionSumZeroElimFast(z2len, z2, xylen, detxy, cdet);
-
-        t32alen = scaleExpansionZeroElim(bclen, bc, aez, t32a);
-        t32blen = scaleExpansionZeroElim(bclen, bc, aeztail, t32b);
-        t64alen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64a);
-        t32alen = scaleExpansionZeroElim(aclen, ac, -bez, t32a);
-        t32blen = scaleExpansionZeroElim(aclen, ac, -beztail, t32b);
-        t64blen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64b);
-        t32alen = scaleExpansionZeroElim(ablen, ab, cez, t32a);
-        t32blen = scaleExpansionZeroElim(ablen, ab, ceztail, t32b);
-        t64clen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64c);
-        t128len = expansionSumZeroElimFast(t64alen, t64a, t64blen, t64b, t128);
-        t192len = expansionSumZeroElimFast(t64clen, t64c, t128len, t128, t192);
-        xlen = scaleExpansionZeroElim(t192len, t192, dex, detx);
-        xxlen = scaleExpansionZeroElim(xlen, detx, dex, detxx);
-        xtlen = scaleExpansionZeroElim(t192len, t192, dextail, detxt);
-        xxtlen = scaleExpansionZeroElim(xtlen, detxt, dex, detxxt);
+        ztztlen = scaleExpansionZeroElim(ztlen, detzt, ceztail, detztzt, t);
+        z1len = expansionSumZeroElimFast(zzlen, detzz, zztlen, detzzt, z1, t);
+        z2len = expansionSumZeroElimFast(z1len, z1, ztztlen, detztzt, z2, t);
+        xylen = expansionSumZeroElimFast(x2len, x2, y2len, y2, detxy, t);
+        int clen = expansionSumZeroElimFast(z2len, z2, xylen, detxy, cdet, t);
+
+        t32alen = scaleExpansionZeroElim(bclen, bc, aez, t32a, t);
+        t32blen = scaleExpansionZeroElim(bclen, bc, aeztail, t32b, t);
+        t64alen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64a, t);
+        t32alen = scaleExpansionZeroElim(aclen, ac, -bez, t32a, t);
+        t32blen = scaleExpansionZeroElim(aclen, ac, -beztail, t32b, t);
+        t64blen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64b, t);
+        t32alen = scaleExpansionZeroElim(ablen, ab, cez, t32a, t);
+        t32blen = scaleExpansionZeroElim(ablen, ab, ceztail, t32b, t);
+        t64clen = expansionSumZeroElimFast(t32alen, t32a, t32blen, t32b, t64c, t);
+        t128len = expansionSumZeroElimFast(t64alen, t64a, t64blen, t64b, t128, t);
+        t192len = expansionSumZeroElimFast(t64clen, t64c, t128len, t128, t192, t);
+        xlen = scaleExpansionZeroElim(t192len, t192, dex, detx, t);
+        xxlen = scaleExpansionZeroElim(xlen, detx, dex, detxx, t);
+        xtlen = scaleExpansionZeroElim(t192len, t192, dextail, detxt, t);
+        xxtlen = scaleExpansionZeroElim(xtlen, detxt, dex, detxxt, t);
         for (int i = 0; i < xxtlen; ++i) {
             detxxt[i] *= 2.0;
         }
-        xtxtlen = scaleExpansionZeroElim(xtlen, detxt, dextail, detxtxt);
-        x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1);
-        x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2);
-        ylen = scaleExpansionZeroElim(t192len, t192, dey, dety);
-        yylen = scaleExpansionZeroElim(ylen, dety, dey, detyy);
-        ytlen = scaleExpansionZeroElim(t192len, t192, deytail, detyt);
-        yytlen = scaleExpansionZeroElim(ytlen, detyt, dey, detyyt);
+        xtxtlen = scaleExpansionZeroElim(xtlen, detxt, dextail, detxtxt, t);
+        x1len = expansionSumZeroElimFast(xxlen, detxx, xxtlen, detxxt, x1, t);
+        x2len = expansionSumZeroElimFast(x1len, x1, xtxtlen, detxtxt, x2, t);
+        ylen = scaleExpansionZeroElim(t192len, t192, dey, dety, t);
+        yylen = scaleExpansionZeroElim(ylen, dety, dey, detyy, t);
+        ytlen = scaleExpansionZeroElim(t192len, t192, deytail, detyt, t);
+        yytlen = scaleExpansionZeroElim(ytlen, detyt, dey, detyyt, t);
         for (int i = 0; i < yytlen; ++i) {
             detyyt[i] *= 2.0;
         }
-        ytytlen = scaleExpansionZeroElim(ytlen, detyt, deytail, detytyt);
-        y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1);
-        y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2);
-        zlen = scaleExpansionZeroElim(t192len, t192, dez, detz);
-        zzlen = scaleExpansionZeroElim(zlen, detz, dez, detzz);
-        ztlen = scaleExpansionZeroElim(t192len, t192, deztail, detzt);
-        zztlen = scaleExpansionZeroElim(ztlen, detzt, dez, detzzt);
+        ytytlen = scaleExpansionZeroElim(ytlen, detyt, deytail, detytyt, t);
+        y1len = expansionSumZeroElimFast(yylen, detyy, yytlen, detyyt, y1, t);
+        y2len = expansionSumZeroElimFast(y1len, y1, ytytlen, detytyt, y2, t);
+        zlen = scaleExpansionZeroElim(t192len, t192, dez, detz, t);
+        zzlen = scaleExpansionZeroElim(zlen, detz, dez, detzz, t);
+        ztlen = scaleExpansionZeroElim(t192len, t192, deztail, detzt, t);
+        zztlen = scaleExpansionZeroElim(ztlen, detzt, dez, detzzt, t);
         for (int i = 0; i < zztlen; ++i) {
             detzzt[i] *= 2.0;
         }
-        ztztlen = scaleExpansionZeroElim(ztlen, detzt, deztail, detztzt);
-        z1len = expansionSumZeroElimFast(zzlen, detzz, zztlen, detzzt, z1);
-        z2len = expansionSumZeroElimFast(z1len, z1, ztztlen, detztzt, z2);
-        xylen = expansionSumZeroElimFast(x2len, x2, y2len, y2, detxy);
-        int dlen = expansionSumZeroElimFast(z2len, z2, xylen, detxy, ddet);
+        ztztlen = scaleExpansionZeroElim(ztlen, detzt, deztail, detztzt, t);
+        z1len = expansionSumZeroElimFast(zzlen, detzz, zztlen, detzzt, z1, t);
+        z2len = expansionSumZeroElimFast(z1len, z1, ztztlen, detztzt, z2, t);
+        xylen = expansionSumZeroElimFast(x2len, x2, y2len, y2, detxy, t);
+        int dlen = expansionSumZeroElimFast(z2len, z2, xylen, detxy, ddet, t);
 
-        double[] abdet = new double[13824];
-        double[] cddet = new double[13824];
-        double[] det = new double[27648];
-        ablen = expansionSumZeroElimFast(alen, adet, blen, bdet, abdet);
-        cdlen = expansionSumZeroElimFast(clen, cdet, dlen, ddet, cddet);
-        int detlen = expansionSumZeroElimFast(ablen, abdet, cdlen, cddet, det);
+        double[] abdet = scratch.expansion(51, 13824);
+        double[] cddet = scratch.expansion(52, 13824);
+        double[] det = scratch.expansion(53, 27648);
+        ablen = expansionSumZeroElimFast(alen, adet, blen, bdet, abdet, t);
+        cdlen = expansionSumZeroElimFast(clen, cdet, dlen, ddet, cddet, t);
+        int detlen = expansionSumZeroElimFast(ablen, abdet, cdlen, cddet, det, t);
 
         return det[detlen - 1];
     }
@@ -2093,7 +2348,8 @@ public final class Geometry {
      * points.
      */
     private static double leftOfLineExact(double xa, double ya, double xb, double yb, double xc, double yc) {
-        Two t = new Two();
+        Scratch scratch = SCRATCH.get();
+        Two t = scratch.two;
         twoDiff(xa, xc, t);
         double acx = t.x;
         double acxtail = t.y;
@@ -2107,29 +2363,99 @@ public final class Geometry {
         double bcy = t.x;
         double bcytail = t.y;
 
-        double[] axby = new double[8];
-        double[] bxay = new double[8];
-        twoTwoProduct(acx, acxtail, bcy, bcytail, axby);
+        double[] axby = scratch.expansion(0, 8);
+        double[] bxay = scratch.expansion(1, 8);
+        twoTwoProduct(acx, acxtail, bcy, bcytail, axby, t);
         double negate = -acy;
         double negatetail = -acytail;
-        twoTwoProduct(bcx, bcxtail, negate, negatetail, bxay);
+        twoTwoProduct(bcx, bcxtail, negate, negatetail, bxay, t);
 
-        double[] det = new double[16];
-        int detlen = expansionSumZeroElimFast(8, axby, 8, bxay, det);
+        double[] det = scratch.expansion(2, 16);
+        int detlen = expansionSumZeroElimFast(8, axby, 8, bxay, det, t);
 
         return det[detlen - 1];
     }
 
     /**
-     * Computes the product a*b. Puts the product in x and the error in y.
-     */
-    /*
-     * private strictfp static void twoProduct(double a, double b, Two t) { double x
-     * = a*b; split(a,t); double ahi = t.x; double alo = t.y; split(b,t); double bhi
-     * = t.x; double blo = t.y; double err1 = x-(ahi*bhi); double err2 =
-     * err1-(alo*bhi); double err3 = err2-(ahi*blo); t.x = x; t.y = (alo*blo)-err3;
-     * }
+     * Adaptive stages B and C of the 3D orientation test. Stage B evaluates the
+     * determinant exactly from the rounded differences of the coordinates, stage
+     * C corrects the result to first order in the roundoff of the differences. If
+     * neither resolves the sign, the exact test is used.
      */
+    private static double leftOfPlaneAdapt(double xa, double ya, double za, double xb, double yb, double zb, double xc,
+                                           double yc, double zc, double xd, double yd, double zd, double permanent) {
+        Scratch scratch = SCRATCH.get();
+        Two t = scratch.two;
+        double adx = xa - xd;
+        double bdx = xb - xd;
+        double cdx = xc - xd;
+        double ady = ya - yd;
+        double bdy = yb - yd;
+        double cdy = yc - yd;
+        double adz = za - zd;
+        double bdz = zb - zd;
+        double cdz = zc - zd;
+
+        double[] bc = scratch.expansion(0, 4);
+        double[] ca = scratch.expansion(1, 4);
+        double[] ab = scratch.expansion(2, 4);
+        twoProductDiff(bdx, cdy, cdx, bdy, bc, t);
+        twoProductDiff(cdx, ady, adx, cdy, ca, t);
+        twoProductDiff(adx, bdy, bdx, ady, ab, t);
+
+        double[] adet = scratch.expansion(3, 8);
+        double[] bdet = scratch.expansion(4, 8);
+        double[] cdet = scratch.expansion(5, 8);
+        int alen = scaleExpansionZeroElim(4, bc, adz, adet, t);
+        int blen = scaleExpansionZeroElim(4, ca, bdz, bdet, t);
+        int clen = scaleExpansionZeroElim(4, ab, cdz, cdet, t);
+        double[] abdet = scratch.expansion(6, 16);
+        double[] fin = scratch.expansion(7, 24);
+        int ablen = expansionSumZeroElimFast(alen, adet, blen, bdet, abdet, t);
+        int finlen = expansionSumZeroElimFast(ablen, abdet, clen, cdet, fin, t);
+
+        double det = estimate(finlen, fin);
+        double errbound = O3DERRBOUNDB * permanent;
+        if (det >= errbound || -det >= errbound) {
+            return resolved(Predicate.LEFT_OF_PLANE, Stage.B, det);
+        }
+
+        twoDiff(xa, xd, t);
+        double adxtail = t.y;
+        twoDiff(ya, yd, t);
+        double adytail = t.y;
+        twoDiff(za, zd, t);
+        double adztail = t.y;
+        twoDiff(xb, xd, t);
+        double bdxtail = t.y;
+        twoDiff(yb, yd, t);
+        double bdytail = t.y;
+        twoDiff(zb, zd, t);
+        double bdztail = t.y;
+        twoDiff(xc, xd, t);
+        double cdxtail = t.y;
+        twoDiff(yc, yd, t);
+        double cdytail = t.y;
+        twoDiff(zc, zd, t);
+        double cdztail = t.y;
+        if (adxtail == 0.0 && bdxtail == 0.0 && cdxtail == 0.0 && adytail == 0.0 && bdytail == 0.0 &&
+            cdytail == 0.0 && adztail == 0.0 && bdztail == 0.0 && cdztail == 0.0) {
+            // The differences are exact, and so is stage B
+            return resolved(Predicate.LEFT_OF_PLANE, Stage.B, det);
+        }
+
+        errbound = O3DERRBOUNDC * permanent + RESULTERRBOUND * Math.abs(det);
+        det += (adz * ((bdx * cdytail + cdy * bdxtail) - (bdy * cdxtail + cdx * bdytail))
+                + adztail * (bdx * cdy - bdy * cdx))
+        + (bdz * ((cdx * adytail + ady * cdxtail) - (cdy * adxtail + adx * cdytail)) + bdztail * (cdx * ady - cdy * adx))
+        + (cdz * ((adx * bdytail + bdy * adxtail) - (ady * bdxtail + bdx * adytail)) + cdztail * (adx * bdy - ady * bdx));
+        if (det >= errbound || -det >= errbound) {
+            return resolved(Predicate.LEFT_OF_PLANE, Stage.C, det);
+        }
+
+        return resolved(Predicate.LEFT_OF_PLANE, Stage.EXACT,
+                        leftOfPlaneExact(xa, ya, za, xb, yb, zb, xc, yc, zc, xd, yd, zd));
+    }
 
     /**
      * Slow exact 3D orientation test. Returns a positive value if the point d lies
@@ -2141,7 +2467,8 @@ public final class Geometry {
      */
     private static double leftOfPlaneExact(double xa, double ya, double za, double xb, double yb, double zb, double xc,
                                            double yc, double zc, double xd, double yd, double zd) {
-        Two t = new Two();
+        Scratch scratch = SCRATCH.get();
+        Two t = scratch.two;
         twoDiff(xa, xd, t);
         double adx = t.x;
         double adxtail = t.y;
@@ -2170,58 +2497,109 @@ public final class Geometry {
         double cdz = t.x;
         double cdztail = t.y;
 
-        double[] axby = new double[8];
-        twoTwoProduct(adx, adxtail, bdy, bdytail, axby);
+        double[] axby = scratch.expansion(0, 8);
+        twoTwoProduct(adx, adxtail, bdy, bdytail, axby, t);
         double negate = -ady;
         double negatetail = -adytail;
-        double[] bxay = new double[8];
-        twoTwoProduct(bdx, bdxtail, negate, negatetail, bxay);
+        double[] bxay = scratch.expansion(1, 8);
+        twoTwoProduct(bdx, bdxtail, negate, negatetail, bxay, t);
 
-        double[] bxcy = new double[8];
-        twoTwoProduct(bdx, bdxtail, cdy, cdytail, bxcy);
+        double[] bxcy = scratch.expansion(2, 8);
+        twoTwoProduct(bdx, bdxtail, cdy, cdytail, bxcy, t);
         negate = -bdy;
         negatetail = -bdytail;
-        double[] cxby = new double[8];
-        twoTwoProduct(cdx, cdxtail, negate, negatetail, cxby);
+        double[] cxby = scratch.expansion(3, 8);
+        twoTwoProduct(cdx, cdxtail, negate, negatetail, cxby, t);
 
-        double[] cxay = new double[8];
-        twoTwoProduct(cdx, cdxtail, ady, adytail, cxay);
+        double[] cxay = scratch.expansion(4, 8);
+        twoTwoProduct(cdx, cdxtail, ady, adytail, cxay, t);
         negate = -cdy;
         negatetail = -cdytail;
-        double[] axcy = new double[8];
-        twoTwoProduct(adx, adxtail, negate, negatetail, axcy);
+        double[] axcy = scratch.expansion(5, 8);
+        twoTwoProduct(adx, adxtail, negate, negatetail, axcy, t);
 
-        double[] t16 = new double[16];
-        double[] t32 = new double[32];
-        double[] t32t = new double[32];
+        double[] t16 = scratch.expansion(6, 16);
+        double[] t32 = scratch.expansion(7, 32);
+        double[] t32t = scratch.expansion(8, 32);
         int t16len, t32len, t32tlen;
 
-        t16len = expansionSumZeroElimFast(8, bxcy, 8, cxby, t16);
-        t32len = scaleExpansionZeroElim(t16len, t16, adz, t32);
-        t32tlen = scaleExpansionZeroElim(t16len, t16, adztail, t32t);
-        double[] adet = new double[64];
-        int alen = expansionSumZeroElimFast(t32len, t32, t32tlen, t32t, adet);
-
-        t16len = expansionSumZeroElimFast(8, cxay, 8, axcy, t16);
-        t32len = scaleExpansionZeroElim(t16len, t16, bdz, t32);
-        t32tlen = scaleExpansionZeroElim(t16len, t16, bdztail, t32t);
-        double[] bdet = new double[64];
-        int blen = expansionSumZeroElimFast(t32len, t32, t32tlen, t32t, bdet);
-
-        t16len = expansionSumZeroElimFast(8, axby, 8, bxay, t16);
-        t32len = scaleExpansionZeroElim(t16len, t16, cdz, t32);
-        t32tlen = scaleExpansionZeroElim(t16len, t16, cdztail, t32t);
-        double[] cdet = new double[64];
-        int clen = expansionSumZeroElimFast(t32len, t32, t32tlen, t32t, cdet);
-
-        double[] abdet = new double[128];
-        int ablen = expansionSumZeroElimFast(alen, adet, blen, bdet, abdet);
-        double[] det = new double[192];
-        int detlen = expansionSumZeroElimFast(ablen, abdet, clen, cdet, det);
+        t16len = expansionSumZeroElimFast(8, bxcy, 8, cxby, t16, t);
+        t32len = scaleExpansionZeroElim(t16len, t16, adz, t32, t);
+        t32tlen = scaleExpansionZeroElim(t16len, t16, adztail, t32t, t);
+        double[] adet = scratch.expansion(9, 64);
+        int alen = expansionSumZeroElimFast(t32len, t32, t32tlen, t32t, adet, t);
+
+        t16len = expansionSumZeroElimFast(8, cxay, 8, axcy, t16, t);
+        t32len = scaleExpansionZeroElim(t16len, t16, bdz, t32, t);
+        t32tlen = scaleExpansionZeroElim(t16len, t16, bdztail, t32t, t);
+        double[] bdet = scratch.expansion(10, 64);
+        int blen = expansionSumZeroElimFast(t32len, t32, t32tlen, t32t, bdet, t);
+
+        t16len = expansionSumZeroElimFast(8, axby, 8, bxay, t16, t);
+        t32len = scaleExpansionZeroElim(t16len, t16, cdz, t32, t);
+        t32tlen = scaleExpansionZeroElim(t16len, t16, cdztail, t32t, t);
+        double[] cdet = scratch.expansion(11, 64);
+        int clen = expansionSumZeroElimFast(t32len, t32, t32tlen, t32t, cdet, t);
+
+        double[] abdet = scratch.expansion(12, 128);
+        int ablen = expansionSumZeroElimFast(alen, adet, blen, bdet, abdet, t);
+        double[] det = scratch.expansion(13, 192);
+        int detlen = expansionSumZeroElimFast(ablen, abdet, clen, cdet, det, t);
 
         return det[detlen - 1];
     }
 
+    /**
+     * Computes the expansion h = sign * (x*x + y*y + z*z - w) * (e1*s1 + e2*s2 +
+     * e3*s3) of a lifted term of the in-ortho-sphere determinant, where e1, e2 and
+     * e3 are four component expansions.
+     */
+    private static int liftedTerm(double[] e1, double s1, double[] e2, double s2, double[] e3, double s3, double x,
+                                  double y, double z, double w, double sign, double[] h, Scratch scratch) {
+        Two t = scratch.two;
+        double[] temp8a = scratch.expansion(6, 8);
+        double[] temp8b = scratch.expansion(7, 8);
+        double[] temp8c = scratch.expansion(8, 8);
+        double[] temp16 = scratch.expansion(9, 16);
+        double[] temp24 = scratch.expansion(10, 24);
+        double[] temp48 = scratch.expansion(11, 48);
+        double[] xdet = scratch.expansion(12, 96);
+        double[] ydet = scratch.expansion(13, 96);
+        double[] zdet = scratch.expansion(14, 96);
+        double[] xydet = scratch.expansion(15, 192);
+        int temp8alen = scaleExpansionZeroElim(4, e1, s1, temp8a, t);
+        int temp8blen = scaleExpansionZeroElim(4, e2, s2, temp8b, t);
+        int temp8clen = scaleExpansionZeroElim(4, e3, s3, temp8c, t);
+        int temp16len = expansionSumZeroElimFast(temp8alen, temp8a, temp8blen, temp8b, temp16, t);
+        int temp24len = expansionSumZeroElimFast(temp8clen, temp8c, temp16len, temp16, temp24, t);
+        int temp48len = scaleExpansionZeroElim(temp24len, temp24, x, temp48, t);
+        int xlen = scaleExpansionZeroElim(temp48len, temp48, sign * x, xdet, t);
+        temp48len = scaleExpansionZeroElim(temp24len, temp24, y, temp48, t);
+        int ylen = scaleExpansionZeroElim(temp48len, temp48, sign * y, ydet, t);
+        temp48len = scaleExpansionZeroElim(temp24len, temp24, z, temp48, t);
+        int zlen = scaleExpansionZeroElim(temp48len, temp48, sign * z, zdet, t);
+        int xylen = expansionSumZeroElimFast(xlen, xdet, ylen, ydet, xydet, t);
+        if (w == 0.0) {
+            return expansionSumZeroElimFast(xylen, xydet, zlen, zdet, h, t);
+        }
+        double[] wdet = scratch.expansion(16, 48);
+        double[] xyzdet = scratch.expansion(17, 288);
+        int xyzlen = expansionSumZeroElimFast(xylen, xydet, zlen, zdet, xyzdet, t);
+        int wlen = scaleExpansionZeroElim(temp24len, temp24, -sign * w, wdet, t);
+        return expansionSumZeroElimFast(xyzlen, xyzdet, wlen, wdet, h, t);
+    }
+
+    /**
+     * Count the resolution of the call of the adaptive predicate by the stage, if
+     * instrumented, answering the result
+     */
+    private static double resolved(Predicate predicate, Stage stage, double det) {
+        if (instrumented) {
+            RESOLVED[predicate.ordinal() * Stage.values().length + stage.ordinal()].increment();
+        }
+        return det;
+    }
+
     /**
      * Computes the scaled expansion h = e*b, eliminating zero components from the
      * output expansion. Maintains the nonoverlapping property. If round-to-even is
@@ -2229,8 +2607,7 @@ public final class Geometry {
      * nonadjacent properties as well. (That is, if e has one of these properties,
      * so will h.) The expansion h cannot be aliased with e.
      */
-    private static int scaleExpansionZeroElim(int elen, double[] e, double b, double[] h) {
-        Two t = new Two();
+    private static int scaleExpansionZeroElim(int elen, double[] e, double b, double[] h, Two t) {
         split(b, t);
         double bhi = t.x;
         double blo = t.y;
@@ -2289,6 +2666,50 @@ public final class Geometry {
         t.y = around + bround;
     }
 
+    /**
+     * Computes the product a*b. Puts the product in x and the error in y.
+     */
+    private static void twoProduct(double a, double b, Two t) {
+        double x = a * b;
+        split(a, t);
+        double ahi = t.x;
+        double alo = t.y;
+        split(b, t);
+        double bhi = t.x;
+        double blo = t.y;
+        double err1 = x - ahi * bhi;
+        double err2 = err1 - alo * bhi;
+        double err3 = err2 - ahi * blo;
+        t.x = x;
+        t.y = alo * blo - err3;
+    }
+
+    /**
+     * Computes the difference of products a*b - c*d exactly. Puts the four
+     * component expansion in the array x[4], whose last component approximates
+     * the difference.
+     */
+    private static void twoProductDiff(double a, double b, double c, double d, double[] x, Two t) {
+        twoProduct(a, b, t);
+        double ab1 = t.x;
+        double ab0 = t.y;
+        twoProduct(c, d, t);
+        double cd1 = t.x;
+        double cd0 = t.y;
+        twoDiff(ab0, cd0, t);
+        double i = t.x;
+        x[0] = t.y;
+        twoSum(ab1, i, t);
+        double j = t.x;
+        double k = t.y;
+        twoDiff(k, cd1, t);
+        i = t.x;
+        x[1] = t.y;
+        twoSum(j, i, t);
+        x[3] = t.x;
+        x[2] = t.y;
+    }
+
     /**
      * Computes the product a*b, where b has already been split. Puts the product in
      * x and the error in y.
@@ -2343,9 +2764,8 @@ public final class Geometry {
      * Computes the product a*b, where a and b are two-component expansions. Puts
      * the product in the array x[8].
      */
-    private static void twoTwoProduct(double a1, double a0, double b1, double b0, double[] x) {
+    private static void twoTwoProduct(double a1, double a0, double b1, double b0, double[] x, Two t) {
         double u0, u1, u2, ui, uj, uk, ul, um, un;
-        Two t = new Two();
         split(a0, t);
         double a0hi = t.x;
         double a0lo = t.y;
@@ -2439,5 +2859,13 @@ public final class Geometry {
         INCERRBOUND = 11.0 * EPSILON;
         INSERRBOUND = 17.0 * EPSILON;
         IOSERRBOUND = 19.0 * EPSILON;
+        O3DERRBOUNDB = (3.0 + 28.0 * EPSILON) * EPSILON;
+        O3DERRBOUNDC = (26.0 + 288.0 * EPSILON) * EPSILON * EPSILON;
+        ISPERRBOUNDB = (5.0 + 72.0 * EPSILON) * EPSILON;
+        ISPERRBOUNDC = (71.0 + 1408.0 * EPSILON) * EPSILON * EPSILON;
+        RESULTERRBOUND = (3.0 + 8.0 * EPSILON) * EPSILON;
+        for (int i = 0; i < RESOLVED.length; i++) {
+            RESOLVED[i] = new LongAdder();
+        }
     }
 }
@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import java.util.BitSet;
+
+/**
+ * A dense space of integer ids. Allocation answers the lowest id not in use,
+ * so the ids of released entities are recycled and the assignment of ids is a
+ * deterministic function of the ids in use.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+class IdSpace {
+    /**
+     * The lowest id which may be free
+     */
+    private int          lowestFree = 0;
+    private final BitSet used       = new BitSet();
+
+    /**
+     * Allocate the lowest free id
+     */
+    int allocate() {
+        int id = used.nextClearBit(lowestFree);
+        used.set(id);
+        lowestFree = id + 1;
+        return id;
+    }
+
+    /**
+     * Answer the extent of the space, one more than the largest id in use
+     */
+    int extent() {
+        return used.length();
+    }
+
+    /**
+     * Answer the id the next allocation will answer
+     */
+    int next() {
+        return used.nextClearBit(lowestFree);
+    }
+
+    /**
+     * Release the id for reuse
+     */
+    void release(int id) {
+        used.clear(id);
+        lowestFree = Math.min(lowestFree, id);
+    }
+
+    /**
+     * Mark the id as in use
+     */
+    void reserve(int id) {
+        used.set(id);
+    }
+}
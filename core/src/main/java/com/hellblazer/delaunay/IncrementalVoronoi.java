@@ -0,0 +1,186 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import javax.vecmath.Tuple3d;
+
+/**
+ * An incrementally maintained view of the Voronoi regions of a
+ * tetrahedralization. The view listens to the insertions, deletions and moves
+ * of the tetrahedralization and invalidates only the regions of the vertices
+ * whose stars were changed, i.e. the vertices of the created tetrahedra and of
+ * the star of a moved vertex; the regions of all other vertices remain cached.
+ * Invalid regions are recomputed lazily when requested, or eagerly by
+ * {@link #refresh()}.
+ * <p>
+ * Regions are indexed by {@link Vertex#getId() vertex id}. The view is
+ * {@link #attach(Tetrahedralization) attached} to a tetrahedralization, is not
+ * thread safe, and must be {@link #close() closed} to detach it from the
+ * tetrahedralization.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public final class IncrementalVoronoi implements TetrahedralizationListener, Closeable {
+    /**
+     * The ids of the vertices whose regions are invalid
+     */
+    private final BitSet             dirty = new BitSet();
+    /**
+     * The cached regions, indexed by vertex id
+     */
+    private final ArrayList<List<Tuple3d[]>> regions;
+    private final Tetrahedralization         tetrahedralization;
+
+    /**
+     * Answer a view of the tetrahedralization, listening to its updates. All
+     * regions are initially invalid.
+     *
+     * @param tetrahedralization - the viewed tetrahedralization
+     * @return the attached view
+     */
+    public static IncrementalVoronoi attach(Tetrahedralization tetrahedralization) {
+        IncrementalVoronoi view = new IncrementalVoronoi(tetrahedralization);
+        tetrahedralization.addListener(view);
+        return view;
+    }
+
+    private IncrementalVoronoi(Tetrahedralization tetrahedralization) {
+        this.tetrahedralization = tetrahedralization;
+        regions = new ArrayList<>(Math.max(16, tetrahedralization.vertexCount()));
+        for (Vertex v : tetrahedralization.getVertices()) {
+            dirty.set(v.getId());
+        }
+    }
+
+    /**
+     * Detach the view from the tetrahedralization
+     */
+    @Override
+    public void close() {
+        tetrahedralization.removeListener(this);
+    }
+
+    @Override
+    public void deleted(Vertex vertex, List<Tetrahedron> created, List<Tetrahedron> deleted) {
+        int id = vertex.getId();
+        dirty.clear(id);
+        if (id < regions.size()) {
+            regions.set(id, null);
+        }
+        invalidate(created);
+    }
+
+    /**
+     * Answer the number of regions awaiting recomputation
+     */
+    public int getInvalidCount() {
+        return dirty.cardinality();
+    }
+
+    /**
+     * Answer the faces of the Voronoi region of the vertex, recomputing the
+     * region if it has been invalidated by an update
+     *
+     * @param v - a vertex of the tetrahedralization
+     * @return the faces of the Voronoi region of the vertex
+     */
+    public List<Tuple3d[]> getRegion(Vertex v) {
+        int id = v.getId();
+        assert tetrahedralization.vertex(id) == v : "Not a vertex of the tetrahedralization: " + v;
+        if (dirty.get(id) || id >= regions.size() || regions.get(id) == null) {
+            return compute(v);
+        }
+        return regions.get(id);
+    }
+
+    @Override
+    public void inserted(Vertex vertex, List<Tetrahedron> created, List<Tetrahedron> deleted) {
+        invalidate(created);
+    }
+
+    /**
+     * Answer true if the region of the vertex has been invalidated since it was
+     * last computed
+     */
+    public boolean isInvalid(Vertex v) {
+        return dirty.get(v.getId());
+    }
+
+    @Override
+    public void moved(Vertex vertex, List<Tetrahedron> created, List<Tetrahedron> deleted) {
+        invalidate(created);
+        // The star of a vertex moved in place is reshaped rather than replaced
+        dirty.set(vertex.getId());
+        for (Vertex neighbor : vertex.getNeighbors()) {
+            if (neighbor.getId() >= 0) {
+                dirty.set(neighbor.getId());
+            }
+        }
+    }
+
+    /**
+     * Recompute all the invalid regions
+     *
+     * @return the vertices whose regions were recomputed
+     */
+    public List<Vertex> refresh() {
+        List<Vertex> refreshed = new ArrayList<>(dirty.cardinality());
+        for (int id = dirty.nextSetBit(0); id >= 0; id = dirty.nextSetBit(id + 1)) {
+            refreshed.add(tetrahedralization.vertex(id));
+        }
+        for (Vertex v : refreshed) {
+            compute(v);
+        }
+        return refreshed;
+    }
+
+    private List<Tuple3d[]> compute(Vertex v) {
+        int id = v.getId();
+        while (id >= regions.size()) {
+            regions.add(null);
+        }
+        List<Tuple3d[]> region = v.getVoronoiRegion();
+        regions.set(id, region);
+        dirty.clear(id);
+        return region;
+    }
+
+    /**
+     * Invalidate the regions of the vertices whose stars include the tetrahedra
+     */
+    private void invalidate(List<Tetrahedron> created) {
+        for (Tetrahedron t : created) {
+            for (V ordinal : Tetrahedralization.VERTICES) {
+                int id = t.getVertex(ordinal).getId();
+                // The corners of the universe have no regions
+                if (id >= 0) {
+                    dirty.set(id);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing set of non negative int keys, such as vertex ids and
+ * tetrahedron slots. The keys are stored unboxed in the table, so membership
+ * costs neither an identity hash nor an allocation per key. Keys may be added
+ * but not removed; the set is emptied by {@link #clear()}, which retains the
+ * table for reuse.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class IntHashSet {
+    private static final int   EMPTY     = -1;
+    private static final int   PRIME     = -1640531527;
+    private static final float THRESHOLD = 0.75f;
+
+    private int   load;
+    private int   size;
+    private int[] table;
+
+    public IntHashSet() {
+        this(4);
+    }
+
+    public IntHashSet(int initialCapacity) {
+        init(initialCapacity);
+    }
+
+    /**
+     * Add the key to the receiver
+     *
+     * @param key - the non negative key
+     * @return true if the key was not already a member of the receiver
+     */
+    public boolean add(int key) {
+        assert key >= 0 : "Negative key: " + key;
+        if (size >= table.length * THRESHOLD) {
+            rehash();
+        }
+        int hash = PRIME * key >>> load;
+        int index = hash;
+        while (true) {
+            int k = table[index];
+            if (k == EMPTY) {
+                table[index] = key;
+                size++;
+                return true;
+            }
+            if (k == key) {
+                return false;
+            }
+            index = index + (hash | 1) & table.length - 1;
+        }
+    }
+
+    /**
+     * Remove all the keys of the receiver, retaining its capacity
+     */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(table, EMPTY);
+            size = 0;
+        }
+    }
+
+    /**
+     * Answer true if the key is a member of the receiver
+     */
+    public boolean contains(int key) {
+        if (key < 0) {
+            return false;
+        }
+        int hash = PRIME * key >>> load;
+        int index = hash;
+        while (true) {
+            int k = table[index];
+            if (k == EMPTY) {
+                return false;
+            }
+            if (k == key) {
+                return true;
+            }
+            index = index + (hash | 1) & table.length - 1;
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Answer the keys of the receiver, in no particular order
+     */
+    public int[] toArray() {
+        int[] keys = new int[size];
+        int i = 0;
+        for (int k : table) {
+            if (k != EMPTY) {
+                keys[i++] = k;
+            }
+        }
+        return keys;
+    }
+
+    private void init(int initialCapacity) {
+        int cap = 4;
+        load = 2;
+        while (cap < initialCapacity) {
+            load += 1;
+            cap += cap;
+        }
+        table = new int[cap];
+        Arrays.fill(table, EMPTY);
+        load = 32 - load;
+    }
+
+    private void rehash() {
+        int[] old = table;
+        init(old.length * 2);
+        size = 0;
+        for (int k : old) {
+            if (k != EMPTY) {
+                add(k);
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing map of non negative int keys to int values, such as
+ * tetrahedron slots to the indices of the tetrahedra in a serialized order. The
+ * keys and values are stored unboxed in parallel tables. Entries may be added
+ * or replaced but not removed; the map is emptied by {@link #clear()}, which
+ * retains the tables for reuse.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class IntIntHashMap {
+    private static final int   EMPTY     = -1;
+    private static final int   PRIME     = -1640531527;
+    private static final float THRESHOLD = 0.75f;
+
+    private int[] keys;
+    private int   load;
+    private int   size;
+    private int[] values;
+
+    public IntIntHashMap() {
+        this(4);
+    }
+
+    public IntIntHashMap(int initialCapacity) {
+        init(initialCapacity);
+    }
+
+    /**
+     * Remove all the entries of the receiver, retaining its capacity
+     */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+        }
+    }
+
+    /**
+     * Answer true if the key is mapped by the receiver
+     */
+    public boolean containsKey(int key) {
+        return key >= 0 && index(key) >= 0;
+    }
+
+    /**
+     * Answer the value mapped to the key
+     *
+     * @param key     - the key
+     * @param missing - the value answered if the key is not mapped
+     * @return the value mapped to the key, or missing
+     */
+    public int get(int key, int missing) {
+        if (key < 0) {
+            return missing;
+        }
+        int index = index(key);
+        return index < 0 ? missing : values[index];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Map the key to the value
+     *
+     * @param key   - the non negative key
+     * @param value - the value
+     * @return true if the key was not already mapped by the receiver
+     */
+    public boolean put(int key, int value) {
+        assert key >= 0 : "Negative key: " + key;
+        if (size >= keys.length * THRESHOLD) {
+            rehash();
+        }
+        int hash = PRIME * key >>> load;
+        int index = hash;
+        while (true) {
+            int k = keys[index];
+            if (k == EMPTY) {
+                keys[index] = key;
+                values[index] = value;
+                size++;
+                return true;
+            }
+            if (k == key) {
+                values[index] = value;
+                return false;
+            }
+            index = index + (hash | 1) & keys.length - 1;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Answer the index of the key in the tables, or -1 if not mapped
+     */
+    private int index(int key) {
+        int hash = PRIME * key >>> load;
+        int index = hash;
+        while (true) {
+            int k = keys[index];
+            if (k == EMPTY) {
+                return -1;
+            }
+            if (k == key) {
+                return index;
+            }
+            index = index + (hash | 1) & keys.length - 1;
+        }
+    }
+
+    private void init(int initialCapacity) {
+        int cap = 4;
+        load = 2;
+        while (cap < initialCapacity) {
+            load += 1;
+            cap += cap;
+        }
+        keys = new int[cap];
+        values = new int[cap];
+        Arrays.fill(keys, EMPTY);
+        load = 32 - load;
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        init(oldKeys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
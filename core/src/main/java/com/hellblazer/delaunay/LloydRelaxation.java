@@ -0,0 +1,164 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import javax.vecmath.Point3d;
+
+/**
+ * Lloyd relaxation of a tetrahedralization toward a centroidal Voronoi
+ * tessellation. Each iteration computes the centroids of all the Voronoi cells
+ * in parallel with {@link VoronoiCells}, then moves each vertex to the
+ * centroid of its cell. Vertices are moved with
+ * {@link Tetrahedralization#move(Vertex, javax.vecmath.Tuple3d)}, in place
+ * when the move neither inverts nor breaks the delaunay condition of the star
+ * of the vertex, and by local repair otherwise, so the tetrahedralization is
+ * never rebuilt. Vertex ids, and so attribute columns, are preserved.
+ * <p>
+ * Relaxation is best performed within a {@link ConvexDomain}, to which the
+ * cells are clipped, so that every vertex within the domain moves to the
+ * centroid of its clipped cell. Without a domain, the vertices of the convex
+ * hull, whose cells are unbounded, do not move. Nor do the vertices whose cell
+ * centroids lie outside of the convex hull, as the cells of the vertices near
+ * the hull extend far beyond it and moving to their centroids would scatter
+ * the points.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class LloydRelaxation {
+    private final ConvexDomain       domain;
+    private int                      inPlaceMoves;
+    private int                      iterations;
+    private int                      repairedMoves;
+    private final Tetrahedralization tetrahedralization;
+
+    /**
+     * Construct the relaxation of the tetrahedralization
+     *
+     * @param tetrahedralization - the relaxed tetrahedralization
+     */
+    public LloydRelaxation(Tetrahedralization tetrahedralization) {
+        this(tetrahedralization, null);
+    }
+
+    /**
+     * Construct the relaxation of the tetrahedralization within the domain
+     *
+     * @param tetrahedralization - the relaxed tetrahedralization
+     * @param domain             - the domain clipping the cells, or null
+     */
+    public LloydRelaxation(Tetrahedralization tetrahedralization, ConvexDomain domain) {
+        assert tetrahedralization != null;
+        this.tetrahedralization = tetrahedralization;
+        this.domain = domain;
+    }
+
+    /**
+     * Answer the number of vertices moved in place
+     */
+    public int getInPlaceMoves() {
+        return inPlaceMoves;
+    }
+
+    /**
+     * Answer the number of iterations performed
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Answer the number of vertex moves which required the tetrahedralization to
+     * be repaired
+     */
+    public int getRepairedMoves() {
+        return repairedMoves;
+    }
+
+    /**
+     * Answer the relaxed tetrahedralization
+     */
+    public Tetrahedralization getTetrahedralization() {
+        return tetrahedralization;
+    }
+
+    /**
+     * Perform one iteration of the relaxation, moving every vertex with a bounded,
+     * non empty cell to the centroid of its cell
+     *
+     * @return the largest distance a vertex was moved
+     */
+    public double iterate() {
+        VoronoiCells cells = VoronoiCells.compute(tetrahedralization, domain);
+        double[] centroids = cells.getCentroids();
+        Point3d centroid = new Point3d();
+        double max = 0;
+        for (int id = 0; id < cells.getCount(); id++) {
+            if (!cells.isBounded(id) || Double.isNaN(centroids[3 * id])) {
+                continue;
+            }
+            Vertex v = tetrahedralization.vertex(id);
+            centroid.set(centroids[3 * id], centroids[3 * id + 1], centroids[3 * id + 2]);
+            double dx = centroid.x - v.x, dy = centroid.y - v.y, dz = centroid.z - v.z;
+            double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            if (distance == 0 || (domain == null && isOutside(centroid))) {
+                continue;
+            }
+            if (tetrahedralization.move(v, centroid)) {
+                inPlaceMoves++;
+            } else {
+                repairedMoves++;
+            }
+            max = Math.max(max, distance);
+        }
+        iterations++;
+        return max;
+    }
+
+    /**
+     * Iterate the relaxation until no vertex moves further than the tolerance, or
+     * the maximum number of iterations is reached
+     *
+     * @param tolerance     - the convergence tolerance of the vertex displacement
+     * @param maxIterations - the maximum number of iterations to perform
+     * @return true if the relaxation converged
+     */
+    public boolean relax(double tolerance, int maxIterations) {
+        for (int i = 0; i < maxIterations; i++) {
+            if (iterate() <= tolerance) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Answer true if the point lies outside of the convex hull of the vertices
+     */
+    private boolean isOutside(Point3d p) {
+        for (Vertex v : tetrahedralization.locate(p).getVertices()) {
+            if (v.getId() < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,268 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Tetrahedralization.ORDER;
+import static com.hellblazer.delaunay.Tetrahedralization.VERTICES;
+
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.vecmath.Tuple3d;
+
+/**
+ * The strategies of walking through a tetrahedralization to locate the
+ * tetrahedron containing a query point. Each strategy steps from a tetrahedron
+ * only to a neighbor across a face with respect to which the query is
+ * negatively oriented, and so terminates in a Delaunay tetrahedralization, as
+ * the "in front of" relation of its tetrahedra is acyclic. The strategies
+ * differ in the choice among those faces, trading the number of orientation
+ * tests per step against the number of steps.
+ * <p>
+ * See "Walking in a Triangulation", O. Devillers, S. Pion and M. Teillaud,
+ * 2002.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public enum LocateStrategy {
+    /**
+     * The remembering stochastic walk: the faces of each tetrahedron, other than
+     * the face through which the walk entered it, are tested in random order.
+     * This is the default strategy.
+     */
+    REMEMBERING {
+        @Override
+        Tetrahedron locate(Tuple3d query, Tetrahedron start, Random random, FacePlanes planes, LongAdder steps) {
+            boolean fused = planes == null && FusedPredicates.isEnabled();
+            int negative = fused ? FusedPredicates.evaluate(start, query, false) : -1;
+            V o = null;
+            for (V face : VERTICES) {
+                if (isNegative(start, face, query, planes, negative)) {
+                    o = face;
+                    break;
+                }
+            }
+            if (o == null) {
+                // The query point is contained in the start
+                return start;
+            }
+            Tetrahedron current = start;
+            int step = 0;
+            while (true) {
+                // get the tetrahedron on the other side of the face
+                Tetrahedron tetrahedron = current.getNeighbor(o);
+                step++;
+                if (fused) {
+                    negative = FusedPredicates.evaluate(tetrahedron, query, false);
+                }
+                int i = 0;
+                for (V v : ORDER[tetrahedron.ordinalOf(current).ordinal()][random.nextInt(6)]) {
+                    o = v;
+                    current = tetrahedron;
+                    if (isNegative(tetrahedron, v, query, planes, negative)) {
+                        // we have found a face which the query point is on the other side
+                        break;
+                    }
+                    if (i++ == 2) {
+                        if (steps != null) {
+                            steps.add(step);
+                        }
+                        return tetrahedron;
+                    }
+                }
+            }
+        }
+    },
+    /**
+     * The stochastic walk without memory: all four faces of each tetrahedron are
+     * tested in random order, including the face through which the walk entered
+     * it
+     */
+    STOCHASTIC {
+        @Override
+        Tetrahedron locate(Tuple3d query, Tetrahedron start, Random random, FacePlanes planes, LongAdder steps) {
+            boolean fused = planes == null && FusedPredicates.isEnabled();
+            Tetrahedron current = start;
+            int step = 0;
+            next: while (true) {
+                int negative = fused ? FusedPredicates.evaluate(current, query, false) : -1;
+                int first = random.nextInt(4);
+                for (int i = 0; i < 4; i++) {
+                    V face = VERTICES[(first + i) & 3];
+                    if (isNegative(current, face, query, planes, negative)) {
+                        current = current.getNeighbor(face);
+                        step++;
+                        continue next;
+                    }
+                }
+                if (steps != null) {
+                    steps.add(step);
+                }
+                return current;
+            }
+        }
+    },
+    /**
+     * The straight walk along the segment from the centroid of the start to the
+     * query: the walk leaves each tetrahedron through the face crossed by the
+     * segment. Where the segment passes through an edge or a vertex the walk
+     * leaves through the first face the query lies beyond. The walk is
+     * deterministic and visits only the tetrahedra along the segment, at the cost
+     * of the orientation tests of the segment with the edges of the faces.
+     */
+    STRAIGHT {
+        @Override
+        Tetrahedron locate(Tuple3d query, Tetrahedron start, Random random, FacePlanes planes, LongAdder steps) {
+            double sx = 0.0, sy = 0.0, sz = 0.0;
+            for (Vertex v : start.getVertices()) {
+                sx += v.x / 4.0;
+                sy += v.y / 4.0;
+                sz += v.z / 4.0;
+            }
+            Tetrahedron current = start;
+            V entry = null;
+            int step = 0;
+            while (true) {
+                V exit = null;
+                for (V face : VERTICES) {
+                    if (face != entry && isNegative(current, face, query, planes, -1)) {
+                        if (crosses(current, face, sx, sy, sz, query)) {
+                            exit = face;
+                            break;
+                        }
+                        if (exit == null) {
+                            exit = face;
+                        }
+                    }
+                }
+                if (exit == null) {
+                    if (steps != null) {
+                        steps.add(step);
+                    }
+                    return current;
+                }
+                Tetrahedron next = current.getNeighbor(exit);
+                entry = next.ordinalOf(current);
+                current = next;
+                step++;
+            }
+        }
+    },
+    /**
+     * The deterministic visibility walk: the faces of each tetrahedron, other
+     * than the face through which the walk entered it, are tested in a fixed
+     * order. The walk is reproducible from run to run, which makes the number of
+     * steps of a workload comparable across runs.
+     */
+    VISIBILITY {
+        @Override
+        Tetrahedron locate(Tuple3d query, Tetrahedron start, Random random, FacePlanes planes, LongAdder steps) {
+            boolean fused = planes == null && FusedPredicates.isEnabled();
+            Tetrahedron current = start;
+            V[] faces = VERTICES;
+            int step = 0;
+            next: while (true) {
+                int negative = fused ? FusedPredicates.evaluate(current, query, false) : -1;
+                for (V face : faces) {
+                    if (isNegative(current, face, query, planes, negative)) {
+                        Tetrahedron tetrahedron = current.getNeighbor(face);
+                        faces = ORDER[tetrahedron.ordinalOf(current).ordinal()][0];
+                        current = tetrahedron;
+                        step++;
+                        continue next;
+                    }
+                }
+                if (steps != null) {
+                    steps.add(step);
+                }
+                return current;
+            }
+        }
+    };
+
+    /**
+     * Answer true if the segment from s to the query crosses the interior of the
+     * face of the tetrahedron, i.e. if the query lies strictly on the same side
+     * of the three planes through the segment and the edges of the face
+     */
+    private static boolean crosses(Tetrahedron t, V face, double sx, double sy, double sz, Tuple3d query) {
+        Vertex p1, p2, p3;
+        switch (face) {
+        case A:
+            p1 = t.getC();
+            p2 = t.getB();
+            p3 = t.getD();
+            break;
+        case B:
+            p1 = t.getD();
+            p2 = t.getA();
+            p3 = t.getC();
+            break;
+        case C:
+            p1 = t.getA();
+            p2 = t.getD();
+            p3 = t.getB();
+            break;
+        default:
+            p1 = t.getB();
+            p2 = t.getC();
+            p3 = t.getA();
+        }
+        double o1 = Geometry.leftOfPlane(sx, sy, sz, p1.x, p1.y, p1.z, p2.x, p2.y, p2.z, query.x, query.y, query.z);
+        if (o1 == 0.0) {
+            return false;
+        }
+        double o2 = Geometry.leftOfPlane(sx, sy, sz, p2.x, p2.y, p2.z, p3.x, p3.y, p3.z, query.x, query.y, query.z);
+        if (o2 == 0.0 || (o1 > 0.0) != (o2 > 0.0)) {
+            return false;
+        }
+        double o3 = Geometry.leftOfPlane(sx, sy, sz, p3.x, p3.y, p3.z, p1.x, p1.y, p1.z, query.x, query.y, query.z);
+        return o3 != 0.0 && (o1 > 0.0) == (o3 > 0.0);
+    }
+
+    /**
+     * Answer true if the query is negatively oriented with respect to the face of
+     * the tetrahedron, using the cached planes if not null, else the fused mask
+     * if not negative
+     */
+    static boolean isNegative(Tetrahedron t, V face, Tuple3d query, FacePlanes planes, int fused) {
+        if (planes != null) {
+            return planes.orientationWrt(t, face, query) < 0;
+        }
+        if (fused >= 0) {
+            return (fused & 1 << face.ordinal()) != 0;
+        }
+        return t.orientationWrt(face, query) < 0;
+    }
+
+    /**
+     * Locate the tetrahedron containing the query
+     *
+     * @param query  - the query point
+     * @param start  - the starting tetrahedron
+     * @param random - the random number generator of the walk
+     * @param planes - the cached face planes, or null
+     * @param steps  - accumulates the number of steps of the walk, or null
+     * @return the tetrahedron containing the query
+     */
+    abstract Tetrahedron locate(Tuple3d query, Tetrahedron start, Random random, FacePlanes planes, LongAdder steps);
+}
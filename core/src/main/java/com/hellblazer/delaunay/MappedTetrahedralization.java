@@ -0,0 +1,480 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Snapshot.HEADER_SIZE;
+import static com.hellblazer.delaunay.Snapshot.MAGIC;
+import static com.hellblazer.delaunay.Snapshot.NONE;
+import static com.hellblazer.delaunay.Snapshot.TETRAHEDRON_SIZE;
+import static com.hellblazer.delaunay.Snapshot.VERSION;
+import static com.hellblazer.delaunay.Snapshot.VERTEX_SIZE;
+import static com.hellblazer.delaunay.Tetrahedralization.ORDER;
+import static com.hellblazer.delaunay.Tetrahedralization.VERTICES;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.vecmath.Point3d;
+import javax.vecmath.Tuple3d;
+
+/**
+ * A read only tetrahedralization which answers queries directly against a
+ * memory mapped {@link Snapshot}, without materializing {@link Tetrahedron} or
+ * {@link Vertex} instances. Vertices and tetrahedra are identified by their
+ * index in the snapshot; the four corners of the universe are the vertices 0
+ * through 3.
+ * <p>
+ * The mapping is shared through the operating system's page cache, so any
+ * number of processes may open the same snapshot without each holding a copy of
+ * the mesh on their heap. Instances are safe for concurrent use by multiple
+ * threads.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class MappedTetrahedralization {
+    /**
+     * The size of the individually mapped regions of the snapshot. Every value
+     * in the snapshot is aligned to its own size: the 8 byte coordinates lie at
+     * multiples of 8, as the header and the 24 byte vertex records are multiples
+     * of 8, and the 4 byte indices at multiples of 4. As the region size is a
+     * multiple of 8, no value ever straddles two regions, although a vertex
+     * record may.
+     */
+    private static final int  REGION_SHIFT = 30;
+    private static final long REGION_MASK  = (1L << REGION_SHIFT) - 1;
+
+    /**
+     * Map the snapshot file into memory
+     *
+     * @param file - the snapshot file
+     * @return the read only tetrahedralization backed by the file
+     * @throws IOException
+     */
+    public static MappedTetrahedralization open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer[] regions = new MappedByteBuffer[(int) ((size + REGION_MASK) >>> REGION_SHIFT)];
+            for (int i = 0; i < regions.length; i++) {
+                long position = (long) i << REGION_SHIFT;
+                regions[i] = channel.map(MapMode.READ_ONLY, position, Math.min(size - position, 1L << REGION_SHIFT));
+                regions[i].order(Snapshot.ORDER);
+            }
+            return new MappedTetrahedralization(regions, size);
+        }
+    }
+
+    private final long               ids;
+    private final MappedByteBuffer[] regions;
+    private final int                start;
+    private final long               tetrahedra;
+    private final int                tetrahedronCount;
+    private final long               adjacent;
+    private final int                vertexCount;
+
+    private MappedTetrahedralization(MappedByteBuffer[] regions, long size) throws IOException {
+        this.regions = regions;
+        if (size < HEADER_SIZE || regions[0].getInt(0) != MAGIC) {
+            throw new IOException("Not a tetrahedralization snapshot");
+        }
+        int version = regions[0].getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+        vertexCount = regions[0].getInt(8);
+        tetrahedronCount = regions[0].getInt(12);
+        start = regions[0].getInt(16);
+        adjacent = Snapshot.adjacentOffset(vertexCount);
+        tetrahedra = Snapshot.tetrahedraOffset(vertexCount);
+        ids = Snapshot.idsOffset(vertexCount, tetrahedronCount);
+        if (size < ids + (long) vertexCount * Integer.BYTES) {
+            throw new IOException("Truncated snapshot");
+        }
+    }
+
+    /**
+     * Answer the index of one of the tetrahedra incident to the vertex
+     *
+     * @param vertex - the vertex index
+     * @return the tetrahedron index
+     */
+    public int getAdjacent(int vertex) {
+        return getInt(adjacent + (long) vertex * Integer.BYTES);
+    }
+
+    /**
+     * Answer the {@link Vertex#getId() id} the vertex had in the snapshotted
+     * tetrahedralization
+     *
+     * @param vertex - the vertex index
+     * @return the id of the vertex, -1 for the corners of the universe
+     */
+    public int getId(int vertex) {
+        if (vertex < 4) {
+            return -1;
+        }
+        return getInt(ids + (long) vertex * Integer.BYTES);
+    }
+
+    /**
+     * Answer the neighbor of the tetrahedron adjacent to the face opposite of
+     * the vertex
+     *
+     * @param tetrahedron - the tetrahedron index
+     * @param v           - the opposing vertex defining the face
+     * @return the neighboring tetrahedron index, or -1 if none
+     */
+    public int getNeighbor(int tetrahedron, V v) {
+        return getInt(tetrahedra + (long) tetrahedron * TETRAHEDRON_SIZE + (4 + v.ordinal()) * Integer.BYTES);
+    }
+
+    /**
+     * Answer the vertex indices of the Delaunay neighbors of the vertex
+     *
+     * @param vertex - the vertex index
+     * @return the indices of the neighboring vertices
+     */
+    public int[] getNeighbors(int vertex) {
+        IntList neighbors = new IntList();
+        IntHashSet visited = new IntHashSet();
+        for (int t : star(vertex).toArray()) {
+            for (V v : VERTICES) {
+                int x = getVertex(t, v);
+                if (x != vertex && visited.add(x)) {
+                    neighbors.add(x);
+                }
+            }
+        }
+        return neighbors.toArray();
+    }
+
+    /**
+     * Answer the number of tetrahedra in the snapshot
+     */
+    public int getTetrahedronCount() {
+        return tetrahedronCount;
+    }
+
+    /**
+     * Answer the vertex index of the tetrahedron
+     *
+     * @param tetrahedron - the tetrahedron index
+     * @param v           - the vertex ordinal
+     * @return the vertex index
+     */
+    public int getVertex(int tetrahedron, V v) {
+        return getInt(tetrahedra + (long) tetrahedron * TETRAHEDRON_SIZE + v.ordinal() * Integer.BYTES);
+    }
+
+    /**
+     * Answer the coordinates of the vertex
+     *
+     * @param vertex - the vertex index
+     * @param result - the tuple receiving the coordinates
+     */
+    public void getVertex(int vertex, Tuple3d result) {
+        long offset = Snapshot.verticesOffset() + (long) vertex * VERTEX_SIZE;
+        result.set(getDouble(offset), getDouble(offset + 8), getDouble(offset + 16));
+    }
+
+    /**
+     * Answer the number of vertices in the snapshot, including the four corners
+     * of the universe
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Answer the faces of the voronoi region around the vertex
+     *
+     * @param vertex - the vertex index
+     * @return the list of faces defining the voronoi region of the vertex
+     */
+    public List<Tuple3d[]> getVoronoiRegion(int vertex) {
+        List<Tuple3d[]> faces = new ArrayList<>();
+        IntHashSet neighbors = new IntHashSet();
+        for (int t : star(vertex).toArray()) {
+            for (V v : VERTICES) {
+                int x = getVertex(t, v);
+                if (x != vertex && neighbors.add(x)) {
+                    faces.add(voronoiFace(t, vertex, x));
+                }
+            }
+        }
+        return faces;
+    }
+
+    /**
+     * Answer true if the vertex is one of the four corners of the universe
+     *
+     * @param vertex - the vertex index
+     */
+    public boolean isUniverse(int vertex) {
+        return vertex < 4;
+    }
+
+    /**
+     * Locate the tetrahedron which contains the query point via a stochastic walk
+     * starting from the tetrahedron noted in the snapshot
+     *
+     * @param query - the query point
+     * @return the index of the tetrahedron containing the query, or -1 if the
+     *         query lies outside the universe
+     */
+    public int locate(Tuple3d query) {
+        return locate(query, start);
+    }
+
+    /**
+     * Locate the tetrahedron which contains the query point via a stochastic walk
+     * through the delaunay triangulation, as in
+     * {@link Tetrahedralization#locate(Tuple3d, Tetrahedron)}
+     *
+     * @param query - the query point
+     * @param start - the index of the starting tetrahedron
+     * @return the index of the tetrahedron containing the query, or -1 if the
+     *         query lies outside the universe
+     */
+    public int locate(Tuple3d query, int start) {
+        assert query != null;
+
+        V o = null;
+        for (V face : VERTICES) {
+            if (orientationWrt(start, face, query) < 0) {
+                o = face;
+                break;
+            }
+        }
+        if (o == null) {
+            // The query point is contained in the start tetrahedron
+            return start;
+        }
+        Random random = ThreadLocalRandom.current();
+        int current = start;
+        while (true) {
+            // get the tetrahedron on the other side of the face
+            int tetrahedron = getNeighbor(current, o);
+            if (tetrahedron == NONE) {
+                // The query point lies outside the universe
+                return NONE;
+            }
+            int i = 0;
+            for (V v : ORDER[ordinalOf(tetrahedron, current).ordinal()][random.nextInt(6)]) {
+                o = v;
+                current = tetrahedron;
+                if (orientationWrt(tetrahedron, v, query) < 0) {
+                    // we have found a face which the query point is on the other side
+                    break;
+                }
+                if (i++ == 2) {
+                    return tetrahedron;
+                }
+            }
+        }
+    }
+
+    /**
+     * Answer > 0 if the query point is positively oriented with respect to the face
+     * of the tetrahedron opposite the vertex, < 0 if negatively oriented, 0 if the
+     * query point is coplanar to the face
+     *
+     * @param tetrahedron - the tetrahedron index
+     * @param face        - the vertex opposite of the face
+     * @param query       - the query point
+     */
+    public int orientationWrt(int tetrahedron, V face, Tuple3d query) {
+        switch (face) {
+        case A:
+            return orientation(query, getVertex(tetrahedron, V.C), getVertex(tetrahedron, V.B),
+                               getVertex(tetrahedron, V.D));
+        case B:
+            return orientation(query, getVertex(tetrahedron, V.D), getVertex(tetrahedron, V.A),
+                               getVertex(tetrahedron, V.C));
+        case C:
+            return orientation(query, getVertex(tetrahedron, V.A), getVertex(tetrahedron, V.D),
+                               getVertex(tetrahedron, V.B));
+        case D:
+            return orientation(query, getVertex(tetrahedron, V.B), getVertex(tetrahedron, V.C),
+                               getVertex(tetrahedron, V.A));
+        default:
+            throw new IllegalArgumentException("Invalid face: " + face);
+        }
+    }
+
+    private double getDouble(long offset) {
+        return regions[(int) (offset >>> REGION_SHIFT)].getDouble((int) (offset & REGION_MASK));
+    }
+
+    private int getInt(long offset) {
+        return regions[(int) (offset >>> REGION_SHIFT)].getInt((int) (offset & REGION_MASK));
+    }
+
+    private int orientation(Tuple3d query, int a, int b, int c) {
+        long oa = Snapshot.verticesOffset() + (long) a * VERTEX_SIZE;
+        long ob = Snapshot.verticesOffset() + (long) b * VERTEX_SIZE;
+        long oc = Snapshot.verticesOffset() + (long) c * VERTEX_SIZE;
+        double result = Geometry.leftOfPlane(getDouble(oa), getDouble(oa + 8), getDouble(oa + 16), getDouble(ob),
+                                             getDouble(ob + 8), getDouble(ob + 16), getDouble(oc),
+                                             getDouble(oc + 8), getDouble(oc + 16), query.x, query.y, query.z);
+        if (result > 0.0) {
+            return 1;
+        } else if (result < 0.0) {
+            return -1;
+        }
+        return 0;
+    }
+
+    /**
+     * Answer the ordinal of the face of the tetrahedron shared with the neighbor
+     */
+    private V ordinalOf(int tetrahedron, int neighbor) {
+        for (V v : VERTICES) {
+            if (getNeighbor(tetrahedron, v) == neighbor) {
+                return v;
+            }
+        }
+        throw new IllegalArgumentException("Not a neighbor: " + neighbor);
+    }
+
+    /**
+     * Answer the ordinal of the vertex in the tetrahedron
+     */
+    private V ordinalOfVertex(int tetrahedron, int vertex) {
+        for (V v : VERTICES) {
+            if (getVertex(tetrahedron, v) == vertex) {
+                return v;
+            }
+        }
+        throw new IllegalArgumentException("Not a vertex: " + vertex);
+    }
+
+    /**
+     * Answer the tetrahedra in the star of the vertex
+     */
+    private IntList star(int vertex) {
+        IntList star = new IntList();
+        IntHashSet visited = new IntHashSet();
+        star.add(getAdjacent(vertex));
+        visited.add(getAdjacent(vertex));
+        for (int i = 0; i < star.size(); i++) {
+            int t = star.get(i);
+            for (V v : VERTICES) {
+                if (getVertex(t, v) != vertex) {
+                    int neighbor = getNeighbor(t, v);
+                    if (neighbor != NONE && visited.add(neighbor)) {
+                        star.add(neighbor);
+                    }
+                }
+            }
+        }
+        return star;
+    }
+
+    /**
+     * Answer the voronoi face dual to the edge between the vertex and the axis,
+     * by walking the ring of tetrahedra around the edge, starting with the
+     * supplied tetrahedron
+     */
+    private Tuple3d[] voronoiFace(int origin, int vertex, int axis) {
+        List<Point3d> face = new ArrayList<>();
+        int p = NONE;
+        int q = NONE;
+        for (V v : VERTICES) {
+            int x = getVertex(origin, v);
+            if (x != vertex && x != axis) {
+                if (p == NONE) {
+                    p = x;
+                } else {
+                    q = x;
+                }
+            }
+        }
+        Point3d a = new Point3d();
+        Point3d b = new Point3d();
+        Point3d c = new Point3d();
+        Point3d d = new Point3d();
+        double[] center = new double[3];
+        int current = origin;
+        do {
+            getVertex(getVertex(current, V.A), a);
+            getVertex(getVertex(current, V.B), b);
+            getVertex(getVertex(current, V.C), c);
+            getVertex(getVertex(current, V.D), d);
+            Geometry.centerSphere(a.x, a.y, a.z, b.x, b.y, b.z, c.x, c.y, c.z, d.x, d.y, d.z, center);
+            face.add(new Point3d(center[0], center[1], center[2]));
+
+            // cross the face opposite p; in the next tetrahedron, continue across the face
+            // opposite q
+            int next = getNeighbor(current, ordinalOfVertex(current, p));
+            if (next == NONE) {
+                break;
+            }
+            int r = NONE;
+            for (V v : VERTICES) {
+                int x = getVertex(next, v);
+                if (x != vertex && x != axis && x != q) {
+                    r = x;
+                    break;
+                }
+            }
+            p = q;
+            q = r;
+            current = next;
+        } while (current != origin);
+        return face.toArray(new Point3d[face.size()]);
+    }
+
+    /**
+     * A minimal growable list of int indices
+     */
+    private static class IntList {
+        private int[] elements = new int[16];
+        private int   size;
+
+        void add(int e) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size * 2);
+            }
+            elements[size++] = e;
+        }
+
+        int get(int i) {
+            return elements[i];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(elements, size);
+        }
+    }
+}
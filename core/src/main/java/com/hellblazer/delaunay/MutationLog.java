@@ -0,0 +1,422 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.hellblazer.delaunay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import javax.vecmath.Point3d;
+
+/**
+ * A write ahead log of the mutations of a tetrahedralization. Each mutation is
+ * written to the log before it is applied to the tetrahedralization, and the
+ * log may be replayed onto the last checkpointed {@link Snapshot} to recover the
+ * state of the tetrahedralization. As the Delaunay tetrahedralization of points
+ * in general position is unique, replaying the log reproduces the exact mesh.
+ * <p>
+ * Durability: the record of a mutation is written to the log file before the
+ * mutation is applied, so a mutation that has returned survives a crash of the
+ * process. Surviving a crash of the operating system or a loss of power
+ * requires the record to be forced to the storage device. By default the log
+ * commits in groups: records are forced by {@link #sync()}, {@link #checkpoint()}
+ * and {@link #close()}, and the mutations since the last of these may be lost.
+ * With {@link #setForceEachRecord(boolean)} each record is forced before its
+ * mutation is applied. If the log cannot be written the mutation is not
+ * applied, and if applying the mutation fails its record is removed from the
+ * log.
+ * <p>
+ * Vertices are identified in the log by their {@link Vertex#getId() ids}.
+ * Ids are persisted in the snapshot and assigned deterministically on insertion,
+ * so replay reproduces the ids as well as the mesh. A checkpoint writes a new
+ * snapshot and truncates the log.
+ * <p>
+ * The layout of the log is a 16 byte header of magic, version and the
+ * generation of the snapshot the log applies to, followed by the records. Each
+ * record is a type byte, the vertex id, the coordinates for an insertion or a
+ * move and a CRC32 of the record. A torn record at the end of the log, left by
+ * a crash during a write, is discarded during recovery.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class MutationLog implements Closeable {
+    private static final int  BUFFER_SIZE = 1 << 16;
+    private static final byte DELETE      = 2;
+    private static final int  HEADER_SIZE = 16;
+    private static final byte INSERT      = 1;
+    private static final int  MAGIC       = 0x5444574C;
+    private static final int  MAX_RECORD  = 1 + Integer.BYTES + Snapshot.VERTEX_SIZE + Integer.BYTES;
+    private static final byte MOVE        = 3;
+    private static final int  VERSION     = 1;
+
+    /**
+     * Create a new log for the tetrahedralization, checkpointing its current
+     * state to the snapshot
+     *
+     * @param tetrahedralization - the tetrahedralization
+     * @param snapshot           - the snapshot file
+     * @param log                - the log file
+     * @return the log
+     * @throws IOException
+     */
+    public static MutationLog create(Tetrahedralization tetrahedralization, Path snapshot,
+                                     Path log) throws IOException {
+        FileChannel channel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE);
+        MutationLog mutationLog = new MutationLog(tetrahedralization, snapshot, channel, 0);
+        try {
+            mutationLog.checkpoint();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return mutationLog;
+    }
+
+    /**
+     * Recover the state of the tetrahedralization by replaying the log onto the
+     * snapshot. The returned log is positioned to append further mutations.
+     *
+     * @param snapshot - the snapshot file
+     * @param log      - the log file
+     * @param random   - the random number generator of the recovered
+     *                 tetrahedralization
+     * @return the log of the recovered tetrahedralization
+     * @throws IOException
+     */
+    public static MutationLog recover(Path snapshot, Path log, Random random) throws IOException {
+        Snapshot.Contents contents = Snapshot.load(snapshot, random);
+        FileChannel channel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE);
+        MutationLog mutationLog = new MutationLog(contents.tetrahedralization, snapshot, channel,
+                                                  contents.generation);
+        try {
+            mutationLog.replay();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return mutationLog;
+    }
+
+    private final ByteBuffer         buffer = ByteBuffer.allocateDirect(MAX_RECORD).order(Snapshot.ORDER);
+    private final FileChannel        channel;
+    private final CRC32              crc    = new CRC32();
+    private boolean                  forceEachRecord;
+    private long                     generation;
+    private final Path               snapshot;
+    private final Tetrahedralization tetrahedralization;
+
+    private MutationLog(Tetrahedralization tetrahedralization, Path snapshot, FileChannel channel, long generation) {
+        this.tetrahedralization = tetrahedralization;
+        this.snapshot = snapshot;
+        this.channel = channel;
+        this.generation = generation;
+    }
+
+    /**
+     * Write a new snapshot of the tetrahedralization and truncate the log. The
+     * snapshot is written to a temporary file, forced to the storage device and
+     * then moved into place, and the move is forced before the log is truncated,
+     * so that a crash during the checkpoint leaves either the previous snapshot
+     * and log or the new snapshot intact.
+     *
+     * @throws IOException
+     */
+    public void checkpoint() throws IOException {
+        sync();
+        Path tmp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        Snapshot.write(tetrahedralization, tmp, generation + 1, true);
+        Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(snapshot.toAbsolutePath().getParent());
+        // The log of the previous generation no longer applies to the snapshot
+        generation++;
+        reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Delete the vertex from the tetrahedralization and log the deletion
+     *
+     * @param v - the vertex to delete
+     * @throws IOException
+     */
+    public void delete(Vertex v) throws IOException {
+        int id = v.getId();
+        if (tetrahedralization.vertex(id) != v) {
+            throw new IllegalArgumentException("Not a vertex of the tetrahedralization: " + v);
+        }
+        long start = append(DELETE, id, null);
+        try {
+            tetrahedralization.delete(v);
+        } catch (RuntimeException e) {
+            discard(start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Answer the logged tetrahedralization
+     */
+    public Tetrahedralization getTetrahedralization() {
+        return tetrahedralization;
+    }
+
+    /**
+     * Insert the point into the tetrahedralization and log the insertion
+     *
+     * @param p - the point to insert
+     * @return the inserted vertex
+     * @throws IOException
+     */
+    public Vertex insert(Point3d p) throws IOException {
+        // Ids are assigned deterministically, so the id is known in advance
+        int id = tetrahedralization.nextId();
+        long start = append(INSERT, id, p);
+        Vertex v;
+        try {
+            v = tetrahedralization.insert(p);
+        } catch (RuntimeException e) {
+            discard(start, e);
+            throw e;
+        }
+        assert v.getId() == id : "Inserted " + v.getId() + ", logged " + id;
+        return v;
+    }
+
+    /**
+     * Answer true if each record is forced to the storage device before its
+     * mutation is applied
+     */
+    public boolean isForceEachRecord() {
+        return forceEachRecord;
+    }
+
+    /**
+     * Move the vertex to the position and log the move
+     *
+     * @param v - the vertex to move
+     * @param p - the new position of the vertex
+     * @throws IOException
+     */
+    public void move(Vertex v, Point3d p) throws IOException {
+        int id = v.getId();
+        if (tetrahedralization.vertex(id) != v) {
+            throw new IllegalArgumentException("Not a vertex of the tetrahedralization: " + v);
+        }
+        long start = append(MOVE, id, p);
+        try {
+            tetrahedralization.move(v, p);
+        } catch (RuntimeException e) {
+            discard(start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Set whether each record is forced to the storage device before its
+     * mutation is applied, rather than by the next {@link #sync()}
+     *
+     * @param forceEachRecord - true to force each record
+     */
+    public void setForceEachRecord(boolean forceEachRecord) {
+        this.forceEachRecord = forceEachRecord;
+    }
+
+    /**
+     * Force the logged mutations to the storage device
+     *
+     * @throws IOException
+     */
+    public void sync() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * Write the record of a mutation to the log
+     *
+     * @return the position of the record in the log
+     */
+    private long append(byte type, int id, Point3d p) throws IOException {
+        long start = channel.position();
+        buffer.clear();
+        buffer.put(type);
+        buffer.putInt(id);
+        if (p != null) {
+            buffer.putDouble(p.x);
+            buffer.putDouble(p.y);
+            buffer.putDouble(p.z);
+        }
+        buffer.putInt(checksum(buffer, 0, buffer.position()));
+        write();
+        if (forceEachRecord) {
+            channel.force(false);
+        }
+        return start;
+    }
+
+    private int checksum(ByteBuffer bytes, int start, int length) {
+        crc.reset();
+        crc.update(bytes.duplicate().limit(start + length).position(start));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Remove the record of a mutation which failed to apply from the log
+     */
+    private void discard(long start, RuntimeException cause) {
+        try {
+            channel.truncate(start);
+            channel.position(start);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Apply the records of the log to the tetrahedralization, discarding any torn
+     * record at the end of the log
+     */
+    private void replay() throws IOException {
+        ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE).order(Snapshot.ORDER);
+        channel.read(in, 0);
+        in.flip();
+        if (in.remaining() >= Integer.BYTES && in.getInt(0) != MAGIC) {
+            throw new IOException("Not a mutation log");
+        }
+        if (in.remaining() >= 2 * Integer.BYTES && in.getInt(4) != VERSION) {
+            throw new IOException("Unsupported mutation log version: " + in.getInt(4));
+        }
+        if (in.remaining() < HEADER_SIZE || in.getLong(8) != generation) {
+            // Empty, torn or superseded by a later checkpoint of the snapshot
+            reset();
+            return;
+        }
+        channel.position(in.limit());
+        in.position(HEADER_SIZE);
+        long valid = HEADER_SIZE;
+        Point3d p = new Point3d();
+        while (true) {
+            if (in.remaining() < MAX_RECORD) {
+                in.compact();
+                int read;
+                do {
+                    read = channel.read(in);
+                } while (read > 0 && in.hasRemaining());
+                in.flip();
+            }
+            if (in.remaining() < 1 + Integer.BYTES + Integer.BYTES) {
+                break;
+            }
+            int start = in.position();
+            byte type = in.get(start);
+            int length = 1 + Integer.BYTES + (type == INSERT || type == MOVE ? Snapshot.VERTEX_SIZE : 0);
+            if ((type != INSERT && type != DELETE && type != MOVE) || in.remaining() < length + Integer.BYTES ||
+                checksum(in, start, length) != in.getInt(start + length)) {
+                break;
+            }
+            int id = in.getInt(start + 1);
+            if (type == INSERT) {
+                p.set(in.getDouble(start + 5), in.getDouble(start + 13), in.getDouble(start + 21));
+                if (tetrahedralization.insert(p).getId() != id) {
+                    throw new IOException("Invalid vertex id " + id + " inserted at " + valid);
+                }
+            } else if (type == MOVE) {
+                Vertex v = tetrahedralization.vertex(id);
+                if (v == null) {
+                    throw new IOException("Invalid vertex id " + id + " moved at " + valid);
+                }
+                p.set(in.getDouble(start + 5), in.getDouble(start + 13), in.getDouble(start + 21));
+                tetrahedralization.move(v, p);
+            } else {
+                Vertex v = tetrahedralization.vertex(id);
+                if (v == null) {
+                    throw new IOException("Invalid vertex id " + id + " deleted at " + valid);
+                }
+                tetrahedralization.delete(v);
+            }
+            in.position(start + length + Integer.BYTES);
+            valid += length + Integer.BYTES;
+        }
+        // Discard any torn record
+        channel.truncate(valid);
+        channel.position(valid);
+        buffer.clear();
+    }
+
+    /**
+     * Start the log afresh for the current generation
+     */
+    private void reset() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        buffer.clear();
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(generation);
+        write();
+        sync();
+    }
+
+    /**
+     * Force the entries of the directory to the storage device, so that a move
+     * into the directory survives a crash of the operating system. Platforms
+     * that cannot open a directory, such as Windows, persist the move with the
+     * file system metadata and are skipped.
+     */
+    private static void syncDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Write the buffered header or record to the log
+     */
+    private void write() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
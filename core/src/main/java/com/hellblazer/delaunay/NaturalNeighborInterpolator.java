@@ -0,0 +1,324 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.V.A;
+import static com.hellblazer.delaunay.V.B;
+import static com.hellblazer.delaunay.V.C;
+import static com.hellblazer.delaunay.V.D;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+import javax.vecmath.Point3d;
+import javax.vecmath.Tuple3d;
+
+/**
+ * Natural neighbor (Sibson) interpolation over a tetrahedralization. The
+ * weights of a query point are the volumes its Voronoi cell would steal from
+ * the cells of its natural neighbors were it inserted. The insertion is
+ * virtual: the Bowyer-Watson cavity of the query, the tetrahedra whose
+ * circumsphere contains the query, is found from the located tetrahedron by
+ * in sphere tests and the stolen volumes computed from the circumcenters of
+ * the cavity by Watson's formula, without mutating the tetrahedralization.
+ * <p>
+ * Queries near or outside of the convex hull of the points, whose natural
+ * neighbors include the corners of the universe, are not interpolated and
+ * answer NaN. Scratch state is held per thread, so queries do not allocate
+ * and may be evaluated concurrently, provided the tetrahedralization is not
+ * concurrently mutated.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class NaturalNeighborInterpolator {
+
+    /**
+     * Receives the natural neighbors of a query point and their weights
+     */
+    @FunctionalInterface
+    public interface WeightConsumer {
+        void accept(Vertex neighbor, double weight);
+    }
+
+    /**
+     * The scratch state of the queries of a thread
+     */
+    private class Scratch {
+        private Tetrahedron[]  cavity     = new Tetrahedron[64];
+        private int            cavitySize;
+        private final double[] center     = new double[3];
+        private final double[] g          = new double[12];
+        private Tetrahedron    last;
+        private Vertex[]       neighbors  = new Vertex[32];
+        private int            neighborSize;
+        private final double[] p          = new double[12];
+        private Tetrahedron[]  rejected   = new Tetrahedron[64];
+        private int            rejectedSize;
+        private final double[] sphere     = new double[3];
+        private double[]       weights    = new double[32];
+
+        /**
+         * Compute the natural neighbors of the query and their weights
+         *
+         * @return the number of natural neighbors, or -1 if the query cannot be
+         *         interpolated
+         */
+        private int compute(Tuple3d query) {
+            if (last == null || last.isDeleted()) {
+                last = tetrahedralization.randomPick();
+            }
+            Tetrahedron located = tetrahedralization.locate(query, last, ThreadLocalRandom.current());
+            last = located;
+            neighborSize = 0;
+            for (V v : Tetrahedralization.VERTICES) {
+                Vertex vertex = located.getVertex(v);
+                if (vertex.x == query.x && vertex.y == query.y && vertex.z == query.z) {
+                    if (isUniverse(vertex)) {
+                        return -1;
+                    }
+                    add(vertex, 1.0D);
+                    return neighborSize;
+                }
+            }
+            if (!cavity(query, located)) {
+                return -1;
+            }
+
+            double total = 0.0D;
+            for (int i = 0; i < cavitySize; i++) {
+                total += stolen(query, cavity[i]);
+            }
+            for (int i = 0; i < neighborSize; i++) {
+                weights[i] /= total;
+            }
+            Arrays.fill(cavity, 0, cavitySize, null);
+            return neighborSize;
+        }
+
+        private void add(Vertex neighbor, double volume) {
+            for (int i = 0; i < neighborSize; i++) {
+                if (neighbors[i] == neighbor) {
+                    weights[i] += volume;
+                    return;
+                }
+            }
+            if (neighborSize == neighbors.length) {
+                neighbors = Arrays.copyOf(neighbors, neighborSize * 2);
+                weights = Arrays.copyOf(weights, neighborSize * 2);
+            }
+            neighbors[neighborSize] = neighbor;
+            weights[neighborSize++] = volume;
+        }
+
+        /**
+         * Gather the tetrahedra whose circumsphere contains the query
+         *
+         * @return false if the cavity includes a corner of the universe
+         */
+        private boolean cavity(Tuple3d query, Tetrahedron located) {
+            cavitySize = 0;
+            rejectedSize = 0;
+            cavity[cavitySize++] = located;
+            boolean bounded = true;
+            for (int head = 0; head < cavitySize && bounded; head++) {
+                Tetrahedron t = cavity[head];
+                for (V v : Tetrahedralization.VERTICES) {
+                    if (isUniverse(t.getVertex(v))) {
+                        bounded = false;
+                        break;
+                    }
+                    Tetrahedron neighbor = t.getNeighbor(v);
+                    if (neighbor == null || contains(cavity, cavitySize, neighbor) ||
+                        contains(rejected, rejectedSize, neighbor)) {
+                        continue;
+                    }
+                    if (inSphere(neighbor, query)) {
+                        if (cavitySize == cavity.length) {
+                            cavity = Arrays.copyOf(cavity, cavitySize * 2);
+                        }
+                        cavity[cavitySize++] = neighbor;
+                    } else {
+                        if (rejectedSize == rejected.length) {
+                            rejected = Arrays.copyOf(rejected, rejectedSize * 2);
+                        }
+                        rejected[rejectedSize++] = neighbor;
+                    }
+                }
+            }
+            Arrays.fill(rejected, 0, rejectedSize, null);
+            if (!bounded) {
+                Arrays.fill(cavity, 0, cavitySize, null);
+            }
+            return bounded;
+        }
+
+        /**
+         * Accumulate the volumes the query steals from the vertices of the cavity
+         * tetrahedron. The coordinates are taken relative to the query.
+         *
+         * @return the total volume stolen
+         */
+        private double stolen(Tuple3d query, Tetrahedron t) {
+            for (V v : Tetrahedralization.VERTICES) {
+                Vertex vertex = t.getVertex(v);
+                int i = 3 * v.ordinal();
+                p[i] = vertex.x - query.x;
+                p[i + 1] = vertex.y - query.y;
+                p[i + 2] = vertex.z - query.z;
+            }
+            Geometry.centerSphere(p[0], p[1], p[2], p[3], p[4], p[5], p[6], p[7], p[8], p[9], p[10], p[11], center);
+            // The circumcenters of the query and the faces of the tetrahedron
+            for (int face = 0; face < 4; face++) {
+                int[] opposite = FACES[face];
+                int a = 3 * opposite[0], b = 3 * opposite[1], c = 3 * opposite[2];
+                Geometry.centerSphere(p[a], p[a + 1], p[a + 2], p[b], p[b + 1], p[b + 2], p[c], p[c + 1], p[c + 2],
+                                      0.0D, 0.0D, 0.0D, sphere);
+                g[3 * face] = sphere[0] - center[0];
+                g[3 * face + 1] = sphere[1] - center[1];
+                g[3 * face + 2] = sphere[2] - center[2];
+            }
+            double total = 0.0D;
+            for (V v : Tetrahedralization.VERTICES) {
+                int[] incident = INCIDENT[v.ordinal()];
+                int a = 3 * incident[0], b = 3 * incident[1], c = 3 * incident[2];
+                double volume = determinant(g[a], g[a + 1], g[a + 2], g[b], g[b + 1], g[b + 2], g[c], g[c + 1],
+                                            g[c + 2]);
+                add(t.getVertex(v), volume);
+                total += volume;
+            }
+            return total;
+        }
+    }
+
+    /**
+     * The indices of the vertices of the face opposite each vertex
+     */
+    private static final int[][] FACES    = { { 1, 2, 3 }, { 0, 2, 3 }, { 0, 1, 3 }, { 0, 1, 2 } };
+    /**
+     * The faces incident with each vertex, identified by their opposite vertex,
+     * in an order consistent with the orientation of the tetrahedron
+     */
+    private static final int[][] INCIDENT = { { 1, 2, 3 }, { 0, 3, 2 }, { 0, 1, 3 }, { 0, 2, 1 } };
+    private static final int     BLOCK    = 1024;
+
+    private static double determinant(double ax, double ay, double az, double bx, double by, double bz, double cx,
+                                      double cy, double cz) {
+        return ax * (by * cz - bz * cy) + ay * (bz * cx - bx * cz) + az * (bx * cy - by * cx);
+    }
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+    private final Tetrahedralization   tetrahedralization;
+    private final Vertex[]             universe;
+
+    public NaturalNeighborInterpolator(Tetrahedralization tetrahedralization) {
+        assert tetrahedralization != null;
+        this.tetrahedralization = tetrahedralization;
+        universe = tetrahedralization.getUniverse();
+    }
+
+    /**
+     * Interpolate the scalar field at each of the query points, in parallel
+     *
+     * @param queries - the packed {x, y, z} coordinates of the query points
+     * @param field   - the value of the field at each vertex
+     * @param out     - receives the interpolated value of each query, NaN if the
+     *                query cannot be interpolated
+     */
+    public void interpolate(double[] queries, ToDoubleFunction<Vertex> field, double[] out) {
+        int count = queries.length / 3;
+        if (out.length < count) {
+            throw new IllegalArgumentException("Output holds " + out.length + " values, require " + count);
+        }
+        IntStream.range(0, (count + BLOCK - 1) / BLOCK).parallel().forEach(block -> {
+            Point3d query = new Point3d();
+            for (int i = block * BLOCK, end = Math.min(count, i + BLOCK); i < end; i++) {
+                query.set(queries[3 * i], queries[3 * i + 1], queries[3 * i + 2]);
+                out[i] = interpolate(query, field);
+            }
+        });
+    }
+
+    /**
+     * Interpolate the scalar field at the query point
+     *
+     * @param query - the query point
+     * @param field - the value of the field at each vertex
+     * @return the interpolated value, or NaN if the query cannot be interpolated
+     */
+    public double interpolate(Tuple3d query, ToDoubleFunction<Vertex> field) {
+        Scratch s = scratch.get();
+        int count = s.compute(query);
+        if (count < 0) {
+            return Double.NaN;
+        }
+        double value = 0.0D;
+        for (int i = 0; i < count; i++) {
+            value += s.weights[i] * field.applyAsDouble(s.neighbors[i]);
+        }
+        Arrays.fill(s.neighbors, 0, count, null);
+        return value;
+    }
+
+    /**
+     * Compute the natural neighbors of the query point and their weights
+     *
+     * @param query    - the query point
+     * @param consumer - receives each natural neighbor and its weight
+     * @return true if the query can be interpolated, false if the natural
+     *         neighbors include the corners of the universe
+     */
+    public boolean weights(Tuple3d query, WeightConsumer consumer) {
+        Scratch s = scratch.get();
+        int count = s.compute(query);
+        for (int i = 0; i < count; i++) {
+            consumer.accept(s.neighbors[i], s.weights[i]);
+        }
+        if (count > 0) {
+            Arrays.fill(s.neighbors, 0, count, null);
+        }
+        return count >= 0;
+    }
+
+    private boolean contains(Tetrahedron[] tetrahedra, int size, Tetrahedron t) {
+        for (int i = 0; i < size; i++) {
+            if (tetrahedra[i] == t) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean inSphere(Tetrahedron t, Tuple3d query) {
+        Vertex a = t.getVertex(A);
+        Vertex b = t.getVertex(B);
+        Vertex c = t.getVertex(C);
+        Vertex d = t.getVertex(D);
+        return Geometry.inSphere(a.x, a.y, a.z, b.x, b.y, b.z, c.x, c.y, c.z, d.x, d.y, d.z, query.x, query.y,
+                                 query.z) > 0.0D;
+    }
+
+    private boolean isUniverse(Vertex v) {
+        return v == universe[0] || v == universe[1] || v == universe[2] || v == universe[3];
+    }
+}
@@ -0,0 +1,216 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.vecmath.Tuple3d;
+
+/**
+ * Nearest neighbor queries over the Delaunay graph. The nearest vertex is found
+ * by greedy descent from the located tetrahedron, and the k nearest vertices or
+ * the vertices within a radius by best first expansion over the Delaunay edges
+ * from the nearest vertex. The k nearest neighbors of a point form a connected
+ * subgraph of the Delaunay graph which includes the nearest neighbor, so the
+ * expansion visits them in order of distance.
+ * <p>
+ * A search holds the scratch state of a query and is reused by the queries of
+ * a thread. The four corners of the universe are never answered.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+class NeighborSearch implements StarVisitor {
+    private static final ThreadLocal<NeighborSearch> SEARCH = ThreadLocal.withInitial(NeighborSearch::new);
+
+    /**
+     * Answer the search scratch state of the current thread
+     */
+    static NeighborSearch get() {
+        return SEARCH.get();
+    }
+
+    private Vertex            closest;
+    private double            closestDistance;
+    private final StarVisitor closer   = (vertex, t, x, y, z) -> {
+                                           closer(x);
+                                           closer(y);
+                                           closer(z);
+                                       };
+    private final VertexHeap  heap     = new VertexHeap();
+    private Tuple3d           query;
+    private Vertex[]          universe;
+    private final IntHashSet  visited  = new IntHashSet(64);
+
+    /**
+     * Answer the k vertices nearest to the query, in order of increasing distance
+     */
+    List<Vertex> kNearest(Tuple3d query, int k, Tetrahedron located, Vertex[] universe) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        // k may exceed the number of vertices, as with Integer.MAX_VALUE for all
+        List<Vertex> nearest = new ArrayList<>();
+        expand(query, located, universe);
+        while (nearest.size() < k && !heap.isEmpty()) {
+            Vertex v = heap.poll();
+            nearest.add(v);
+            v.getAdjacent().visitStar(v, this);
+        }
+        reset();
+        return nearest;
+    }
+
+    /**
+     * Answer the vertex nearest to the query
+     */
+    Vertex nearest(Tuple3d query, Tetrahedron located, Vertex[] universe) {
+        this.query = query;
+        this.universe = universe;
+        Vertex nearest = descend(located);
+        reset();
+        return nearest;
+    }
+
+    @Override
+    public void visit(V vertex, Tetrahedron t, Vertex x, Vertex y, Vertex z) {
+        offer(x);
+        offer(y);
+        offer(z);
+    }
+
+    /**
+     * Answer the vertices within the radius of the query, in order of increasing
+     * distance
+     */
+    List<Vertex> withinRadius(Tuple3d query, double radius, Tetrahedron located, Vertex[] universe) {
+        List<Vertex> within = new ArrayList<>();
+        expand(query, located, universe);
+        double radiusSquared = radius * radius;
+        while (!heap.isEmpty() && heap.peekKey() <= radiusSquared) {
+            Vertex v = heap.poll();
+            within.add(v);
+            v.getAdjacent().visitStar(v, this);
+        }
+        reset();
+        return within;
+    }
+
+    private void closer(Vertex v) {
+        if (isUniverse(v)) {
+            return;
+        }
+        double distance = v.distanceSquared(query);
+        if (distance < closestDistance) {
+            closest = v;
+            closestDistance = distance;
+        }
+    }
+
+    /**
+     * Greedy descent over the Delaunay edges to the vertex nearest the query
+     */
+    private Vertex descend(Tetrahedron located) {
+        Vertex start = start(located);
+        if (start == null) {
+            return null;
+        }
+        closest = start;
+        closestDistance = start.distanceSquared(query);
+        Vertex current;
+        do {
+            current = closest;
+            current.getAdjacent().visitStar(current, closer);
+        } while (closest != current);
+        return current;
+    }
+
+    /**
+     * Initialize the best first expansion from the vertex nearest the query
+     */
+    private void expand(Tuple3d query, Tetrahedron located, Vertex[] universe) {
+        this.query = query;
+        this.universe = universe;
+        Vertex nearest = descend(located);
+        if (nearest != null) {
+            offer(nearest);
+        }
+    }
+
+    private boolean isUniverse(Vertex v) {
+        return v == universe[0] || v == universe[1] || v == universe[2] || v == universe[3];
+    }
+
+    private void offer(Vertex v) {
+        if (!isUniverse(v) && visited.add(v.getId())) {
+            heap.add(v.distanceSquared(query), v);
+        }
+    }
+
+    private void reset() {
+        heap.clear();
+        visited.clear();
+        closest = null;
+        query = null;
+        universe = null;
+    }
+
+    /**
+     * Answer the vertex of the located tetrahedron nearest the query, searching
+     * the surrounding tetrahedra if all its vertices are corners of the universe
+     */
+    private Vertex start(Tetrahedron located) {
+        IntHashSet tetrahedrons = null;
+        List<Tetrahedron> frontier = List.of(located);
+        while (!frontier.isEmpty()) {
+            Vertex nearest = null;
+            double distance = Double.POSITIVE_INFINITY;
+            for (Tetrahedron t : frontier) {
+                for (V ordinal : Tetrahedralization.VERTICES) {
+                    Vertex v = t.getVertex(ordinal);
+                    if (!isUniverse(v) && v.distanceSquared(query) < distance) {
+                        nearest = v;
+                        distance = v.distanceSquared(query);
+                    }
+                }
+            }
+            if (nearest != null) {
+                return nearest;
+            }
+            if (tetrahedrons == null) {
+                tetrahedrons = new IntHashSet();
+                tetrahedrons.add(located.getSlot());
+            }
+            List<Tetrahedron> next = new ArrayList<>();
+            for (Tetrahedron t : frontier) {
+                for (V ordinal : Tetrahedralization.VERTICES) {
+                    Tetrahedron neighbor = t.getNeighbor(ordinal);
+                    if (neighbor != null && tetrahedrons.add(neighbor.getSlot())) {
+                        next.add(neighbor);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return null;
+    }
+}
@@ -104,7 +104,9 @@ public abstract class OpenAddressingSet<T> extends AbstractSet<T> {
     @Override
     public Iterator<T> iterator() {
         return new Iterator<T>() {
-            int next = 0;
+            int            next  = 0;
+            final Object[] table = OpenAddressingSet.this.table == null ? new Object[0]
+                                                                        : OpenAddressingSet.this.table;
 
             @Override
             public boolean hasNext() {
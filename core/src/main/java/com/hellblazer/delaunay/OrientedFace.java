@@ -23,11 +23,10 @@ import static com.hellblazer.delaunay.V.B;
 import static com.hellblazer.delaunay.V.C;
 import static com.hellblazer.delaunay.V.D;
 
+import java.util.Collection;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.function.Function;
 
 /**
  * An oriented face of a tetrahedron.
@@ -52,54 +51,40 @@ public abstract class OrientedFace implements Iterable<Vertex> {
     /**
      * Perform a flip for deletion of the vertex from the tetrahedralization. The
      * incident and adjacent tetrahedra form an ear of the star set of tetrahedra
-     * adjacent to v.
+     * adjacent to v. The ear is flipped only if the tetrahedra it creates are
+     * Delaunay with respect to the link of the vertex, i.e. the vertices adjacent
+     * to n. The ears created by the flip are appended to the list of ears.
      * <p>
      *
-     * @param index - the index of the receiver in the list of ears
-     * @param ears  - the list of ears of the vertex
-     * @param n     - the vertex to be deleted
+     * @param ears - the list of ears of the vertex
+     * @param n    - the vertex to be deleted
+     * @param link    - the vertices adjacent to n
+     * @param tracker - notes the tetrahedra replaced by the flip
      * @return true if the receiver is to be deleted from the list of ears
      */
-    public boolean flip(int index, LinkedList<OrientedFace> ears, Vertex n) {
-        if (!isValid()) {
+    boolean flip(List<OrientedFace> ears, Vertex n, Collection<Vertex> link, TetrahedronTracker tracker) {
+        if (!isValid() || getAdjacent().ordinalOf(getIncident()) != adjacentVertexOrdinal) {
+            // The face has been replaced by a flip, any ear it represented has been
+            // added by that flip
             return true;
         }
-
-        int reflexEdge = 0;
-        int reflexEdges = 0;
-        // Determine how many faces are visible from the tetrahedron
-        for (int i = 0; reflexEdges < 2 && i < 3; i++) {
-            if (isReflex(i)) {
-                reflexEdge = i;
-                reflexEdges++;
-            }
+        Tetrahedron[] created = flipEar(n, link, tracker);
+        if (created == null) {
+            return false;
         }
-
-        if (reflexEdges == 0 && isConvex(indexOf(n)) && isLocallyDelaunay(index, n, ears)) {
-            // Only one face of the opposing tetrahedron is visible
-            Tetrahedron[] created = flip2to3();
-            if (created[0].includes(n)) {
-                if (created[1].includes(n)) {
-                    ears.add(created[0].getFace(created[0].ordinalOf(created[1])));
-                } else {
-                    ears.add(created[0].getFace(created[0].ordinalOf(created[2])));
+        for (Tetrahedron t : created) {
+            if (!t.isDeleted() && t.includes(n)) {
+                for (V v : Tetrahedralization.VERTICES) {
+                    if (t.getVertex(v) != n) {
+                        Tetrahedron neighbor = t.getNeighbor(v);
+                        if (neighbor != null && neighbor.includes(n)) {
+                            ears.add(t.getFace(v));
+                        }
+                    }
                 }
-            } else {
-                ears.add(created[1].getFace(created[1].ordinalOf(created[2])));
-            }
-            return true;
-        } else if (reflexEdges == 1) {
-            // Two faces of the opposing tetrahedron are visible
-            Vertex opposingVertex = getVertex(reflexEdge);
-            Tetrahedron t1 = getIncident().getNeighbor(opposingVertex);
-            Tetrahedron t2 = getAdjacent().getNeighbor(opposingVertex);
-            if (t1 != null && t1 == t2 && isFlippable3ear(n) && isLocallyDelaunay(index, n, ears)) {
-                flip3to2(reflexEdge);
-                return true;
             }
         }
-        // all three faces are visible, no action taken
-        return false;
+        return true;
     }
 
     /**
@@ -112,37 +97,51 @@ public abstract class OrientedFace implements Iterable<Vertex> {
      * @return - the last valid tetrahedron noted, or null if no flip was performed.
      */
     public Tetrahedron flip(Vertex n, List<OrientedFace> ears) {
+        return flip(n, ears, TetrahedronTracker.NONE);
+    }
+
+    /**
+     * Perform the flip which incrementally restores the delaunay condition after
+     * the vertex has been inserted, noting the replaced tetrahedra with the
+     * tracker
+     */
+    Tetrahedron flip(Vertex n, List<OrientedFace> ears, TetrahedronTracker tracker) {
         if (!isValid()) {
             return null;
         }
+        // The fused kernel evaluates the predicates of the adjacent vertex at once
+        int predicates = -1;
+        if (FusedPredicates.isEnabled() && hasAdjacent()) {
+            predicates = FusedPredicates.evaluate(getIncident(), getAdjacentVertex(), true);
+        }
         int reflexEdge = 0;
         int reflexEdges = 0;
         // Determine how many faces are visible from the tetrahedron formed
         // by the inserted point and the popped facet
         for (int i = 0; reflexEdges < 2 && i < 3; i++) {
-            if (isReflex(i)) {
+            if (isReflex(i, predicates)) {
                 reflexEdge = i;
                 reflexEdges++;
             }
         }
 
         Tetrahedron returned = null;
-        if (reflexEdges == 0 && !isRegular()) {
+        if (reflexEdges == 0 && !isRegular(predicates)) {
             // Only one face of the opposing tetrahedron is visible
-            for (Tetrahedron t : flip2to3()) {
+            for (Tetrahedron t : flip2to3(tracker)) {
                 OrientedFace f = t.getFace(n);
                 if (f.hasAdjacent()) {
                     ears.add(f);
                 }
                 returned = t;
             }
-        } else if (reflexEdges == 1 && !isRegular()) {
+        } else if (reflexEdges == 1 && !isRegular(predicates)) {
             // Two faces of the opposing tetrahedron are visible
             Vertex opposingVertex = getVertex(reflexEdge);
             Tetrahedron t1 = getIncident().getNeighbor(opposingVertex);
             Tetrahedron t2 = getAdjacent().getNeighbor(opposingVertex);
             if (t1 != null && t1 == t2) {
-                for (Tetrahedron t : flip3to2(reflexEdge)) {
+                for (Tetrahedron t : flip3to2(reflexEdge, tracker)) {
                     OrientedFace f = t.getFace(n);
                     if (f.hasAdjacent()) {
                         ears.add(f);
@@ -162,6 +161,14 @@ public abstract class OrientedFace implements Iterable<Vertex> {
      * @return the three created tetrahedron
      */
     public Tetrahedron[] flip2to3() {
+        return flip2to3(TetrahedronTracker.NONE);
+    }
+
+    /**
+     * Perform the bistellar flip 2 -> 3, noting the replaced tetrahedra with the
+     * tracker
+     */
+    Tetrahedron[] flip2to3(TetrahedronTracker tracker) {
         assert adjacentVertexOrdinal != null;
         Tetrahedron incident = getIncident();
 
@@ -190,12 +197,13 @@ public abstract class OrientedFace implements Iterable<Vertex> {
         adjacent.patch(getVertex(1), t2, C);
         adjacent.patch(getVertex(2), t0, B);
 
+        tracker.replaced(new Tetrahedron[] { incident, adjacent }, new Tetrahedron[] { t0, t1, t2 });
         incident.delete();
         adjacent.delete();
 
-        t0.removeAnyDegenerateTetrahedronPair();
-        t1.removeAnyDegenerateTetrahedronPair();
-        t2.removeAnyDegenerateTetrahedronPair();
+        t0.removeAnyDegenerateTetrahedronPair(tracker);
+        t1.removeAnyDegenerateTetrahedronPair(tracker);
+        t2.removeAnyDegenerateTetrahedronPair(tracker);
 
         if (t0.isDeleted())
             if (t1.isDeleted())
@@ -228,6 +236,14 @@ public abstract class OrientedFace implements Iterable<Vertex> {
      * @return the two created tetrahedron
      */
     public Tetrahedron[] flip3to2(int reflexEdge) {
+        return flip3to2(reflexEdge, TetrahedronTracker.NONE);
+    }
+
+    /**
+     * Perform the bistellar 3->2 flip, noting the replaced tetrahedra with the
+     * tracker
+     */
+    Tetrahedron[] flip3to2(int reflexEdge, TetrahedronTracker tracker) {
         assert adjacentVertexOrdinal != null;
         Tetrahedron incident = getIncident();
         Tetrahedron o2 = getIncident().getNeighbor(getVertex(reflexEdge));
@@ -280,6 +296,7 @@ public abstract class OrientedFace implements Iterable<Vertex> {
         o2.patch(t0.getD(), t1, t1.ordinalOf(getVertex(reflexEdge)));
         o2.patch(t1.getD(), t0, t0.ordinalOf(getVertex(reflexEdge)));
 
+        tracker.replaced(new Tetrahedron[] { incident, adjacent, o2 }, new Tetrahedron[] { t0, t1 });
         incident.delete();
         adjacent.delete();
         o2.delete();
@@ -427,47 +444,91 @@ public abstract class OrientedFace implements Iterable<Vertex> {
      */
     abstract public int orientationOf(Vertex query);
 
-    private boolean inSphere(Vertex query, Vertex b, Vertex c, Vertex d) {
-        Vertex a = getIncidentVertex();
+    /**
+     * Flip the ear if the result is Delaunay with respect to the link of the
+     * vertex being deleted.
+     *
+     * @return the created tetrahedra, or null if the ear cannot be flipped
+     */
+    private Tetrahedron[] flipEar(Vertex n, Collection<Vertex> link, TetrahedronTracker tracker) {
+        Vertex incidentVertex = getIncidentVertex();
+        Vertex adjacentVertex = getAdjacentVertex();
+        int index = indexOf(n);
+
+        // A 3 ear: the third tetrahedron around an edge of the face is in the star
+        for (int reflexEdge = 0; reflexEdge < 3; reflexEdge++) {
+            if (reflexEdge == index) {
+                continue;
+            }
+            Vertex x = getVertex(reflexEdge);
+            Tetrahedron t1 = getIncident().getNeighbor(x);
+            Tetrahedron t2 = getAdjacent().getNeighbor(x);
+            if (t1 != null && t1 == t2) {
+                Vertex q = getVertex(3 - reflexEdge - index);
+                int on = n.orientation(x, incidentVertex, adjacentVertex);
+                int oq = q.orientation(x, incidentVertex, adjacentVertex);
+                if (on != 0 && oq != 0 && on != oq && isDelaunay(x, incidentVertex, adjacentVertex, q, link)) {
+                    return flip3to2(reflexEdge, tracker);
+                }
+            }
+        }
+
+        // A 2 ear: the union of the incident and adjacent tetrahedra is convex
+        for (int i = 0; i < 3; i++) {
+            if (!isConvex(i)) {
+                return null;
+            }
+        }
+        Vertex a = getVertex((index + 1) % 3);
+        Vertex b = getVertex((index + 2) % 3);
+        if (adjacentVertex.orientation(a, b, incidentVertex) == 0 ||
+            !isDelaunay(a, b, incidentVertex, adjacentVertex, link)) {
+            return null;
+        }
+        return flip2to3(tracker);
+    }
+
+    /**
+     * Answer true if no vertex of the link is inside the sphere circumscribing
+     * the tetrahedron {a, b, c, d}. The test scans the whole link, so a pass over
+     * the ears of a star costs O(ears * link).
+     */
+    private boolean isDelaunay(Vertex a, Vertex b, Vertex c, Vertex d, Collection<Vertex> link) {
         if (d.orientation(a, b, c) < 0) {
             Vertex tmp = b;
             b = a;
             a = tmp;
         }
-        return query.inSphere(a, b, c, d) > 0;
+        for (Vertex v : link) {
+            if (v != a && v != b && v != c && v != d && v.inSphere(a, b, c, d) > 0) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    private boolean isFlippable3ear(Vertex n) {
-        OrientedFace opposingFace = getIncident().getFace(n);
-        opposingFace.getAdjacent().getFace(opposingFace.getAdjacentVertex());
-        return opposingFace.orientationOf(n) > 0;
-
+    /**
+     * Answer true if the edge of the vertex is reflex, using the predicates
+     * evaluated by the fused kernel, if any. The edge is reflex if the adjacent
+     * vertex is negatively oriented with respect to the face of the incident
+     * tetrahedron opposite the vertex.
+     */
+    private boolean isReflex(int vertex, int predicates) {
+        if (predicates < 0) {
+            return isReflex(vertex);
+        }
+        return (predicates & 1 << getIncident().ordinalOf(getVertex(vertex)).ordinal()) != 0;
     }
 
-    private boolean isLocallyDelaunay(int index, Vertex v, LinkedList<OrientedFace> ears) {
-        Function<Vertex, Boolean> circumSphere = query -> {
-            switch (indexOf(v)) {
-            case 0:
-                return inSphere(query, getVertex(1), getVertex(2), getVertex(0));
-            case 1:
-                return inSphere(query, getVertex(0), getVertex(2), getVertex(1));
-            default:
-                return inSphere(query, getVertex(0), getVertex(1), getVertex(2));
-            }
-        };
-        for (int i = 0; i < ears.size(); i++) {
-            if (index != i) {
-                OrientedFace ear = ears.get(i);
-                if (ear != this && ear.isValid()) {
-                    for (Vertex e : ear) {
-                        if (e != v && circumSphere.apply(e)) {
-                            return false;
-                        }
-                    }
-                }
-            }
+    /**
+     * Answer true if the receiver is regular, using the predicates evaluated by
+     * the fused kernel, if any
+     */
+    private boolean isRegular(int predicates) {
+        if (predicates < 0) {
+            return isRegular();
         }
-        return true;
+        return (predicates & FusedPredicates.IN_SPHERE) == 0;
     }
 
     private boolean isValid() {
@@ -0,0 +1,438 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.hellblazer.delaunay;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.vecmath.Point3d;
+
+/**
+ * Streams points from large files into a tetrahedralization with bounded
+ * memory. Points are read in chunks, each chunk is sorted along a
+ * {@link SpaceFillingCurve} and then inserted, so the peak memory overhead is a
+ * single chunk rather than the entire point set.
+ * <p>
+ * Supported formats are raw binary (little endian {x, y, z} doubles), CSV
+ * (the first three numeric columns of each line) and PLY (ascii, binary little
+ * endian and binary big endian, using the x, y and z properties of the vertex
+ * element).
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class PointIngest {
+
+    /**
+     * Receives progress notifications as each chunk is inserted
+     */
+    @FunctionalInterface
+    public interface Progress {
+        /**
+         * @param points     - the number of points inserted so far
+         * @param bytesRead  - the number of bytes of the file consumed so far
+         * @param totalBytes - the size of the file
+         */
+        void progress(long points, long bytesRead, long totalBytes);
+    }
+
+    private static final int DEFAULT_CHUNK = 1 << 16;
+    private static final int READ_BUFFER   = 1 << 20;
+
+    private long                     bytesRead;
+    private final int                chunk;
+    private int                      count;
+    private long                     inserted;
+    private final long[]             keys;
+    private final int[]              order;
+    private final Point3d            point = new Point3d();
+    private final Progress           progress;
+    private final Tetrahedralization tetrahedralization;
+    private long                     totalBytes;
+    private final double[]           xyz;
+
+    /**
+     * Construct an ingest using the default chunk size and no progress reporting
+     *
+     * @param tetrahedralization - the tetrahedralization receiving the points
+     */
+    public PointIngest(Tetrahedralization tetrahedralization) {
+        this(tetrahedralization, DEFAULT_CHUNK, (points, read, total) -> {
+        });
+    }
+
+    /**
+     * Construct an ingest
+     *
+     * @param tetrahedralization - the tetrahedralization receiving the points
+     * @param chunk              - the number of points read, sorted and inserted
+     *                           at a time
+     * @param progress           - the progress callback, invoked after each chunk
+     */
+    public PointIngest(Tetrahedralization tetrahedralization, int chunk, Progress progress) {
+        assert tetrahedralization != null && progress != null;
+        if (chunk < 1) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunk);
+        }
+        this.tetrahedralization = tetrahedralization;
+        this.chunk = chunk;
+        this.progress = progress;
+        xyz = new double[chunk * 3];
+        order = new int[chunk];
+        keys = new long[chunk];
+    }
+
+    /**
+     * Insert the points of a raw binary file of little endian {x, y, z} doubles
+     *
+     * @param file - the point file
+     * @return the number of points inserted
+     * @throws IOException
+     */
+    public long insertBinary(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            begin(channel.size());
+            readBinary(channel, ByteOrder.LITTLE_ENDIAN, Long.MAX_VALUE, 0, 8, 16, 3 * Double.BYTES,
+                       new char[] { 'd', 'd', 'd' });
+            return end();
+        }
+    }
+
+    /**
+     * Insert the points of a CSV file. The first three numeric fields of each
+     * line are the x, y and z coordinates; blank lines, comments starting with
+     * '#' and a non numeric header line are skipped.
+     *
+     * @param file - the point file
+     * @return the number of points inserted
+     * @throws IOException
+     */
+    public long insertCsv(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            begin(channel.size());
+            BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel),
+                                                                             StandardCharsets.UTF_8.newDecoder()));
+            readText(channel, reader, Long.MAX_VALUE, 0, 1, 2, true);
+            return end();
+        }
+    }
+
+    /**
+     * Insert the vertices of a PLY file
+     *
+     * @param file - the point file
+     * @return the number of points inserted
+     * @throws IOException
+     */
+    public long insertPly(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            begin(channel.size());
+            PlyHeader header = PlyHeader.read(channel);
+            channel.position(header.length);
+            bytesRead = header.length;
+            if (header.format.equals("ascii")) {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel),
+                                                                                 StandardCharsets.US_ASCII));
+                readText(channel, reader, header.vertices, header.x, header.y, header.z, false);
+            } else {
+                ByteOrder byteOrder = header.format.equals("binary_big_endian") ? ByteOrder.BIG_ENDIAN
+                                                                                 : ByteOrder.LITTLE_ENDIAN;
+                readBinary(channel, byteOrder, header.vertices, header.offsets[header.x], header.offsets[header.y],
+                           header.offsets[header.z], header.size, new char[] { header.types[header.x],
+                                                                               header.types[header.y],
+                                                                               header.types[header.z] });
+            }
+            return end();
+        }
+    }
+
+    private void add(double x, double y, double z) {
+        xyz[3 * count] = x;
+        xyz[3 * count + 1] = y;
+        xyz[3 * count + 2] = z;
+        if (++count == chunk) {
+            flush();
+        }
+    }
+
+    private void begin(long size) {
+        count = 0;
+        inserted = 0;
+        bytesRead = 0;
+        totalBytes = size;
+    }
+
+    private long end() {
+        flush();
+        return inserted;
+    }
+
+    /**
+     * Sort the buffered chunk along the curve and insert it
+     */
+    private void flush() {
+        if (count == 0) {
+            return;
+        }
+        SpaceFillingCurve.sort(xyz, count, order, keys);
+        for (int i = 0; i < count; i++) {
+            int p = order[i];
+            point.set(xyz[3 * p], xyz[3 * p + 1], xyz[3 * p + 2]);
+            tetrahedralization.insert(point);
+        }
+        inserted += count;
+        count = 0;
+        progress.progress(inserted, bytesRead, totalBytes);
+    }
+
+    private void readBinary(FileChannel channel, ByteOrder byteOrder, long limit, int x, int y, int z, int size,
+                            char[] types) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER - READ_BUFFER % size).order(byteOrder);
+        long points = 0;
+        while (points < limit && channel.read(buffer) > 0) {
+            buffer.flip();
+            while (points < limit && buffer.remaining() >= size) {
+                int record = buffer.position();
+                double px = value(buffer, record + x, types[0]);
+                double py = value(buffer, record + y, types[1]);
+                double pz = value(buffer, record + z, types[2]);
+                buffer.position(record + size);
+                bytesRead += size;
+                points++;
+                add(px, py, pz);
+            }
+            buffer.compact();
+        }
+        if (points < limit && limit != Long.MAX_VALUE) {
+            throw new IOException("Expected " + limit + " points, found " + points);
+        }
+        if (limit == Long.MAX_VALUE && buffer.position() > 0) {
+            throw new IOException("Truncated point record: " + buffer.position() + " trailing bytes after " + points
+            + " points");
+        }
+    }
+
+    /**
+     * Read the points of the text lines. The decoded lines do not give the length
+     * of their encoding, so the bytes read are taken from the position of the
+     * channel, which leads the parsed points by the text buffered in the reader.
+     */
+    private void readText(FileChannel channel, BufferedReader reader, long limit, int x, int y, int z,
+                          boolean header) throws IOException {
+        String line;
+        double[] fields = new double[Math.max(x, Math.max(y, z)) + 1];
+        long points = 0;
+        while (points < limit && (line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] tokens = line.split("[,;\\s]+");
+            if (tokens.length < fields.length) {
+                throw new IOException("Too few fields: " + line);
+            }
+            try {
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = Double.parseDouble(tokens[i]);
+                }
+            } catch (NumberFormatException e) {
+                if (header && points == 0) {
+                    header = false;
+                    continue;
+                }
+                throw new IOException("Invalid point: " + line, e);
+            }
+            header = false;
+            points++;
+            if (count == chunk - 1) {
+                // The chunk is flushed by this point
+                bytesRead = channel.position();
+            }
+            add(fields[x], fields[y], fields[z]);
+        }
+        bytesRead = channel.position();
+        if (points < limit && limit != Long.MAX_VALUE) {
+            throw new IOException("Expected " + limit + " points, found " + points);
+        }
+    }
+
+    private static double value(ByteBuffer buffer, int index, char type) {
+        switch (type) {
+        case 'f':
+            return buffer.getFloat(index);
+        case 'd':
+            return buffer.getDouble(index);
+        case 'b':
+            return buffer.get(index);
+        case 'B':
+            return buffer.get(index) & 0xFF;
+        case 's':
+            return buffer.getShort(index);
+        case 'S':
+            return buffer.getShort(index) & 0xFFFF;
+        case 'i':
+            return buffer.getInt(index);
+        case 'I':
+            return buffer.getInt(index) & 0xFFFFFFFFL;
+        default:
+            throw new IllegalArgumentException("Invalid type: " + type);
+        }
+    }
+
+    /**
+     * The parsed header of a PLY file, describing the layout of the vertex
+     * element
+     */
+    private static class PlyHeader {
+        private static final String END = "end_header";
+
+        static PlyHeader read(FileChannel channel) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            StringBuilder text = new StringBuilder();
+            int end;
+            while ((end = text.indexOf(END)) < 0 || text.indexOf("\n", end) < 0) {
+                buffer.clear();
+                if (channel.read(buffer) <= 0) {
+                    throw new IOException("Not a PLY file: missing " + END);
+                }
+                buffer.flip();
+                text.append(StandardCharsets.US_ASCII.decode(buffer));
+            }
+            if (!text.toString().startsWith("ply")) {
+                throw new IOException("Not a PLY file");
+            }
+            PlyHeader header = new PlyHeader();
+            header.length = text.indexOf("\n", end) + 1;
+
+            List<String> names = new ArrayList<>();
+            List<Character> types = new ArrayList<>();
+            boolean vertex = false;
+            for (String line : text.substring(0, end).split("\r?\n")) {
+                String[] tokens = line.trim().split("\\s+");
+                switch (tokens[0]) {
+                case "format":
+                    header.format = tokens[1];
+                    break;
+                case "element":
+                    vertex = tokens[1].equals("vertex");
+                    if (vertex) {
+                        header.vertices = Long.parseLong(tokens[2]);
+                    } else if (header.vertices < 0) {
+                        // the vertex data must come first in the body
+                        throw new IOException("Elements preceding the vertex element are not supported");
+                    }
+                    break;
+                case "property":
+                    if (vertex) {
+                        if (tokens[1].equals("list")) {
+                            throw new IOException("List properties of vertices are not supported");
+                        }
+                        types.add(type(tokens[1]));
+                        names.add(tokens[2]);
+                    }
+                    break;
+                default:
+                    break;
+                }
+            }
+            if (header.format == null || header.vertices < 0) {
+                throw new IOException("Invalid PLY header");
+            }
+            header.types = new char[types.size()];
+            header.offsets = new int[types.size()];
+            for (int i = 0; i < types.size(); i++) {
+                header.types[i] = types.get(i);
+                header.offsets[i] = header.size;
+                header.size += width(types.get(i));
+            }
+            header.x = names.indexOf("x");
+            header.y = names.indexOf("y");
+            header.z = names.indexOf("z");
+            if (header.x < 0 || header.y < 0 || header.z < 0) {
+                throw new IOException("Vertex element requires x, y and z properties");
+            }
+            return header;
+        }
+
+        private static char type(String name) throws IOException {
+            switch (name) {
+            case "char":
+            case "int8":
+                return 'b';
+            case "uchar":
+            case "uint8":
+                return 'B';
+            case "short":
+            case "int16":
+                return 's';
+            case "ushort":
+            case "uint16":
+                return 'S';
+            case "int":
+            case "int32":
+                return 'i';
+            case "uint":
+            case "uint32":
+                return 'I';
+            case "float":
+            case "float32":
+                return 'f';
+            case "double":
+            case "float64":
+                return 'd';
+            default:
+                throw new IOException("Unknown property type: " + name);
+            }
+        }
+
+        private static int width(char type) {
+            switch (type) {
+            case 'b':
+            case 'B':
+                return 1;
+            case 's':
+            case 'S':
+                return 2;
+            case 'd':
+                return 8;
+            default:
+                return 4;
+            }
+        }
+
+        String format;
+        int    length;
+        int[]  offsets;
+        int    size;
+        char[] types;
+        long   vertices = -1;
+        int    x, y, z;
+    }
+}
@@ -0,0 +1,323 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Tetrahedralization.VERTICES;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * The binary snapshot format of a tetrahedralization. A snapshot is a flat,
+ * little endian file of fixed size records, laid out so that it may be mapped
+ * directly into memory and queried in place by
+ * {@link MappedTetrahedralization}.
+ * <p>
+ * The layout of the file is:
+ *
+ * <pre>
+ * header        64 bytes: magic, version, vertex count, tetrahedron count, start tetrahedron, generation
+ * vertices      vertex count * 24 bytes: x, y, z
+ * adjacent      vertex count * 4 bytes: the index of a tetrahedron incident to the vertex
+ * padding       to an 8 byte boundary
+ * tetrahedra    tetrahedron count * 32 bytes: vertices A, B, C, D then neighbors A, B, C, D
+ * ids           vertex count * 4 bytes: the {@link Vertex#getId() id} of the vertex
+ * </pre>
+ *
+ * Vertices and tetrahedra are referenced by their index in the file. The four
+ * corners of the universe are always the vertices 0 through 3. A missing
+ * neighbor is recorded as -1.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public final class Snapshot {
+    static final int       GENERATION       = 24;
+    static final int       HEADER_SIZE      = 64;
+    static final int       MAGIC            = 0x54443356;
+    static final int       NONE             = -1;
+    static final ByteOrder ORDER            = ByteOrder.LITTLE_ENDIAN;
+    static final int       TETRAHEDRON_SIZE = 32;
+    static final int       VERSION          = 1;
+    static final int       VERTEX_SIZE      = 24;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Write a snapshot of the tetrahedralization to the file, replacing any
+     * existing content
+     *
+     * @param tetrahedralization - the tetrahedralization to snapshot
+     * @param file               - the snapshot file
+     * @throws IOException
+     */
+    public static void write(Tetrahedralization tetrahedralization, Path file) throws IOException {
+        write(tetrahedralization, file, 0, false);
+    }
+
+    /**
+     * Read a snapshot into a new tetrahedralization
+     *
+     * @param file   - the snapshot file
+     * @param random - the random number generator of the tetrahedralization
+     * @return the tetrahedralization recorded in the snapshot
+     * @throws IOException
+     */
+    public static Tetrahedralization read(Path file, Random random) throws IOException {
+        return load(file, random).tetrahedralization;
+    }
+
+    /**
+     * Read a snapshot into a new tetrahedralization, answering it along with the
+     * generation of the snapshot
+     */
+    static Contents load(Path file, Random random) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ORDER);
+            buffer.limit(0);
+            fill(channel, buffer, HEADER_SIZE);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a tetrahedralization snapshot: " + file);
+            }
+            int version = buffer.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version: " + version);
+            }
+            int vertexCount = buffer.getInt(8);
+            int tetCount = buffer.getInt(12);
+            int start = buffer.getInt(16);
+            long generation = buffer.getLong(GENERATION);
+            buffer.position(HEADER_SIZE);
+
+            Vertex[] vertices = new Vertex[vertexCount];
+            for (int i = 0; i < vertexCount; i++) {
+                fill(channel, buffer, VERTEX_SIZE);
+                vertices[i] = new Vertex(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+            }
+            // The adjacency is recomputed as the tetrahedra are constructed
+            long skip = tetrahedraOffset(vertexCount) - adjacentOffset(vertexCount);
+            while (skip > 0) {
+                fill(channel, buffer, 1);
+                int skipped = (int) Math.min(skip, buffer.remaining());
+                buffer.position(buffer.position() + skipped);
+                skip -= skipped;
+            }
+
+            Tetrahedron[] tets = new Tetrahedron[tetCount];
+            int[] neighbors = new int[tetCount * 4];
+            for (int i = 0; i < tetCount; i++) {
+                fill(channel, buffer, TETRAHEDRON_SIZE);
+                tets[i] = new Tetrahedron(vertices[buffer.getInt()], vertices[buffer.getInt()],
+                                          vertices[buffer.getInt()], vertices[buffer.getInt()]);
+                for (int j = 0; j < 4; j++) {
+                    neighbors[i * 4 + j] = buffer.getInt();
+                }
+            }
+            for (int i = 0; i < tetCount; i++) {
+                for (V v : VERTICES) {
+                    int neighbor = neighbors[i * 4 + v.ordinal()];
+                    tets[i].setNeighbor(v, neighbor == NONE ? null : tets[neighbor]);
+                }
+            }
+            Vertex[] points = new Vertex[vertexCount - 4];
+            for (int i = 0; i < vertexCount; i++) {
+                fill(channel, buffer, Integer.BYTES);
+                int id = buffer.getInt();
+                if (i >= 4) {
+                    vertices[i].setId(id);
+                    points[i - 4] = vertices[i];
+                }
+            }
+            Vertex[] fourCorners = new Vertex[] { vertices[0], vertices[1], vertices[2], vertices[3] };
+            return new Contents(new Tetrahedralization(random, fourCorners, tets[start], points), generation);
+        }
+    }
+
+    /**
+     * Write a snapshot of the tetrahedralization to the file, replacing any
+     * existing content
+     *
+     * @param tetrahedralization - the tetrahedralization to snapshot
+     * @param file               - the snapshot file
+     * @param generation         - the generation recorded in the header
+     * @param force              - true to force the snapshot to the storage
+     *                           device before answering
+     * @throws IOException
+     */
+    static void write(Tetrahedralization tetrahedralization, Path file, long generation,
+                      boolean force) throws IOException {
+        Set<Tetrahedron> tetrahedrons = tetrahedralization.getTetrahedrons();
+        IntIntHashMap tIndex = new IntIntHashMap(tetrahedrons.size() * 2);
+        Tetrahedron[] tets = new Tetrahedron[tetrahedrons.size()];
+        Map<Vertex, Integer> vIndex = new IdentityHashMap<>();
+        for (Vertex v : tetrahedralization.getUniverse()) {
+            vIndex.put(v, vIndex.size());
+        }
+        for (Tetrahedron t : tetrahedrons) {
+            tets[tIndex.size()] = t;
+            tIndex.put(t.getSlot(), tIndex.size());
+            for (V v : VERTICES) {
+                vIndex.putIfAbsent(t.getVertex(v), vIndex.size());
+            }
+        }
+        Vertex[] vertices = new Vertex[vIndex.size()];
+        for (var entry : vIndex.entrySet()) {
+            vertices[entry.getValue()] = entry.getKey();
+        }
+        int[] adjacent = new int[vertices.length];
+        for (int i = tets.length - 1; i >= 0; i--) {
+            for (V v : VERTICES) {
+                adjacent[vIndex.get(tets[i].getVertex(v))] = i;
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ORDER);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(vertices.length);
+            buffer.putInt(tets.length);
+            buffer.putInt(tIndex.get(tetrahedralization.randomPick().getSlot(), NONE));
+            buffer.putLong(GENERATION, generation);
+            buffer.position(HEADER_SIZE);
+
+            for (Vertex v : vertices) {
+                drain(channel, buffer, VERTEX_SIZE);
+                buffer.putDouble(v.x);
+                buffer.putDouble(v.y);
+                buffer.putDouble(v.z);
+            }
+            for (int t : adjacent) {
+                drain(channel, buffer, Integer.BYTES);
+                buffer.putInt(t);
+            }
+            long padding = tetrahedraOffset(vertices.length) - adjacentOffset(vertices.length)
+            - (long) vertices.length * Integer.BYTES;
+            drain(channel, buffer, Long.BYTES);
+            for (int i = 0; i < padding; i++) {
+                buffer.put((byte) 0);
+            }
+            for (Tetrahedron t : tets) {
+                drain(channel, buffer, TETRAHEDRON_SIZE);
+                for (V v : VERTICES) {
+                    buffer.putInt(vIndex.get(t.getVertex(v)));
+                }
+                for (V v : VERTICES) {
+                    Tetrahedron neighbor = t.getNeighbor(v);
+                    buffer.putInt(neighbor == null ? NONE : tIndex.get(neighbor.getSlot(), NONE));
+                }
+            }
+            for (Vertex v : vertices) {
+                drain(channel, buffer, Integer.BYTES);
+                buffer.putInt(v.getId());
+            }
+            drain(channel, buffer, BUFFER_SIZE);
+            if (force) {
+                channel.force(true);
+            }
+        }
+    }
+
+    /**
+     * Answer the file offset of the vertex adjacency section
+     */
+    static long adjacentOffset(int vertexCount) {
+        return HEADER_SIZE + (long) vertexCount * VERTEX_SIZE;
+    }
+
+    /**
+     * Answer the file offset of the ids section
+     */
+    static long idsOffset(int vertexCount, int tetrahedronCount) {
+        return tetrahedraOffset(vertexCount) + (long) tetrahedronCount * TETRAHEDRON_SIZE;
+    }
+
+    /**
+     * Answer the file offset of the tetrahedra section
+     */
+    static long tetrahedraOffset(int vertexCount) {
+        long end = adjacentOffset(vertexCount) + (long) vertexCount * Integer.BYTES;
+        return (end + 7) & ~7L;
+    }
+
+    /**
+     * Answer the file offset of the vertex section
+     */
+    static long verticesOffset() {
+        return HEADER_SIZE;
+    }
+
+    /**
+     * Read in more content if the buffer does not hold the required number of
+     * bytes
+     */
+    private static void fill(FileChannel channel, ByteBuffer buffer, int required) throws IOException {
+        if (buffer.remaining() >= required) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < required) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Truncated snapshot");
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Write out the buffered content if the buffer cannot accept the required
+     * number of bytes
+     */
+    private static void drain(FileChannel channel, ByteBuffer buffer, int required) throws IOException {
+        if (buffer.remaining() >= required) {
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * The content of a snapshot read into memory
+     */
+    static final class Contents {
+        final long               generation;
+        final Tetrahedralization tetrahedralization;
+
+        Contents(Tetrahedralization tetrahedralization, long generation) {
+            this.tetrahedralization = tetrahedralization;
+            this.generation = generation;
+        }
+    }
+
+    private Snapshot() {
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.hellblazer.delaunay;
+
+import java.util.Arrays;
+
+/**
+ * Spatial ordering of points along a Morton (Z order) space filling curve.
+ * Inserting or locating points in this order keeps consecutive points close to
+ * each other, so the walk from the previously visited tetrahedron stays short.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public final class SpaceFillingCurve {
+
+    /**
+     * Answer the Morton code interleaving the low order bits of the three
+     * coordinates
+     *
+     * @param x    , y, z - the cell coordinates
+     * @param bits - the number of bits of each coordinate to interleave
+     * @return the interleaved code
+     */
+    public static long morton(int x, int y, int z, int bits) {
+        long code = 0;
+        for (int i = bits - 1; i >= 0; i--) {
+            code = (code << 3) | ((x >>> i & 1) << 2) | ((y >>> i & 1) << 1) | (z >>> i & 1);
+        }
+        return code;
+    }
+
+    /**
+     * Sort the points along the curve. The points are packed as consecutive {x,
+     * y, z} triples. The points themselves are not moved; the resulting order is
+     * answered as a permutation of the point indices.
+     *
+     * @param xyz   - the packed point coordinates
+     * @param count - the number of points
+     * @param order - receives the permutation of point indices, must be at least
+     *              count long
+     * @param keys  - scratch space, must be at least count long
+     */
+    public static void sort(double[] xyz, int count, int[] order, long[] keys) {
+        if (count == 0) {
+            return;
+        }
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            minX = Math.min(minX, xyz[3 * i]);
+            maxX = Math.max(maxX, xyz[3 * i]);
+            minY = Math.min(minY, xyz[3 * i + 1]);
+            maxY = Math.max(maxY, xyz[3 * i + 1]);
+            minZ = Math.min(minZ, xyz[3 * i + 2]);
+            maxZ = Math.max(maxZ, xyz[3 * i + 2]);
+        }
+
+        // The index of the point occupies the low bits of the key, the code the rest
+        int indexBits = 32 - Integer.numberOfLeadingZeros(Math.max(1, count - 1));
+        int bits = Math.min(21, (63 - indexBits) / 3);
+        double cells = (1 << bits) - 1;
+        double scale = cells / Math.max(Math.max(maxX - minX, maxY - minY), Math.max(maxZ - minZ, Double.MIN_NORMAL));
+
+        for (int i = 0; i < count; i++) {
+            long code = morton((int) ((xyz[3 * i] - minX) * scale), (int) ((xyz[3 * i + 1] - minY) * scale),
+                               (int) ((xyz[3 * i + 2] - minZ) * scale), bits);
+            keys[i] = code << indexBits | i;
+        }
+        Arrays.sort(keys, 0, count);
+        long mask = (1L << indexBits) - 1;
+        for (int i = 0; i < count; i++) {
+            order[i] = (int) (keys[i] & mask);
+        }
+    }
+
+    private SpaceFillingCurve() {
+    }
+}
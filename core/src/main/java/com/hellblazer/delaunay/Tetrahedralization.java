@@ -25,12 +25,17 @@ import static com.hellblazer.delaunay.V.C;
 import static com.hellblazer.delaunay.V.D;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Deque;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
 
 import javax.vecmath.Point3d;
 import javax.vecmath.Tuple3d;
@@ -52,17 +57,22 @@ public class Tetrahedralization {
      * A pre-built table of all the permutations of remaining faces to check in
      * location.
      */
-    private static final V[][][] ORDER = new V[][][] { { { B, C, D }, { C, B, D }, { C, D, B }, { B, D, C },
-                                                         { D, B, C }, { D, C, B } },
+    static final V[][][] ORDER = new V[][][] { { { B, C, D }, { C, B, D }, { C, D, B }, { B, D, C },
+                                                 { D, B, C }, { D, C, B } },
 
-                                                       { { A, C, D }, { C, A, D }, { C, D, A }, { A, D, C },
-                                                         { D, A, C }, { D, C, A } },
+                                               { { A, C, D }, { C, A, D }, { C, D, A }, { A, D, C },
+                                                 { D, A, C }, { D, C, A } },
 
-                                                       { { B, A, D }, { A, B, D }, { A, D, B }, { B, D, A },
-                                                         { D, B, A }, { D, A, B } },
+                                               { { B, A, D }, { A, B, D }, { A, D, B }, { B, D, A },
+                                                 { D, B, A }, { D, A, B } },
 
-                                                       { { B, C, A }, { C, B, A }, { C, A, B }, { B, A, C },
-                                                         { A, B, C }, { A, C, B } } };
+                                               { { B, C, A }, { C, B, A }, { C, A, B }, { B, A, C },
+                                                 { A, B, C }, { A, C, B } } };
+
+    /**
+     * The number of queries interpolated in a parallel block
+     */
+    private static final int INTERPOLATION_BLOCK = 1024;
 
     /**
      * Scale of the universe
@@ -93,11 +103,88 @@ public class Tetrahedralization {
      */
     private final Random random;
 
+    /**
+     * The tetrahedra created by the current operation
+     */
+    private final Set<Tetrahedron> created = new IdentitySet<>();
+
+    /**
+     * The tetrahedra existing before the current operation that it has deleted
+     */
+    private final List<Tetrahedron> deleted = new ArrayList<>();
+
+    /**
+     * The cached planes of the faces of the tetrahedra, used by location if not
+     * null
+     */
+    private FacePlanes facePlanes;
+
+    /**
+     * The number of flips performed by the deletions of vertices
+     */
+    private long deletionFlips;
+
+    /**
+     * The listeners notified of the tetrahedra replaced by each flip
+     */
+    private final List<FlipListener> flipListeners = new ArrayList<>();
+
+    /**
+     * Counting the locate walks and their steps
+     */
+    private volatile boolean instrumented;
+
+    /**
+     * The number of locate walks and their total number of steps
+     */
+    private final LongAdder locates     = new LongAdder();
+    private final LongAdder locateSteps = new LongAdder();
+
+    /**
+     * The strategy of the locate walks
+     */
+    private LocateStrategy locateStrategy = LocateStrategy.REMEMBERING;
+
+    /**
+     * The ids in use by the vertices
+     */
+    private final IdSpace ids = new IdSpace();
+
+    /**
+     * The listeners notified of the changes of each insertion and deletion
+     */
+    private final List<TetrahedralizationListener> listeners = new ArrayList<>();
+
     /**
      * The number of points in this tetrahedralization
      */
     private int size = 0;
 
+    /**
+     * The slots in use by the tetrahedra
+     */
+    private final IdSpace slots = new IdSpace();
+
+    /**
+     * The attribute columns indexed by tetrahedron slot
+     */
+    private final List<AttributeColumn> tetrahedronColumns = new ArrayList<>();
+
+    /**
+     * Tracks the tetrahedra replaced by the flips of the receiver
+     */
+    private final TetrahedronTracker tracker = this::replaced;
+
+    /**
+     * The attribute columns indexed by vertex id
+     */
+    private final List<AttributeColumn> vertexColumns = new ArrayList<>();
+
+    /**
+     * The vertices, indexed by id
+     */
+    private Vertex[] idTable = new Vertex[16];
+
     /**
      * Construct a new tetrahedralization with the default random number generator
      */
@@ -115,6 +202,135 @@ public class Tetrahedralization {
         fourCorners = getFourCorners();
         this.random = random;
         last = new Tetrahedron(fourCorners);
+        last.setSlot(slots.allocate());
+    }
+
+    /**
+     * Construct a tetrahedralization from existing tetrahedra, as read from a
+     * {@link Snapshot}
+     *
+     * @param random      - the random number generator
+     * @param fourCorners - the four corners of the universe
+     * @param last        - a tetrahedron of the tetrahedralization
+     * @param points      - the vertices of the tetrahedralization, with their ids
+     *                    assigned
+     */
+    Tetrahedralization(Random random, Vertex[] fourCorners, Tetrahedron last, Vertex[] points) {
+        assert random != null && fourCorners.length == 4 && last != null;
+        this.random = random;
+        this.fourCorners = fourCorners;
+        this.last = last;
+        for (Vertex v : points) {
+            if (v.getId() >= idTable.length) {
+                idTable = Arrays.copyOf(idTable, Math.max(v.getId() + 1, idTable.length * 2));
+            }
+            idTable[v.getId()] = v;
+            ids.reserve(v.getId());
+        }
+        size = points.length;
+        for (Tetrahedron t : getTetrahedrons()) {
+            t.setSlot(slots.allocate());
+        }
+    }
+
+    /**
+     * Add the listener to be notified of the tetrahedra replaced by each flip
+     *
+     * @param listener - the listener
+     */
+    public void addFlipListener(FlipListener listener) {
+        assert listener != null;
+        flipListeners.add(listener);
+    }
+
+    /**
+     * Add the listener to be notified of the tetrahedra created and deleted by
+     * each insertion and deletion
+     *
+     * @param listener - the listener
+     */
+    public void addListener(TetrahedralizationListener listener) {
+        assert listener != null;
+        listeners.add(listener);
+    }
+
+    /**
+     * Register the column of attributes indexed by tetrahedron slot. The value of
+     * a slot is reset to the default value of the column when the tetrahedron
+     * holding the slot is deleted by a flip; attributes of the deleted tetrahedra
+     * may be propagated to the created tetrahedra by a {@link FlipListener}.
+     *
+     * @param column - the column
+     * @return the column
+     */
+    public <C extends AttributeColumn> C addTetrahedronColumn(C column) {
+        assert column != null;
+        tetrahedronColumns.add(column);
+        return column;
+    }
+
+    /**
+     * Register the column of attributes indexed by vertex id. The value of an id
+     * is reset to the default value of the column when the vertex holding the id
+     * is deleted.
+     *
+     * @param column - the column
+     * @return the column
+     */
+    public <C extends AttributeColumn> C addVertexColumn(C column) {
+        assert column != null;
+        vertexColumns.add(column);
+        return column;
+    }
+
+    /**
+     * Enable or disable the caching of the planes of the faces of the tetrahedra
+     * used by location. The planes of a tetrahedron are computed the first time
+     * the walk visits it, so that later steps through it cost a dot product per
+     * face; see {@link FacePlanes}. The cache is worthwhile for query heavy
+     * phases on a mesh that changes rarely.
+     *
+     * @param cache - true to cache the face planes
+     */
+    public void cacheFacePlanes(boolean cache) {
+        if (cache && facePlanes == null) {
+            facePlanes = new FacePlanes(this);
+        } else if (!cache && facePlanes != null) {
+            facePlanes.close();
+            facePlanes = null;
+        }
+    }
+
+    /**
+     * Answer the convex hull of the vertices. The hull is implicit in the
+     * tetrahedralization: the tetrahedra incident to exactly one of the corners
+     * of the universe are the hull triangles joined to that corner, so the hull
+     * is extracted by visiting only the stars of the four corners.
+     *
+     * @return the convex hull
+     */
+    public ConvexHull convexHull() {
+        int[][] triangles = { new int[48] };
+        int[] count = { 0 };
+        BitSet hull = new BitSet();
+        for (Vertex corner : fourCorners) {
+            corner.getAdjacent().visitStar(corner, (vertex, t, x, y, z) -> {
+                if (x.getId() < 0 || y.getId() < 0 || z.getId() < 0) {
+                    return;
+                }
+                if (count[0] + 3 > triangles[0].length) {
+                    triangles[0] = Arrays.copyOf(triangles[0], triangles[0].length * 2);
+                }
+                // The corner lies outside of the face, which is oriented toward it
+                triangles[0][count[0]++] = x.getId();
+                triangles[0][count[0]++] = z.getId();
+                triangles[0][count[0]++] = y.getId();
+                hull.set(x.getId());
+                hull.set(y.getId());
+                hull.set(z.getId());
+            });
+        }
+        return new ConvexHull(Arrays.copyOf(triangles[0], count[0]), hull.stream().toArray());
     }
 
     /**
@@ -128,31 +344,52 @@ public class Tetrahedralization {
      */
     public void delete(Vertex v) {
         assert v != null;
-
-        LinkedList<OrientedFace> ears = v.getEars();
-        class OC implements StarVisitor {
-            int order = 0;
-
-            @Override
-            public void visit(V vertex, Tetrahedron t, Vertex x, Vertex y, Vertex z) {
-                order++;
-            }
-        }
-        var oc = new OC();
-        v.getAdjacent().visitStar(v, oc);
-        while (oc.order > 4) {
-            for (int i = 0; i < ears.size();) {
-                if (ears.get(i).flip(i, ears, v)) {
-                    ears.remove(i);
-                } else {
-                    i++;
-                }
+        remove(v);
+        if (!listeners.isEmpty()) {
+            var c = changes();
+            for (TetrahedralizationListener listener : listeners) {
+                listener.deleted(v, c.created(), c.deleted());
             }
         }
-        last = flip4to1(v);
+        release(v);
         size--;
     }
 
+    /**
+     * Answer the number of flips performed to reduce the stars of the deleted
+     * vertices to four tetrahedra, excluding the final 4->1 flips, since the
+     * construction of the receiver. Removals of degenerate pairs of tetrahedra
+     * are not flips, and are excluded. Vertices moved by removal and reinsertion
+     * are included.
+     */
+    public long getDeletionFlips() {
+        return deletionFlips;
+    }
+
+    /**
+     * Answer the number of walks located while instrumented since the counts
+     * were last reset
+     */
+    public long getLocates() {
+        return locates.sum();
+    }
+
+    /**
+     * Answer the total number of steps of the walks located while instrumented
+     * since the counts were last reset. A step is the move from a tetrahedron to its neighbor, so
+     * a walk answering its start takes no steps.
+     */
+    public long getLocateSteps() {
+        return locateSteps.sum();
+    }
+
+    /**
+     * Answer the strategy of the locate walks
+     */
+    public LocateStrategy getLocateStrategy() {
+        return locateStrategy;
+    }
+
     /**
      * Answer the set of all tetrahedrons in this tetrahedralization
      *
@@ -216,16 +453,11 @@ public class Tetrahedralization {
      */
     public Vertex insert(Point3d p) {
         assert p != null;
-        List<OrientedFace> ears = new ArrayList<>();
         var v = new Vertex(p);
-        last = locate(p, last).flip1to4(v, ears);
-        while (!ears.isEmpty()) {
-            Tetrahedron l = ears.remove(ears.size() - 1).flip(v, ears);
-            if (l != null) {
-                last = l;
-            }
-        }
+        register(v);
+        insert(v, last);
         size++;
+        inserted(v);
         return v;
     }
 
@@ -240,25 +472,78 @@ public class Tetrahedralization {
      */
     public Vertex insert(Point3d p, Vertex near) {
         assert p != null;
-        List<OrientedFace> ears = new ArrayList<>();
         var v = new Vertex(p);
-        last = locate(p, near.getAdjacent()).flip1to4(v, ears);
-        while (!ears.isEmpty()) {
-            Tetrahedron l = ears.remove(ears.size() - 1).flip(v, ears);
-            if (l != null) {
-                last = l;
-            }
-        }
+        register(v);
+        insert(v, near.getAdjacent());
         size++;
+        inserted(v);
         return v;
     }
 
+    /**
+     * Linearly interpolate the vertex values at each of the query points, using
+     * the barycentric coordinates of the query in the tetrahedron containing it.
+     * The queries are ordered along a space filling curve so that successive
+     * walks are short, and interpolated in parallel.
+     *
+     * @param queries      - the packed {x, y, z} coordinates of the query points
+     * @param vertexValues - the value at each vertex, indexed by
+     *                     {@link Vertex#getId()} and at least
+     *                     {@link #vertexCount()} long
+     * @param out          - receives the interpolated value of each query, NaN if
+     *                     the query is outside of the convex hull of the points
+     */
+    public void interpolate(double[] queries, double[] vertexValues, double[] out) {
+        int count = queries.length / 3;
+        if (out.length < count) {
+            throw new IllegalArgumentException("Output holds " + out.length + " values, require " + count);
+        }
+        int[] order = new int[count];
+        SpaceFillingCurve.sort(queries, count, order, new long[count]);
+        Tetrahedron start = last;
+        IntStream.range(0, (count + INTERPOLATION_BLOCK - 1) / INTERPOLATION_BLOCK).parallel().forEach(block -> {
+            Random walk = ThreadLocalRandom.current();
+            Point3d query = new Point3d();
+            Tetrahedron t = start;
+            for (int i = block * INTERPOLATION_BLOCK, end = Math.min(count, i + INTERPOLATION_BLOCK); i < end; i++) {
+                int q = order[i];
+                query.set(queries[3 * q], queries[3 * q + 1], queries[3 * q + 2]);
+                t = locate(query, t, walk);
+                out[q] = interpolate(t, query, vertexValues);
+            }
+        });
+    }
+
+    /**
+     * Answer true if the planes of the faces of the tetrahedra are cached for
+     * location
+     */
+    public boolean isCachingFacePlanes() {
+        return facePlanes != null;
+    }
+
+    /**
+     * Answer the k vertices nearest to the query point, found by best first
+     * expansion over the Delaunay edges from the nearest vertex
+     *
+     * @param query - the query point
+     * @param k     - the number of vertices to answer
+     * @return the k nearest vertices, in order of increasing distance from the
+     *         query. Fewer than k vertices are answered if the tetrahedralization
+     *         contains fewer than k points
+     */
+    public List<Vertex> kNearest(Tuple3d query, int k) {
+        assert query != null;
+        return NeighborSearch.get().kNearest(query, k, locate(query), fourCorners);
+    }
+
     /**
      * Locate the tetrahedron which contains the query point via a stochastic walk
      * through the delaunay triangulation. This location algorithm is a slight
      * variation of the 3D jump and walk algorithm found in: "Fast randomized point
      * location without preprocessing in two- and three-dimensional Delaunay
-     * triangulations", Computational Geometry 12 (1999) 63-83.
+     * triangulations", Computational Geometry 12 (1999) 63-83. The walk follows
+     * the {@link #setLocateStrategy(LocateStrategy) strategy} of the receiver.
      *
      * @param query - the query point
      * @return the Tetrahedron containing the query
@@ -272,43 +557,83 @@ public class Tetrahedralization {
      * through the delaunay triangulation. This location algorithm is a slight
      * variation of the 3D jump and walk algorithm found in: "Fast randomized point
      * location without preprocessing in two- and three-dimensional Delaunay
-     * triangulations", Computational Geometry 12 (1999) 63-83.
+     * triangulations", Computational Geometry 12 (1999) 63-83. The walk follows
+     * the {@link #setLocateStrategy(LocateStrategy) strategy} of the receiver.
      *
      * @param query - the query point
      * @param start - the starting tetrahedron
      * @return the Tetrahedron containing the query
      */
     public Tetrahedron locate(Tuple3d query, Tetrahedron start) {
+        return locate(query, start, random);
+    }
+
+    /**
+     * Locate the tetrahedron which contains the query point via the walk of the
+     * strategy of the receiver, using the supplied random number generator.
+     * Concurrent readers supply their own generator rather than contend on the
+     * generator of the receiver.
+     *
+     * @param query  - the query point
+     * @param start  - the starting tetrahedron
+     * @param random - the random number generator of the walk
+     * @return the Tetrahedron containing the query
+     */
+    Tetrahedron locate(Tuple3d query, Tetrahedron start, Random random) {
         assert query != null;
+        if (!instrumented) {
+            return locateStrategy.locate(query, start, random, facePlanes, null);
+        }
+        locates.increment();
+        return locateStrategy.locate(query, start, random, facePlanes, locateSteps);
+    }
 
-        V o = null;
-        for (V face : Tetrahedralization.VERTICES) {
-            if (start.orientationWrt(face, query) < 0) {
-                o = face;
-                break;
+    /**
+     * Move the vertex to the position. The vertex is moved in place if the
+     * tetrahedra of its star are not inverted by the move and remain delaunay,
+     * otherwise the vertex is removed and reinserted at the position. The
+     * vertex retains its identity and id, and so the values of its attribute
+     * columns, in either case.
+     *
+     * @param v        - the vertex to move
+     * @param position - the new position of the vertex
+     * @return true if the vertex was moved in place, false if the
+     *         tetrahedralization was repaired by removing and reinserting the
+     *         vertex
+     */
+    public boolean move(Vertex v, Tuple3d position) {
+        assert vertex(v.getId()) == v : "Not a vertex of the tetrahedralization: " + v;
+        double x = v.x, y = v.y, z = v.z;
+        boolean inPlace = false;
+        if (v.maxStep(position.x - x, position.y - y, position.z - z) > 1.0) {
+            v.set(position);
+            // The step is estimated with the fast predicate, so a nearly degenerate
+            // move is checked robustly for inverted tetrahedra
+            inPlace = isPositivelyOriented(v) && isLocallyDelaunay(v);
+            if (!inPlace) {
+                v.set(x, y, z);
             }
         }
-        if (o == null) {
-            // The query point is contained in the receiver
-            return start;
+        if (!inPlace) {
+            remove(v);
+            v.set(position);
+            insert(v, last);
         }
-        Tetrahedron current = start;
-        while (true) {
-            // get the tetrahedron on the other side of the face
-            Tetrahedron tetrahedron = current.getNeighbor(o);
-            int i = 0;
-            for (V v : Tetrahedralization.ORDER[tetrahedron.ordinalOf(current).ordinal()][random.nextInt(6)]) {
-                o = v;
-                current = tetrahedron;
-                if (tetrahedron.orientationWrt(v, query) < 0) {
-                    // we have found a face which the query point is on the other side
-                    break;
-                }
-                if (i++ == 2) {
-                    return tetrahedron;
-                }
+        if (!listeners.isEmpty()) {
+            var c = changes();
+            for (TetrahedralizationListener listener : listeners) {
+                listener.moved(v, c.created(), c.deleted());
             }
         }
+        return inPlace;
+    }
+
+    /**
+     * Answer the id that will be assigned to the next vertex inserted into the
+     * receiver
+     */
+    int nextId() {
+        return ids.next();
     }
 
     /**
@@ -325,6 +650,18 @@ public class Tetrahedralization {
         return new Tetrahedron(U);
     }
 
+    /**
+     * Answer the vertex nearest to the query point, found by greedy descent over
+     * the Delaunay edges from the tetrahedron containing the query
+     *
+     * @param query - the query point
+     * @return the nearest vertex, or null if the tetrahedralization is empty
+     */
+    public Vertex nearest(Tuple3d query) {
+        assert query != null;
+        return NeighborSearch.get().nearest(query, locate(query), fourCorners);
+    }
+
     /**
      * @return - a "random" Tetrahedron from the receiver. This implementation
      *         returns the <code>last</code> Tetrahedron of the receiver
@@ -333,6 +670,76 @@ public class Tetrahedralization {
         return last;
     }
 
+    /**
+     * Remove the attribute column from the receiver
+     *
+     * @param column - the column
+     * @return true if the column was registered with the receiver
+     */
+    public boolean removeColumn(AttributeColumn column) {
+        return vertexColumns.remove(column) || tetrahedronColumns.remove(column);
+    }
+
+    /**
+     * Remove the flip listener from the receiver
+     *
+     * @param listener - the listener
+     * @return true if the listener was registered with the receiver
+     */
+    public boolean removeFlipListener(FlipListener listener) {
+        return flipListeners.remove(listener);
+    }
+
+    /**
+     * Remove the listener from the receiver
+     *
+     * @param listener - the listener
+     * @return true if the listener was registered with the receiver
+     */
+    public boolean removeListener(TetrahedralizationListener listener) {
+        return listeners.remove(listener);
+    }
+
+    /**
+     * Reset the counts of the walks and their steps
+     */
+    public void resetLocateSteps() {
+        locates.reset();
+        locateSteps.reset();
+    }
+
+    /**
+     * Enable or disable counting the locate walks and their steps. Counting is
+     * disabled by default, as concurrent walks contend on the counters.
+     *
+     * @param instrumented - true to count the walks and their steps
+     */
+    public void setInstrumented(boolean instrumented) {
+        this.instrumented = instrumented;
+    }
+
+    /**
+     * Set the strategy of the locate walks, including the walks locating the
+     * points inserted
+     *
+     * @param strategy - the strategy
+     */
+    public void setLocateStrategy(LocateStrategy strategy) {
+        assert strategy != null;
+        locateStrategy = strategy;
+    }
+
+    /**
+     * Answer the extent of the tetrahedron slots, one more than the largest slot
+     * in use. Arrays of this length may be indexed by the slot of every
+     * tetrahedron of the receiver.
+     *
+     * @return the extent of the tetrahedron slots
+     */
+    public int tetrahedronSlotCount() {
+        return slots.extent();
+    }
+
     /**
      * Traverse all the tetrahedrons in the tetrahedralization. The set of
      * tetrahedons will be filled with all the tetrahedrons and the set of vertices
@@ -360,6 +767,42 @@ public class Tetrahedralization {
         }
     }
 
+    /**
+     * Answer the vertex with the id
+     *
+     * @param id - the id of the vertex
+     * @return the vertex, or null if no vertex of the receiver has the id
+     */
+    public Vertex vertex(int id) {
+        return id < 0 || id >= idTable.length ? null : idTable[id];
+    }
+
+    /**
+     * Answer the extent of the vertex ids, one more than the largest id in use.
+     * Arrays of this length may be indexed by the id of every vertex of the
+     * receiver. The ids of deleted vertices are recycled, so the extent exceeds
+     * the number of vertices only by the number of deleted ids not yet reused.
+     *
+     * @return the extent of the vertex ids
+     */
+    public int vertexCount() {
+        return ids.extent();
+    }
+
+    /**
+     * Answer the vertices within the radius of the query point, found by best
+     * first expansion over the Delaunay edges from the nearest vertex
+     *
+     * @param query  - the query point
+     * @param radius - the radius of the query
+     * @return the vertices within the radius, in order of increasing distance
+     *         from the query
+     */
+    public List<Vertex> withinRadius(Tuple3d query, double radius) {
+        assert query != null;
+        return NeighborSearch.get().withinRadius(query, radius, locate(query), fourCorners);
+    }
+
     /**
      * Perform the 4->1 bistellar flip. This flip is the inverse of the 1->4 flip.
      *
@@ -439,9 +882,239 @@ public class Tetrahedralization {
             }
         }
 
+        tracker.replaced(deleted.toArray(new Tetrahedron[deleted.size()]), new Tetrahedron[] { t });
         for (Tetrahedron tet : deleted) {
             tet.delete();
         }
         return t;
     }
+
+    /**
+     * The net changes of an operation
+     */
+    private record Changes(List<Tetrahedron> created, List<Tetrahedron> deleted) {
+    }
+
+    /**
+     * Answer the net changes of the current operation, and start collecting the
+     * changes of the next operation
+     */
+    private Changes changes() {
+        var c = new Changes(new ArrayList<>(created), new ArrayList<>(deleted));
+        created.clear();
+        deleted.clear();
+        return c;
+    }
+
+    /**
+     * Notify the listeners of the insertion of the vertex
+     */
+    private void inserted(Vertex v) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        var c = changes();
+        for (TetrahedralizationListener listener : listeners) {
+            listener.inserted(v, c.created(), c.deleted());
+        }
+    }
+
+    /**
+     * Insert the vertex into the tetrahedralization, locating it from the start
+     * tetrahedron and restoring the delaunay condition by flips
+     */
+    private void insert(Vertex v, Tetrahedron start) {
+        List<OrientedFace> ears = new ArrayList<>();
+        last = locate(v, start).flip1to4(v, ears, tracker);
+        while (!ears.isEmpty()) {
+            Tetrahedron l = ears.remove(ears.size() - 1).flip(v, ears, tracker);
+            if (l != null) {
+                last = l;
+            }
+        }
+    }
+
+    /**
+     * Answer the value at the query interpolated from the values of the vertices
+     * of the tetrahedron containing it
+     */
+    private double interpolate(Tetrahedron t, Tuple3d q, double[] values) {
+        Vertex a = t.getA();
+        Vertex b = t.getB();
+        Vertex c = t.getC();
+        Vertex d = t.getD();
+        if (a.getId() < 0 || b.getId() < 0 || c.getId() < 0 || d.getId() < 0) {
+            // The corners of the universe have no values
+            return Double.NaN;
+        }
+        double volume = Geometry.leftOfPlaneFast(a.x, a.y, a.z, b.x, b.y, b.z, c.x, c.y, c.z, d.x, d.y, d.z);
+        double wa = Geometry.leftOfPlaneFast(q.x, q.y, q.z, b.x, b.y, b.z, c.x, c.y, c.z, d.x, d.y, d.z);
+        double wb = Geometry.leftOfPlaneFast(a.x, a.y, a.z, q.x, q.y, q.z, c.x, c.y, c.z, d.x, d.y, d.z);
+        double wc = Geometry.leftOfPlaneFast(a.x, a.y, a.z, b.x, b.y, b.z, q.x, q.y, q.z, d.x, d.y, d.z);
+        double wd = volume - wa - wb - wc;
+        return (wa * values[a.getId()] + wb * values[b.getId()] + wc * values[c.getId()] + wd * values[d.getId()]) /
+               volume;
+    }
+
+    /**
+     * Assign the vertex the lowest free id
+     */
+    private void register(Vertex v) {
+        int id = ids.allocate();
+        if (id >= idTable.length) {
+            idTable = Arrays.copyOf(idTable, idTable.length * 2);
+        }
+        idTable[id] = v;
+        v.setId(id);
+    }
+
+    /**
+     * Free the id of the deleted vertex for reuse
+     */
+    private void release(Vertex v) {
+        int id = v.getId();
+        ids.release(id);
+        idTable[id] = null;
+        for (AttributeColumn column : vertexColumns) {
+            column.reset(id);
+        }
+        v.setId(-1);
+    }
+
+    /**
+     * Answer true if the faces of the tetrahedra in the star of the vertex are
+     * locally delaunay
+     */
+    private boolean isLocallyDelaunay(Vertex v) {
+        boolean[] delaunay = { true };
+        v.getAdjacent().visitStar(v, (vertex, t, x, y, z) -> {
+            if (delaunay[0]) {
+                for (V ordinal : VERTICES) {
+                    OrientedFace face = t.getFace(ordinal);
+                    if (face.hasAdjacent() && t.inSphere(face.getAdjacentVertex())) {
+                        delaunay[0] = false;
+                        return;
+                    }
+                }
+            }
+        });
+        return delaunay[0];
+    }
+
+    /**
+     * Answer true if the vertex is positively oriented with respect to the face
+     * opposite it in each tetrahedron of its star, i.e. no tetrahedron of the
+     * star is inverted or flat
+     */
+    private boolean isPositivelyOriented(Vertex v) {
+        boolean[] oriented = { true };
+        v.getAdjacent().visitStar(v, (vertex, t, x, y, z) -> {
+            if (oriented[0] && v.orientation(x, y, z) <= 0) {
+                oriented[0] = false;
+            }
+        });
+        return oriented[0];
+    }
+
+    /**
+     * Remove the vertex from the tetrahedralization by flipping its star down to
+     * a single tetrahedron and performing the 4->1 flip, retaining the id of the
+     * vertex. The size of the star is maintained from the tetrahedra replaced by
+     * each flip, rather than recounted after each pass over the ears.
+     */
+    private void remove(Vertex v) {
+        List<OrientedFace> ears = v.getEars();
+        Collection<Vertex> link = v.getNeighbors();
+        class Star implements TetrahedronTracker {
+            // Each tetrahedron of the star has three faces incident to the vertex,
+            // each shared with another tetrahedron of the star
+            int order = 2 * ears.size() / 3;
+
+            @Override
+            public void replaced(Tetrahedron[] deleted, Tetrahedron[] created) {
+                tracker.replaced(deleted, created);
+                // The removal of a degenerate pair of tetrahedra creates none, and
+                // is not a flip
+                if (created.length > 0) {
+                    deletionFlips++;
+                }
+                for (Tetrahedron t : deleted) {
+                    if (t.includes(v)) {
+                        order--;
+                    }
+                }
+                for (Tetrahedron t : created) {
+                    if (t.includes(v)) {
+                        order++;
+                    }
+                }
+            }
+        }
+        var star = new Star();
+        while (star.order > 4) {
+            boolean flipped = false;
+            // Compact the unflipped ears in place, preserving their order; the ears
+            // appended by the flips are visited in the same pass
+            int kept = 0;
+            int i = 0;
+            while (i < ears.size() && star.order > 4) {
+                OrientedFace ear = ears.get(i++);
+                if (ear.flip(ears, v, link, star)) {
+                    flipped = true;
+                } else {
+                    ears.set(kept++, ear);
+                }
+            }
+            if (!flipped) {
+                throw new IllegalStateException("Unable to flip the star of " + v);
+            }
+            ears.subList(kept, i).clear();
+        }
+        assert star.order == starOrder(v) : "Star of " + v + " has " + starOrder(v) + " tetrahedra, tracked " +
+                                            star.order;
+        last = flip4to1(v);
+    }
+
+    /**
+     * Assign slots to the tetrahedra created by a flip, collect the changes of the
+     * current operation, notify the flip listeners and release the slots of the
+     * deleted tetrahedra
+     */
+    private void replaced(Tetrahedron[] deleted, Tetrahedron[] created) {
+        for (Tetrahedron t : created) {
+            t.setSlot(slots.allocate());
+        }
+        if (!listeners.isEmpty()) {
+            for (Tetrahedron t : created) {
+                this.created.add(t);
+            }
+            for (Tetrahedron t : deleted) {
+                // Tetrahedra created and deleted by the same operation are transient
+                if (!this.created.remove(t)) {
+                    this.deleted.add(t);
+                }
+            }
+        }
+        for (FlipListener listener : flipListeners) {
+            listener.flipped(deleted, created);
+        }
+        for (Tetrahedron t : deleted) {
+            int slot = t.getSlot();
+            if (slot >= 0) {
+                slots.release(slot);
+                for (AttributeColumn column : tetrahedronColumns) {
+                    column.reset(slot);
+                }
+            }
+        }
+    }
+
+    /**
+     * Answer the number of tetrahedra in the star of the vertex
+     */
+    private int starOrder(Vertex v) {
+        int[] order = { 0 };
+        v.getAdjacent().visitStar(v, (vertex, t, x, y, z) -> order[0]++);
+        return order[0];
+    }
 }
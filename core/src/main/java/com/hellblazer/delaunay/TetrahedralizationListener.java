@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import java.util.List;
+
+/**
+ * Receives the change set of each insertion into, deletion from and move within
+ * a tetrahedralization, so that caches derived from the tetrahedra may be updated
+ * for the affected region rather than rebuilt from the whole mesh.
+ * <p>
+ * The changes of all the flips performed by the operation are netted out:
+ * tetrahedra both created and deleted during the operation are reported in
+ * neither list. The created tetrahedra are live and have been assigned their
+ * slots. The deleted tetrahedra existed before the operation and have been
+ * cleared of their vertices and neighbors; they retain the
+ * {@link Tetrahedron#getSlot() slot} they last held, which may have been reused
+ * by a created tetrahedron.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public interface TetrahedralizationListener {
+    /**
+     * The vertex has been deleted from the tetrahedralization. The vertex still
+     * holds its id during the notification.
+     *
+     * @param vertex  - the deleted vertex
+     * @param created - the tetrahedra created by the deletion
+     * @param deleted - the tetrahedra deleted by the deletion
+     */
+    void deleted(Vertex vertex, List<Tetrahedron> created, List<Tetrahedron> deleted);
+
+    /**
+     * The vertex has been inserted into the tetrahedralization
+     *
+     * @param vertex  - the inserted vertex
+     * @param created - the tetrahedra created by the insertion
+     * @param deleted - the tetrahedra deleted by the insertion
+     */
+    void inserted(Vertex vertex, List<Tetrahedron> created, List<Tetrahedron> deleted);
+
+    /**
+     * The vertex has been moved. When the vertex is moved in place both lists are
+     * empty, but the geometry of the tetrahedra of the star of the vertex has
+     * changed.
+     *
+     * @param vertex  - the moved vertex
+     * @param created - the tetrahedra created by the move
+     * @param deleted - the tetrahedra deleted by the move
+     */
+    void moved(Vertex vertex, List<Tetrahedron> created, List<Tetrahedron> deleted);
+}
@@ -647,6 +647,11 @@ public class Tetrahedron implements Iterable<OrientedFace> {
      */
     private Tetrahedron nD;
 
+    /**
+     * The slot of the tetrahedron in the tetrahedralization
+     */
+    private int slot = -1;
+
     /**
      * Construct a tetrahedron from the four vertices
      *
@@ -705,51 +710,7 @@ public class Tetrahedron implements Iterable<OrientedFace> {
      * @return one of the four new tetrahedra
      */
     public Tetrahedron flip1to4(Vertex n, List<OrientedFace> ears) {
-        Tetrahedron t0 = new Tetrahedron(a, b, c, n);
-        Tetrahedron t1 = new Tetrahedron(a, d, b, n);
-        Tetrahedron t2 = new Tetrahedron(a, c, d, n);
-        Tetrahedron t3 = new Tetrahedron(b, d, c, n);
-
-        t0.setNeighborA(t3);
-        t0.setNeighborB(t2);
-        t0.setNeighborC(t1);
-
-        t1.setNeighborA(t3);
-        t1.setNeighborB(t0);
-        t1.setNeighborC(t2);
-
-        t2.setNeighborA(t3);
-        t2.setNeighborB(t1);
-        t2.setNeighborC(t0);
-
-        t3.setNeighborA(t2);
-        t3.setNeighborB(t0);
-        t3.setNeighborC(t1);
-
-        patch(D, t0, D);
-        patch(C, t1, D);
-        patch(B, t2, D);
-        patch(A, t3, D);
-
-        delete();
-
-        OrientedFace newFace = t0.getFace(D);
-        if (newFace.hasAdjacent()) {
-            ears.add(newFace);
-        }
-        newFace = t1.getFace(D);
-        if (newFace.hasAdjacent()) {
-            ears.add(newFace);
-        }
-        newFace = t2.getFace(D);
-        if (newFace.hasAdjacent()) {
-            ears.add(newFace);
-        }
-        newFace = t3.getFace(D);
-        if (newFace.hasAdjacent()) {
-            ears.add(newFace);
-        }
-        return t1;
+        return flip1to4(n, ears, TetrahedronTracker.NONE);
     }
 
     /**
@@ -827,6 +788,17 @@ public class Tetrahedron implements Iterable<OrientedFace> {
         return getNeighbor(ordinalOf(vertex));
     }
 
+    /**
+     * Answer the slot of the tetrahedron. Slots are dense small integers assigned
+     * by the tetrahedralization, unique among its live tetrahedra and recycled
+     * once the tetrahedron is deleted by a flip. A deleted tetrahedron retains
+     * the slot it last held. Tetrahedra not belonging to a tetrahedralization
+     * have the slot -1.
+     */
+    public int getSlot() {
+        return slot;
+    }
+
     /**
      * Answer the vertex of the tetrahedron
      *
@@ -995,35 +967,43 @@ public class Tetrahedron implements Iterable<OrientedFace> {
     }
 
     public void removeAnyDegenerateTetrahedronPair() {
+        removeAnyDegenerateTetrahedronPair(TetrahedronTracker.NONE);
+    }
+
+    /**
+     * Remove any degenerate pair of tetrahedra sharing two faces with the
+     * receiver, noting the removed tetrahedra with the tracker
+     */
+    void removeAnyDegenerateTetrahedronPair(TetrahedronTracker tracker) {
         if (nA != null) {
             if (nA == nB) {
-                removeDegenerateTetrahedronPair(V.A, V.B, V.C, V.D);
+                removeDegenerateTetrahedronPair(V.A, V.B, V.C, V.D, tracker);
                 return;
             }
             if (nA == nC) {
-                removeDegenerateTetrahedronPair(V.A, V.C, V.B, V.D);
+                removeDegenerateTetrahedronPair(V.A, V.C, V.B, V.D, tracker);
                 return;
             }
             if (nA == nD) {
-                removeDegenerateTetrahedronPair(V.A, V.D, V.B, V.C);
+                removeDegenerateTetrahedronPair(V.A, V.D, V.B, V.C, tracker);
                 return;
             }
         }
 
         if (nB != null) {
             if (nB == nC) {
-                removeDegenerateTetrahedronPair(V.B, V.C, V.A, V.D);
+                removeDegenerateTetrahedronPair(V.B, V.C, V.A, V.D, tracker);
                 return;
             }
             if (nB == nD) {
-                removeDegenerateTetrahedronPair(V.B, V.D, V.A, V.C);
+                removeDegenerateTetrahedronPair(V.B, V.D, V.A, V.C, tracker);
                 return;
             }
         }
 
         if (nC != null)
             if (nC == nD) {
-                removeDegenerateTetrahedronPair(V.C, V.D, V.A, V.B);
+                removeDegenerateTetrahedronPair(V.C, V.D, V.A, V.B, tracker);
                 return;
             }
     }
@@ -1067,6 +1047,59 @@ public class Tetrahedron implements Iterable<OrientedFace> {
         a = b = c = d = null;
     }
 
+    /**
+     * Perform the 1 -> 4 bistellar flip, noting the replaced tetrahedra with the
+     * tracker
+     */
+    Tetrahedron flip1to4(Vertex n, List<OrientedFace> ears, TetrahedronTracker tracker) {
+        Tetrahedron t0 = new Tetrahedron(a, b, c, n);
+        Tetrahedron t1 = new Tetrahedron(a, d, b, n);
+        Tetrahedron t2 = new Tetrahedron(a, c, d, n);
+        Tetrahedron t3 = new Tetrahedron(b, d, c, n);
+
+        t0.setNeighborA(t3);
+        t0.setNeighborB(t2);
+        t0.setNeighborC(t1);
+
+        t1.setNeighborA(t3);
+        t1.setNeighborB(t0);
+        t1.setNeighborC(t2);
+
+        t2.setNeighborA(t3);
+        t2.setNeighborB(t1);
+        t2.setNeighborC(t0);
+
+        t3.setNeighborA(t2);
+        t3.setNeighborB(t0);
+        t3.setNeighborC(t1);
+
+        patch(D, t0, D);
+        patch(C, t1, D);
+        patch(B, t2, D);
+        patch(A, t3, D);
+
+        tracker.replaced(new Tetrahedron[] { this }, new Tetrahedron[] { t0, t1, t2, t3 });
+        delete();
+
+        OrientedFace newFace = t0.getFace(D);
+        if (newFace.hasAdjacent()) {
+            ears.add(newFace);
+        }
+        newFace = t1.getFace(D);
+        if (newFace.hasAdjacent()) {
+            ears.add(newFace);
+        }
+        newFace = t2.getFace(D);
+        if (newFace.hasAdjacent()) {
+            ears.add(newFace);
+        }
+        newFace = t3.getFace(D);
+        if (newFace.hasAdjacent()) {
+            ears.add(newFace);
+        }
+        return t1;
+    }
+
     Vertex getA() {
         return a;
     }
@@ -1094,7 +1127,7 @@ public class Tetrahedron implements Iterable<OrientedFace> {
      * @param visitor - the star visitor
      * @param stack   - the stack of visitations
      */
-    void visit(Vertex vC, StarVisitor visitor, Stack<Tetrahedron> stack, Set<Tetrahedron> visited) {
+    void visit(Vertex vC, StarVisitor visitor, Stack<Tetrahedron> stack) {
         switch (ordinalOf(vC)) {
         case A:
             visitor.visit(A, this, c, b, d);
@@ -1102,7 +1135,7 @@ public class Tetrahedron implements Iterable<OrientedFace> {
                 stack.push(nC);
             }
             if (nB != null) {
-                stack.push(nC);
+                stack.push(nB);
             }
             if (nD != null) {
                 stack.push(nD);
@@ -1138,7 +1171,7 @@ public class Tetrahedron implements Iterable<OrientedFace> {
                 stack.push(nB);
             }
             if (nA != null) {
-                stack.push(nB);
+                stack.push(nA);
             }
             if (nC != null) {
                 stack.push(nC);
@@ -1206,6 +1239,10 @@ public class Tetrahedron implements Iterable<OrientedFace> {
         patch(ordinalOf(old), n, vNew);
     }
 
+    void setSlot(int slot) {
+        this.slot = slot;
+    }
+
     void setNeighbor(V v, Tetrahedron n) {
         switch (v) {
         case A:
@@ -1297,18 +1334,30 @@ public class Tetrahedron implements Iterable<OrientedFace> {
      * @param visitor - the visitor to invoke for each tetrahedron in the star
      */
     void visitStar(Vertex vC, StarVisitor visitor) {
-        Set<Tetrahedron> tetrahedrons = new IdentitySet<>(10);
+        // Tetrahedra of a tetrahedralization are tracked by slot, any others by
+        // identity
+        IntHashSet slots = new IntHashSet(32);
+        Set<Tetrahedron> unslotted = null;
         var stack = new Stack<Tetrahedron>();
         stack.push(this);
         while (!stack.isEmpty()) {
             var t = stack.pop();
-            if (tetrahedrons.add(t)) {
-                t.visit(vC, visitor, stack, tetrahedrons);
+            boolean added;
+            if (t.slot >= 0) {
+                added = slots.add(t.slot);
+            } else {
+                if (unslotted == null) {
+                    unslotted = new IdentitySet<>(10);
+                }
+                added = unslotted.add(t);
+            }
+            if (added) {
+                t.visit(vC, visitor, stack);
             }
         }
     }
 
-    private void removeDegenerateTetrahedronPair(V ve1, V ve2, V vf1, V vf2) {
+    private void removeDegenerateTetrahedronPair(V ve1, V ve2, V vf1, V vf2, TetrahedronTracker tracker) {
         Tetrahedron nE = getNeighbor(ve1);
         Tetrahedron nF1_that = nE.getNeighbor(getVertex(vf1));
         Tetrahedron nF2_that = nE.getNeighbor(getVertex(vf2));
@@ -1321,6 +1370,7 @@ public class Tetrahedron implements Iterable<OrientedFace> {
         Vertex f1 = getVertex(vf1);
         Vertex f2 = getVertex(vf2);
 
+        tracker.replaced(new Tetrahedron[] { this, nE }, new Tetrahedron[] {});
         delete();
         nE.delete();
 
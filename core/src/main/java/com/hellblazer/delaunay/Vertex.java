@@ -23,7 +23,6 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
@@ -120,6 +119,11 @@ public class Vertex extends Vector3d {
      */
     private Tetrahedron adjacent;
 
+    /**
+     * The dense index of the vertex in its tetrahedralization, -1 if unassigned
+     */
+    private int id = -1;
+
     Vertex(double i, double j, double k) {
         x = i;
         y = j;
@@ -156,7 +160,18 @@ public class Vertex extends Vector3d {
         return adjacent;
     }
 
-    public LinkedList<OrientedFace> getEars() {
+    /**
+     * Answer the dense index of the vertex in its tetrahedralization. An inserted
+     * vertex is assigned the lowest id not in use, so ids of deleted vertices are
+     * recycled. The corners of the universe and deleted vertices answer -1.
+     *
+     * @return the index of the vertex
+     */
+    public final int getId() {
+        return id;
+    }
+
+    public List<OrientedFace> getEars() {
         assert adjacent != null;
         EarSet aggregator = new EarSet();
         adjacent.visitStar(this, aggregator);
@@ -249,17 +264,30 @@ public class Vertex extends Vector3d {
      *         > 1 if no topological event will occur
      */
     public double maxStep(Tuple3d delta) {
+        return maxStep(delta.x, delta.y, delta.z);
+    }
+
+    /**
+     * Answer the maximum fraction of the displacement the receiver may move
+     * before a tetrahedron of its star is inverted. The orientation of the
+     * receiver with respect to the face opposite it in each tetrahedron of the
+     * star is linear in the displacement, so the fraction at which the face
+     * becomes coplanar with the receiver is o0 / (o0 - o1), where o0 and o1 are
+     * the orientations at the current and displaced positions.
+     *
+     * @param dx , dy, dz - the displacement of the receiver
+     * @return l - l <= 1 if a topological event will occur at this + (l * delta), l
+     *         > 1 if no topological event will occur
+     */
+    public double maxStep(double dx, double dy, double dz) {
         double[] min = new double[] { Double.MAX_VALUE };
-        var target = new Point3d();
-        target.add(this, delta);
+        double tx = x + dx, ty = y + dy, tz = z + dz;
         adjacent.visitStar(this, (vertex, t, a, b, c) -> {
-            var pseudo = Geometry.leftOfPlaneFast(a.x, a.y, a.z, b.x, b.y, b.z, c.x, c.y, c.z, x, y, z);
-            var newPos = new Vertex(this);
-            newPos.add(delta);
-            var pseudoDelta = Geometry.leftOfPlaneFast(a.x, a.y, a.z, b.x, b.y, b.z, c.x, c.y, c.z, newPos.x, newPos.y,
-                                                       newPos.z);
-            var l = pseudo / Math.abs(pseudoDelta);
-            min[0] = Math.min(l, min[0]);
+            double o0 = Geometry.leftOfPlaneFast(a.x, a.y, a.z, b.x, b.y, b.z, c.x, c.y, c.z, x, y, z);
+            double o1 = Geometry.leftOfPlaneFast(a.x, a.y, a.z, b.x, b.y, b.z, c.x, c.y, c.z, tx, ty, tz);
+            if (o1 < o0) {
+                min[0] = Math.min(min[0], o0 / (o0 - o1));
+            }
         });
         return min[0];
     }
@@ -314,4 +342,8 @@ public class Vertex extends Vector3d {
         adjacent = tetrahedron;
     }
 
+    final void setId(int id) {
+        this.id = id;
+    }
+
 }
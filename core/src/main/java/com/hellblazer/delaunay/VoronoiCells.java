@@ -0,0 +1,400 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Geometry.centerSphere;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import javax.vecmath.Tuple3d;
+
+/**
+ * The volume, surface area and centroid of the Voronoi cells of all the
+ * vertices of a tetrahedralization, computed in bulk into primitive arrays
+ * indexed by {@link Vertex#getId() vertex id}.
+ * <p>
+ * The circumcenters of the tetrahedra are computed once, in parallel, into an
+ * array indexed by {@link Tetrahedron#getSlot() slot}. The cells are then
+ * computed in parallel by walking the ring of tetrahedra around each Delaunay
+ * edge of the vertex, accumulating the polygon of circumcenters dual to the
+ * edge as a fan of triangles. Each face is the base of a pyramid with its apex
+ * at the vertex and height half the length of the edge, so the volume and
+ * centroid of the cell accumulate from the pyramids without constructing the
+ * faces.
+ * <p>
+ * The cells of vertices on the convex hull of the points, whose stars include
+ * the corners of the universe, are unbounded and have NaN volume, area and
+ * centroid, as do the ids not in use, unless the cells are clipped to a
+ * {@link ConvexDomain}. Clipped cells are computed by cutting the domain with
+ * the bisecting half spaces of the Delaunay neighbors of the vertex.
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public final class VoronoiCells {
+    /**
+     * The scratch state of the cell computation of a thread
+     */
+    private static class Cell {
+        private final CellClipper clipper   = new CellClipper();
+        private final double[]    measures  = new double[5];
+        private Vertex[]          neighbors = new Vertex[32];
+        private int               neighborSize;
+        private double[]          ring      = new double[48];
+        private Tetrahedron[]     star      = new Tetrahedron[64];
+        private int               starSize;
+
+        /**
+         * Compute the cell of the vertex
+         *
+         * @return false if the cell is unbounded
+         */
+        private boolean compute(Vertex v, double[] centers, VoronoiCells cells) {
+            if (!collectStar(v)) {
+                return false;
+            }
+            neighborSize = 0;
+            double volume = 0, area = 0, cx = 0, cy = 0, cz = 0;
+            for (int i = 0; i < starSize; i++) {
+                Tetrahedron t = star[i];
+                for (V o : Tetrahedralization.VERTICES) {
+                    Vertex x = t.getVertex(o);
+                    if (x == v || isNeighbor(x)) {
+                        continue;
+                    }
+                    if (neighborSize == neighbors.length) {
+                        neighbors = Arrays.copyOf(neighbors, neighborSize * 2);
+                    }
+                    neighbors[neighborSize++] = x;
+
+                    int size = ring(t, v, x, centers);
+                    double ex = x.x - v.x, ey = x.y - v.y, ez = x.z - v.z;
+                    double length = Math.sqrt(ex * ex + ey * ey + ez * ez);
+                    ex /= length;
+                    ey /= length;
+                    ez /= length;
+
+                    // Fan the polygon of circumcenters from its first point
+                    double x0 = ring[0], y0 = ring[1], z0 = ring[2];
+                    double twiceArea = 0, fx = 0, fy = 0, fz = 0;
+                    for (int j = 1; j < size - 1; j++) {
+                        double x1 = ring[3 * j], y1 = ring[3 * j + 1], z1 = ring[3 * j + 2];
+                        double x2 = ring[3 * j + 3], y2 = ring[3 * j + 4], z2 = ring[3 * j + 5];
+                        double ux = x1 - x0, uy = y1 - y0, uz = z1 - z0;
+                        double wx = x2 - x0, wy = y2 - y0, wz = z2 - z0;
+                        // The signed area of the triangle projected on the edge
+                        double w = (uy * wz - uz * wy) * ex + (uz * wx - ux * wz) * ey + (ux * wy - uy * wx) * ez;
+                        twiceArea += w;
+                        fx += w * (x0 + x1 + x2);
+                        fy += w * (y0 + y1 + y2);
+                        fz += w * (z0 + z1 + z2);
+                    }
+                    if (twiceArea == 0) {
+                        continue;
+                    }
+                    double faceArea = Math.abs(twiceArea) / 2;
+                    double pyramid = faceArea * length / 6;
+                    fx /= 3 * twiceArea;
+                    fy /= 3 * twiceArea;
+                    fz /= 3 * twiceArea;
+                    area += faceArea;
+                    volume += pyramid;
+                    // The centroid of the pyramid is 3/4 of the way from the apex to the base
+                    cx += pyramid * (v.x + 3 * fx) / 4;
+                    cy += pyramid * (v.y + 3 * fy) / 4;
+                    cz += pyramid * (v.z + 3 * fz) / 4;
+                }
+            }
+            int id = v.getId();
+            cells.volumes[id] = volume;
+            cells.areas[id] = area;
+            cells.centroids[3 * id] = cx / volume;
+            cells.centroids[3 * id + 1] = cy / volume;
+            cells.centroids[3 * id + 2] = cz / volume;
+            return true;
+        }
+
+        /**
+         * Compute the cell of the vertex clipped to the domain
+         */
+        private void compute(Vertex v, ConvexDomain domain, VoronoiCells cells) {
+            collectStar(v);
+            clipper.set(domain.getShape());
+            neighborSize = 0;
+            for (int i = 0; i < starSize; i++) {
+                Tetrahedron t = star[i];
+                for (V o : Tetrahedralization.VERTICES) {
+                    Vertex x = t.getVertex(o);
+                    if (x == v || isNeighbor(x)) {
+                        continue;
+                    }
+                    if (neighborSize == neighbors.length) {
+                        neighbors = Arrays.copyOf(neighbors, neighborSize * 2);
+                    }
+                    neighbors[neighborSize++] = x;
+                    if (!ConvexDomain.clipBisector(v, x, clipper)) {
+                        cells.empty(v.getId());
+                        return;
+                    }
+                }
+            }
+            clipper.measure(v, measures);
+            int id = v.getId();
+            cells.volumes[id] = measures[0];
+            cells.areas[id] = measures[1];
+            System.arraycopy(measures, 2, cells.centroids, 3 * id, 3);
+        }
+
+        /**
+         * Collect the star of the vertex
+         *
+         * @return false if the star includes a corner of the universe
+         */
+        private boolean collectStar(Vertex v) {
+            boolean bounded = true;
+            starSize = 0;
+            star[starSize++] = v.getAdjacent();
+            for (int i = 0; i < starSize; i++) {
+                Tetrahedron t = star[i];
+                for (V o : Tetrahedralization.VERTICES) {
+                    Vertex x = t.getVertex(o);
+                    if (x.getId() < 0) {
+                        bounded = false;
+                    }
+                    if (x == v) {
+                        continue;
+                    }
+                    Tetrahedron n = t.getNeighbor(o);
+                    if (n != null && !inStar(n)) {
+                        if (starSize == star.length) {
+                            star = Arrays.copyOf(star, starSize * 2);
+                        }
+                        star[starSize++] = n;
+                    }
+                }
+            }
+            return bounded;
+        }
+
+        private boolean inStar(Tetrahedron t) {
+            for (int i = 0; i < starSize; i++) {
+                if (star[i] == t) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isNeighbor(Vertex x) {
+            for (int i = 0; i < neighborSize; i++) {
+                if (neighbors[i] == x) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Collect the circumcenters of the ring of tetrahedra around the edge (v, x),
+         * starting from t
+         *
+         * @return the number of tetrahedra in the ring
+         */
+        private int ring(Tetrahedron t, Vertex v, Vertex x, double[] centers) {
+            int size = 0;
+            Tetrahedron previous = null;
+            Tetrahedron current = t;
+            do {
+                if (3 * size + 3 > ring.length) {
+                    ring = Arrays.copyOf(ring, ring.length * 2);
+                }
+                int slot = 3 * current.getSlot();
+                ring[3 * size] = centers[slot];
+                ring[3 * size + 1] = centers[slot + 1];
+                ring[3 * size + 2] = centers[slot + 2];
+                size++;
+                Tetrahedron next = null;
+                for (V o : Tetrahedralization.VERTICES) {
+                    Vertex y = current.getVertex(o);
+                    if (y != v && y != x) {
+                        Tetrahedron n = current.getNeighbor(o);
+                        if (n != previous) {
+                            next = n;
+                            break;
+                        }
+                    }
+                }
+                previous = current;
+                current = next;
+            } while (current != t);
+            return size;
+        }
+    }
+
+    /**
+     * The number of tetrahedra or vertices computed in a parallel block
+     */
+    private static final int BLOCK = 1024;
+
+    /**
+     * Compute the Voronoi cells of all the vertices of the tetrahedralization
+     *
+     * @param tetrahedralization - the tetrahedralization
+     * @return the cells
+     */
+    public static VoronoiCells compute(Tetrahedralization tetrahedralization) {
+        return compute(tetrahedralization, null);
+    }
+
+    /**
+     * Compute the Voronoi cells of all the vertices of the tetrahedralization,
+     * clipped to the domain. All the clipped cells are bounded; the cells of
+     * vertices whose regions do not intersect the domain are empty, with zero
+     * volume and area and a NaN centroid.
+     *
+     * @param tetrahedralization - the tetrahedralization
+     * @param domain             - the domain clipping the cells, or null to
+     *                           compute the unclipped cells
+     * @return the cells
+     */
+    public static VoronoiCells compute(Tetrahedralization tetrahedralization, ConvexDomain domain) {
+        double[] centers = domain == null ? circumcenters(tetrahedralization) : null;
+        int count = tetrahedralization.vertexCount();
+        VoronoiCells cells = new VoronoiCells(count);
+        ThreadLocal<Cell> scratch = ThreadLocal.withInitial(Cell::new);
+        IntStream.range(0, (count + BLOCK - 1) / BLOCK).parallel().forEach(block -> {
+            Cell cell = scratch.get();
+            for (int id = block * BLOCK, end = Math.min(id + BLOCK, count); id < end; id++) {
+                Vertex v = tetrahedralization.vertex(id);
+                if (v == null) {
+                    cells.unbounded(id);
+                } else if (domain != null) {
+                    cell.compute(v, domain, cells);
+                } else if (!cell.compute(v, centers, cells)) {
+                    cells.unbounded(id);
+                }
+            }
+        });
+        return cells;
+    }
+
+    /**
+     * Compute the circumcenters of the tetrahedra, in parallel, indexed by slot
+     */
+    private static double[] circumcenters(Tetrahedralization tetrahedralization) {
+        Tetrahedron[] tetrahedra = tetrahedralization.getTetrahedrons().toArray(new Tetrahedron[0]);
+        double[] centers = new double[3 * tetrahedralization.tetrahedronSlotCount()];
+        IntStream.range(0, (tetrahedra.length + BLOCK - 1) / BLOCK).parallel().forEach(block -> {
+            double[] center = new double[3];
+            for (int i = block * BLOCK, end = Math.min(i + BLOCK, tetrahedra.length); i < end; i++) {
+                Tetrahedron t = tetrahedra[i];
+                Vertex a = t.getA(), b = t.getB(), c = t.getC(), d = t.getD();
+                centerSphere(a.x, a.y, a.z, b.x, b.y, b.z, c.x, c.y, c.z, d.x, d.y, d.z, center);
+                System.arraycopy(center, 0, centers, 3 * t.getSlot(), 3);
+            }
+        });
+        return centers;
+    }
+
+    private final double[] areas;
+    private final double[] centroids;
+    private final double[] volumes;
+
+    private VoronoiCells(int count) {
+        areas = new double[count];
+        centroids = new double[3 * count];
+        volumes = new double[count];
+    }
+
+    /**
+     * Answer the surface area of the cell of the vertex id
+     */
+    public double getArea(int id) {
+        return areas[id];
+    }
+
+    /**
+     * Answer the surface areas of the cells, indexed by vertex id
+     */
+    public double[] getAreas() {
+        return areas;
+    }
+
+    /**
+     * Answer the centroid of the cell of the vertex id
+     *
+     * @param id     - the vertex id
+     * @param result - receives the centroid
+     */
+    public void getCentroid(int id, Tuple3d result) {
+        result.set(centroids[3 * id], centroids[3 * id + 1], centroids[3 * id + 2]);
+    }
+
+    /**
+     * Answer the centroids of the cells, packed as consecutive {x, y, z} triples
+     * indexed by vertex id
+     */
+    public double[] getCentroids() {
+        return centroids;
+    }
+
+    /**
+     * Answer the number of cells, the extent of the vertex ids of the
+     * tetrahedralization
+     */
+    public int getCount() {
+        return volumes.length;
+    }
+
+    /**
+     * Answer the volume of the cell of the vertex id
+     */
+    public double getVolume(int id) {
+        return volumes[id];
+    }
+
+    /**
+     * Answer the volumes of the cells, indexed by vertex id
+     */
+    public double[] getVolumes() {
+        return volumes;
+    }
+
+    /**
+     * Answer true if the cell of the vertex id is bounded
+     */
+    public boolean isBounded(int id) {
+        return !Double.isNaN(volumes[id]);
+    }
+
+    private void empty(int id) {
+        volumes[id] = 0;
+        areas[id] = 0;
+        centroids[3 * id] = centroids[3 * id + 1] = centroids[3 * id + 2] = Double.NaN;
+    }
+
+    private void unbounded(int id) {
+        volumes[id] = Double.NaN;
+        areas[id] = Double.NaN;
+        centroids[3 * id] = centroids[3 * id + 1] = centroids[3 * id + 2] = Double.NaN;
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Examples.getLattice;
+import static com.hellblazer.delaunay.Vertex.getRandomPoints;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import javax.vecmath.Point3d;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class AlphaShapeTest {
+
+    private static List<Integer> key(int... ids) {
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        return Arrays.stream(sorted).boxed().toList();
+    }
+
+    @Test
+    public void testLattice() {
+        // The circumradii of the lattice differ only by rounding noise
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        for (Point3d p : getLattice(random, 12)) {
+            T.insert(p);
+        }
+        AlphaShape shape = AlphaShape.compute(T);
+        double[] alphas = shape.getTetrahedronAlphas();
+        for (int i = 1; i < alphas.length; i++) {
+            assertTrue(alphas[i - 1] <= alphas[i]);
+        }
+        for (double alpha : new double[] { 0.5, Math.sqrt(3) / 2, 1.0, 2.0 }) {
+            int expected = 0;
+            for (double a : alphas) {
+                if (a <= alpha) {
+                    expected++;
+                }
+            }
+            assertEquals(4 * expected, shape.getTetrahedra(alpha).length);
+        }
+        // The tetrahedra of the lattice lie within its cubes, so are all
+        // circumscribed by the spheres of the cubes
+        int finite = 0;
+        for (Tetrahedron t : T.getTetrahedrons()) {
+            boolean corner = false;
+            for (Vertex v : t.getVertices()) {
+                corner |= v.getId() < 0;
+            }
+            if (!corner) {
+                finite++;
+            }
+        }
+        assertEquals(4 * finite, shape.getTetrahedra(Math.sqrt(3) / 2 + 1e-9).length);
+    }
+
+    @Test
+    public void testSpectrum() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        for (Point3d p : getRandomPoints(random, 300, 100.0D, false)) {
+            T.insert(p);
+        }
+        AlphaShape shape = AlphaShape.compute(T);
+
+        for (double[] alphas : new double[][] { shape.getTetrahedronAlphas(), shape.getTriangleAlphas(),
+                                                shape.getEdgeAlphas() }) {
+            for (int i = 1; i < alphas.length; i++) {
+                assertTrue(alphas[i - 1] <= alphas[i]);
+            }
+        }
+        assertEquals(0, shape.getTetrahedra(0).length);
+        assertEquals(0, shape.getSurface(0).length);
+        assertEquals(0, shape.getEdges(0).length);
+
+        // At infinite alpha, the alpha shape is the convex hull
+        int finite = 0;
+        for (Tetrahedron t : T.getTetrahedrons()) {
+            boolean corner = false;
+            for (Vertex v : t.getVertices()) {
+                corner |= v.getId() < 0;
+            }
+            if (!corner) {
+                finite++;
+            }
+        }
+        double infinity = Double.POSITIVE_INFINITY;
+        assertEquals(4 * finite, shape.getTetrahedra(infinity).length);
+        Set<List<Integer>> hull = new HashSet<>();
+        int[] triangles = T.convexHull().getTriangles();
+        for (int i = 0; i < triangles.length; i += 3) {
+            hull.add(key(triangles[i], triangles[i + 1], triangles[i + 2]));
+        }
+        Set<List<Integer>> surface = new HashSet<>();
+        int[] s = shape.getSurface(infinity);
+        for (int i = 0; i < s.length; i += 3) {
+            surface.add(key(s[i], s[i + 1], s[i + 2]));
+        }
+        assertEquals(hull, surface);
+
+        // The alpha complex is closed under faces, and its tetrahedra are those of
+        // no greater circumradius
+        for (double alpha : new double[] { 5, 10, 15, 20, 30 }) {
+            int[] tetrahedra = shape.getTetrahedra(alpha);
+            int expected = 0;
+            double[] center = new double[3];
+            for (Tetrahedron t : T.getTetrahedrons()) {
+                boolean corner = false;
+                for (Vertex v : t.getVertices()) {
+                    corner |= v.getId() < 0;
+                }
+                if (!corner) {
+                    Vertex a = t.getA(), b = t.getB(), c = t.getC(), d = t.getD();
+                    Geometry.centerSphere(a.x, a.y, a.z, b.x, b.y, b.z, c.x, c.y, c.z, d.x, d.y, d.z, center);
+                    if (new Point3d(a).distance(new Point3d(center)) <= alpha) {
+                        expected++;
+                    }
+                }
+            }
+            assertEquals(4 * expected, tetrahedra.length);
+
+            Set<List<Integer>> complex = new HashSet<>();
+            int[] t3 = shape.getTriangles(alpha);
+            for (int i = 0; i < t3.length; i += 3) {
+                complex.add(key(t3[i], t3[i + 1], t3[i + 2]));
+            }
+            Set<List<Integer>> edges = new HashSet<>();
+            int[] e = shape.getEdges(alpha);
+            for (int i = 0; i < e.length; i += 2) {
+                edges.add(key(e[i], e[i + 1]));
+            }
+            for (int i = 0; i < tetrahedra.length; i += 4) {
+                for (int j = 0; j < 4; j++) {
+                    assertTrue(complex.contains(key(tetrahedra[i + j], tetrahedra[i + (j + 1) % 4],
+                                                    tetrahedra[i + (j + 2) % 4])));
+                }
+            }
+            for (int i = 0; i < t3.length; i += 3) {
+                for (int j = 0; j < 3; j++) {
+                    assertTrue(edges.contains(key(t3[i + j], t3[i + (j + 1) % 3])));
+                }
+            }
+            int[] boundary = shape.getSurface(alpha);
+            for (int i = 0; i < boundary.length; i += 3) {
+                assertTrue(complex.contains(key(boundary[i], boundary[i + 1], boundary[i + 2])));
+            }
+        }
+    }
+}
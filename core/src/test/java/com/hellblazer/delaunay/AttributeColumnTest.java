@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Vertex.getRandomPoints;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import javax.vecmath.Point3d;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class AttributeColumnTest {
+
+    @Test
+    public void testColumns() {
+        DoubleColumn doubles = new DoubleColumn(Double.NaN);
+        assertTrue(Double.isNaN(doubles.get(1000)));
+        doubles.set(100, 1.5);
+        assertEquals(1.5, doubles.get(100));
+        assertTrue(Double.isNaN(doubles.get(99)));
+        assertTrue(doubles.capacity() > 100);
+        doubles.reset(100);
+        assertTrue(Double.isNaN(doubles.get(100)));
+
+        IntColumn ints = new IntColumn(-1);
+        int[] values = ints.values(50);
+        assertTrue(values.length >= 50);
+        assertEquals(-1, values[49]);
+        ints.set(3, 7);
+        assertEquals(7, ints.get(3));
+
+        LongColumn longs = new LongColumn();
+        longs.set(20, Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, longs.get(20));
+        assertEquals(0L, longs.get(19));
+
+        FloatColumn floats = new FloatColumn(2.0f);
+        floats.set(0, 1.0f);
+        assertEquals(1.0f, floats.get(0));
+        assertEquals(2.0f, floats.get(17));
+    }
+
+    @Test
+    public void testFlipPropagation() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        // The number of flips leading to each tetrahedron
+        IntColumn depth = T.addTetrahedronColumn(new IntColumn(-1));
+        DoubleColumn weight = T.addVertexColumn(new DoubleColumn(Double.NaN));
+        depth.set(T.getTetrahedrons().iterator().next().getSlot(), 0);
+        int[] flips = new int[1];
+        T.addFlipListener((deleted, created) -> {
+            flips[0]++;
+            int max = -1;
+            for (Tetrahedron t : deleted) {
+                assertFalse(t.isDeleted());
+                assertTrue(depth.get(t.getSlot()) >= 0);
+                max = Math.max(max, depth.get(t.getSlot()));
+            }
+            for (Tetrahedron t : created) {
+                assertTrue(t.getSlot() >= 0);
+                depth.set(t.getSlot(), max + 1);
+            }
+        });
+
+        List<Vertex> vertices = new ArrayList<>();
+        for (Point3d p : getRandomPoints(random, 500, 100.0D, false)) {
+            Vertex v = T.insert(p);
+            weight.set(v.getId(), v.x);
+            vertices.add(v);
+        }
+        assertTrue(flips[0] > 0);
+        checkSlots(T, depth);
+
+        for (int i = 0; i < 100; i++) {
+            Vertex v = vertices.remove(random.nextInt(vertices.size()));
+            int id = v.getId();
+            T.delete(v);
+            assertTrue(Double.isNaN(weight.get(id)));
+        }
+        checkSlots(T, depth);
+        for (Vertex v : vertices) {
+            assertEquals(v.x, weight.get(v.getId()));
+        }
+
+        assertTrue(T.removeColumn(depth));
+        assertFalse(T.removeColumn(depth));
+    }
+
+    private void checkSlots(Tetrahedralization T, IntColumn depth) {
+        BitSet slots = new BitSet();
+        for (Tetrahedron t : T.getTetrahedrons()) {
+            int slot = t.getSlot();
+            assertTrue(slot >= 0 && slot < T.tetrahedronSlotCount());
+            assertFalse(slots.get(slot));
+            slots.set(slot);
+            assertTrue(depth.get(slot) >= 0);
+        }
+        // Slots are recycled, so the extent stays close to the live count
+        assertTrue(T.tetrahedronSlotCount() <= 2 * slots.cardinality());
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Vertex.getRandomPoints;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+import java.util.List;
+import java.util.Random;
+
+import javax.vecmath.Point3d;
+import javax.vecmath.Tuple3d;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class ConvexDomainTest {
+
+    @Test
+    public void testBox() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        for (Point3d p : getRandomPoints(random, 1000, 100.0D, false)) {
+            T.insert(p);
+        }
+        ConvexDomain domain = ConvexDomain.box(new Point3d(-100, -100, -100), new Point3d(100, 100, 100));
+        VoronoiCells cells = VoronoiCells.compute(T, domain);
+        VoronoiCells unclipped = VoronoiCells.compute(T);
+
+        // The clipped cells tile the domain
+        double volume = 0, x = 0, y = 0, z = 0;
+        Point3d centroid = new Point3d();
+        for (Vertex v : T.getVertices()) {
+            int id = v.getId();
+            assertTrue(cells.isBounded(id));
+            assertTrue(cells.getVolume(id) > 0);
+            cells.getCentroid(id, centroid);
+            assertTrue(domain.contains(centroid));
+            volume += cells.getVolume(id);
+            x += cells.getVolume(id) * centroid.x;
+            y += cells.getVolume(id) * centroid.y;
+            z += cells.getVolume(id) * centroid.z;
+            // Cells within the domain are unchanged by clipping
+            if (unclipped.isBounded(id) && insideDomain(v.getVoronoiRegion(), domain)) {
+                assertEquals(unclipped.getVolume(id), cells.getVolume(id), 1e-6 * cells.getVolume(id));
+                assertEquals(unclipped.getArea(id), cells.getArea(id), 1e-6 * cells.getArea(id));
+            }
+        }
+        assertEquals(8.0e6, volume, 1e-3);
+        assertEquals(0.0, x / volume, 1e-6);
+        assertEquals(0.0, y / volume, 1e-6);
+        assertEquals(0.0, z / volume, 1e-6);
+
+        // The region faces close the cell
+        Vertex hull = T.getVertices().stream().filter(v -> !unclipped.isBounded(v.getId())).findFirst().get();
+        List<Tuple3d[]> region = domain.getRegion(hull);
+        assertFalse(region.isEmpty());
+        for (Tuple3d[] face : region) {
+            for (Tuple3d p : face) {
+                assertTrue(domain.contains(new Point3d(p.x / (1 + 1e-12), p.y / (1 + 1e-12), p.z / (1 + 1e-12))));
+            }
+        }
+    }
+
+    @Test
+    public void testHalfSpaces() {
+        // The octahedron |x| + |y| + |z| <= 1
+        double[] planes = new double[32];
+        int i = 0;
+        for (int sx = -1; sx <= 1; sx += 2) {
+            for (int sy = -1; sy <= 1; sy += 2) {
+                for (int sz = -1; sz <= 1; sz += 2) {
+                    planes[i++] = sx;
+                    planes[i++] = sy;
+                    planes[i++] = sz;
+                    planes[i++] = 1;
+                }
+            }
+        }
+        ConvexDomain octahedron = ConvexDomain.of(planes);
+        assertEquals(8, octahedron.getFaces().size());
+        assertTrue(octahedron.contains(new Point3d(0.3, 0.3, 0.3)));
+        assertFalse(octahedron.contains(new Point3d(0.4, 0.4, 0.4)));
+
+        Tetrahedralization T = new Tetrahedralization(new Random(0));
+        Vertex v = T.insert(new Point3d(0.01, 0.02, 0.03));
+        T.insert(new Point3d(10, 10, 10));
+        VoronoiCells cells = VoronoiCells.compute(T, octahedron);
+        assertEquals(4.0 / 3.0, cells.getVolume(v.getId()), 1e-9);
+
+        try {
+            ConvexDomain.of(1, 0, 0, 1, 0, 1, 0, 1);
+            fail("Unbounded domain");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            ConvexDomain.of(1, 0, 0, -1, -1, 0, 0, -1, 0, 1, 0, 1, 0, -1, 0, 1, 0, 0, 1, 1, 0, 0, -1, 1);
+            fail("Empty domain");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testRelax() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        for (Point3d p : getRandomPoints(random, 500, 100.0D, false)) {
+            T.insert(p);
+        }
+        ConvexDomain domain = ConvexDomain.box(new Point3d(-100, -100, -100), new Point3d(100, 100, 100));
+        LloydRelaxation lloyd = new LloydRelaxation(T, domain);
+        double first = lloyd.iterate();
+        assertTrue(lloyd.relax(first / 10, 100));
+        for (Vertex v : T.getVertices()) {
+            assertTrue(domain.contains(v));
+        }
+    }
+
+    private boolean insideDomain(List<Tuple3d[]> region, ConvexDomain domain) {
+        for (Tuple3d[] face : region) {
+            for (Tuple3d p : face) {
+                if (!domain.contains(p)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Vertex.getRandomPoints;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import javax.vecmath.Point3d;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class EdgeGraphTest {
+
+    @Test
+    public void testGraph() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        List<Vertex> vertices = new ArrayList<>();
+        for (Point3d p : getRandomPoints(random, 2000, 100.0D, false)) {
+            vertices.add(T.insert(p));
+        }
+        for (int i = 0; i < vertices.size(); i += 7) {
+            T.delete(vertices.get(i));
+        }
+
+        EdgeGraph graph = EdgeGraph.compute(T);
+        assertEquals(T.vertexCount(), graph.getVertexCount());
+        int[] offsets = graph.getOffsets();
+        int[] neighbors = graph.getNeighbors();
+        assertEquals(offsets[graph.getVertexCount()], neighbors.length);
+        int degrees = 0;
+        for (int id = 0; id < graph.getVertexCount(); id++) {
+            Vertex v = T.vertex(id);
+            if (v == null) {
+                assertEquals(0, graph.getDegree(id));
+                continue;
+            }
+            List<Integer> expected = new ArrayList<>();
+            for (Vertex n : v.getNeighbors()) {
+                if (n.getId() >= 0) {
+                    expected.add(n.getId());
+                }
+            }
+            Collections.sort(expected);
+            List<Integer> row = new ArrayList<>();
+            for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+                row.add(neighbors[i]);
+                // The graph is symmetric
+                boolean found = false;
+                for (int j = offsets[neighbors[i]]; j < offsets[neighbors[i] + 1]; j++) {
+                    found |= neighbors[j] == id;
+                }
+                assertTrue(found);
+            }
+            assertEquals(expected, row);
+            degrees += graph.getDegree(id);
+        }
+        assertEquals(degrees / 2, graph.getEdgeCount());
+    }
+}
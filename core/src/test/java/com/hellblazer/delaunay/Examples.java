@@ -20,6 +20,11 @@
 package com.hellblazer.delaunay;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import javax.vecmath.Point3d;
 
@@ -71,6 +76,41 @@ public class Examples {
         return list.toArray(new Point3d[list.size()]);
     }
 
+    /**
+     * Answer the points of the integer lattice of size^3 points, in random order.
+     * Lattice points are coplanar and cospherical with many of their
+     * tetrahedra.
+     */
+    public static List<Point3d> getLattice(Random random, int size) {
+        List<Point3d> points = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                for (int k = 0; k < size; k++) {
+                    points.add(new Point3d(i, j, k));
+                }
+            }
+        }
+        Collections.shuffle(points, random);
+        return points;
+    }
+
+    /**
+     * Answer the tetrahedra of the tetrahedralization as the sorted ids of their
+     * vertices, for comparing tetrahedralizations of the same points
+     */
+    public static Set<List<Integer>> getTetrahedra(Tetrahedralization T) {
+        Set<List<Integer>> tetrahedra = new HashSet<>();
+        for (Tetrahedron t : T.getTetrahedrons()) {
+            List<Integer> ids = new ArrayList<>();
+            for (Vertex v : t.getVertices()) {
+                ids.add(v.getId());
+            }
+            Collections.sort(ids);
+            tetrahedra.add(ids);
+        }
+        return tetrahedra;
+    }
+
     public static Point3d[] getGrid() {
         ArrayList<Point3d> list;
         list = new ArrayList<>();
@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Examples.getLattice;
+import static com.hellblazer.delaunay.Vertex.getRandomPoints;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.vecmath.Point3d;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class FacePlanesTest {
+
+    private static void verify(Tetrahedralization T, FacePlanes planes, List<Point3d> queries, Random random) {
+        for (Tetrahedron t : T.getTetrahedrons()) {
+            for (int i = 0; i < 8; i++) {
+                Point3d query = queries.get(random.nextInt(queries.size()));
+                for (V v : Tetrahedralization.VERTICES) {
+                    assertEquals(t.orientationWrt(v, query), planes.orientationWrt(t, v, query));
+                }
+            }
+            assertTrue(planes.isCached(t));
+        }
+    }
+
+    @Test
+    public void testLocate() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        for (Point3d p : getLattice(random, 5)) {
+            T.insert(p);
+        }
+        for (Point3d p : getRandomPoints(random, 300, 4.0D, false)) {
+            T.insert(p);
+        }
+        Point3d[] queries = getRandomPoints(random, 200, 4.0D, false);
+        Tetrahedron start = T.locate(new Point3d(2, 2, 2));
+        Random walk = new Random(0);
+        List<Tetrahedron> located = new ArrayList<>();
+        for (Point3d query : queries) {
+            located.add(T.locate(query, start, walk));
+        }
+
+        T.cacheFacePlanes(true);
+        assertTrue(T.isCachingFacePlanes());
+        // The cached orientations agree, so the walks are identical, even when
+        // repeated over the cached planes
+        for (int pass = 0; pass < 2; pass++) {
+            walk = new Random(0);
+            for (int i = 0; i < queries.length; i++) {
+                assertSame(located.get(i), T.locate(queries[i], start, walk));
+            }
+        }
+        T.cacheFacePlanes(false);
+        assertFalse(T.isCachingFacePlanes());
+    }
+
+    @Test
+    public void testInvalidation() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        List<Vertex> vertices = new ArrayList<>();
+        // The vertices themselves are queries coplanar with the faces of their stars
+        List<Point3d> queries = new ArrayList<>();
+        for (Point3d p : getRandomPoints(random, 300, 4.0D, false)) {
+            vertices.add(T.insert(p));
+            queries.add(p);
+        }
+        FacePlanes planes = new FacePlanes(T);
+        try {
+            verify(T, planes, queries, random);
+
+            // Stale planes are invalidated by insertions, deletions and moves
+            for (Point3d p : getRandomPoints(random, 50, 4.0D, false)) {
+                vertices.add(T.insert(p));
+            }
+            for (int i = 0; i < 50; i++) {
+                T.delete(vertices.remove(random.nextInt(vertices.size())));
+            }
+            verify(T, planes, queries, random);
+            int inPlace = 0;
+            for (Vertex v : vertices) {
+                Point3d p = new Point3d(v);
+                p.x += (random.nextDouble() - 0.5) * 0.01;
+                p.y += (random.nextDouble() - 0.5) * 0.01;
+                p.z += (random.nextDouble() - 0.5) * 0.01;
+                if (T.move(v, p)) {
+                    inPlace++;
+                }
+            }
+            assertTrue(inPlace > 0);
+            verify(T, planes, queries, random);
+        } finally {
+            planes.close();
+        }
+    }
+
+    @Test
+    public void testOrientation() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        for (Point3d p : getLattice(random, 5)) {
+            T.insert(p);
+        }
+        // Lattice queries are coplanar with many faces
+        List<Point3d> queries = getLattice(random, 5);
+        for (Point3d p : getRandomPoints(random, 100, 4.0D, false)) {
+            queries.add(p);
+        }
+        FacePlanes planes = new FacePlanes(T);
+        try {
+            verify(T, planes, queries, random);
+            // Once cached, the planes answer the same orientations
+            verify(T, planes, queries, random);
+        } finally {
+            planes.close();
+        }
+    }
+}
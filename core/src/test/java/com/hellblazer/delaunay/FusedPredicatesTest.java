@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Examples.getLattice;
+import static com.hellblazer.delaunay.Examples.getTetrahedra;
+import static com.hellblazer.delaunay.Vertex.getRandomPoints;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.vecmath.Point3d;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class FusedPredicatesTest {
+
+    @Test
+    public void testEvaluate() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        List<Point3d> points = getLattice(random, 6);
+        for (Point3d p : points) {
+            T.insert(p);
+        }
+        // Lattice queries are coplanar and cospherical with many tetrahedra
+        List<Point3d> queries = getLattice(random, 6);
+        for (Point3d p : getRandomPoints(random, 100, 5.0D, false)) {
+            queries.add(p);
+        }
+        for (Tetrahedron t : T.getTetrahedrons()) {
+            for (int i = 0; i < 10; i++) {
+                Point3d query = queries.get(random.nextInt(queries.size()));
+                int predicates = FusedPredicates.evaluate(t, query, true);
+                for (V v : Tetrahedralization.VERTICES) {
+                    assertEquals(t.orientationWrt(v, query) < 0, (predicates & 1 << v.ordinal()) != 0);
+                }
+                Vertex a = t.getA(), b = t.getB(), c = t.getC(), d = t.getD();
+                assertEquals(Geometry.inSphere(a.x, a.y, a.z, b.x, b.y, b.z, c.x, c.y, c.z, d.x, d.y, d.z, query.x,
+                                               query.y, query.z) > 0,
+                             (predicates & FusedPredicates.IN_SPHERE) != 0);
+                assertEquals(predicates & ~FusedPredicates.IN_SPHERE, FusedPredicates.evaluate(t, query, false));
+            }
+        }
+    }
+
+    @Test
+    public void testTetrahedralization() {
+        List<Point3d> points = getLattice(new Random(666), 6);
+        for (Point3d p : getRandomPoints(new Random(666), 500, 5.0D, false)) {
+            points.add(p);
+        }
+        List<Point3d> queries = new ArrayList<>(List.of(getRandomPoints(new Random(777), 200, 5.0D, false)));
+
+        Tetrahedralization scalar = new Tetrahedralization(new Random(666));
+        for (Point3d p : points) {
+            scalar.insert(p);
+        }
+        Tetrahedron start = scalar.locate(new Point3d(2.5, 2.5, 2.5));
+        Random walk = new Random(0);
+        List<Tetrahedron> located = new ArrayList<>();
+        for (Point3d query : queries) {
+            located.add(scalar.locate(query, start, walk));
+        }
+
+        FusedPredicates.setEnabled(true);
+        try {
+            Tetrahedralization fused = new Tetrahedralization(new Random(666));
+            for (Point3d p : points) {
+                fused.insert(p);
+            }
+            // The predicates agree, so the degenerate lattice is tetrahedralized
+            // identically
+            assertEquals(getTetrahedra(scalar), getTetrahedra(fused));
+            // Location follows the same walk, so locates the same tetrahedra of the
+            // scalar tetrahedralization
+            walk = new Random(0);
+            for (int i = 0; i < queries.size(); i++) {
+                assertSame(located.get(i), scalar.locate(queries.get(i), start, walk));
+            }
+        } finally {
+            FusedPredicates.setEnabled(false);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class GeometryTest {
+
+    @Test
+    public void testAdaptiveStages() {
+        Random random = new Random(666);
+        Geometry.resetResolved();
+        Geometry.setInstrumented(true);
+        try {
+            for (int i = 0; i < 10000; i++) {
+                // Points on the unit sphere, perturbed by ever smaller amounts
+                double[] p = new double[15];
+                double perturbation = Math.pow(10, -random.nextInt(16));
+                for (int j = 0; j < 5; j++) {
+                    double theta = random.nextDouble() * Math.PI, phi = random.nextDouble() * 2 * Math.PI;
+                    double r = 1 + (random.nextDouble() - 0.5) * perturbation;
+                    p[3 * j] = 1000 + r * Math.sin(theta) * Math.cos(phi);
+                    p[3 * j + 1] = 1000 + r * Math.sin(theta) * Math.sin(phi);
+                    p[3 * j + 2] = 1000 + r * Math.cos(theta);
+                }
+                double inSphere = Geometry.inSphere(p[0], p[1], p[2], p[3], p[4], p[5], p[6], p[7], p[8], p[9], p[10],
+                                                    p[11], p[12], p[13], p[14]);
+                // The adaptive result has the sign of the exact determinant, whichever
+                // stage resolves it
+                assertEquals(exactInOrthoSphere(p, new double[5]), (int) Math.signum(inSphere));
+                // Exchanging two points reverses the sign
+                assertEquals(Math.signum(inSphere),
+                             -Math.signum(Geometry.inSphere(p[3], p[4], p[5], p[0], p[1], p[2], p[6], p[7], p[8], p[9],
+                                                            p[10], p[11], p[12], p[13], p[14])));
+                assertEquals(Math.signum(inSphere),
+                             Math.signum(Geometry.inOrthoSphere(p[0], p[1], p[2], 0, p[3], p[4], p[5], 0, p[6], p[7],
+                                                                p[8], 0, p[9], p[10], p[11], 0, p[12], p[13], p[14],
+                                                                0)));
+
+                // Weighted points whose power distances to the center are all
+                // nearly one
+                double[] w = new double[5];
+                for (int j = 0; j < 5; j++) {
+                    double theta = random.nextDouble() * Math.PI, phi = random.nextDouble() * 2 * Math.PI;
+                    w[j] = random.nextDouble() + (random.nextDouble() - 0.5) * perturbation;
+                    double r = Math.sqrt(1 + w[j]);
+                    p[3 * j] = 1000 + r * Math.sin(theta) * Math.cos(phi);
+                    p[3 * j + 1] = 1000 + r * Math.sin(theta) * Math.sin(phi);
+                    p[3 * j + 2] = 1000 + r * Math.cos(theta);
+                }
+                double inOrthoSphere = Geometry.inOrthoSphere(p[0], p[1], p[2], w[0], p[3], p[4], p[5], w[1], p[6],
+                                                              p[7], p[8], w[2], p[9], p[10], p[11], w[3], p[12], p[13],
+                                                              p[14], w[4]);
+                assertEquals(exactInOrthoSphere(p, w), (int) Math.signum(inOrthoSphere));
+            }
+        } finally {
+            Geometry.setInstrumented(false);
+        }
+        long calls = 0;
+        for (Geometry.Stage stage : Geometry.Stage.values()) {
+            calls += Geometry.getResolved(Geometry.Predicate.IN_SPHERE, stage);
+        }
+        assertEquals(20000, calls);
+        assertTrue(Geometry.getResolved(Geometry.Predicate.IN_SPHERE, Geometry.Stage.A) > 0);
+        assertTrue(Geometry.getResolved(Geometry.Predicate.IN_SPHERE, Geometry.Stage.B) +
+                   Geometry.getResolved(Geometry.Predicate.IN_SPHERE, Geometry.Stage.C) > 0);
+        assertTrue(Geometry.getResolved(Geometry.Predicate.IN_ORTHO_SPHERE, Geometry.Stage.B) +
+                   Geometry.getResolved(Geometry.Predicate.IN_ORTHO_SPHERE, Geometry.Stage.C) > 0);
+        Geometry.resetResolved();
+        assertEquals(0, Geometry.getResolved(Geometry.Predicate.IN_SPHERE, Geometry.Stage.A));
+    }
+
+    @Test
+    public void testDegenerateLattice() {
+        Random random = new Random(666);
+        // Lattice points far from the origin defeat the error bounds of the fast
+        // stage. Their differences are exact, so the adaptive predicates prove
+        // their determinants zero in the second stage, and the planar predicates
+        // in their exact stage
+        double o = 1 << 20;
+        for (int i = 0; i < 1000; i++) {
+            double x = o + random.nextInt(16), y = o + random.nextInt(16), z = o + random.nextInt(16);
+            // The corners of a unit cube are coplanar in fours and cospherical
+            assertEquals(0.0, Geometry.leftOfPlane(x, y, z, x + 1, y, z, x, y + 1, z, x + 1, y + 1, z));
+            assertEquals(0.0, Geometry.inSphere(x, y, z, x + 1, y, z, x, y + 1, z, x, y, z + 1, x + 1, y + 1, z + 1));
+            assertEquals(0.0, Geometry.inCircle(x, y, x + 1, y, x + 1, y + 1, x, y + 1));
+            assertEquals(0.0, Geometry.leftOfLine(x, y, x + 1, y + 1, x + 2, y + 2));
+            assertEquals(0.0, Geometry.inOrthoSphere(x, y, z, 0, x + 1, y, z, 0, x, y + 1, z, 0, x, y, z + 1, 0, x + 1,
+                                                     y + 1, z + 1, 0));
+
+            // Perturbing the last point by one unit in the last place of the
+            // coordinates is resolved exactly
+            double e = Math.ulp(z + 1);
+            assertTrue(Geometry.leftOfPlane(x, y, z, x + 1, y, z, x, y + 1, z, x + 1, y + 1, z + e) != 0);
+            assertTrue(Geometry.inSphere(x, y, z, x + 1, y, z, x, y + 1, z, x, y, z + 1, x + 1, y + 1,
+                                         z + 1 + e) != 0);
+        }
+    }
+
+    /**
+     * Answer the sign of the in-ortho-sphere determinant of the five weighted
+     * points, evaluated exactly
+     *
+     * @param p - the coordinates of the points a, b, c, d and e
+     * @param w - the weights of the points
+     */
+    private static int exactInOrthoSphere(double[] p, double[] w) {
+        BigDecimal[][] d = new BigDecimal[4][4];
+        for (int j = 0; j < 4; j++) {
+            BigDecimal lift = BigDecimal.ZERO;
+            for (int k = 0; k < 3; k++) {
+                d[j][k] = new BigDecimal(p[3 * j + k]).subtract(new BigDecimal(p[12 + k]));
+                lift = lift.add(d[j][k].multiply(d[j][k]));
+            }
+            d[j][3] = lift.subtract(new BigDecimal(w[j]).subtract(new BigDecimal(w[4])));
+        }
+        // Expand along the lift column; the cyclic minors are even permutations
+        // of the ordered minors
+        BigDecimal det = BigDecimal.ZERO;
+        for (int j = 0; j < 4; j++) {
+            BigDecimal minor = det3(d[(j + 1) % 4], d[(j + 2) % 4], d[(j + 3) % 4]);
+            det = j % 2 == 0 ? det.subtract(d[j][3].multiply(minor)) : det.add(d[j][3].multiply(minor));
+        }
+        return det.signum();
+    }
+
+    private static BigDecimal det3(BigDecimal[] a, BigDecimal[] b, BigDecimal[] c) {
+        return a[0].multiply(b[1].multiply(c[2]).subtract(b[2].multiply(c[1])))
+                   .subtract(a[1].multiply(b[0].multiply(c[2]).subtract(b[2].multiply(c[0]))))
+                   .add(a[2].multiply(b[0].multiply(c[1]).subtract(b[1].multiply(c[0]))));
+    }
+}
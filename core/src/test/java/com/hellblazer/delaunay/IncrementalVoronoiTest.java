@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Vertex.getRandomPoints;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.vecmath.Point3d;
+import javax.vecmath.Tuple3d;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class IncrementalVoronoiTest {
+
+    @Test
+    public void testIncremental() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        List<Vertex> vertices = new ArrayList<>();
+        for (Point3d p : getRandomPoints(random, 500, 100.0D, false)) {
+            vertices.add(T.insert(p));
+        }
+        IncrementalVoronoi closed;
+        try (IncrementalVoronoi voronoi = IncrementalVoronoi.attach(T)) {
+            assertEquals(500, voronoi.getInvalidCount());
+            assertEquals(500, voronoi.refresh().size());
+            assertEquals(0, voronoi.getInvalidCount());
+
+            for (Point3d p : getRandomPoints(random, 50, 100.0D, false)) {
+                Vertex v = T.insert(p);
+                vertices.add(v);
+                assertTrue(voronoi.isInvalid(v));
+                // Only the vertices adjacent to the inserted vertex are invalidated
+                assertTrue(voronoi.getInvalidCount() <= v.getNeighbors().size() + 1);
+                voronoi.refresh();
+                check(voronoi, vertices);
+            }
+            for (int i = 0; i < 50; i++) {
+                Vertex v = vertices.remove(random.nextInt(vertices.size()));
+                T.delete(v);
+                voronoi.refresh();
+                check(voronoi, vertices);
+            }
+            closed = voronoi;
+        }
+
+        // A closed view no longer tracks the tetrahedralization
+        assertFalse(closed.isInvalid(T.insert(new Point3d(1, 2, 3))));
+    }
+
+    private void check(IncrementalVoronoi voronoi, List<Vertex> vertices) {
+        for (Vertex v : vertices) {
+            assertFalse(voronoi.isInvalid(v));
+            List<Tuple3d[]> expected = v.getVoronoiRegion();
+            List<Tuple3d[]> region = voronoi.getRegion(v);
+            assertEquals(expected.size(), region.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).length, region.get(i).length);
+                for (int j = 0; j < expected.get(i).length; j++) {
+                    assertEquals(expected.get(i)[j], region.get(i)[j]);
+                }
+            }
+        }
+    }
+}
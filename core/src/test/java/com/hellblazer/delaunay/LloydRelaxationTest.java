@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Vertex.getRandomPoints;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.vecmath.Point3d;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class LloydRelaxationTest {
+
+    @Test
+    public void testMove() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        List<Vertex> vertices = new ArrayList<>();
+        for (Point3d p : getRandomPoints(random, 500, 100.0D, false)) {
+            vertices.add(T.insert(p));
+        }
+        DoubleColumn column = T.addVertexColumn(new DoubleColumn());
+        for (Vertex v : vertices) {
+            column.set(v.getId(), v.getId());
+        }
+        int inPlace = 0;
+        for (int i = 0; i < 500; i++) {
+            Vertex v = vertices.get(random.nextInt(vertices.size()));
+            int id = v.getId();
+            // Both small moves which keep the topology, and large ones which don't
+            double scale = i % 2 == 0 ? 0.01 : 20.0;
+            Point3d target = new Point3d(v.x + scale * (random.nextDouble() - 0.5),
+                                         v.y + scale * (random.nextDouble() - 0.5),
+                                         v.z + scale * (random.nextDouble() - 0.5));
+            if (T.move(v, target)) {
+                inPlace++;
+            }
+            assertEquals(target, new Point3d(v));
+            assertSame(v, T.vertex(id));
+            assertEquals((double) id, column.get(id));
+        }
+        assertTrue(inPlace > 0 && inPlace < 500);
+        assertEquals(500, T.getVertices().size());
+        assertDelaunay(T);
+
+        Tetrahedralization expected = new Tetrahedralization(new Random(0));
+        for (Vertex v : vertices) {
+            expected.insert(new Point3d(v));
+        }
+        assertEquals(expected.getTetrahedrons().size(), T.getTetrahedrons().size());
+    }
+
+    @Test
+    public void testRelax() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        for (Point3d p : getRandomPoints(random, 500, 100.0D, false)) {
+            T.insert(p);
+        }
+        LloydRelaxation lloyd = new LloydRelaxation(T);
+        double first = lloyd.iterate();
+        lloyd.relax(0.0, 10);
+        double last = lloyd.iterate();
+        assertEquals(12, lloyd.getIterations());
+        assertTrue(last < first);
+        assertTrue(lloyd.getInPlaceMoves() > 0);
+        assertEquals(500, T.getVertices().size());
+        assertDelaunay(T);
+        assertFalse(lloyd.relax(0.0, 1));
+    }
+
+    private void assertDelaunay(Tetrahedralization T) {
+        for (Tetrahedron t : T.getTetrahedrons()) {
+            for (V v : Tetrahedralization.VERTICES) {
+                // No tetrahedron is inverted or flat
+                assertTrue(t.orientationWrt(v, t.getVertex(v)) > 0);
+                OrientedFace face = t.getFace(v);
+                if (face.hasAdjacent()) {
+                    assertFalse(t.inSphere(face.getAdjacentVertex()));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Examples.getLattice;
+import static com.hellblazer.delaunay.Examples.getTetrahedra;
+import static com.hellblazer.delaunay.Vertex.getRandomPoints;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.vecmath.Point3d;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class LocateStrategyTest {
+
+    @Test
+    public void testLattice() {
+        // The segments of the straight walk pass through the edges and vertices
+        for (LocateStrategy strategy : LocateStrategy.values()) {
+            Random random = new Random(666);
+            Tetrahedralization T = new Tetrahedralization(random);
+            T.setLocateStrategy(strategy);
+            T.setInstrumented(true);
+            List<Point3d> points = getLattice(random, 5);
+            for (Point3d p : points) {
+                T.insert(p);
+            }
+            for (Point3d p : points) {
+                Tetrahedron t = T.locate(p);
+                for (V v : Tetrahedralization.VERTICES) {
+                    assertTrue(t.orientationWrt(v, p) >= 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStrategies() {
+        Point3d[] points = getRandomPoints(new Random(666), 1000, 100.0D, false);
+        Point3d[] queries = getRandomPoints(new Random(777), 500, 100.0D, false);
+
+        Tetrahedralization expected = new Tetrahedralization(new Random(666));
+        for (Point3d p : points) {
+            expected.insert(p);
+        }
+        assertSame(LocateStrategy.REMEMBERING, expected.getLocateStrategy());
+
+        for (LocateStrategy strategy : LocateStrategy.values()) {
+            Tetrahedralization T = new Tetrahedralization(new Random(666));
+            T.setLocateStrategy(strategy);
+            T.setInstrumented(true);
+            for (Point3d p : points) {
+                T.insert(p);
+            }
+            assertEquals(strategy.name(), getTetrahedra(expected), getTetrahedra(T));
+            assertEquals(points.length, T.getLocates());
+
+            T.resetLocateSteps();
+            List<Tetrahedron> tetrahedrons = new ArrayList<>(T.getTetrahedrons());
+            Random random = new Random(0);
+            List<Tetrahedron> starts = new ArrayList<>();
+            for (Point3d query : queries) {
+                Tetrahedron start = tetrahedrons.get(random.nextInt(tetrahedrons.size()));
+                starts.add(start);
+                Tetrahedron t = T.locate(query, start);
+                for (V v : Tetrahedralization.VERTICES) {
+                    assertTrue(strategy.name(), t.orientationWrt(v, query) > 0);
+                }
+            }
+            assertEquals(queries.length, T.getLocates());
+            long steps = T.getLocateSteps();
+            assertTrue(strategy.name(), steps > queries.length);
+
+            if (strategy == LocateStrategy.STRAIGHT || strategy == LocateStrategy.VISIBILITY) {
+                // The deterministic walks repeat their steps
+                T.resetLocateSteps();
+                for (int i = 0; i < queries.length; i++) {
+                    T.locate(queries[i], starts.get(i));
+                }
+                assertEquals(strategy.name(), steps, T.getLocateSteps());
+            }
+        }
+    }
+}
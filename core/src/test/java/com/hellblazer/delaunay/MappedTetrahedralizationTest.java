@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Vertex.getRandomPoints;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import javax.vecmath.Point3d;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class MappedTetrahedralizationTest {
+
+    @Test
+    public void testQueries() throws Exception {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        for (var p : getRandomPoints(random, 500, 100.0D, false)) {
+            T.insert(p);
+        }
+        Path file = File.createTempFile("snapshot", ".tet").toPath();
+        file.toFile().deleteOnExit();
+        Snapshot.write(T, file);
+
+        MappedTetrahedralization M = MappedTetrahedralization.open(file);
+        assertEquals(T.getTetrahedrons().size(), M.getTetrahedronCount());
+        assertEquals(T.getVertices().size() + 4, M.getVertexCount());
+
+        Map<Point3d, Integer> index = new HashMap<>();
+        for (int i = 0; i < M.getVertexCount(); i++) {
+            Point3d p = new Point3d();
+            M.getVertex(i, p);
+            index.put(p, i);
+        }
+        for (int i = 0; i < 4; i++) {
+            assertTrue(M.isUniverse(i));
+            assertEquals(i, (int) index.get(new Point3d(T.getUniverse()[i])));
+        }
+
+        for (Vertex v : T.getVertices()) {
+            int mapped = index.get(new Point3d(v));
+            assertEquals(v.getId(), M.getId(mapped));
+            Set<Integer> expected = new HashSet<>();
+            for (Vertex n : v.getNeighbors()) {
+                expected.add(index.get(new Point3d(n)));
+            }
+            Set<Integer> neighbors = new HashSet<>();
+            for (int n : M.getNeighbors(mapped)) {
+                neighbors.add(n);
+            }
+            assertEquals(expected, neighbors);
+            assertEquals(v.getVoronoiRegion().size(), M.getVoronoiRegion(mapped).size());
+        }
+
+        for (var query : getRandomPoints(random, 100, 100.0D, false)) {
+            Tetrahedron expected = T.locate(query);
+            int located = M.locate(query);
+            Set<Integer> vertices = new HashSet<>();
+            for (V v : Tetrahedralization.VERTICES) {
+                vertices.add(M.getVertex(located, v));
+                assertTrue(M.orientationWrt(located, v, query) >= 0);
+            }
+            for (Vertex v : expected.getVertices()) {
+                assertTrue(vertices.contains(index.get(new Point3d(v))));
+            }
+        }
+        // Beyond a corner of the universe
+        assertEquals(-1, M.locate(new Point3d(1e10, 1e10, 1e10)));
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Vertex.getRandomPoints;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import javax.vecmath.Point3d;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class MutationLogTest {
+
+    @Test
+    public void testCheckpoint() throws Exception {
+        Random random = new Random(666);
+        Path snapshot = temp(".tet");
+        Path log = temp(".wal");
+        Tetrahedralization T = new Tetrahedralization(random);
+        try (MutationLog mutations = MutationLog.create(T, snapshot, log)) {
+            for (var p : getRandomPoints(random, 200, 100.0D, false)) {
+                mutations.insert(p);
+            }
+            mutations.checkpoint();
+            assertEquals(16, Files.size(log));
+            for (var p : getRandomPoints(random, 100, 100.0D, false)) {
+                mutations.insert(p);
+            }
+            mutations.delete(T.vertex(17));
+        }
+        try (MutationLog recovered = MutationLog.recover(snapshot, log, new Random(0))) {
+            assertEquals(points(T), points(recovered.getTetrahedralization()));
+            assertEquals(T.getTetrahedrons().size(), recovered.getTetrahedralization().getTetrahedrons().size());
+        }
+    }
+
+    @Test
+    public void testRecover() throws Exception {
+        Random random = new Random(666);
+        Path snapshot = temp(".tet");
+        Path log = temp(".wal");
+        Tetrahedralization T = new Tetrahedralization(random);
+        for (var p : getRandomPoints(random, 100, 100.0D, false)) {
+            T.insert(p);
+        }
+        try (MutationLog mutations = MutationLog.create(T, snapshot, log)) {
+            List<Vertex> inserted = new ArrayList<>();
+            for (var p : getRandomPoints(random, 300, 100.0D, false)) {
+                inserted.add(mutations.insert(p));
+            }
+            for (int i = 0; i < inserted.size(); i += 3) {
+                mutations.delete(inserted.get(i));
+            }
+            for (int i = 1; i < inserted.size(); i += 6) {
+                Vertex v = inserted.get(i);
+                mutations.move(v, new Point3d(v.x + 0.01 * i, v.y - 5, v.z));
+            }
+            mutations.delete(T.vertex(5));
+        }
+
+        Vertex added;
+        try (MutationLog recovered = MutationLog.recover(snapshot, log, new Random(0))) {
+            Tetrahedralization R = recovered.getTetrahedralization();
+            assertEquals(points(T), points(R));
+            assertEquals(T.getTetrahedrons().size(), R.getTetrahedrons().size());
+            added = T.insert(new Point3d(1, 2, 3));
+            assertEquals(added.getId(), recovered.insert(new Point3d(1, 2, 3)).getId());
+        }
+
+        // A torn record at the tail of the log is discarded
+        long size = Files.size(log);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+        T.delete(added);
+        try (MutationLog recovered = MutationLog.recover(snapshot, log, new Random(0))) {
+            assertEquals(points(T), points(recovered.getTetrahedralization()));
+        }
+    }
+
+    @Test
+    public void testWriteAhead() throws Exception {
+        Random random = new Random(666);
+        Path snapshot = temp(".tet");
+        Path log = temp(".wal");
+        Tetrahedralization T = new Tetrahedralization(random);
+        try (MutationLog mutations = MutationLog.create(T, snapshot, log)) {
+            for (var p : getRandomPoints(random, 100, 100.0D, false)) {
+                mutations.insert(p);
+            }
+            mutations.delete(T.vertex(7));
+            mutations.setForceEachRecord(true);
+            mutations.insert(new Point3d(1, 2, 3));
+
+            // The records are in the log once the mutations return, without a sync
+            Path snapshotCopy = temp(".tet");
+            Path logCopy = temp(".wal");
+            Files.copy(snapshot, snapshotCopy, StandardCopyOption.REPLACE_EXISTING);
+            Files.copy(log, logCopy, StandardCopyOption.REPLACE_EXISTING);
+            try (MutationLog recovered = MutationLog.recover(snapshotCopy, logCopy, new Random(0))) {
+                assertEquals(points(T), points(recovered.getTetrahedralization()));
+            }
+        }
+    }
+
+    private Map<Integer, Point3d> points(Tetrahedralization T) {
+        Map<Integer, Point3d> points = new HashMap<>();
+        for (Vertex v : T.getVertices()) {
+            assertSame(v, T.vertex(v.getId()));
+            points.put(v.getId(), new Point3d(v));
+        }
+        return points;
+    }
+
+    private Path temp(String suffix) throws IOException {
+        File file = File.createTempFile("mutations", suffix);
+        file.deleteOnExit();
+        return file.toPath();
+    }
+}
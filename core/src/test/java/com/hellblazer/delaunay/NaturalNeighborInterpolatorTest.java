@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Vertex.getRandomPoints;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+
+import javax.vecmath.Point3d;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class NaturalNeighborInterpolatorTest {
+
+    private static final ToDoubleFunction<Vertex> LINEAR = v -> 2.0 * v.x - 3.0 * v.y + 0.5 * v.z + 7.0;
+
+    @Test
+    public void testLinearPrecision() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        for (var p : getRandomPoints(random, 2000, 100.0D, false)) {
+            T.insert(p);
+        }
+        NaturalNeighborInterpolator interpolator = new NaturalNeighborInterpolator(T);
+        Point3d[] queries = getRandomPoints(random, 500, 50.0D, false);
+        double[] packed = new double[queries.length * 3];
+        for (int i = 0; i < queries.length; i++) {
+            Point3d q = queries[i];
+            packed[3 * i] = q.x;
+            packed[3 * i + 1] = q.y;
+            packed[3 * i + 2] = q.z;
+
+            double[] sum = new double[4];
+            assertTrue(interpolator.weights(q, (v, w) -> {
+                assertTrue(w >= -1.0E-9);
+                sum[0] += w;
+                sum[1] += w * v.x;
+                sum[2] += w * v.y;
+                sum[3] += w * v.z;
+            }));
+            assertEquals(1.0, sum[0], 1.0E-9);
+            // The weighted vertices reproduce the query
+            assertEquals(q.x, sum[1], 1.0E-7);
+            assertEquals(q.y, sum[2], 1.0E-7);
+            assertEquals(q.z, sum[3], 1.0E-7);
+        }
+        double[] out = new double[queries.length];
+        interpolator.interpolate(packed, LINEAR, out);
+        for (int i = 0; i < queries.length; i++) {
+            Point3d q = queries[i];
+            assertEquals(2.0 * q.x - 3.0 * q.y + 0.5 * q.z + 7.0, out[i], 1.0E-7);
+        }
+    }
+
+    @Test
+    public void testVerticesAndHull() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        for (var p : getRandomPoints(random, 200, 100.0D, false)) {
+            T.insert(p);
+        }
+        NaturalNeighborInterpolator interpolator = new NaturalNeighborInterpolator(T);
+        for (Vertex v : T.getVertices()) {
+            assertEquals(LINEAR.applyAsDouble(v), interpolator.interpolate(new Point3d(v), LINEAR), 1.0E-9);
+        }
+        assertTrue(Double.isNaN(interpolator.interpolate(new Point3d(10000, 0, 0), LINEAR)));
+        assertFalse(interpolator.weights(new Point3d(0, -10000, 0), (v, w) -> {
+        }));
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Vertex.getRandomPoints;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import javax.vecmath.Point3d;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class NeighborSearchTest {
+
+    @Test
+    public void testEmpty() {
+        Tetrahedralization T = new Tetrahedralization(new Random(666));
+        assertNull(T.nearest(new Point3d(1, 2, 3)));
+        assertEquals(0, T.kNearest(new Point3d(1, 2, 3), 5).size());
+        assertEquals(0, T.withinRadius(new Point3d(1, 2, 3), 5).size());
+    }
+
+    @Test
+    public void testQueries() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        List<Vertex> vertices = new ArrayList<>();
+        for (var p : getRandomPoints(random, 2000, 100.0D, false)) {
+            vertices.add(T.insert(p));
+        }
+        // Queries both inside and outside of the convex hull of the points
+        for (var query : getRandomPoints(random, 200, 150.0D, false)) {
+            List<Vertex> expected = new ArrayList<>(vertices);
+            expected.sort(Comparator.comparingDouble(v -> v.distanceSquared(query)));
+
+            assertSame(expected.get(0), T.nearest(query));
+            assertEquals(expected.subList(0, 20), T.kNearest(query, 20));
+
+            double radius = 25.0D;
+            List<Vertex> within = new ArrayList<>();
+            for (Vertex v : expected) {
+                if (v.distanceSquared(query) <= radius * radius) {
+                    within.add(v);
+                }
+            }
+            assertEquals(within, T.withinRadius(query, radius));
+        }
+        assertEquals(vertices.size(), T.kNearest(new Point3d(), vertices.size() + 10).size());
+        assertEquals(vertices.size(), T.kNearest(new Point3d(), Integer.MAX_VALUE).size());
+        assertEquals(0, T.kNearest(new Point3d(), -1).size());
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Vertex.getRandomPoints;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.vecmath.Point3d;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class PointIngestTest {
+
+    private static final int CHUNK = 100;
+    private static final int SIZE  = 1000;
+
+    @Test
+    public void testBinary() throws Exception {
+        Point3d[] points = getRandomPoints(new Random(666), SIZE, 100.0D, false);
+        Path file = temp(".bin");
+        ByteBuffer buffer = ByteBuffer.allocate(points.length * 24).order(ByteOrder.LITTLE_ENDIAN);
+        for (Point3d p : points) {
+            buffer.putDouble(p.x).putDouble(p.y).putDouble(p.z);
+        }
+        Files.write(file, buffer.array());
+        verify(points, file, (ingest, f) -> ingest.insertBinary(f));
+    }
+
+    @Test
+    public void testCsv() throws Exception {
+        Point3d[] points = getRandomPoints(new Random(666), SIZE, 100.0D, false);
+        Path file = temp(".csv");
+        try (PrintWriter out = new PrintWriter(file.toFile())) {
+            out.println("x,y,z");
+            for (Point3d p : points) {
+                out.println(p.x + "," + p.y + "," + p.z);
+            }
+        }
+        verify(points, file, (ingest, f) -> ingest.insertCsv(f));
+    }
+
+    @Test
+    public void testCsvEncoding() throws Exception {
+        Point3d[] points = getRandomPoints(new Random(666), SIZE, 100.0D, false);
+        Path file = temp(".csv");
+        try (PrintWriter out = new PrintWriter(file.toFile(), StandardCharsets.UTF_8)) {
+            out.print("# points \u00e0 \u00e9tudier\r\n");
+            for (Point3d p : points) {
+                out.print(p.x + "," + p.y + "," + p.z + "\r\n");
+            }
+        }
+        // The bytes read are counted in the encoding, whatever the line endings
+        AtomicLong read = new AtomicLong();
+        PointIngest ingest = new PointIngest(new Tetrahedralization(new Random(0)), CHUNK,
+                                             (count, bytes, size) -> read.set(bytes));
+        assertEquals(points.length, ingest.insertCsv(file));
+        assertEquals(Files.size(file), read.get());
+    }
+
+    @Test
+    public void testTruncatedBinary() throws Exception {
+        Point3d[] points = getRandomPoints(new Random(666), SIZE, 100.0D, false);
+        Path file = temp(".bin");
+        ByteBuffer buffer = ByteBuffer.allocate(points.length * 24 + 10).order(ByteOrder.LITTLE_ENDIAN);
+        for (Point3d p : points) {
+            buffer.putDouble(p.x).putDouble(p.y).putDouble(p.z);
+        }
+        Files.write(file, buffer.array());
+        try {
+            new PointIngest(new Tetrahedralization(new Random(0))).insertBinary(file);
+            fail("Trailing partial record should be rejected");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testPlyAscii() throws Exception {
+        Point3d[] points = getRandomPoints(new Random(666), SIZE, 100.0D, false);
+        Path file = temp(".ply");
+        try (PrintWriter out = new PrintWriter(file.toFile())) {
+            out.print(plyHeader("ascii", points.length));
+            for (Point3d p : points) {
+                out.print(p.x + " " + p.y + " " + p.z + " 7\n");
+            }
+            out.print("3 0 1 2\n");
+        }
+        verify(points, file, (ingest, f) -> ingest.insertPly(f));
+    }
+
+    @Test
+    public void testPlyBinary() throws Exception {
+        Point3d[] points = getRandomPoints(new Random(666), SIZE, 100.0D, false);
+        Path file = temp(".ply");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeBytes(plyHeader("binary_big_endian", points.length));
+            for (Point3d p : points) {
+                out.writeDouble(p.x);
+                out.writeDouble(p.y);
+                out.writeDouble(p.z);
+                out.writeByte(7);
+            }
+        }
+        verify(points, file, (ingest, f) -> ingest.insertPly(f));
+    }
+
+    private String plyHeader(String format, int count) {
+        return "ply\nformat " + format + " 1.0\ncomment test\nelement vertex " + count
+        + "\nproperty double x\nproperty double y\nproperty double z\nproperty uchar label\n"
+        + "element face 1\nproperty list uchar int vertex_indices\nend_header\n";
+    }
+
+    private Path temp(String suffix) throws IOException {
+        File file = File.createTempFile("points", suffix);
+        file.deleteOnExit();
+        return file.toPath();
+    }
+
+    private void verify(Point3d[] points, Path file, Ingest ingest) throws IOException {
+        Tetrahedralization expected = new Tetrahedralization(new Random(0));
+        for (Point3d p : points) {
+            expected.insert(p);
+        }
+
+        Tetrahedralization T = new Tetrahedralization(new Random(0));
+        AtomicLong chunks = new AtomicLong();
+        AtomicLong last = new AtomicLong();
+        long total = Files.size(file);
+        PointIngest pointIngest = new PointIngest(T, CHUNK, (count, read, size) -> {
+            chunks.incrementAndGet();
+            assertEquals(total, size);
+            assertTrue(read <= size);
+            assertTrue(count > last.get());
+            last.set(count);
+        });
+        assertEquals(points.length, ingest.insert(pointIngest, file));
+        assertEquals(SIZE / CHUNK, chunks.get());
+        assertEquals(points.length, last.get());
+        assertEquals(points.length, T.getVertices().size());
+        assertEquals(expected.getTetrahedrons().size(), T.getTetrahedrons().size());
+    }
+
+    @FunctionalInterface
+    private interface Ingest {
+        long insert(PointIngest ingest, Path file) throws IOException;
+    }
+}
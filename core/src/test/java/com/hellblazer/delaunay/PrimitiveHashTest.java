@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class PrimitiveHashTest {
+
+    @Test
+    public void testIntHashSet() {
+        Random random = new Random(666);
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<>();
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < 10_000; i++) {
+                int key = random.nextInt(pass == 0 ? 5_000 : Integer.MAX_VALUE);
+                assertEquals(expected.add(key), set.add(key));
+            }
+            assertEquals(expected.size(), set.size());
+            for (int i = 0; i < 10_000; i++) {
+                int key = random.nextInt(5_000);
+                assertEquals(expected.contains(key), set.contains(key));
+            }
+            int[] keys = set.toArray();
+            Arrays.sort(keys);
+            assertEquals(expected.stream().mapToInt(i -> i).sorted().boxed().toList(),
+                         Arrays.stream(keys).boxed().toList());
+            set.clear();
+            expected.clear();
+            assertTrue(set.isEmpty());
+            assertFalse(set.contains(0));
+        }
+    }
+
+    @Test
+    public void testIntIntHashMap() {
+        Random random = new Random(666);
+        IntIntHashMap map = new IntIntHashMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            int key = random.nextInt(5_000);
+            int value = random.nextInt();
+            assertEquals(expected.put(key, value) == null, map.put(key, value));
+        }
+        assertEquals(expected.size(), map.size());
+        for (int key = 0; key < 6_000; key++) {
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+            assertEquals((int) expected.getOrDefault(key, -1), map.get(key, -1));
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(-1, map.get(0, -1));
+    }
+}
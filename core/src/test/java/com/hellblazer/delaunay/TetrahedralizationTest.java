@@ -21,11 +21,19 @@ package com.hellblazer.delaunay;
 
 import static com.hellblazer.delaunay.Vertex.getRandomPoints;
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
 import java.util.Set;
 
 import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
 
 import org.junit.Test;
 
@@ -37,6 +45,46 @@ import org.junit.Test;
 
 public class TetrahedralizationTest {
 
+    @Test
+    public void testConvexHull() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        for (var p : getRandomPoints(random, 1000, 100.0D, true)) {
+            T.insert(p);
+        }
+        ConvexHull hull = T.convexHull();
+        int[] triangles = hull.getTriangles();
+        int[] vertices = hull.getVertices();
+        // Euler's formula for a closed triangulated surface
+        assertEquals(2 * vertices.length - 4, hull.getTriangleCount());
+
+        Set<Integer> expected = new HashSet<>();
+        for (Vertex v : T.getVertices()) {
+            for (Vertex n : v.getNeighbors()) {
+                if (n.getId() < 0) {
+                    expected.add(v.getId());
+                }
+            }
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (int id : vertices) {
+            ids.add(id);
+        }
+        assertEquals(expected, ids);
+
+        // Every vertex lies inside of every outward facing hull triangle
+        for (int i = 0; i < triangles.length; i += 3) {
+            Vertex a = T.vertex(triangles[i]);
+            Vertex b = T.vertex(triangles[i + 1]);
+            Vertex c = T.vertex(triangles[i + 2]);
+            Vector3d normal = new Vector3d();
+            normal.cross(new Vector3d(b.x - a.x, b.y - a.y, b.z - a.z), new Vector3d(c.x - a.x, c.y - a.y, c.z - a.z));
+            for (Vertex v : T.getVertices()) {
+                assertTrue(normal.dot(new Vector3d(v.x - a.x, v.y - a.y, v.z - a.z)) <= 1e-9);
+            }
+        }
+    }
+
     @Test
     public void testCubic() {
         Tetrahedralization T = new Tetrahedralization(new Random(0));
@@ -58,6 +106,86 @@ public class TetrahedralizationTest {
         assertEquals(1, T.getTetrahedrons().size());
     }
 
+    @Test
+    public void testDeleteRandom() {
+        Random random = new Random(666);
+        Point3d ourPoints[] = getRandomPoints(random, 1000, 100.0D, false);
+        Tetrahedralization T = new Tetrahedralization(random);
+        List<Vertex> vertices = new ArrayList<>();
+        for (var p : ourPoints) {
+            vertices.add(T.insert(p));
+        }
+        Tetrahedralization expected = new Tetrahedralization(new Random(0));
+        for (int i = 0; i < ourPoints.length; i++) {
+            if (i % 2 == 0) {
+                T.delete(vertices.get(i));
+            } else {
+                expected.insert(ourPoints[i]);
+            }
+        }
+        assertEquals(ourPoints.length / 2, T.getVertices().size());
+        assertEquals(expected.getTetrahedrons().size(), T.getTetrahedrons().size());
+        for (Tetrahedron t : T.getTetrahedrons()) {
+            for (V v : Tetrahedralization.VERTICES) {
+                OrientedFace face = t.getFace(v);
+                if (face.hasAdjacent()) {
+                    assertFalse(t.inSphere(face.getAdjacentVertex()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDeleteHighDegree() {
+        // The center of a shell of points is adjacent to most of them
+        Random random = new Random(666);
+        List<Point3d> shell = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Vector3d direction = new Vector3d(random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+            direction.normalize();
+            direction.scale(99.0 + random.nextDouble() * 2.0);
+            shell.add(new Point3d(direction));
+        }
+        Tetrahedralization T = new Tetrahedralization(random);
+        Tetrahedralization expected = new Tetrahedralization(new Random(0));
+        for (Point3d p : shell) {
+            T.insert(p);
+            expected.insert(p);
+        }
+        Vertex center = T.insert(new Point3d(0.5, -0.25, 0.125));
+        int link = center.getNeighbors().size();
+        int ears = center.getEars().size();
+        assertTrue(link > 100);
+        assertEquals(0, T.getDeletionFlips());
+        Geometry.resetResolved();
+        Geometry.setInstrumented(true);
+        try {
+            T.delete(center);
+        } finally {
+            Geometry.setInstrumented(false);
+        }
+        // Each flip consumes an ear, and the ears are tested against the link
+        // about once rather than once per pass
+        assertTrue(T.getDeletionFlips() > 0);
+        assertTrue(T.getDeletionFlips() <= ears);
+        long inSphere = 0;
+        for (Geometry.Stage stage : Geometry.Stage.values()) {
+            inSphere += Geometry.getResolved(Geometry.Predicate.IN_SPHERE, stage);
+        }
+        Geometry.resetResolved();
+        assertTrue(inSphere <= 2L * ears * link);
+        assertEquals(shell.size(), T.getVertices().size());
+        assertEquals(expected.getTetrahedrons().size(), T.getTetrahedrons().size());
+        for (Tetrahedron t : T.getTetrahedrons()) {
+            for (V v : Tetrahedralization.VERTICES) {
+                OrientedFace face = t.getFace(v);
+                if (face.hasAdjacent()) {
+                    assertFalse(t.inSphere(face.getAdjacentVertex()));
+                }
+            }
+        }
+    }
+
     @Test
     public void testFlip4to1() {
         Tetrahedralization T = new Tetrahedralization(new Random(0));
@@ -78,6 +206,37 @@ public class TetrahedralizationTest {
         assertEquals(386, L.size());
     }
 
+    @Test
+    public void testInterpolate() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        Point3d ourPoints[] = getRandomPoints(random, 1000, 100.0D, false);
+        double[] values = new double[ourPoints.length];
+        for (int i = 0; i < ourPoints.length; i++) {
+            Vertex v = T.insert(ourPoints[i]);
+            assertEquals(i, v.getId());
+            values[i] = 2.0 * v.x - 3.0 * v.y + 0.5 * v.z + 7.0;
+        }
+        for (Vertex v : T.getUniverse()) {
+            assertEquals(-1, v.getId());
+        }
+        Point3d queries[] = getRandomPoints(random, 5000, 50.0D, false);
+        double[] packed = new double[queries.length * 3 + 3];
+        for (int i = 0; i < queries.length; i++) {
+            packed[3 * i] = queries[i].x;
+            packed[3 * i + 1] = queries[i].y;
+            packed[3 * i + 2] = queries[i].z;
+        }
+        packed[3 * queries.length] = 1.0E6;
+        double[] out = new double[queries.length + 1];
+        T.interpolate(packed, values, out);
+        for (int i = 0; i < queries.length; i++) {
+            Point3d q = queries[i];
+            assertEquals(2.0 * q.x - 3.0 * q.y + 0.5 * q.z + 7.0, out[i], 1.0E-7);
+        }
+        assertTrue(Double.isNaN(out[queries.length]));
+    }
+
     @Test
     public void testLargeRandom() {
         Random random = new Random(666);
@@ -93,6 +252,87 @@ public class TetrahedralizationTest {
         assertEquals(403094, L.size());
     }
 
+    @Test
+    public void testListener() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        Set<Tetrahedron> mirror = new IdentitySet<>();
+        mirror.addAll(T.getTetrahedrons());
+        int[] operations = new int[2];
+        T.addListener(new TetrahedralizationListener() {
+            @Override
+            public void deleted(Vertex vertex, List<Tetrahedron> created, List<Tetrahedron> deleted) {
+                operations[1]++;
+                assertSame(vertex, T.vertex(vertex.getId()));
+                update(created, deleted);
+            }
+
+            @Override
+            public void inserted(Vertex vertex, List<Tetrahedron> created, List<Tetrahedron> deleted) {
+                operations[0]++;
+                for (Tetrahedron t : created) {
+                    assertTrue(t.includes(vertex));
+                }
+                update(created, deleted);
+            }
+
+            @Override
+            public void moved(Vertex vertex, List<Tetrahedron> created, List<Tetrahedron> deleted) {
+                update(created, deleted);
+            }
+
+            private void update(List<Tetrahedron> created, List<Tetrahedron> deleted) {
+                for (Tetrahedron t : deleted) {
+                    assertTrue(t.isDeleted());
+                    assertTrue(mirror.remove(t));
+                }
+                for (Tetrahedron t : created) {
+                    assertFalse(t.isDeleted());
+                    assertTrue(mirror.add(t));
+                }
+            }
+        });
+        List<Vertex> vertices = new ArrayList<>();
+        for (Point3d p : getRandomPoints(random, 300, 100.0D, false)) {
+            vertices.add(T.insert(p));
+        }
+        for (int i = 0; i < 100; i++) {
+            T.delete(vertices.remove(random.nextInt(vertices.size())));
+        }
+        assertEquals(300, operations[0]);
+        assertEquals(100, operations[1]);
+        Set<Tetrahedron> tetrahedrons = T.getTetrahedrons();
+        assertEquals(tetrahedrons.size(), mirror.size());
+        assertTrue(mirror.containsAll(tetrahedrons));
+    }
+
+    @Test
+    public void testVertexIds() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        List<Vertex> vertices = new ArrayList<>();
+        for (var p : getRandomPoints(random, 100, 100.0D, false)) {
+            vertices.add(T.insert(p));
+        }
+        assertEquals(100, T.vertexCount());
+        T.delete(vertices.get(99));
+        assertEquals(99, T.vertexCount());
+        T.delete(vertices.get(40));
+        T.delete(vertices.get(7));
+        assertEquals(-1, vertices.get(7).getId());
+        assertNull(T.vertex(7));
+        assertEquals(99, T.vertexCount());
+
+        // The lowest free ids are recycled first
+        assertEquals(7, T.insert(new Point3d(1, 2, 3)).getId());
+        assertEquals(40, T.insert(new Point3d(3, 2, 1)).getId());
+        assertEquals(99, T.insert(new Point3d(2, 1, 3)).getId());
+        assertEquals(100, T.vertexCount());
+        for (Vertex v : T.getVertices()) {
+            assertSame(v, T.vertex(v.getId()));
+        }
+    }
+
     @Test
     public void testWorstCase() {
         Tetrahedralization T = new Tetrahedralization(new Random(0));
@@ -21,10 +21,13 @@ package com.hellblazer.delaunay;
 
 import static com.hellblazer.delaunay.Vertex.getRandomPoints;
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 import javax.vecmath.Point3d;
 
@@ -59,6 +62,29 @@ public class VertexTest {
         assertEquals(-54, det, 0.1);
     }
 
+    @Test
+    public void testEars() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        for (Point3d p : getRandomPoints(random, 200, 100.0D, false)) {
+            T.insert(p);
+        }
+        for (Vertex v : T.getVertices()) {
+            List<Tetrahedron> star = new ArrayList<>();
+            v.getAdjacent().visitStar(v, (vertex, t, x, y, z) -> star.add(t));
+            List<OrientedFace> ears = v.getEars();
+            // Each of the faces of the star containing the vertex is shared by two
+            // tetrahedra of the star, and is collected once
+            assertEquals(3 * star.size() / 2, ears.size());
+            Set<Set<Tetrahedron>> faces = new HashSet<>();
+            for (OrientedFace ear : ears) {
+                assertTrue(ear.includes(v));
+                assertTrue(star.contains(ear.getAdjacent()));
+                assertTrue(faces.add(Set.of(ear.getIncident(), ear.getAdjacent())));
+            }
+        }
+    }
+
     @Test
     public void testFlip4to1() {
         Tetrahedralization tetrahedralization = new Tetrahedralization();
@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2024 Hal Hildebrand. All rights reserved.
+ *
+ * This file is part of the 3D Incremental Voronoi system
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.hellblazer.delaunay;
+
+import static com.hellblazer.delaunay.Vertex.getRandomPoints;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+import java.util.Random;
+
+import javax.vecmath.Point3d;
+import javax.vecmath.Tuple3d;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author <a href="mailto:hal.hildebrand@gmail.com">Hal Hildebrand</a>
+ *
+ */
+public class VoronoiCellsTest {
+
+    @Test
+    public void testGrid() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        int n = 8;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                for (int k = 0; k < n; k++) {
+                    T.insert(new Point3d(i + jitter(random), j + jitter(random), k + jitter(random)));
+                }
+            }
+        }
+        VoronoiCells cells = VoronoiCells.compute(T);
+        assertEquals(T.vertexCount(), cells.getCount());
+        int bounded = 0;
+        Point3d centroid = new Point3d();
+        for (Vertex v : T.getVertices()) {
+            int id = v.getId();
+            boolean interior = v.x > 1.5 && v.x < n - 2.5 && v.y > 1.5 && v.y < n - 2.5 && v.z > 1.5 &&
+                               v.z < n - 2.5;
+            if (!interior) {
+                continue;
+            }
+            assertTrue(cells.isBounded(id));
+            bounded++;
+            assertEquals(1.0, cells.getVolume(id), 0.01);
+            assertEquals(6.0, cells.getArea(id), 0.05);
+            cells.getCentroid(id, centroid);
+            assertEquals(0.0, centroid.distance(new Point3d(v)), 0.01);
+        }
+        assertTrue(bounded > 0);
+    }
+
+    @Test
+    public void testRandom() {
+        Random random = new Random(666);
+        Tetrahedralization T = new Tetrahedralization(random);
+        for (Point3d p : getRandomPoints(random, 1000, 100.0D, false)) {
+            T.insert(p);
+        }
+        VoronoiCells cells = VoronoiCells.compute(T);
+        int bounded = 0;
+        for (Vertex v : T.getVertices()) {
+            int id = v.getId();
+            if (!cells.isBounded(id)) {
+                continue;
+            }
+            bounded++;
+            // The volume and area of the faces of the region
+            double volume = 0;
+            double area = 0;
+            for (Tuple3d[] face : v.getVoronoiRegion()) {
+                for (int i = 1; i < face.length - 1; i++) {
+                    volume += Math.abs(Geometry.leftOfPlane(v.x, v.y, v.z, face[0].x, face[0].y, face[0].z, face[i].x,
+                                                            face[i].y, face[i].z, face[i + 1].x, face[i + 1].y,
+                                                            face[i + 1].z)) / 6;
+                    area += triangleArea(face[0], face[i], face[i + 1]);
+                }
+            }
+            assertEquals(volume, cells.getVolume(id), volume * 1e-6);
+            assertEquals(area, cells.getArea(id), area * 1e-6);
+        }
+        assertTrue(bounded > 500);
+        assertTrue(bounded < T.getVertices().size());
+    }
+
+    private double jitter(Random random) {
+        return (random.nextDouble() - 0.5) * 1e-3;
+    }
+
+    private double triangleArea(Tuple3d a, Tuple3d b, Tuple3d c) {
+        double ux = b.x - a.x, uy = b.y - a.y, uz = b.z - a.z;
+        double wx = c.x - a.x, wy = c.y - a.y, wz = c.z - a.z;
+        double x = uy * wz - uz * wy, y = uz * wx - ux * wz, z = ux * wy - uy * wx;
+        return Math.sqrt(x * x + y * y + z * z) / 2;
+    }
+}